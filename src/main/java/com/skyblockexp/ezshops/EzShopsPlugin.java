@@ -1,17 +1,24 @@
 package com.skyblockexp.ezshops;
 
 import com.skyblockexp.ezshops.api.EzShopsAPI;
+import com.skyblockexp.ezshops.bootstrap.AutoSellComponent;
 import com.skyblockexp.ezshops.bootstrap.CoreShopComponent;
+import com.skyblockexp.ezshops.bootstrap.LedgerComponent;
 import com.skyblockexp.ezshops.bootstrap.MetricsComponent;
 import com.skyblockexp.ezshops.bootstrap.PluginComponent;
 import com.skyblockexp.ezshops.bootstrap.SignShopComponent;
 import com.skyblockexp.ezshops.bootstrap.StockComponent;
 import com.skyblockexp.ezshops.bootstrap.PlayerShopComponent;
 import com.skyblockexp.ezshops.boost.SellPriceBoostEffect;
+import com.skyblockexp.ezshops.common.EconomyPipeline;
+import com.skyblockexp.ezshops.common.ParallelLoader;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.plugin.RegisteredServiceProvider;
@@ -47,7 +54,9 @@ public class EzShopsPlugin extends JavaPlugin {
             "messages/messages_zh.yml");
 
     private Economy economy;
+    private EconomyPipeline economyPipeline;
     private List<PluginComponent> components;
+    private LedgerComponent ledgerComponent;
     private CoreShopComponent coreComponent;
     private StockComponent stockComponent;
     private boolean debugMode;
@@ -64,20 +73,30 @@ public class EzShopsPlugin extends JavaPlugin {
         saveDefaultConfig();
 
         debugMode = getConfig().getBoolean("debug", false);
+        economyPipeline = getConfig().getBoolean("economy.async", false)
+                ? EconomyPipeline.async(this, economy, getConfig().getInt("economy.async-threads", 2))
+                : EconomyPipeline.direct(economy);
 
+        ledgerComponent = new LedgerComponent();
         coreComponent = new CoreShopComponent(economy);
         PlayerShopComponent playerShopComponent = new PlayerShopComponent(economy, getConfig());
         stockComponent = new StockComponent();
         components = new ArrayList<>();
+        components.add(ledgerComponent);
         components.add(coreComponent);
         components.add(stockComponent);
         components.add(playerShopComponent);
         components.add(new SignShopComponent(coreComponent));
+        components.add(new AutoSellComponent(coreComponent));
         components.add(new MetricsComponent());
 
+        StringJoiner componentTimings = new StringJoiner(", ");
         try {
             for (PluginComponent component : components) {
+                long startedAt = System.nanoTime();
                 component.enable(this);
+                componentTimings.add(component.getClass().getSimpleName() + " "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms");
             }
         } catch (RuntimeException ex) {
             getLogger().log(Level.SEVERE, "Failed to enable EzShops component", ex);
@@ -120,7 +139,7 @@ public class EzShopsPlugin extends JavaPlugin {
             getLogger().info("EzBoost integration is disabled in config.");
         }
 
-        getLogger().info("EzShops plugin enabled.");
+        getLogger().info("EzShops plugin enabled (" + componentTimings + ").");
     }
 
     @Override
@@ -132,6 +151,11 @@ public class EzShopsPlugin extends JavaPlugin {
             getLogger().log(Level.WARNING, "Error shutting down EzShops API", ex);
         }
         
+        // finish in-flight payments while every component can still settle them
+        if (economyPipeline != null) {
+            economyPipeline.close();
+        }
+
         if (components != null) {
             ListIterator<PluginComponent> iterator = components.listIterator(components.size());
             while (iterator.hasPrevious()) {
@@ -145,7 +169,10 @@ public class EzShopsPlugin extends JavaPlugin {
             }
             components = null;
         }
+        ParallelLoader.shutdown();
+        ledgerComponent = null;
         economy = null;
+        economyPipeline = null;
         getLogger().info("EzShops plugin disabled.");
     }
 
@@ -157,6 +184,21 @@ public class EzShopsPlugin extends JavaPlugin {
         return this.stockComponent;
     }
 
+    /**
+     * Returns the pipeline all economy calls of the plugin go through.
+     */
+    public EconomyPipeline getEconomyPipeline() {
+        return this.economyPipeline;
+    }
+
+    /**
+     * Returns the ledger completed trades are recorded to, or {@link TransactionLedger#DISABLED} when it
+     * is turned off or the plugin is not enabled.
+     */
+    public TransactionLedger getTransactionLedger() {
+        return ledgerComponent != null ? ledgerComponent.ledger() : TransactionLedger.DISABLED;
+    }
+
     public boolean isDebugMode() {
         return this.debugMode;
     }
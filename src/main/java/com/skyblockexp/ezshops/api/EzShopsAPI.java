@@ -2,6 +2,7 @@ package com.skyblockexp.ezshops.api;
 
 import com.skyblockexp.ezshops.EzShopsPlugin;
 import com.skyblockexp.ezshops.bootstrap.StockComponent;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
 import com.skyblockexp.ezshops.shop.api.ShopPriceService;
 import com.skyblockexp.ezshops.shop.api.ShopTemplateService;
@@ -146,6 +147,17 @@ public class EzShopsAPI {
         return stockAPI != null;
     }
     
+    /**
+     * Gets the ledger of completed trades.
+     * 
+     * <p>Queries read from disk, so run them off the main thread.</p>
+     * 
+     * @return the transaction ledger, or {@link TransactionLedger#DISABLED} if it is turned off
+     */
+    public TransactionLedger getTransactionLedger() {
+        return plugin.getTransactionLedger();
+    }
+    
     /**
      * Gets the EzShops plugin instance.
      * 
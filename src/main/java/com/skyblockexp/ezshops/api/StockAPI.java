@@ -1,5 +1,7 @@
 package com.skyblockexp.ezshops.api;
 
+import com.skyblockexp.ezshops.stock.StockCandle;
+import com.skyblockexp.ezshops.stock.StockCandleStore;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
 import com.skyblockexp.ezshops.stock.StockManager;
 import org.bukkit.entity.Player;
@@ -87,6 +89,32 @@ public class StockAPI {
         stockMarketManager.updatePrice(productId.toUpperCase(), demand);
     }
     
+    /**
+     * Gets the price candles of a stock product over a time range.
+     * 
+     * <p>Candles summarise every price change in their time bucket as open, high, low and close price plus
+     * the traded volume. How far back each resolution reaches is set by {@code stock.candles} in the
+     * configuration; the result never holds more candles than are kept for the resolution.</p>
+     * 
+     * @param productId the product ID (material name, e.g., "DIAMOND", "IRON_INGOT")
+     * @param resolution the candle size
+     * @param fromMillis start of the range, in epoch milliseconds
+     * @param toMillis end of the range, in epoch milliseconds
+     * @return the candles overlapping the range, oldest first
+     * @throws IllegalArgumentException if productId is null or empty, or resolution is null
+     * @since 2.5.0
+     */
+    public List<StockCandle> getStockCandles(String productId, StockCandleStore.Resolution resolution,
+            long fromMillis, long toMillis) {
+        if (productId == null || productId.isEmpty()) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        if (resolution == null) {
+            throw new IllegalArgumentException("Resolution cannot be null");
+        }
+        return stockMarketManager.getCandleStore().candles(productId.toUpperCase(), resolution, fromMillis, toMillis);
+    }
+    
     /**
      * Gets the amount of stock a player owns for a specific product.
      * 
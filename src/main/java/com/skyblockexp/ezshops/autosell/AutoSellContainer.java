@@ -0,0 +1,38 @@
+package com.skyblockexp.ezshops.autosell;
+
+import java.util.Objects;
+import java.util.UUID;
+import org.bukkit.block.Block;
+
+/**
+ * A container whose sellable contents are sold to the shop on every auto-sell cycle.
+ *
+ * @param owner   the player who is paid for the contents
+ * @param world   name of the world the container is in
+ * @param x       block x of the container
+ * @param y       block y of the container
+ * @param z       block z of the container
+ * @param signKey location key of the sign that marks the container
+ */
+public record AutoSellContainer(UUID owner, String world, int x, int y, int z, String signKey) {
+
+    public AutoSellContainer {
+        Objects.requireNonNull(owner, "owner");
+        Objects.requireNonNull(world, "world");
+        Objects.requireNonNull(signKey, "signKey");
+    }
+
+    /**
+     * Returns the location key of the container block.
+     */
+    public String key() {
+        return world + ',' + x + ',' + y + ',' + z;
+    }
+
+    /**
+     * Returns the location key of {@code block}, in the format used by {@link #key()}.
+     */
+    public static String keyOf(Block block) {
+        return block.getWorld().getName() + ',' + block.getX() + ',' + block.getY() + ',' + block.getZ();
+    }
+}
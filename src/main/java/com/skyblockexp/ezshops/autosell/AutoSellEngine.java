@@ -0,0 +1,176 @@
+package com.skyblockexp.ezshops.autosell;
+
+import com.skyblockexp.ezshops.shop.ShopTransactionService;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+
+/**
+ * Drains auto-sell containers on a fixed cycle and pays their owners.
+ *
+ * <p>Scheduled every tick. When a cycle starts every registered container is queued; each tick drains at most
+ * {@code containersPerTick} of them and stops early once {@code budgetNanos} is spent, so a large number of
+ * containers is spread over several ticks. Containers in unloaded chunks are skipped rather than loaded.
+ * What a cycle takes is aggregated per owner and material, and once the queue is empty each owner is paid
+ * with one priced batch and one deposit. Anything an owner could not be paid for is carried into the next
+ * cycle.</p>
+ *
+ * <p>Drained items are out of their containers before they are paid for. What is still unpaid when the
+ * engine is flushed on shutdown, including the results of payments that only answer afterwards, is kept in
+ * {@code autosell.yml} through {@link AutoSellRegistry#addUnpaid(UUID, Map)} and paid in the first cycle
+ * after the next start.</p>
+ */
+public final class AutoSellEngine implements Runnable {
+
+    private final AutoSellRegistry registry;
+    private final ShopTransactionService transactionService;
+    private final long intervalTicks;
+    private final int containersPerTick;
+    private final long budgetNanos;
+    private final Logger logger;
+    private final ArrayDeque<AutoSellContainer> queue = new ArrayDeque<>();
+    private final Map<UUID, Map<Material, Integer>> batches = new LinkedHashMap<>();
+    private final AtomicInteger pendingPayments = new AtomicInteger();
+    private long ticksUntilCycle;
+    private boolean cycleRunning;
+    private boolean flushed;
+
+    public AutoSellEngine(AutoSellRegistry registry, ShopTransactionService transactionService, long intervalTicks,
+            int containersPerTick, long budgetNanos, Logger logger) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.transactionService = Objects.requireNonNull(transactionService, "transactionService");
+        this.intervalTicks = Math.max(1L, intervalTicks);
+        this.containersPerTick = Math.max(1, containersPerTick);
+        this.budgetNanos = Math.max(0L, budgetNanos);
+        this.logger = logger;
+        this.ticksUntilCycle = this.intervalTicks;
+        registry.takeUnpaid().forEach(this::merge);
+    }
+
+    @Override
+    public void run() {
+        if (!cycleRunning) {
+            if (--ticksUntilCycle > 0L) {
+                return;
+            }
+            queue.addAll(registry.containers());
+            cycleRunning = true;
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        int drained = 0;
+        while (!queue.isEmpty() && drained < containersPerTick) {
+            drain(queue.poll());
+            drained++;
+            if (System.nanoTime() - deadline >= 0L) {
+                break;
+            }
+        }
+        if (queue.isEmpty()) {
+            settle();
+            cycleRunning = false;
+            ticksUntilCycle = intervalTicks;
+        }
+    }
+
+    /**
+     * Pays owners for everything drained so far, for use on shutdown. Containers still queued stay untouched.
+     * Whatever could not be paid for, now or by a payment still in flight, is saved to be paid after the
+     * next start.
+     */
+    public void flush() {
+        queue.clear();
+        cycleRunning = false;
+        settle();
+        synchronized (batches) {
+            flushed = true;
+            int owed = 0;
+            for (Map.Entry<UUID, Map<Material, Integer>> entry : batches.entrySet()) {
+                registry.addUnpaid(entry.getKey(), entry.getValue());
+                for (int amount : entry.getValue().values()) {
+                    owed += amount;
+                }
+            }
+            if (owed > 0) {
+                logger.warning("Auto-sell could not pay for " + owed + " drained items of " + batches.size()
+                        + " owners before shutdown; they are paid after the next start.");
+            }
+            batches.clear();
+        }
+        int pending = pendingPayments.get();
+        if (pending > 0) {
+            logger.warning("Auto-sell is still waiting on " + pending + " payments; items they do not pay for"
+                    + " are paid after the next start.");
+        }
+    }
+
+    private void drain(AutoSellContainer container) {
+        if (!registry.contains(container)) {
+            return;
+        }
+        World world = Bukkit.getWorld(container.world());
+        if (world == null || !world.isChunkLoaded(container.x() >> 4, container.z() >> 4)) {
+            return;
+        }
+        // no snapshot: only the live inventory is needed, and copying a full chest every cycle adds up
+        BlockState state = world.getBlockAt(container.x(), container.y(), container.z()).getState(false);
+        if (!(state instanceof Container holder)) {
+            registry.remove(container);
+            return;
+        }
+        Map<Material, Integer> taken = transactionService.takeSellable(holder.getInventory());
+        if (!taken.isEmpty()) {
+            merge(container.owner(), taken);
+        }
+    }
+
+    private void settle() {
+        Map<UUID, Map<Material, Integer>> due;
+        synchronized (batches) {
+            if (batches.isEmpty()) {
+                return;
+            }
+            due = new HashMap<>(batches);
+            batches.clear();
+        }
+        for (Map.Entry<UUID, Map<Material, Integer>> entry : due.entrySet()) {
+            UUID owner = entry.getKey();
+            pendingPayments.incrementAndGet();
+            transactionService.sellBatch(Bukkit.getOfflinePlayer(owner), entry.getValue(), unpaid -> {
+                pendingPayments.decrementAndGet();
+                if (!unpaid.isEmpty()) {
+                    carry(owner, unpaid);
+                }
+            });
+        }
+    }
+
+    /**
+     * Carries unpaid items into the next cycle, or keeps them for the next start once flushed. Payments
+     * that answer after shutdown may complete off the main thread.
+     */
+    private void carry(UUID owner, Map<Material, Integer> unpaid) {
+        synchronized (batches) {
+            if (flushed) {
+                registry.addUnpaid(owner, unpaid);
+            } else {
+                merge(owner, unpaid);
+            }
+        }
+    }
+
+    private void merge(UUID owner, Map<Material, Integer> amounts) {
+        Map<Material, Integer> batch = batches.computeIfAbsent(owner, id -> new EnumMap<>(Material.class));
+        amounts.forEach((material, amount) -> batch.merge(material, amount, Integer::sum));
+    }
+}
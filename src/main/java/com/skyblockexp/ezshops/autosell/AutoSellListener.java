@@ -0,0 +1,108 @@
+package com.skyblockexp.ezshops.autosell;
+
+import java.util.Objects;
+import org.bukkit.ChatColor;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Container;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.type.WallSign;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.SignChangeEvent;
+
+/**
+ * Creates auto-sell containers from signs placed against them and removes them when the sign or the
+ * container is broken.
+ */
+public final class AutoSellListener implements Listener {
+
+    public static final String PERMISSION_CREATE = "ezshops.autosell.create";
+    public static final String PERMISSION_ADMIN = "ezshops.autosell.admin";
+
+    private final AutoSellRegistry registry;
+    private final String header;
+    private final int maxPerPlayer;
+
+    /**
+     * @param header       first sign line that marks an auto-sell container, compared case-insensitively
+     * @param maxPerPlayer containers a player may own, or {@code 0} for no limit
+     */
+    public AutoSellListener(AutoSellRegistry registry, String header, int maxPerPlayer) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.header = Objects.requireNonNull(header, "header").trim();
+        this.maxPerPlayer = Math.max(0, maxPerPlayer);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onSignChange(SignChangeEvent event) {
+        String firstLine = event.getLine(0);
+        if (firstLine == null || !ChatColor.stripColor(firstLine).trim().equalsIgnoreCase(header)) {
+            return;
+        }
+        Player player = event.getPlayer();
+        if (!player.hasPermission(PERMISSION_CREATE)) {
+            player.sendMessage(ChatColor.RED + "You do not have permission to create auto-sell containers.");
+            event.setLine(0, ChatColor.DARK_RED + header);
+            return;
+        }
+        Block container = getAttachedBlock(event.getBlock());
+        if (container == null || !(container.getState() instanceof Container)) {
+            player.sendMessage(ChatColor.RED + "Auto-sell signs must be attached to a chest, barrel or hopper.");
+            event.setLine(0, ChatColor.DARK_RED + header);
+            return;
+        }
+        if (registry.getByContainer(container) != null) {
+            player.sendMessage(ChatColor.RED + "That container already sells automatically.");
+            event.setLine(0, ChatColor.DARK_RED + header);
+            return;
+        }
+        if (maxPerPlayer > 0 && !player.hasPermission(PERMISSION_ADMIN)
+                && registry.countOwnedBy(player.getUniqueId()) >= maxPerPlayer) {
+            player.sendMessage(ChatColor.RED + "You already own the maximum of " + maxPerPlayer
+                    + " auto-sell containers.");
+            event.setLine(0, ChatColor.DARK_RED + header);
+            return;
+        }
+
+        registry.register(player.getUniqueId(), container, event.getBlock());
+        event.setLine(0, ChatColor.DARK_BLUE + header);
+        event.setLine(1, player.getName());
+        player.sendMessage(ChatColor.GREEN + "Items put in this container are now sold to the shop automatically.");
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        AutoSellContainer container = registry.getBySign(block);
+        if (container == null) {
+            container = registry.getByContainer(block);
+        }
+        if (container == null) {
+            return;
+        }
+        Player player = event.getPlayer();
+        if (!container.owner().equals(player.getUniqueId()) && !player.hasPermission(PERMISSION_ADMIN)) {
+            player.sendMessage(ChatColor.RED + "Only the owner can remove this auto-sell container.");
+            event.setCancelled(true);
+            return;
+        }
+        registry.remove(container);
+        player.sendMessage(ChatColor.YELLOW + "Auto-sell container removed.");
+    }
+
+    private Block getAttachedBlock(Block signBlock) {
+        BlockData data = signBlock.getBlockData();
+        if (data instanceof WallSign wallSign) {
+            return signBlock.getRelative(wallSign.getFacing().getOppositeFace());
+        }
+        if (data instanceof Directional directional) {
+            return signBlock.getRelative(directional.getFacing().getOppositeFace());
+        }
+        return signBlock.getRelative(BlockFace.DOWN);
+    }
+}
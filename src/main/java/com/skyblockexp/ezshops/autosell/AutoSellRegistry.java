@@ -0,0 +1,194 @@
+package com.skyblockexp.ezshops.autosell;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Keeps the registered auto-sell containers, indexed by container and sign location, and persists them to
+ * {@code autosell.yml}, together with drained items whose owners were not paid yet when the plugin stopped.
+ */
+public final class AutoSellRegistry {
+
+    private static final String FILE_NAME = "autosell.yml";
+
+    private final File dataFile;
+    private final Logger logger;
+    private final Map<String, AutoSellContainer> byContainer = new LinkedHashMap<>();
+    private final Map<String, AutoSellContainer> bySign = new LinkedHashMap<>();
+    private final Map<UUID, Map<Material, Integer>> unpaid = new LinkedHashMap<>();
+
+    public AutoSellRegistry(File dataFolder, Logger logger) {
+        this.dataFile = new File(dataFolder, FILE_NAME);
+        this.logger = logger;
+    }
+
+    public synchronized void load() {
+        byContainer.clear();
+        bySign.clear();
+        unpaid.clear();
+        if (!dataFile.isFile()) {
+            return;
+        }
+        YamlConfiguration configuration = YamlConfiguration.loadConfiguration(dataFile);
+        loadUnpaid(configuration.getConfigurationSection("unpaid"));
+        ConfigurationSection section = configuration.getConfigurationSection("containers");
+        if (section == null) {
+            return;
+        }
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection entry = section.getConfigurationSection(key);
+            String[] parts = key.split(",");
+            if (entry == null || parts.length != 4) {
+                logger.warning("Skipping malformed auto-sell container '" + key + "'.");
+                continue;
+            }
+            try {
+                add(new AutoSellContainer(UUID.fromString(entry.getString("owner", "")), parts[0],
+                        Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                        entry.getString("sign", "")));
+            } catch (IllegalArgumentException ex) {
+                logger.warning("Skipping malformed auto-sell container '" + key + "': " + ex.getMessage());
+            }
+        }
+    }
+
+    private void loadUnpaid(ConfigurationSection section) {
+        if (section == null) {
+            return;
+        }
+        for (String owner : section.getKeys(false)) {
+            ConfigurationSection items = section.getConfigurationSection(owner);
+            if (items == null) {
+                continue;
+            }
+            try {
+                Map<Material, Integer> amounts = new EnumMap<>(Material.class);
+                for (String key : items.getKeys(false)) {
+                    Material material = Material.matchMaterial(key);
+                    int amount = items.getInt(key);
+                    if (material == null || amount <= 0) {
+                        logger.warning("Skipping unpaid auto-sell item '" + key + "' of " + owner + ".");
+                        continue;
+                    }
+                    amounts.merge(material, amount, Integer::sum);
+                }
+                if (!amounts.isEmpty()) {
+                    unpaid.put(UUID.fromString(owner), amounts);
+                }
+            } catch (IllegalArgumentException ex) {
+                logger.warning("Skipping unpaid auto-sell items of '" + owner + "': " + ex.getMessage());
+            }
+        }
+    }
+
+    public synchronized void save() {
+        YamlConfiguration configuration = new YamlConfiguration();
+        ConfigurationSection section = configuration.createSection("containers");
+        for (AutoSellContainer container : byContainer.values()) {
+            ConfigurationSection entry = section.createSection(container.key());
+            entry.set("owner", container.owner().toString());
+            entry.set("sign", container.signKey());
+        }
+        if (!unpaid.isEmpty()) {
+            ConfigurationSection owed = configuration.createSection("unpaid");
+            unpaid.forEach((owner, amounts) -> {
+                ConfigurationSection items = owed.createSection(owner.toString());
+                amounts.forEach((material, amount) -> items.set(material.name(), amount));
+            });
+        }
+        try {
+            configuration.save(dataFile);
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Failed to save auto-sell containers", ex);
+        }
+    }
+
+    public AutoSellContainer register(UUID owner, Block container, Block sign) {
+        AutoSellContainer registered = new AutoSellContainer(owner, container.getWorld().getName(),
+                container.getX(), container.getY(), container.getZ(), AutoSellContainer.keyOf(sign));
+        add(registered);
+        save();
+        return registered;
+    }
+
+    public void remove(AutoSellContainer container) {
+        if (byContainer.remove(container.key(), container)) {
+            bySign.remove(container.signKey(), container);
+            save();
+        }
+    }
+
+    public boolean contains(AutoSellContainer container) {
+        return byContainer.get(container.key()) == container;
+    }
+
+    public AutoSellContainer getByContainer(Block block) {
+        return byContainer.get(AutoSellContainer.keyOf(block));
+    }
+
+    public AutoSellContainer getBySign(Block block) {
+        return bySign.get(AutoSellContainer.keyOf(block));
+    }
+
+    public int countOwnedBy(UUID owner) {
+        int count = 0;
+        for (AutoSellContainer container : byContainer.values()) {
+            if (container.owner().equals(owner)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Keeps drained items an owner was not paid for, so they are paid after the next start. Saves at once.
+     */
+    public synchronized void addUnpaid(UUID owner, Map<Material, Integer> amounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        Map<Material, Integer> owed = unpaid.computeIfAbsent(owner, id -> new EnumMap<>(Material.class));
+        amounts.forEach((material, amount) -> owed.merge(material, amount, Integer::sum));
+        save();
+    }
+
+    /**
+     * Returns and forgets the items kept by {@link #addUnpaid(UUID, Map)}.
+     */
+    public synchronized Map<UUID, Map<Material, Integer>> takeUnpaid() {
+        if (unpaid.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Map<Material, Integer>> taken = new LinkedHashMap<>(unpaid);
+        unpaid.clear();
+        save();
+        return taken;
+    }
+
+    /**
+     * Returns a snapshot of every registered container, in registration order.
+     */
+    public List<AutoSellContainer> containers() {
+        return new ArrayList<>(byContainer.values());
+    }
+
+    private void add(AutoSellContainer container) {
+        AutoSellContainer replaced = byContainer.put(container.key(), container);
+        if (replaced != null) {
+            bySign.remove(replaced.signKey(), replaced);
+        }
+        bySign.put(container.signKey(), container);
+    }
+}
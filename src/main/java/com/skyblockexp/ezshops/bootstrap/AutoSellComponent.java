@@ -0,0 +1,73 @@
+package com.skyblockexp.ezshops.bootstrap;
+
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.autosell.AutoSellEngine;
+import com.skyblockexp.ezshops.autosell.AutoSellListener;
+import com.skyblockexp.ezshops.autosell.AutoSellRegistry;
+import com.skyblockexp.ezshops.shop.ShopTransactionService;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.HandlerList;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Boots auto-sell containers: the sign listener that creates them and the engine that drains them.
+ */
+public final class AutoSellComponent implements PluginComponent {
+
+    private final CoreShopComponent coreComponent;
+
+    private AutoSellRegistry registry;
+    private AutoSellListener listener;
+    private AutoSellEngine engine;
+    private BukkitTask task;
+
+    public AutoSellComponent(CoreShopComponent coreComponent) {
+        this.coreComponent = coreComponent;
+    }
+
+    @Override
+    public void enable(EzShopsPlugin plugin) {
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("auto-sell");
+        if (config == null || !config.getBoolean("enabled", true)) {
+            if (plugin.isDebugMode()) {
+                plugin.getLogger().info("Auto-sell containers are disabled via configuration.");
+            }
+            return;
+        }
+        ShopTransactionService transactionService = coreComponent.transactionService();
+        if (transactionService == null) {
+            throw new IllegalStateException("Core shop component must be enabled before the auto-sell component.");
+        }
+
+        registry = new AutoSellRegistry(plugin.getDataFolder(), plugin.getLogger());
+        registry.load();
+        listener = new AutoSellListener(registry, config.getString("sign-header", "[autosell]"),
+                config.getInt("max-containers-per-player", 10));
+        engine = new AutoSellEngine(registry, transactionService,
+                Math.max(1L, config.getLong("interval-seconds", 60L)) * 20L,
+                config.getInt("containers-per-tick", 16),
+                TimeUnit.MICROSECONDS.toNanos(Math.round(config.getDouble("max-millis-per-tick", 2.0D) * 1000.0D)),
+                plugin.getLogger());
+
+        plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, engine, 1L, 1L);
+    }
+
+    @Override
+    public void disable() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (engine != null) {
+            engine.flush();
+            engine = null;
+        }
+        if (listener != null) {
+            HandlerList.unregisterAll(listener);
+            listener = null;
+        }
+        registry = null;
+    }
+}
@@ -8,12 +8,17 @@ import com.skyblockexp.ezshops.shop.command.SellInventoryCommand;
 import com.skyblockexp.ezshops.shop.command.ShopCommand;
 import com.skyblockexp.ezshops.gui.quicksell.QuickSellMenu;
 import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
 import com.skyblockexp.ezshops.gui.IslandLevelProvider;
 import com.skyblockexp.ezshops.gui.ShopMenu;
 import com.skyblockexp.ezshops.config.DynamicPricingConfiguration;
+import com.skyblockexp.ezshops.event.ShopEventDispatcher;
+import com.skyblockexp.ezshops.hook.EzBoostMultiplierResolver;
+import com.skyblockexp.ezshops.shop.SellItemFilter;
 import com.skyblockexp.ezshops.shop.ShopPriceLookupService;
 import com.skyblockexp.ezshops.shop.ShopPricingManager;
+import com.skyblockexp.ezshops.shop.ShopRateLimiter;
 import com.skyblockexp.ezshops.shop.ShopRotationManager;
 import com.skyblockexp.ezshops.shop.ShopTransactionService;
 import com.skyblockexp.ezshops.shop.api.ShopPriceService;
@@ -33,6 +38,7 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.ServicesManager;
+import org.bukkit.scheduler.BukkitTask;
 
 /**
  * Boots the core shop systems such as pricing, transactions, GUI, and commands.
@@ -61,6 +67,10 @@ public final class CoreShopComponent implements PluginComponent {
     private ShopTemplateService shopTemplateService;
     private IslandLevelProvider islandLevelProvider;
     private boolean ignoreIslandRequirements;
+    private EzBoostMultiplierResolver boostResolver;
+    private ShopEventDispatcher eventDispatcher;
+    private ShopRateLimiter rateLimiter;
+    private BukkitTask rateLimitPurgeTask;
 
     public CoreShopComponent(Economy economy) {
         this.economy = economy;
@@ -73,15 +83,35 @@ public final class CoreShopComponent implements PluginComponent {
         DynamicPricingConfiguration dynamicPricingConfiguration =
                 DynamicPricingConfiguration.from(plugin.getConfig(), plugin.getLogger());
         messageConfiguration = ShopMessageConfiguration.load(plugin);
+        DisplayNames.reload(messageConfiguration);
         ShopMessageConfiguration.CommandMessages commandMessages = messageConfiguration.commands();
         ShopMessageConfiguration.TransactionMessages transactionMessages = messageConfiguration.transactions();
         ShopMessageConfiguration.GuiMessages guiMessages = messageConfiguration.gui();
 
         pricingManager = new ShopPricingManager(plugin, dynamicPricingConfiguration);
+        plugin.getLogger().info("Loaded shop configuration: " + pricingManager.lastReloadReport().summary());
+        pricingManager.startDynamicStatePersistence();
         transactionService = new ShopTransactionService(pricingManager, economy, transactionMessages);
+        if (plugin.getEconomyPipeline() != null) {
+            transactionService.setEconomyPipeline(plugin.getEconomyPipeline());
+        }
+        transactionService.setTransactionLedger(plugin.getTransactionLedger());
+        eventDispatcher = new ShopEventDispatcher(plugin);
+        transactionService.setEventDispatcher(eventDispatcher);
+        rateLimiter = ShopRateLimiter.from(plugin.getConfig().getConfigurationSection("rate-limit"), plugin,
+                plugin.getLogger());
+        transactionService.setRateLimiter(rateLimiter);
+        if (rateLimiter != ShopRateLimiter.UNLIMITED) {
+            rateLimitPurgeTask = plugin.getServer().getScheduler()
+                    .runTaskTimerAsynchronously(plugin, rateLimiter::purgeIdle, 6000L, 6000L);
+        }
         // Hook service for executing commands on buy/sell
         com.skyblockexp.ezshops.hook.TransactionHookService hookService = new com.skyblockexp.ezshops.hook.TransactionHookService(plugin);
         transactionService.setTransactionHookService(hookService);
+        boostResolver = new EzBoostMultiplierResolver(plugin.getConfig().getLong("ezboost-cache-millis",
+                EzBoostMultiplierResolver.DEFAULT_CACHE_MILLIS));
+        transactionService.setBoostMultiplierResolver(boostResolver);
+        transactionService.setSellItemFilter(SellItemFilter.from(plugin.getConfig(), plugin.getLogger()));
 
         ServicesManager servicesManager = plugin.getServer().getServicesManager();
         shopPriceService = new ShopPriceLookupService(pricingManager, plugin.getLogger());
@@ -138,6 +168,7 @@ public final class CoreShopComponent implements PluginComponent {
         PluginManager pluginManager = plugin.getServer().getPluginManager();
         registerListener(pluginManager, shopMenu);
         registerListener(pluginManager, quickSellMenu);
+        registerListener(pluginManager, boostResolver);
         registerCommand("shop", shopCommand);
         registerCommand("sellhand", sellHandCommand);
         registerCommand("sellinventory", sellInventoryCommand);
@@ -155,6 +186,8 @@ public final class CoreShopComponent implements PluginComponent {
 
         unregisterListener(shopMenu);
         unregisterListener(quickSellMenu);
+        unregisterListener(boostResolver);
+        boostResolver = null;
         if (plugin != null) {
             ServicesManager servicesManager = plugin.getServer().getServicesManager();
             if (shopPriceService != null) {
@@ -176,9 +209,27 @@ public final class CoreShopComponent implements PluginComponent {
         quickSellMenu = null;
         priceCommand = null;
         shopMenu = null;
+        if (rateLimitPurgeTask != null) {
+            rateLimitPurgeTask.cancel();
+            rateLimitPurgeTask = null;
+        }
+        if (rateLimiter != null) {
+            // trades still waiting to be merged are run rather than lost
+            rateLimiter.flushMerged();
+            rateLimiter = null;
+        }
+        if (eventDispatcher != null) {
+            // trades of the last tick still reach batch listeners
+            eventDispatcher.flush();
+            eventDispatcher = null;
+        }
         transactionService = null;
-        pricingManager = null;
+        if (pricingManager != null) {
+            pricingManager.shutdown();
+            pricingManager = null;
+        }
         messageConfiguration = null;
+        DisplayNames.reload(null);
         islandLevelProvider = null;
         ignoreIslandRequirements = false;
         plugin = null;
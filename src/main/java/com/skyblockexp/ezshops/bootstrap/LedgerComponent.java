@@ -0,0 +1,57 @@
+package com.skyblockexp.ezshops.bootstrap;
+
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.ledger.LedgerCommand;
+import com.skyblockexp.ezshops.ledger.SegmentedLedger;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * Opens the transaction ledger and registers its admin command. Enabled before the components that
+ * record trades and disabled after them, so every trade they complete is written.
+ */
+public final class LedgerComponent implements PluginComponent {
+
+    private TransactionLedger ledger = TransactionLedger.DISABLED;
+
+    @Override
+    public void enable(EzShopsPlugin plugin) {
+        FileConfiguration config = plugin.getConfig();
+        if (config.getBoolean("ledger.enabled", true)) {
+            try {
+                ledger = SegmentedLedger.open(new File(plugin.getDataFolder(), "ledger"),
+                        config.getInt("ledger.segment-records", 65_536),
+                        TimeUnit.DAYS.toMillis(Math.max(0L, config.getLong("ledger.retention-days", 30L))),
+                        TimeUnit.SECONDS.toMillis(Math.max(1L, config.getLong("ledger.flush-interval-seconds", 5L))),
+                        plugin.getLogger());
+            } catch (IOException | IllegalArgumentException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to open the transaction ledger; trades will not be recorded.", ex);
+                ledger = TransactionLedger.DISABLED;
+            }
+        } else if (plugin.isDebugMode()) {
+            plugin.getLogger().info("Transaction ledger is disabled via configuration.");
+        }
+
+        PluginCommand command = plugin.getCommand("shopledger");
+        if (command != null) {
+            LedgerCommand executor = new LedgerCommand(plugin, ledger);
+            command.setExecutor(executor);
+            command.setTabCompleter(executor);
+        }
+    }
+
+    @Override
+    public void disable() {
+        ledger.close();
+        ledger = TransactionLedger.DISABLED;
+    }
+
+    public TransactionLedger ledger() {
+        return ledger;
+    }
+}
@@ -66,9 +66,18 @@ public final class PlayerShopComponent implements PluginComponent {
 
         PlayerShopRepository repository = new YmlPlayerShopRepository(plugin.getDataFolder(), plugin.getLogger());
         manager = new PlayerShopManager(plugin, economy, configuration, repository);
+        if (plugin.getEconomyPipeline() != null) {
+            manager.setEconomyPipeline(plugin.getEconomyPipeline());
+        }
+        manager.setTransactionLedger(plugin.getTransactionLedger());
         manager.enable();
 
         listener = new PlayerShopListener(manager, configuration);
+        CoreShopComponent core = plugin.getCoreShopComponent();
+        if (core.transactionService() != null) {
+            listener.setRateLimiter(core.transactionService().getRateLimiter(),
+                    core.messageConfiguration().transactions().errors().tooFast());
+        }
         setupMenu = new PlayerShopSetupMenu(plugin, manager, configuration);
         command = new PlayerShopCommand(manager, setupMenu, messages);
 
@@ -4,10 +4,14 @@ import com.skyblockexp.ezshops.EzShopsPlugin;
 import com.skyblockexp.ezshops.repository.StockMarketRepository;
 import com.skyblockexp.ezshops.repository.yml.YmlStockMarketRepository;
 import com.skyblockexp.ezshops.stock.StockAdminCommand;
+import com.skyblockexp.ezshops.stock.StockCandleStore;
 import com.skyblockexp.ezshops.stock.StockCommand;
+import com.skyblockexp.ezshops.stock.StockHistoryManager;
 import com.skyblockexp.ezshops.config.StockMarketConfig;
 import com.skyblockexp.ezshops.stock.StockMarketFrozenStore;
+import com.skyblockexp.ezshops.stock.StockManager;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
+import com.skyblockexp.ezshops.stock.StockPortfolioCache;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -25,6 +29,7 @@ public final class StockComponent implements PluginComponent, TabCompleter {
     private StockMarketManager stockMarketManager;
     private StockMarketConfig stockMarketConfig;
     private StockMarketFrozenStore frozenStore;
+    private StockPortfolioCache portfolioCache;
     private long cooldownMillis;
 
     @Override
@@ -44,10 +49,24 @@ public final class StockComponent implements PluginComponent, TabCompleter {
         this.stockMarketConfig = new StockMarketConfig(config);
         StockMarketRepository repository = new YmlStockMarketRepository(plugin.getDataFolder());
         this.frozenStore = new StockMarketFrozenStore(repository);
-        this.stockMarketManager = new StockMarketManager();
+        this.stockMarketManager = new StockMarketManager(
+                Math.max(1, config.getInt("stock.history-depth", StockHistoryManager.DEFAULT_DEPTH)));
         this.stockMarketManager.setStockMarketRepository(repository);
+        this.stockMarketManager.setCandleStore(new StockCandleStore(
+                new java.io.File(plugin.getDataFolder(), "stock-candles.bin"), plugin.getLogger(),
+                config.getInt("stock.candles.keep-minutes", StockCandleStore.DEFAULT_KEEP_MINUTES),
+                config.getInt("stock.candles.keep-hours", StockCandleStore.DEFAULT_KEEP_HOURS),
+                config.getInt("stock.candles.keep-days", StockCandleStore.DEFAULT_KEEP_DAYS)));
+        this.stockMarketManager.setMaxSlippage(config.getDouble("stock.max-slippage", StockMarketManager.DEFAULT_MAX_SLIPPAGE));
+        this.stockMarketManager.setQuoteLifetimeMillis(config.getLong("stock.quote-seconds",
+                StockMarketManager.DEFAULT_QUOTE_LIFETIME_MILLIS / 1000L) * 1000L);
         // Enable async periodic persistence (every 5 minutes = 6000 ticks)
         this.stockMarketManager.enablePersistence(plugin, 6000L);
+        // Player holdings live in memory; dirty portfolios are written every 30 seconds
+        this.portfolioCache = new StockPortfolioCache(new java.io.File(plugin.getDataFolder(), "player-stocks"),
+                plugin.getLogger());
+        this.portfolioCache.start(plugin, 600L);
+        StockManager.setPortfolioCache(portfolioCache);
         this.cooldownMillis = config.getConfigurationSection("stock") != null ? config.getLong("stock.cooldown-millis", 0L) : 0L;
         registerCommand("stock", new StockCommand(plugin, stockMarketManager, cooldownMillis, stockMarketConfig, frozenStore));
         registerCommand("stockadmin", new StockAdminCommand(stockMarketManager, frozenStore, stockMarketConfig));
@@ -78,13 +97,15 @@ public final class StockComponent implements PluginComponent, TabCompleter {
                 stockMarketManager, stockMarketConfig, frozenStore, stockGuiConfigFile);
         allStocksGuiForTransactions.setStockOverviewGui(stockOverviewGui);
         com.skyblockexp.ezshops.gui.stock.StockTransactionConfirmGuiListener transactionListener = 
-            new com.skyblockexp.ezshops.gui.stock.StockTransactionConfirmGuiListener(stockMarketManager, allStocksGuiForTransactions);
+            new com.skyblockexp.ezshops.gui.stock.StockTransactionConfirmGuiListener(stockMarketManager, allStocksGuiForTransactions,
+                plugin.getEconomyPipeline(), plugin.getTransactionLedger());
         plugin.getServer().getPluginManager().registerEvents(transactionListener, plugin);
 
         // Register StockHistoryGuiListener for price history GUI
         com.skyblockexp.ezshops.gui.stock.StockHistoryGuiListener stockHistoryGuiListener = new com.skyblockexp.ezshops.gui.stock.StockHistoryGuiListener(plugin);
         plugin.getServer().getPluginManager().registerEvents(stockHistoryGuiListener, plugin);
         com.skyblockexp.ezshops.gui.stock.StockHistoryGui.setListener(stockHistoryGuiListener);
+        com.skyblockexp.ezshops.gui.stock.StockHistoryGui.setCandleStore(stockMarketManager.getCandleStore());
     }
 
     private void ensureStockGuiDefaults(EzShopsPlugin plugin, java.io.File targetFile) {
@@ -95,11 +116,15 @@ public final class StockComponent implements PluginComponent, TabCompleter {
                 return;
             }
 
-            org.bukkit.configuration.file.YamlConfiguration target = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(targetFile);
-            java.io.InputStream defaultStream = plugin.getResource("stock-gui.yml");
-            if (defaultStream == null) return;
-            java.io.InputStreamReader isr = new java.io.InputStreamReader(defaultStream);
-            org.bukkit.configuration.file.YamlConfiguration defaults = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(new java.io.BufferedReader(isr));
+            // the data-folder copy and the bundled defaults are independent; parse them side by side
+            List<java.util.function.Supplier<org.bukkit.configuration.file.YamlConfiguration>> loaders = List.of(
+                () -> org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(targetFile),
+                () -> loadBundledConfiguration(plugin, "stock-gui.yml"));
+            List<org.bukkit.configuration.file.YamlConfiguration> loaded =
+                com.skyblockexp.ezshops.common.ParallelLoader.map(loaders, java.util.function.Supplier::get);
+            org.bukkit.configuration.file.YamlConfiguration target = loaded.get(0);
+            org.bukkit.configuration.file.YamlConfiguration defaults = loaded.get(1);
+            if (defaults == null) return;
 
             boolean changed = false;
             // Merge any missing keys from defaults (deep merge)
@@ -119,11 +144,30 @@ public final class StockComponent implements PluginComponent, TabCompleter {
         }
     }
 
+    private static org.bukkit.configuration.file.YamlConfiguration loadBundledConfiguration(EzShopsPlugin plugin, String path) {
+        java.io.InputStream stream = plugin.getResource(path);
+        if (stream == null) return null;
+        try (java.io.Reader reader = new java.io.BufferedReader(new java.io.InputStreamReader(stream, java.nio.charset.StandardCharsets.UTF_8))) {
+            return org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(reader);
+        } catch (java.io.IOException ex) {
+            plugin.getLogger().warning("Failed to read bundled " + path + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void disable() {
         if (stockMarketManager != null) {
             stockMarketManager.disablePersistence();
         }
+        if (portfolioCache != null) {
+            portfolioCache.close();
+            if (StockManager.getPortfolioCache() == portfolioCache) {
+                StockManager.setPortfolioCache(null);
+            }
+            portfolioCache = null;
+        }
+        com.skyblockexp.ezshops.gui.stock.StockHistoryGui.setCandleStore(null);
         plugin = null;
         stockMarketManager = null;
         stockMarketConfig = null;
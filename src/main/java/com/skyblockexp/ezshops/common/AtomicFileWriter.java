@@ -0,0 +1,68 @@
+package com.skyblockexp.ezshops.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility for replacing data files without leaving a truncated file behind when the server stops
+ * in the middle of a write.
+ */
+public final class AtomicFileWriter {
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Writes {@code contents} to a temporary sibling of {@code target}, forces it to disk and then
+     * moves it over the target. Readers observe either the previous file or the complete new one.
+     *
+     * @param target file to replace
+     * @param contents UTF-8 text to write
+     * @throws IOException if the temporary file cannot be written or moved into place
+     */
+    public static void write(File target, String contents) throws IOException {
+        write(target, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes {@code data} to a temporary sibling of {@code target}, forces it to disk and then
+     * moves it over the target.
+     *
+     * @param target file to replace
+     * @param data raw bytes to write
+     * @throws IOException if the temporary file cannot be written or moved into place
+     */
+    public static void write(File target, byte[] data) throws IOException {
+        Path targetPath = target.toPath().toAbsolutePath();
+        Path directory = targetPath.getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, targetPath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.skyblockexp.ezshops.common;
+
+import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.EntityType;
+
+/**
+ * Player-facing names of materials, entity types and enchantments, built once per constant for the
+ * active language instead of on every message.
+ *
+ * <p>A name comes from the {@code names.materials.<MATERIAL>}, {@code names.entities.<ENTITY>} or
+ * {@code names.enchantments.<key>} entry of the message files when present, and otherwise from the
+ * constant itself ({@code DIAMOND_SWORD} becomes {@code Diamond Sword}). Material and entity names are
+ * kept in arrays indexed by ordinal; enchantments are not an enum and are kept by key.
+ * {@link #reload(ShopMessageConfiguration)} drops every name when the messages are loaded again.</p>
+ */
+public final class DisplayNames {
+
+    private static final int MAX_CACHED_NUMERAL = 255;
+    private static final int[] NUMERAL_VALUES = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+    private static final String[] NUMERAL_SYMBOLS = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V",
+            "IV", "I"};
+    private static final String[] NUMERALS = new String[MAX_CACHED_NUMERAL + 1];
+
+    static {
+        for (int i = 0; i <= MAX_CACHED_NUMERAL; i++) {
+            NUMERALS[i] = computeRomanNumeral(i);
+        }
+    }
+
+    private static volatile Names names = new Names(null);
+
+    private DisplayNames() {
+    }
+
+    /**
+     * Discards every computed name and resolves names against {@code messages} from now on.
+     *
+     * @param messages the freshly loaded messages, or {@code null} to use generated names only
+     */
+    public static void reload(ShopMessageConfiguration messages) {
+        names = new Names(messages);
+    }
+
+    public static String material(Material material) {
+        return material == null ? "" : names.material(material);
+    }
+
+    public static String entity(EntityType entityType) {
+        return entityType == null ? "" : names.entity(entityType);
+    }
+
+    public static String enchantment(Enchantment enchantment) {
+        return enchantment == null ? "" : names.enchantment(enchantment.getKey());
+    }
+
+    /**
+     * Returns {@code number} as a roman numeral, or as digits when it is not positive.
+     */
+    public static String romanNumeral(int number) {
+        if (number >= 0 && number <= MAX_CACHED_NUMERAL) {
+            return NUMERALS[number];
+        }
+        return computeRomanNumeral(number);
+    }
+
+    /**
+     * Turns an identifier such as {@code farm_blocks} into {@code Farm Blocks}. Not cached; meant for
+     * identifiers that are only formatted while loading configuration.
+     */
+    public static String humanize(String raw) {
+        String lower = raw.toLowerCase(Locale.ENGLISH).replace('_', ' ');
+        String[] parts = lower.split(" ");
+        StringBuilder builder = new StringBuilder(lower.length());
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(Character.toUpperCase(part.charAt(0)));
+            builder.append(part, 1, part.length());
+        }
+        return builder.length() == 0 ? lower : builder.toString();
+    }
+
+    private static String computeRomanNumeral(int number) {
+        if (number <= 0) {
+            return Integer.toString(number);
+        }
+        int remaining = number;
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < NUMERAL_VALUES.length && remaining > 0; i++) {
+            while (remaining >= NUMERAL_VALUES[i]) {
+                builder.append(NUMERAL_SYMBOLS[i]);
+                remaining -= NUMERAL_VALUES[i];
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The names of one language. Slots are filled on first use; two threads racing on the same slot
+     * compute the same string, so no locking is needed.
+     */
+    private static final class Names {
+
+        private final ShopMessageConfiguration messages;
+        private final String[] materials = new String[Material.values().length];
+        private final String[] entities = new String[EntityType.values().length];
+        private final Map<NamespacedKey, String> enchantments = new ConcurrentHashMap<>();
+
+        Names(ShopMessageConfiguration messages) {
+            this.messages = messages;
+        }
+
+        String material(Material material) {
+            String name = materials[material.ordinal()];
+            if (name == null) {
+                name = resolve("materials", material.name());
+                materials[material.ordinal()] = name;
+            }
+            return name;
+        }
+
+        String entity(EntityType entityType) {
+            String name = entities[entityType.ordinal()];
+            if (name == null) {
+                name = resolve("entities", entityType.name());
+                entities[entityType.ordinal()] = name;
+            }
+            return name;
+        }
+
+        String enchantment(NamespacedKey key) {
+            return enchantments.computeIfAbsent(key, k -> resolve("enchantments", k.getKey()));
+        }
+
+        private String resolve(String type, String key) {
+            if (messages != null) {
+                String configured = messages.displayNameOverride(type, key);
+                if (configured != null && !configured.isBlank()) {
+                    return configured;
+                }
+            }
+            return humanize(key);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.skyblockexp.ezshops.common;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs Vault economy calls either inline or, for slow economy providers, off the main thread.
+ *
+ * <p>A caller reserves whatever the trade needs on the main thread (items taken from an inventory,
+ * stock taken from a holding), submits the economy call and applies or rolls back the reservation in the
+ * completion. In direct mode the call and its completion run immediately on the calling thread. In
+ * asynchronous mode:</p>
+ * <ul>
+ *     <li>calls submitted for the same player run one at a time, in submission order, on a small worker
+ *     pool; calls for different players may overlap,</li>
+ *     <li>completions always run on the main thread, in the order their calls finished, so completions
+ *     for the same player also keep submission order,</li>
+ *     <li>every submitted call gets exactly one completion, including calls still queued when the
+ *     pipeline is closed; those are completed with the failure that stopped them.</li>
+ * </ul>
+ *
+ * <p>{@link #close()} waits a bounded time for calls in flight. A call that finishes after that can no
+ * longer complete on the main thread, since the plugin is disabled by then; its completion runs on the
+ * worker thread instead, with a warning, so its reservation is still applied or rolled back.</p>
+ */
+public final class EconomyPipeline implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000L;
+    private static final int REFUND_ATTEMPTS = 3;
+
+    private final Economy economy;
+    private final ExecutorService workers;
+    private final Executor mainThread;
+    private final Logger logger;
+    private final long closeTimeoutMillis;
+    private final Map<UUID, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean abandoned;
+
+    EconomyPipeline(Economy economy, ExecutorService workers, Executor mainThread, Logger logger) {
+        this(economy, workers, mainThread, logger, CLOSE_TIMEOUT_MILLIS);
+    }
+
+    EconomyPipeline(Economy economy, ExecutorService workers, Executor mainThread, Logger logger,
+            long closeTimeoutMillis) {
+        this.economy = economy;
+        this.workers = workers;
+        this.mainThread = mainThread;
+        this.logger = logger;
+        this.closeTimeoutMillis = closeTimeoutMillis;
+    }
+
+    /**
+     * Returns a pipeline that calls the economy on the calling thread.
+     */
+    public static EconomyPipeline direct(Economy economy) {
+        return new EconomyPipeline(economy, null, null, Logger.getLogger(EconomyPipeline.class.getName()));
+    }
+
+    /**
+     * Returns a pipeline that calls the economy on {@code threads} worker threads and completes on the
+     * server's main thread.
+     */
+    public static EconomyPipeline async(Plugin plugin, Economy economy, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "EzShops-economy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new EconomyPipeline(economy, workers, task -> Bukkit.getScheduler().runTask(plugin, task),
+                plugin.getLogger());
+    }
+
+    public Economy economy() {
+        return economy;
+    }
+
+    public boolean isAsync() {
+        return workers != null;
+    }
+
+    /**
+     * Runs {@code call} against the economy for {@code playerId} and passes its result, or the failure it
+     * threw, to {@code completion} on the main thread.
+     */
+    public <T> void submit(UUID playerId, Function<Economy, T> call, BiConsumer<? super T, Throwable> completion) {
+        if (!isAsync() || closed) {
+            Outcome<T> outcome = run(call);
+            completion.accept(outcome.value(), outcome.error());
+            return;
+        }
+        Runnable task = () -> {
+            Outcome<T> outcome = run(call);
+            complete(() -> completion.accept(outcome.value(), outcome.error()));
+        };
+        CompletableFuture<Void> next = tails.compute(playerId, (id, tail) -> tail == null
+                ? CompletableFuture.runAsync(task, workers)
+                : tail.thenRunAsync(task, workers));
+        next.whenComplete((ignored, error) -> {
+            tails.remove(playerId, next);
+            if (error != null) {
+                // the task never ran, usually because the pool was shut down; report it so the caller rolls back
+                complete(() -> completion.accept(null, unwrap(error)));
+            }
+        });
+    }
+
+    /**
+     * Pays back {@code amount} to a player whose trade could not be completed after they were charged. A
+     * failed deposit is retried a few times; one that still fails is logged with the player and amount so
+     * it can be paid back by hand.
+     */
+    public void refund(OfflinePlayer player, double amount) {
+        refund(player, amount, REFUND_ATTEMPTS);
+    }
+
+    private void refund(OfflinePlayer player, double amount, int attemptsLeft) {
+        submit(player.getUniqueId(), econ -> econ.depositPlayer(player, amount), (response, error) -> {
+            if (error == null && response != null && response.transactionSuccess()) {
+                return;
+            }
+            String reason = error != null ? String.valueOf(error.getMessage())
+                    : response != null ? response.errorMessage : "no response";
+            if (attemptsLeft > 1) {
+                logger.warning("Refund of " + amount + " to " + player.getUniqueId() + " failed (" + reason
+                        + "); retrying");
+                refund(player, amount, attemptsLeft - 1);
+            } else {
+                logger.severe("Could not refund " + amount + " to " + player.getName() + " ("
+                        + player.getUniqueId() + "): " + reason + ". Pay it back manually.");
+            }
+        });
+    }
+
+    /**
+     * Waits for submitted calls to finish and runs their completions on the calling thread, which must be
+     * the main thread. Calls submitted afterwards run inline. Calls still running when the wait times out
+     * are logged and complete on their worker thread once they finish.
+     */
+    @Override
+    public void close() {
+        if (!isAsync() || closed) {
+            return;
+        }
+        closed = true;
+        // wait for the per-player chains first; once the pool is shut down, queued links could no longer start
+        CompletableFuture<?>[] pending = tails.values().toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(pending).get(closeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            // failed or stuck calls are reported to their own completions
+        }
+        workers.shutdown();
+        // from here on nothing drains the queue for a call that finishes late, so it drains it itself
+        abandoned = true;
+        drain();
+        int running = tails.size();
+        if (running > 0) {
+            logger.warning("Closed the economy pipeline with " + running + " player(s) still waiting on the"
+                    + " economy; their trades complete off the main thread when it answers");
+        }
+    }
+
+    private <T> Outcome<T> run(Function<Economy, T> call) {
+        try {
+            return new Outcome<>(call.apply(economy), null);
+        } catch (RuntimeException | LinkageError ex) {
+            return new Outcome<>(null, ex);
+        }
+    }
+
+    private void complete(Runnable completion) {
+        completions.add(completion);
+        if (abandoned) {
+            logger.warning("An economy call finished after the pipeline was closed; completing it on "
+                    + Thread.currentThread().getName());
+            drain();
+            return;
+        }
+        if (closed || !drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mainThread.execute(this::drain);
+        } catch (RuntimeException ex) {
+            // the plugin is being disabled; close() drains the queue on the main thread
+            drainScheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        // late completions drain from worker threads after close; keep them from running side by side
+        synchronized (completions) {
+            Runnable completion;
+            while ((completion = completions.poll()) != null) {
+                try {
+                    completion.run();
+                } catch (RuntimeException ex) {
+                    logger.log(Level.SEVERE, "Failed to complete an economy transaction", ex);
+                }
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private record Outcome<T>(T value, Throwable error) {
+    }
+}
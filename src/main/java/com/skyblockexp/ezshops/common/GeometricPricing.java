@@ -0,0 +1,158 @@
+package com.skyblockexp.ezshops.common;
+
+/**
+ * Closed-form helpers for prices that move by a constant factor for every traded unit.
+ *
+ * <p>A series starts at {@code start} and every step multiplies the value by {@code ratio}. Dynamic
+ * shop multipliers additionally clamp each step into {@code [min, max]}; stock prices only use a lower
+ * floor. Because the clamp is monotone in the direction of travel, the clamped series is the plain
+ * geometric series up to the step where it first reaches the bound, and constant afterwards.</p>
+ */
+public final class GeometricPricing {
+
+    private static final long CENTS = 100L;
+
+    private GeometricPricing() {
+    }
+
+    /**
+     * Clamps {@code value} into {@code [min, max]}. Non-positive results collapse to {@code min}, which
+     * keeps a multiplier from ever reaching zero.
+     */
+    public static double clamp(double value, double min, double max) {
+        double clamped = Math.min(max, Math.max(min, value));
+        return clamped <= 0.0D ? min : clamped;
+    }
+
+    /**
+     * Returns the sum of {@code count} terms {@code start * ratio^i}. The ratio must be positive.
+     */
+    public static double sum(double start, double ratio, long count) {
+        if (count <= 0L) {
+            return 0.0D;
+        }
+        if (ratio == 1.0D) {
+            return start * count;
+        }
+        // expm1/log1p keep precision for ratios close to one, where (r^n - 1) / (r - 1) cancels badly
+        double delta = ratio - 1.0D;
+        return start * Math.expm1(count * Math.log1p(delta)) / delta;
+    }
+
+    /**
+     * Returns the first step {@code k >= 0} at which {@code start * ratio^k} reaches {@code bound} (at or
+     * above it for growing series, at or below it for shrinking ones), or {@link Long#MAX_VALUE} if the
+     * series never gets there. The ratio must be positive.
+     */
+    static long stepsToReach(double start, double ratio, double bound) {
+        if (ratio == 1.0D) {
+            return Double.compare(start, bound) == 0 ? 0L : Long.MAX_VALUE;
+        }
+        boolean growing = ratio > 1.0D;
+        if (reached(start, bound, growing)) {
+            return 0L;
+        }
+        if (start <= 0.0D || bound <= 0.0D) {
+            return Long.MAX_VALUE;
+        }
+        double estimate = Math.ceil(Math.log(bound / start) / Math.log(ratio));
+        if (!(estimate < Long.MAX_VALUE)) {
+            return Long.MAX_VALUE;
+        }
+        long steps = Math.max(1L, (long) estimate);
+        // the logarithm can be off by one ulp right at the boundary; settle against the actual powers
+        while (steps > 1L && reached(start * Math.pow(ratio, steps - 1L), bound, growing)) {
+            steps--;
+        }
+        while (!reached(start * Math.pow(ratio, steps), bound, growing)) {
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the value after {@code steps} clamped multiplications of {@code start} by {@code ratio}.
+     * Equivalent to applying {@link #clamp(double, double, double)} after every step.
+     */
+    public static double clampedValue(double start, double ratio, long steps, double min, double max) {
+        if (steps <= 0L) {
+            return start;
+        }
+        if (ratio <= 0.0D) {
+            // the first step drops to or below zero and the clamp pins it to the minimum
+            return clamp(start * ratio, min, max);
+        }
+        return clamp(start * Math.pow(ratio, steps), min, max);
+    }
+
+    /**
+     * Returns the sum of {@code count} unit prices where unit {@code i} is
+     * {@code normalizeCurrency(unitBase * m_i)}, {@code m_0 = start} and
+     * {@code m_{i+1} = clamp(m_i * ratio, min, max)}.
+     *
+     * <p>Each unit is rounded to cents before it is added, exactly as a per-unit loop would, so the
+     * unclamped part of the series is walked term by term. That walk is bounded by the distance between
+     * {@code start} and the clamp bound, not by {@code count}; once the multiplier settles on a bound the
+     * remaining units are added in one step. Cents are summed as longs so the total does not drift.</p>
+     */
+    public static double roundedClampedSum(double unitBase, double start, double ratio, double min, double max,
+            long count) {
+        long totalCents = 0L;
+        double multiplier = start;
+        long index = 0L;
+        while (index < count) {
+            double next = clamp(multiplier * ratio, min, max);
+            if (Double.compare(next, multiplier) == 0) {
+                break;
+            }
+            totalCents += toCents(unitBase * multiplier);
+            multiplier = next;
+            index++;
+        }
+        totalCents += (count - index) * toCents(unitBase * multiplier);
+        return EconomyUtils.normalizeCurrency((double) totalCents / CENTS);
+    }
+
+    /**
+     * Returns the sum of {@code count} prices where price {@code i + 1} is
+     * {@code max(floor, price_i * ratio)} and price {@code 0} is {@code start}.
+     */
+    public static double flooredSum(double start, double ratio, long count, double floor) {
+        if (count <= 0L) {
+            return 0.0D;
+        }
+        double total = start;
+        double value = Math.max(floor, start * ratio);
+        long remaining = count - 1L;
+        if (remaining == 0L) {
+            return total;
+        }
+        if (ratio >= 1.0D) {
+            return total + sum(value, ratio, remaining);
+        }
+        long unfloored = Math.min(remaining, stepsToReach(value, ratio, floor));
+        return total + sum(value, ratio, unfloored) + floor * (remaining - unfloored);
+    }
+
+    /**
+     * Returns the value after {@code steps} applications of {@code price = max(floor, price * ratio)}.
+     */
+    public static double flooredValue(double start, double ratio, long steps, double floor) {
+        if (steps <= 0L) {
+            return start;
+        }
+        double value = Math.max(floor, start * ratio);
+        if (steps == 1L) {
+            return value;
+        }
+        return Math.max(floor, value * Math.pow(ratio, steps - 1L));
+    }
+
+    private static boolean reached(double value, double bound, boolean growing) {
+        return growing ? value >= bound : value <= bound;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(EconomyUtils.normalizeCurrency(amount) * CENTS);
+    }
+}
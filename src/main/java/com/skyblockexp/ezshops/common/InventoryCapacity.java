@@ -0,0 +1,134 @@
+package com.skyblockexp.ezshops.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Works out how many items an inventory can take, the way {@link Inventory#addItem(ItemStack...)}
+ * would place them: partial stacks that {@linkplain ItemStack#isSimilar(ItemStack) match} the item are
+ * topped up first, then empty slots are filled. Only counts are computed; no inventory or stack is
+ * copied.
+ */
+public final class InventoryCapacity {
+
+    private InventoryCapacity() {
+    }
+
+    /**
+     * One item of a basket together with the amount wanted.
+     *
+     * @param item   the item as it would be delivered; its own amount is ignored
+     * @param amount number of items wanted
+     */
+    public record Line(ItemStack item, int amount) {
+    }
+
+    /**
+     * Returns how many of {@code amount} items fit into the storage contents of {@code inventory}.
+     */
+    public static int deliverable(Inventory inventory, ItemStack item, int amount) {
+        return deliverable(inventory.getStorageContents(), inventory.getMaxStackSize(), item, amount);
+    }
+
+    /**
+     * Returns how many of {@code amount} items fit into {@code contents}.
+     *
+     * @param maxStackSize the inventory's own stack limit
+     */
+    public static int deliverable(ItemStack[] contents, int maxStackSize, ItemStack item, int amount) {
+        if (amount <= 0) {
+            return 0;
+        }
+        if (isAir(item)) {
+            return amount;
+        }
+        int stackLimit = stackLimit(item, maxStackSize);
+        long space = mergeSpace(contents, item, stackLimit) + (long) emptySlots(contents) * stackLimit;
+        return (int) Math.min(amount, space);
+    }
+
+    /**
+     * Returns whether every line of {@code basket} fits into the storage contents of {@code inventory}
+     * at once.
+     */
+    public static boolean fits(Inventory inventory, List<Line> basket) {
+        return fits(inventory.getStorageContents(), inventory.getMaxStackSize(), basket);
+    }
+
+    /**
+     * Returns whether every line of {@code basket} fits into {@code contents} at once. Lines share the
+     * empty slots; lines for similar items share the matching partial stacks as well.
+     *
+     * @param maxStackSize the inventory's own stack limit
+     */
+    public static boolean fits(ItemStack[] contents, int maxStackSize, List<Line> basket) {
+        List<ItemStack> items = new ArrayList<>();
+        List<Integer> amounts = new ArrayList<>();
+        for (Line line : basket) {
+            if (line == null || line.amount() <= 0 || isAir(line.item())) {
+                continue;
+            }
+            int index = indexOfSimilar(items, line.item());
+            if (index < 0) {
+                items.add(line.item());
+                amounts.add(line.amount());
+            } else {
+                amounts.set(index, amounts.get(index) + line.amount());
+            }
+        }
+
+        long slotsNeeded = 0L;
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack item = items.get(i);
+            int stackLimit = stackLimit(item, maxStackSize);
+            long remaining = Math.max(0L, amounts.get(i) - mergeSpace(contents, item, stackLimit));
+            slotsNeeded += (remaining + stackLimit - 1) / stackLimit;
+        }
+        return slotsNeeded <= emptySlots(contents);
+    }
+
+    private static long mergeSpace(ItemStack[] contents, ItemStack item, int stackLimit) {
+        long space = 0L;
+        for (ItemStack content : contents) {
+            if (isEmpty(content) || content.getAmount() >= stackLimit || !content.isSimilar(item)) {
+                continue;
+            }
+            space += stackLimit - content.getAmount();
+        }
+        return space;
+    }
+
+    private static int emptySlots(ItemStack[] contents) {
+        int empty = 0;
+        for (ItemStack content : contents) {
+            if (isEmpty(content)) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    private static int indexOfSimilar(List<ItemStack> items, ItemStack item) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isSimilar(item)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int stackLimit(ItemStack item, int maxStackSize) {
+        return Math.max(1, Math.min(item.getMaxStackSize(), maxStackSize));
+    }
+
+    private static boolean isAir(ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
+    }
+
+    private static boolean isEmpty(ItemStack stack) {
+        return isAir(stack) || stack.getAmount() <= 0;
+    }
+}
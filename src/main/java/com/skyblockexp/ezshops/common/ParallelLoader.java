@@ -0,0 +1,86 @@
+package com.skyblockexp.ezshops.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+
+/**
+ * Runs independent load tasks, such as reading and parsing configuration files, on a small bounded
+ * fork-join pool. Results come back in input order, so callers merge them exactly as a sequential loop
+ * would and the outcome does not depend on which task finished first.
+ *
+ * <p>Every load shares one pool, created on first use and stopped by {@link #shutdown()} when the plugin
+ * is disabled.</p>
+ */
+public final class ParallelLoader {
+
+    private static final int MAX_PARALLELISM = 4;
+
+    private static ForkJoinPool pool;
+
+    private ParallelLoader() {
+    }
+
+    /**
+     * Applies {@code task} to every input and returns the results in input order. Tasks must not share
+     * mutable state. Small inputs and single-core machines run inline on the calling thread.
+     */
+    public static <T, R> List<R> map(List<T> inputs, Function<? super T, ? extends R> task) {
+        int parallelism = Math.min(inputs.size(),
+                Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+        List<R> results = new ArrayList<>(inputs.size());
+        if (parallelism <= 1) {
+            for (T input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        // YAML deserialization resolves classes through the context loader, which must stay the caller's
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool workers = pool();
+        List<ForkJoinTask<R>> pending = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            pending.add(workers.submit(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(contextLoader);
+                try {
+                    return task.apply(input);
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            }));
+        }
+        for (ForkJoinTask<R> future : pending) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Stops the shared pool. Loads started afterwards create a new one.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int parallelism = Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+            pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("EzShops-loader-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+}
@@ -13,19 +13,32 @@ public final class ConfigTranslator {
 
     private ConfigTranslator() {}
 
+    /**
+     * Returns {@code true} if {@code translate} tokens can currently be resolved without passing a
+     * message configuration explicitly.
+     */
+    public static boolean hasMessages() {
+        return currentMessages() != null;
+    }
+
+    private static ShopMessageConfiguration currentMessages() {
+        try {
+            org.bukkit.plugin.Plugin p = org.bukkit.Bukkit.getPluginManager().getPlugin("EzShops");
+            if (p instanceof com.skyblockexp.ezshops.EzShopsPlugin ez) {
+                return ez.getCoreShopComponent().messageConfiguration();
+            }
+        } catch (Exception ignored) {
+            // ignore and fallback
+        }
+        return null;
+    }
+
     public static String resolve(String raw, ShopMessageConfiguration messages) {
         if (raw == null || raw.isEmpty()) {
             return "";
         }
         if (messages == null) {
-            try {
-                org.bukkit.plugin.Plugin p = org.bukkit.Bukkit.getPluginManager().getPlugin("EzShops");
-                if (p instanceof com.skyblockexp.ezshops.EzShopsPlugin ez) {
-                    messages = ez.getCoreShopComponent().messageConfiguration();
-                }
-            } catch (Exception ignored) {
-                // ignore and fallback
-            }
+            messages = currentMessages();
             if (messages == null) {
                 return MessageUtil.translateColors(raw);
             }
@@ -1,5 +1,6 @@
 package com.skyblockexp.ezshops.config;
 
+import java.util.Locale;
 import java.util.logging.Logger;
 import org.bukkit.configuration.ConfigurationSection;
 
@@ -13,14 +14,19 @@ public final class DynamicPricingConfiguration {
     private static final double DEFAULT_MAX_MULTIPLIER = 3.0D;
     private static final double DEFAULT_BUY_CHANGE = 0.0D;
     private static final double DEFAULT_SELL_CHANGE = 0.0D;
+    private static final double DEFAULT_RECOVERY_HALF_LIFE_MINUTES = 0.0D;
+    private static final boolean DEFAULT_WRITE_BEHIND = true;
+    private static final long DEFAULT_FLUSH_INTERVAL_TICKS = 100L;
 
     private static final DynamicPricingConfiguration DISABLED =
             new DynamicPricingConfiguration(false, DEFAULT_STARTING_MULTIPLIER, DEFAULT_MIN_MULTIPLIER,
-                    DEFAULT_MAX_MULTIPLIER, DEFAULT_BUY_CHANGE, DEFAULT_SELL_CHANGE);
+                    DEFAULT_MAX_MULTIPLIER, DEFAULT_BUY_CHANGE, DEFAULT_SELL_CHANGE,
+                    DEFAULT_RECOVERY_HALF_LIFE_MINUTES, DEFAULT_WRITE_BEHIND, DEFAULT_FLUSH_INTERVAL_TICKS);
 
     private static final DynamicPricingConfiguration DEFAULTS =
             new DynamicPricingConfiguration(true, DEFAULT_STARTING_MULTIPLIER, DEFAULT_MIN_MULTIPLIER,
-                    DEFAULT_MAX_MULTIPLIER, DEFAULT_BUY_CHANGE, DEFAULT_SELL_CHANGE);
+                    DEFAULT_MAX_MULTIPLIER, DEFAULT_BUY_CHANGE, DEFAULT_SELL_CHANGE,
+                    DEFAULT_RECOVERY_HALF_LIFE_MINUTES, DEFAULT_WRITE_BEHIND, DEFAULT_FLUSH_INTERVAL_TICKS);
 
     private final boolean enabled;
     private final double defaultStartingMultiplier;
@@ -28,15 +34,22 @@ public final class DynamicPricingConfiguration {
     private final double defaultMaxMultiplier;
     private final double defaultBuyChange;
     private final double defaultSellChange;
+    private final double defaultRecoveryHalfLifeMinutes;
+    private final boolean writeBehind;
+    private final long flushIntervalTicks;
 
     private DynamicPricingConfiguration(boolean enabled, double defaultStartingMultiplier, double defaultMinMultiplier,
-            double defaultMaxMultiplier, double defaultBuyChange, double defaultSellChange) {
+            double defaultMaxMultiplier, double defaultBuyChange, double defaultSellChange,
+            double defaultRecoveryHalfLifeMinutes, boolean writeBehind, long flushIntervalTicks) {
         this.enabled = enabled;
         this.defaultStartingMultiplier = defaultStartingMultiplier;
         this.defaultMinMultiplier = defaultMinMultiplier;
         this.defaultMaxMultiplier = defaultMaxMultiplier;
         this.defaultBuyChange = defaultBuyChange;
         this.defaultSellChange = defaultSellChange;
+        this.defaultRecoveryHalfLifeMinutes = defaultRecoveryHalfLifeMinutes;
+        this.writeBehind = writeBehind;
+        this.flushIntervalTicks = flushIntervalTicks;
     }
 
     public boolean enabled() {
@@ -63,6 +76,29 @@ public final class DynamicPricingConfiguration {
         return defaultSellChange;
     }
 
+    /**
+     * Minutes for a multiplier to recover half of its distance back to the starting multiplier while
+     * the item is not traded. {@code 0} disables recovery.
+     */
+    public double defaultRecoveryHalfLifeMinutes() {
+        return defaultRecoveryHalfLifeMinutes;
+    }
+
+    /**
+     * Whether multiplier changes are batched and written to {@code shop-dynamic.yml} off the main thread
+     * instead of rewriting the file after every trade.
+     */
+    public boolean writeBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Interval, in ticks, between write-behind flushes of the dynamic pricing state.
+     */
+    public long flushIntervalTicks() {
+        return flushIntervalTicks;
+    }
+
     public static DynamicPricingConfiguration disabled() {
         return DISABLED;
     }
@@ -93,6 +129,8 @@ public final class DynamicPricingConfiguration {
         double maxMultiplier = readDouble(defaultsSection, "max-multiplier", DEFAULT_MAX_MULTIPLIER, logger);
         double buyChange = readDouble(defaultsSection, "buy-change", DEFAULT_BUY_CHANGE, logger);
         double sellChange = readDouble(defaultsSection, "sell-change", DEFAULT_SELL_CHANGE, logger);
+        double recoveryHalfLife = readDouble(defaultsSection, "recovery-half-life-minutes",
+                DEFAULT_RECOVERY_HALF_LIFE_MINUTES, logger);
 
         startingMultiplier = sanitizePositive(startingMultiplier, DEFAULT_STARTING_MULTIPLIER, logger,
                 "starting-multiplier");
@@ -100,6 +138,8 @@ public final class DynamicPricingConfiguration {
         maxMultiplier = sanitizePositive(maxMultiplier, DEFAULT_MAX_MULTIPLIER, logger, "max-multiplier");
         buyChange = sanitizeNonNegative(buyChange, DEFAULT_BUY_CHANGE, logger, "buy-change");
         sellChange = sanitizeNonNegative(sellChange, DEFAULT_SELL_CHANGE, logger, "sell-change");
+        recoveryHalfLife = sanitizeNonNegative(recoveryHalfLife, DEFAULT_RECOVERY_HALF_LIFE_MINUTES, logger,
+                "recovery-half-life-minutes");
 
         if (maxMultiplier < minMultiplier) {
             double previousMax = maxMultiplier;
@@ -109,8 +149,35 @@ public final class DynamicPricingConfiguration {
                     + " swapped.");
         }
 
+        ConfigurationSection persistenceSection = section.getConfigurationSection("persistence");
+        boolean writeBehind = readPersistenceMode(persistenceSection, logger);
+        long flushIntervalTicks = persistenceSection != null
+                ? persistenceSection.getLong("flush-interval-ticks", DEFAULT_FLUSH_INTERVAL_TICKS)
+                : DEFAULT_FLUSH_INTERVAL_TICKS;
+        if (flushIntervalTicks <= 0L) {
+            logger.warning("Invalid value for dynamic-pricing.persistence.flush-interval-ticks; using "
+                    + DEFAULT_FLUSH_INTERVAL_TICKS + '.');
+            flushIntervalTicks = DEFAULT_FLUSH_INTERVAL_TICKS;
+        }
+
         return new DynamicPricingConfiguration(true, startingMultiplier, minMultiplier, maxMultiplier, buyChange,
-                sellChange);
+                sellChange, recoveryHalfLife, writeBehind, flushIntervalTicks);
+    }
+
+    private static boolean readPersistenceMode(ConfigurationSection section, Logger logger) {
+        String mode = section != null ? section.getString("mode") : null;
+        if (mode == null || mode.isBlank()) {
+            return DEFAULT_WRITE_BEHIND;
+        }
+        switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "write-behind":
+                return true;
+            case "immediate":
+                return false;
+            default:
+                logger.warning("Unknown dynamic-pricing.persistence.mode '" + mode + "'; using write-behind.");
+                return DEFAULT_WRITE_BEHIND;
+        }
     }
 
     private static double readDouble(ConfigurationSection section, String path, double fallback, Logger logger) {
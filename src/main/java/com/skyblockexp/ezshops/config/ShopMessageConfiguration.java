@@ -1,6 +1,7 @@
 package com.skyblockexp.ezshops.config;
 
 import com.skyblockexp.ezshops.common.MessageUtil;
+import com.skyblockexp.ezshops.common.ParallelLoader;
 import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
 import java.io.File;
 import java.util.ArrayList;
@@ -43,7 +44,13 @@ public final class ShopMessageConfiguration {
         File dataFolder = plugin.getDataFolder();
         String language = normalizeLanguage(plugin.getConfig().getString("language"));
 
-        YamlConfiguration fallback = loadConfiguration(dataFolder, languageFileName("en"));
+        // the English fallback and the configured language are independent files; parse them side by side
+        List<String> files = "en".equals(language)
+                ? List.of(languageFileName("en"))
+                : List.of(languageFileName("en"), languageFileName(language));
+        List<YamlConfiguration> loaded = ParallelLoader.map(files, path -> loadConfiguration(dataFolder, path));
+
+        YamlConfiguration fallback = loaded.get(0);
         if (fallback == null) {
             plugin.getLogger()
                     .warning("Default English message file '" + languageFileName("en")
@@ -52,7 +59,7 @@ public final class ShopMessageConfiguration {
 
         YamlConfiguration primary = fallback;
         if (!"en".equals(language)) {
-            YamlConfiguration localized = loadConfiguration(dataFolder, languageFileName(language));
+            YamlConfiguration localized = loaded.get(1);
             if (localized != null) {
                 primary = localized;
             } else {
@@ -102,6 +109,19 @@ public final class ShopMessageConfiguration {
         return string(path, def);
     }
 
+    /**
+     * Returns the configured name under {@code names.<type>.<key>}, falling back to English, or
+     * {@code null} when neither file names it.
+     */
+    public String displayNameOverride(String type, String key) {
+        String path = "names." + type + '.' + key;
+        String value = getString(primary, path);
+        if (value == null) {
+            value = getString(fallback, path);
+        }
+        return value == null ? null : colorize(value);
+    }
+
     private static String languageFileName(String language) {
         return BASE_PATH + '_' + language + ".yml";
     }
@@ -741,6 +761,15 @@ public final class ShopMessageConfiguration {
                         "&cYour inventory does not contain items with valid sell prices.");
             }
 
+            public String tooFast() {
+                return string("transactions.errors.too-fast", "&cYou are trading too fast. Please slow down.");
+            }
+
+            public String playerLeft() {
+                return string("transactions.errors.player-left",
+                        "&cYou left before the purchase went through; your money was refunded.");
+            }
+
             public String transactionFailed(String error) {
                 return format(string("transactions.errors.transaction-failed", "&cTransaction failed: {error}"),
                         Map.of("{error}", error == null ? "" : error));
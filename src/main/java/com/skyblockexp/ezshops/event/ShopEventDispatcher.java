@@ -0,0 +1,88 @@
+package com.skyblockexp.ezshops.event;
+
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Fires shop transaction events, checking the handler lists first so that neither the event nor its item
+ * is built while nothing listens.
+ *
+ * <p>With a plugin to schedule on, completed trades are also collected while a
+ * {@link ShopTransactionBatchEvent} listener is registered and fired as one batch on the next tick. Trades
+ * may be queued from any thread, such as economy pipeline completions; the batch is always fired on the main
+ * thread, and trades completing after the plugin is disabled are dropped.</p>
+ */
+public final class ShopEventDispatcher {
+
+    private final Plugin plugin;
+    private final Queue<LedgerEntry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * @param plugin schedules batch dispatch, or {@code null} to never fire {@link ShopTransactionBatchEvent}
+     */
+    public ShopEventDispatcher(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Returns whether a {@link ShopPurchaseEvent} or {@link ShopSaleEvent} would reach a listener.
+     */
+    public boolean hasTransactionListeners() {
+        return isListened(ShopTransactionEvent.getHandlerList());
+    }
+
+    public void purchase(Player player, Supplier<ItemStack> item, int amount, double total) {
+        if (hasTransactionListeners()) {
+            Bukkit.getPluginManager().callEvent(new ShopPurchaseEvent(player, item.get(), amount, total));
+        }
+    }
+
+    public void sale(Player player, Supplier<ItemStack> item, int amount, double total) {
+        if (hasTransactionListeners()) {
+            Bukkit.getPluginManager().callEvent(new ShopSaleEvent(player, item.get(), amount, total));
+        }
+    }
+
+    /**
+     * Queues a completed trade for the next {@link ShopTransactionBatchEvent}.
+     */
+    public void trade(LedgerEntry entry) {
+        if (plugin == null || !plugin.isEnabled() || !isListened(ShopTransactionBatchEvent.getHandlerList())) {
+            return;
+        }
+        pending.add(entry);
+        if (flushScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Fires the queued trades now, if there are any.
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        List<LedgerEntry> batch = new ArrayList<>();
+        for (LedgerEntry entry; (entry = pending.poll()) != null; ) {
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        Bukkit.getPluginManager().callEvent(new ShopTransactionBatchEvent(batch));
+    }
+
+    private static boolean isListened(HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+}
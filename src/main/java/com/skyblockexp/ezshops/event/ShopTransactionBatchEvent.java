@@ -0,0 +1,35 @@
+package com.skyblockexp.ezshops.event;
+
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import java.util.List;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Every shop trade completed during one server tick, fired on the next tick. Lets analytics plugins consume
+ * trades in one dispatch instead of one event per trade. Only collected while something listens for it.
+ */
+public class ShopTransactionBatchEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final List<LedgerEntry> trades;
+
+    public ShopTransactionBatchEvent(List<LedgerEntry> trades) {
+        this.trades = List.copyOf(trades);
+    }
+
+    /**
+     * Returns the trades in the order they completed.
+     */
+    public List<LedgerEntry> getTrades() {
+        return trades;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -1,9 +1,9 @@
 package com.skyblockexp.ezshops.gui.quicksell;
 
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
-import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
 import com.skyblockexp.ezshops.shop.ShopPricingManager;
 import com.skyblockexp.ezshops.shop.ShopPrice;
+import com.skyblockexp.ezshops.shop.ShopSaleQuote;
 import com.skyblockexp.ezshops.shop.ShopTransactionResult;
 import com.skyblockexp.ezshops.shop.ShopTransactionService;
 import org.bukkit.Bukkit;
@@ -23,7 +23,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Quick Sell GUI — players drag items into a 36-slot area, see a live estimated
@@ -357,52 +359,73 @@ public class QuickSellMenu implements Listener {
     }
 
     /**
-     * Sells all items currently in the item area and closes the GUI.
+     * Sells all items currently in the item area as one basket and closes the GUI.
      */
     private void handleConfirm(Player player, Inventory topInv) {
-        double total = 0.0;
-        boolean soldAnything = false;
+        Map<Material, Integer> amounts = collectSellable(topInv);
+        // leave out anything the shop would not pay for, so the rest sells as a single basket
+        ShopSaleQuote quote = transactionService.quoteItems(amounts);
+        amounts.keySet().removeIf(material -> !quote.contains(material.name()));
 
-        for (int slot = 0; slot < ITEM_SLOT_COUNT; slot++) {
-            ItemStack item = topInv.getItem(slot);
-            if (item == null || item.getType() == Material.AIR) continue;
-
-            ShopTransactionResult result = transactionService.sell(player, item.getType(), item.getAmount());
-            if (result.success()) {
-                topInv.setItem(slot, null);
-                // Accumulate the sell value from the pricing manager for the summary
-                total += pricingManager.estimateBulkTotal(
-                        item.getType().name(), item.getAmount(), ShopTransactionType.SELL);
-                soldAnything = true;
-            }
-            // Failed items remain in the slot; onInventoryClose will return them
-        }
-
-        if (!soldAnything) {
+        if (amounts.isEmpty()) {
             player.sendMessage(ChatColor.translateAlternateColorCodes('&', messages.nothingToSell()));
             return;
         }
 
-        player.sendMessage(ChatColor.translateAlternateColorCodes('&',
-                messages.soldSummary(transactionService.formatCurrency(total))));
+        // the sold stacks leave the item area before the payout; if it fails they go to the player's inventory
+        ShopTransactionResult result = transactionService.sellItems(player, amounts,
+                () -> takeSold(topInv, amounts),
+                total -> ChatColor.translateAlternateColorCodes('&',
+                        messages.soldSummary(transactionService.formatCurrency(total))));
+        if (result.pending()) {
+            // the outcome is sent to the player once the economy answers
+            return;
+        }
+        // unsold items remain in their slots; onInventoryClose will return them
+        player.sendMessage(ChatColor.translateAlternateColorCodes('&', result.message()));
+        if (!result.success()) {
+            return;
+        }
 
         if (confirmSound != null && !confirmSound.isEmpty()) {
             player.playSound(player.getLocation(), confirmSound, confirmSoundVolume, confirmSoundPitch);
         }
     }
 
+    /**
+     * Removes the stacks of the sold materials from the item area and returns them.
+     */
+    private static List<ItemStack> takeSold(Inventory topInv, Map<Material, Integer> amounts) {
+        List<ItemStack> taken = new ArrayList<>();
+        for (int slot = 0; slot < ITEM_SLOT_COUNT; slot++) {
+            ItemStack item = topInv.getItem(slot);
+            if (item != null && amounts.containsKey(item.getType())) {
+                taken.add(item);
+                topInv.setItem(slot, null);
+            }
+        }
+        return taken;
+    }
+
     /**
      * Recalculates the estimated sell total and updates the price display slot.
      */
     private void refreshPriceDisplay(Inventory topInv, Player player) {
-        double total = 0.0;
+        double total = transactionService.quoteItems(collectSellable(topInv)).total();
+        updatePriceItem(topInv, total, player);
+    }
+
+    /**
+     * Adds up the sellable items in the item area per material.
+     */
+    private Map<Material, Integer> collectSellable(Inventory topInv) {
+        Map<Material, Integer> amounts = new EnumMap<>(Material.class);
         for (int slot = 0; slot < ITEM_SLOT_COUNT; slot++) {
             ItemStack item = topInv.getItem(slot);
-            if (item == null || item.getType() == Material.AIR) continue;
-            total += pricingManager.estimateBulkTotal(
-                    item.getType().name(), item.getAmount(), ShopTransactionType.SELL);
+            if (item == null || !isSellable(item.getType())) continue;
+            amounts.merge(item.getType(), item.getAmount(), Integer::sum);
         }
-        updatePriceItem(topInv, total, player);
+        return amounts;
     }
 
     /**
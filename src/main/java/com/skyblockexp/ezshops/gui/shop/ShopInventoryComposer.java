@@ -1,6 +1,7 @@
 package com.skyblockexp.ezshops.gui.shop;
 
 import com.skyblockexp.ezshops.common.CompatibilityUtil;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
 import com.skyblockexp.ezshops.gui.shop.FlatShopMenuHolder;
 import com.skyblockexp.ezshops.gui.shop.FlatShopMenuHolder.FlatMenuEntry;
@@ -664,7 +665,7 @@ public class ShopInventoryComposer {
         Map<String, String> placeholders = new HashMap<>();
         placeholders.put("{category}", stripColor(category.displayName()));
         placeholders.put("{category_name}", category.displayName());
-        placeholders.put("{material}", friendlyMaterialName(item.material()));
+        placeholders.put("{material}", DisplayNames.material(item.material()));
         placeholders.put("{material_key}", item.material().name());
         placeholders.put("{amount}", Integer.toString(item.amount()));
         placeholders.put("{bulk_amount}", Integer.toString(item.bulkAmount()));
@@ -678,7 +679,7 @@ public class ShopInventoryComposer {
         EntityType spawnerEntity = item.spawnerEntity();
         if (spawnerEntity != null) {
             placeholders.put("{spawner_entity}", spawnerEntity.name());
-            String friendlySpawner = friendlyEntityName(spawnerEntity);
+            String friendlySpawner = DisplayNames.entity(spawnerEntity);
             placeholders.put("{spawner_name}", friendlySpawner);
             placeholders.put("{spawner}", friendlySpawner + " Spawner");
         } else {
@@ -744,7 +745,7 @@ public class ShopInventoryComposer {
             Map<String, String> placeholders = createItemPlaceholders(category, item, islandLevel);
             return stripColor(applyPlaceholders(displayName, placeholders));
         }
-        return friendlyMaterialName(item.material());
+        return DisplayNames.material(item.material());
     }
 
     private ItemStack createPlaceholderItem(Material material, String displayName, List<String> lore) {
@@ -839,55 +840,13 @@ public class ShopInventoryComposer {
 
         List<String> parts = new ArrayList<>();
         for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
-            String name = friendlyEnchantmentName(entry.getKey());
-            String level = toRomanNumeral(Math.max(1, entry.getValue()));
+            String name = DisplayNames.enchantment(entry.getKey());
+            String level = DisplayNames.romanNumeral(Math.max(1, entry.getValue()));
             parts.add(name + " " + level);
         }
         return String.join(", ", parts);
     }
 
-    private String friendlyEnchantmentName(Enchantment enchantment) {
-        if (enchantment == null) {
-            return "";
-        }
-        String key = enchantment.getKey().getKey().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = key.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return key;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
-
-    private String toRomanNumeral(int number) {
-        if (number <= 0) {
-            return Integer.toString(number);
-        }
-
-        int[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
-        String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
-        int remaining = number;
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < values.length && remaining > 0; i++) {
-            while (remaining >= values[i]) {
-                builder.append(numerals[i]);
-                remaining -= values[i];
-            }
-        }
-        return builder.toString();
-    }
-
     private void setPersistent(ItemStack item, NamespacedKey key, String value) {
         ItemMeta meta = item.getItemMeta();
         if (meta == null) {
@@ -958,49 +917,4 @@ public class ShopInventoryComposer {
     private String stripColor(String input) {
         return input == null ? "" : ChatColor.stripColor(input);
     }
-
-    private String friendlyMaterialName(Material material) {
-        String lower = material.name().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = lower.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return lower;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
-
-    private String friendlyEntityName(EntityType entityType) {
-        if (entityType == null) {
-            return "";
-        }
-        String lower = entityType.name().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = lower.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return lower;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
 }
@@ -1,5 +1,6 @@
 package com.skyblockexp.ezshops.gui.stock;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.MessageUtil;
 import com.skyblockexp.ezshops.config.ConfigTranslator;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
@@ -326,7 +327,7 @@ public class AllStocksGui {
                 displayName = override.display != null ? ConfigTranslator.resolve(override.display, null) : id;
                 price = override.basePrice;
             } else {
-                displayName = id.charAt(0) + id.substring(1).toLowerCase().replace('_', ' ');
+                displayName = DisplayNames.material(mat);
                 price = stockMarketManager.getPrice(id);
             }
             
@@ -139,7 +139,7 @@ public class AllStocksGuiListener implements Listener {
         if (event.isShiftClick()) {
             // Shift-click: show history
             var historyManager = stockMarketManager.getHistoryManager();
-            var history = historyManager.getHistory(productId);
+            var history = historyManager.history(productId);
             com.skyblockexp.ezshops.gui.stock.StockHistoryGui.open(player, productId, history);
         } else if (event.isLeftClick()) {
             // Left-click: open buy confirmation
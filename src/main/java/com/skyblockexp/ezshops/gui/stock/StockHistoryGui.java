@@ -1,5 +1,7 @@
 package com.skyblockexp.ezshops.gui.stock;
 
+import com.skyblockexp.ezshops.stock.StockCandle;
+import com.skyblockexp.ezshops.stock.StockCandleStore;
 import com.skyblockexp.ezshops.stock.StockHistoryManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -9,6 +11,7 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -17,18 +20,57 @@ public class StockHistoryGui {
     private static final int GUI_SIZE = 54; // 6 rows for better display
     private static final int ENTRIES_PER_PAGE = 28; // 4 rows of entries (7x4)
 
+    private static final int VIEW_SLOT = 45;
+
     private static StockHistoryGuiListener listener;
+    private static StockCandleStore candleStore;
+
+    /**
+     * What the menu lists: single trades or candles of one resolution.
+     */
+    public enum View {
+        TRADES("Recent Trades", null),
+        MINUTES("Minute Candles", StockCandleStore.Resolution.MINUTE),
+        HOURS("Hourly Candles", StockCandleStore.Resolution.HOUR),
+        DAYS("Daily Candles", StockCandleStore.Resolution.DAY);
+
+        private final String label;
+        private final StockCandleStore.Resolution resolution;
+
+        View(String label, StockCandleStore.Resolution resolution) {
+            this.label = label;
+            this.resolution = resolution;
+        }
+
+        public View next() {
+            View[] views = values();
+            return views[(ordinal() + 1) % views.length];
+        }
+    }
 
     public static void setListener(StockHistoryGuiListener l) {
         listener = l;
     }
 
-    public static void open(Player player, String productId, List<StockHistoryManager.PriceEntry> history) {
+    public static void setCandleStore(StockCandleStore store) {
+        candleStore = store;
+    }
+
+    public static void open(Player player, String productId, StockHistoryManager.PriceHistory history) {
         open(player, productId, history, 0);
     }
 
-    public static void open(Player player, String productId, List<StockHistoryManager.PriceEntry> history, int page) {
-        int totalPages = Math.max(1, (int) Math.ceil(history.size() / (double) ENTRIES_PER_PAGE));
+    public static void open(Player player, String productId, StockHistoryManager.PriceHistory history, int page) {
+        open(player, productId, history, View.TRADES, page);
+    }
+
+    public static void open(Player player, String productId, StockHistoryManager.PriceHistory history, View view,
+            int page) {
+        if (view != View.TRADES && candleStore == null) {
+            view = View.TRADES;
+        }
+        int entries = view == View.TRADES ? history.size() : candleStore.count(productId, view.resolution);
+        int totalPages = Math.max(1, (int) Math.ceil(entries / (double) ENTRIES_PER_PAGE));
         page = Math.max(0, Math.min(page, totalPages - 1));
         
         String itemName = formatProductName(productId);
@@ -53,7 +95,7 @@ public class StockHistoryGui {
         }
 
         // Show price entries
-        if (history.isEmpty()) {
+        if (entries == 0) {
             ItemStack noData = new ItemStack(Material.PAPER);
             ItemMeta noDataMeta = noData.getItemMeta();
             noDataMeta.setDisplayName(ChatColor.RED + "No Price History");
@@ -63,47 +105,37 @@ public class StockHistoryGui {
             noDataMeta.setLore(noDataLore);
             noData.setItemMeta(noDataMeta);
             inv.setItem(22, noData);
+        } else if (view != View.TRADES) {
+            showCandles(inv, candleStore.newest(productId, view.resolution, page * ENTRIES_PER_PAGE,
+                    ENTRIES_PER_PAGE), view);
         } else {
-            // Show entries from newest to oldest
-            int start = page * ENTRIES_PER_PAGE;
-            int end = Math.min(start + ENTRIES_PER_PAGE, history.size());
+            // Read only this page's entries, newest first
+            long[] timestamps = new long[ENTRIES_PER_PAGE];
+            double[] prices = new double[ENTRIES_PER_PAGE];
+            int count = history.readNewest(page * ENTRIES_PER_PAGE, timestamps, prices);
             
             // Calculate price statistics for this page
             double minPrice = Double.MAX_VALUE;
             double maxPrice = Double.MIN_VALUE;
             double avgPrice = 0;
-            int count = 0;
             
-            for (int i = Math.max(0, history.size() - end); i < Math.min(history.size(), history.size() - start); i++) {
-                StockHistoryManager.PriceEntry entry = history.get(i);
-                minPrice = Math.min(minPrice, entry.price);
-                maxPrice = Math.max(maxPrice, entry.price);
-                avgPrice += entry.price;
-                count++;
+            for (int i = 0; i < count; i++) {
+                minPrice = Math.min(minPrice, prices[i]);
+                maxPrice = Math.max(maxPrice, prices[i]);
+                avgPrice += prices[i];
             }
             if (count > 0) {
                 avgPrice /= count;
             }
             
             // Display price statistics in first row
-            ItemStack stats = new ItemStack(Material.GOLD_INGOT);
-            ItemMeta statsMeta = stats.getItemMeta();
-            statsMeta.setDisplayName(ChatColor.GOLD + "Price Statistics");
-            List<String> statsLore = new ArrayList<>();
-            statsLore.add(ChatColor.GRAY + "Current Page Stats:");
-            statsLore.add(ChatColor.GREEN + "Average: " + ChatColor.WHITE + String.format("%.2f", avgPrice));
-            statsLore.add(ChatColor.RED + "Highest: " + ChatColor.WHITE + String.format("%.2f", maxPrice));
-            statsLore.add(ChatColor.AQUA + "Lowest: " + ChatColor.WHITE + String.format("%.2f", minPrice));
-            statsMeta.setLore(statsLore);
-            stats.setItemMeta(statsMeta);
-            inv.setItem(4, stats);
+            showStats(inv, "Average", avgPrice, maxPrice, minPrice);
             
             // Display entries (newest first, reading left to right, top to bottom)
             int slot = 10; // Start at row 2, column 2
             SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, HH:mm");
             
-            for (int i = history.size() - 1 - start; i >= Math.max(0, history.size() - end); i--) {
-                StockHistoryManager.PriceEntry entry = history.get(i);
+            for (int i = 0; i < count; i++) {
                 
                 // Determine material based on price trend
                 Material entryMat = Material.PAPER;
@@ -112,8 +144,8 @@ public class StockHistoryGui {
                 ItemStack entryItem = new ItemStack(entryMat);
                 ItemMeta entryMeta = entryItem.getItemMeta();
                 
-                String time = dateFormat.format(new Date(entry.timestamp));
-                entryMeta.setDisplayName(priceColor + String.format("%.2f", entry.price));
+                String time = dateFormat.format(new Date(timestamps[i]));
+                entryMeta.setDisplayName(priceColor + String.format("%.2f", prices[i]));
                 
                 List<String> entryLore = new ArrayList<>();
                 entryLore.add(ChatColor.GRAY + time);
@@ -153,6 +185,18 @@ public class StockHistoryGui {
             inv.setItem(50, next);
         }
 
+        // View toggle
+        if (candleStore != null) {
+            ItemStack toggle = new ItemStack(Material.CLOCK);
+            ItemMeta toggleMeta = toggle.getItemMeta();
+            toggleMeta.setDisplayName(ChatColor.AQUA + "View: " + view.label);
+            List<String> toggleLore = new ArrayList<>();
+            toggleLore.add(ChatColor.GRAY + "Click to show " + view.next().label);
+            toggleMeta.setLore(toggleLore);
+            toggle.setItemMeta(toggleMeta);
+            inv.setItem(VIEW_SLOT, toggle);
+        }
+
         // Close button
         ItemStack close = new ItemStack(Material.BARRIER);
         ItemMeta closeMeta = close.getItemMeta();
@@ -165,10 +209,76 @@ public class StockHistoryGui {
 
         player.openInventory(inv);
         if (listener != null) {
-            listener.trackGui(player, productId, history, page);
+            listener.trackGui(player, productId, history, view, page);
+        }
+    }
+
+    private static void showCandles(Inventory inv, List<StockCandle> candles, View view) {
+        // Calculate price statistics for this page
+        double minPrice = Double.MAX_VALUE;
+        double maxPrice = -Double.MAX_VALUE;
+        double avgPrice = 0;
+        long volume = 0;
+        for (StockCandle candle : candles) {
+            minPrice = Math.min(minPrice, candle.low());
+            maxPrice = Math.max(maxPrice, candle.high());
+            avgPrice += candle.close();
+            volume += candle.volume();
+        }
+        if (!candles.isEmpty()) {
+            avgPrice /= candles.size();
+        }
+
+        showStats(inv, "Average Close", avgPrice, maxPrice, minPrice,
+                ChatColor.YELLOW + "Volume: " + ChatColor.WHITE + volume);
+
+        // Display candles (newest first, reading left to right, top to bottom)
+        int slot = 10;
+        SimpleDateFormat dateFormat = new SimpleDateFormat(view == View.DAYS ? "MMM dd, yyyy" : "MMM dd, HH:mm");
+        for (StockCandle candle : candles) {
+            boolean rising = candle.isRising();
+            ItemStack candleItem = new ItemStack(rising ? Material.EMERALD : Material.REDSTONE);
+            ItemMeta candleMeta = candleItem.getItemMeta();
+            candleMeta.setDisplayName((rising ? ChatColor.GREEN : ChatColor.RED) + String.format("%.2f", candle.close()));
+
+            List<String> candleLore = new ArrayList<>();
+            candleLore.add(ChatColor.GRAY + dateFormat.format(new Date(candle.start())));
+            candleLore.add(ChatColor.GRAY + "Open: " + ChatColor.WHITE + String.format("%.2f", candle.open()));
+            candleLore.add(ChatColor.GRAY + "High: " + ChatColor.WHITE + String.format("%.2f", candle.high()));
+            candleLore.add(ChatColor.GRAY + "Low: " + ChatColor.WHITE + String.format("%.2f", candle.low()));
+            candleLore.add(ChatColor.GRAY + "Close: " + ChatColor.WHITE + String.format("%.2f", candle.close()));
+            candleLore.add(ChatColor.GRAY + "Volume: " + ChatColor.WHITE + candle.volume());
+            candleMeta.setLore(candleLore);
+            candleItem.setItemMeta(candleMeta);
+
+            // Place in grid, skipping borders
+            while (slot % 9 == 0 || slot % 9 == 8 || slot < 9 || slot >= 45) {
+                slot++;
+            }
+            inv.setItem(slot, candleItem);
+            slot++;
         }
     }
 
+    /**
+     * Shows the price statistics of the current page in the top row.
+     */
+    private static void showStats(Inventory inv, String averageLabel, double avgPrice, double maxPrice,
+            double minPrice, String... extraLore) {
+        ItemStack stats = new ItemStack(Material.GOLD_INGOT);
+        ItemMeta statsMeta = stats.getItemMeta();
+        statsMeta.setDisplayName(ChatColor.GOLD + "Price Statistics");
+        List<String> statsLore = new ArrayList<>();
+        statsLore.add(ChatColor.GRAY + "Current Page Stats:");
+        statsLore.add(ChatColor.GREEN + averageLabel + ": " + ChatColor.WHITE + String.format("%.2f", avgPrice));
+        statsLore.add(ChatColor.RED + "Highest: " + ChatColor.WHITE + String.format("%.2f", maxPrice));
+        statsLore.add(ChatColor.AQUA + "Lowest: " + ChatColor.WHITE + String.format("%.2f", minPrice));
+        statsLore.addAll(Arrays.asList(extraLore));
+        statsMeta.setLore(statsLore);
+        stats.setItemMeta(statsMeta);
+        inv.setItem(4, stats);
+    }
+
     private static String formatProductName(String id) {
         if (id == null || id.isEmpty()) return "Unknown";
         String[] parts = id.toLowerCase().split("_");
@@ -12,7 +12,6 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class StockHistoryGuiListener implements Listener {
@@ -25,8 +24,13 @@ public class StockHistoryGuiListener implements Listener {
     }
 
     // Call this when opening the GUI to track context
-    public void trackGui(Player player, String productId, List<StockHistoryManager.PriceEntry> history, int page) {
-        openGuis.put(player.getName(), new GuiContext(productId, history, page));
+    public void trackGui(Player player, String productId, StockHistoryManager.PriceHistory history, int page) {
+        trackGui(player, productId, history, StockHistoryGui.View.TRADES, page);
+    }
+
+    public void trackGui(Player player, String productId, StockHistoryManager.PriceHistory history,
+            StockHistoryGui.View view, int page) {
+        openGuis.put(player.getName(), new GuiContext(productId, history, view, page));
     }
 
     public void untrackGui(Player player) {
@@ -48,11 +52,11 @@ public class StockHistoryGuiListener implements Listener {
         int slot = event.getRawSlot();
         // Navigation
         if (slot == 48 && name.contains("Previous Page")) {
-            StockHistoryGui.open(player, ctx.productId, ctx.history, ctx.page - 1);
-            trackGui(player, ctx.productId, ctx.history, ctx.page - 1);
+            StockHistoryGui.open(player, ctx.productId, ctx.history, ctx.view, ctx.page - 1);
         } else if (slot == 50 && name.contains("Next Page")) {
-            StockHistoryGui.open(player, ctx.productId, ctx.history, ctx.page + 1);
-            trackGui(player, ctx.productId, ctx.history, ctx.page + 1);
+            StockHistoryGui.open(player, ctx.productId, ctx.history, ctx.view, ctx.page + 1);
+        } else if (slot == 45 && name.startsWith("View:")) {
+            StockHistoryGui.open(player, ctx.productId, ctx.history, ctx.view.next(), 0);
         } else if (slot == 49 && name.contains("Close")) {
             player.closeInventory();
             untrackGui(player);
@@ -71,11 +75,13 @@ public class StockHistoryGuiListener implements Listener {
 
     private static class GuiContext {
         final String productId;
-        final List<StockHistoryManager.PriceEntry> history;
+        final StockHistoryManager.PriceHistory history;
+        final StockHistoryGui.View view;
         final int page;
-        GuiContext(String productId, List<StockHistoryManager.PriceEntry> history, int page) {
+        GuiContext(String productId, StockHistoryManager.PriceHistory history, StockHistoryGui.View view, int page) {
             this.productId = productId;
             this.history = history;
+            this.view = view;
             this.page = page;
         }
     }
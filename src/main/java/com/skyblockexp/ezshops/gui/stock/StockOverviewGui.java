@@ -1,5 +1,6 @@
 package com.skyblockexp.ezshops.gui.stock;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.MessageUtil;
 import com.skyblockexp.ezshops.config.ConfigTranslator;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
@@ -174,7 +175,7 @@ public class StockOverviewGui {
             if (override != null) {
                 displayName = override.display != null ? ConfigTranslator.resolve(override.display, null) : id;
             } else {
-                displayName = id.charAt(0) + id.substring(1).toLowerCase().replace('_', ' ');
+                displayName = DisplayNames.material(mat);
             }
             int owned = getPlayerStockAmount(player, id);
             // Worth should always use the current price (not just override.basePrice)
@@ -263,7 +264,7 @@ public class StockOverviewGui {
     }
 
     public void showHistory(Player player, String productId) {
-        List<com.skyblockexp.ezshops.stock.StockHistoryManager.PriceEntry> history = stockMarketManager.getHistoryManager().getHistory(productId);
+        com.skyblockexp.ezshops.stock.StockHistoryManager.PriceHistory history = stockMarketManager.getHistoryManager().history(productId);
         if (history.isEmpty()) {
             player.sendMessage(ChatColor.YELLOW + "No price history for " + productId + ".");
             return;
@@ -1,8 +1,15 @@
 package com.skyblockexp.ezshops.gui.stock;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
+import com.skyblockexp.ezshops.common.EconomyPipeline;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
 import com.skyblockexp.ezshops.stock.StockManager;
+import com.skyblockexp.ezshops.stock.StockQuote;
+import com.skyblockexp.ezshops.stock.StockTrade;
 import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -14,12 +21,18 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoublePredicate;
 
 /**
  * Confirmation GUI for buying or selling stocks.
  */
 public class StockTransactionConfirmGui {
     private static final int GUI_SIZE = 27;
+    // the quotes shown on each player's open confirmation GUI, so a click commits the price it displayed
+    private static final Map<UUID, OpenQuotes> OPEN_QUOTES = new ConcurrentHashMap<>();
     
     public enum TransactionType {
         BUY, SELL
@@ -64,7 +77,7 @@ public class StockTransactionConfirmGui {
         if (mat != null) {
             ItemStack displayItem = new ItemStack(mat);
             ItemMeta meta = displayItem.getItemMeta();
-            String displayName = productId.charAt(0) + productId.substring(1).toLowerCase().replace('_', ' ');
+            String displayName = DisplayNames.material(mat);
             meta.setDisplayName(ChatColor.YELLOW + displayName);
             
             List<String> lore = new ArrayList<>();
@@ -81,15 +94,16 @@ public class StockTransactionConfirmGui {
         int[] amounts = {1, 8, 16, 32, 64};
         int[] slots = {10, 11, 12, 14, 15};
         
+        StockQuote[] quotes = new StockQuote[amounts.length];
         for (int i = 0; i < amounts.length; i++) {
             int amount = amounts[i];
-            double totalCost = stockMarketManager.estimateBulkTotal(productId, amount,
-                    type == TransactionType.BUY ? com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY : com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
             
             // Skip if selling more than owned
             if (type == TransactionType.SELL && amount > ownedAmount) {
                 continue;
             }
+            quotes[i] = stockMarketManager.quote(productId, amount, shopType(type));
+            double totalCost = quotes[i].total();
             
             Material buttonMat = type == TransactionType.BUY ? Material.LIME_STAINED_GLASS_PANE : Material.RED_STAINED_GLASS_PANE;
             ItemStack button = new ItemStack(buttonMat, amount);
@@ -126,6 +140,15 @@ public class StockTransactionConfirmGui {
         inv.setItem(22, cancel);
         
         player.openInventory(inv);
+        // after opening: closing the previous GUI forgets that GUI's quotes
+        OPEN_QUOTES.put(player.getUniqueId(), new OpenQuotes(productId, type, quotes));
+    }
+
+    /**
+     * Drops the quotes of the player's confirmation GUI once it is closed.
+     */
+    static void forgetQuotes(UUID playerId) {
+        OPEN_QUOTES.remove(playerId);
     }
     
     // Backward compatibility wrapper for existing code
@@ -139,11 +162,26 @@ public class StockTransactionConfirmGui {
                                      TransactionType type, StockMarketManager stockMarketManager,
                                      AllStocksGui returnGui, StockOverviewGui returnOverview, 
                                      int returnPage, String returnFilter) {
+        return handleClick(player, inv, slot, productId, type, stockMarketManager, null, null, returnGui,
+                returnOverview, returnPage, returnFilter);
+    }
+
+    /**
+     * Handles a click in the confirmation GUI, paying through {@code economyPipeline} and recording
+     * completed trades to {@code ledger}. Without a pipeline the registered economy is called inline;
+     * without a ledger nothing is recorded.
+     */
+    public static boolean handleClick(Player player, Inventory inv, int slot, String productId,
+                                     TransactionType type, StockMarketManager stockMarketManager,
+                                     EconomyPipeline economyPipeline, TransactionLedger ledger,
+                                     AllStocksGui returnGui, StockOverviewGui returnOverview, 
+                                     int returnPage, String returnFilter) {
         // Check if this is a transaction confirmation GUI
         String title = ChatColor.stripColor(inv.getType().toString());
         
         // Cancel button
         if (slot == 22) {
+            forgetQuotes(player.getUniqueId());
             player.closeInventory();
             if (returnGui != null) {
                 returnGui.open(player, returnPage, returnFilter);
@@ -160,7 +198,15 @@ public class StockTransactionConfirmGui {
         for (int i = 0; i < slots.length; i++) {
             if (slot == slots[i]) {
                 int amount = amounts[i];
-                processTransaction(player, productId, amount, type, stockMarketManager);
+                OpenQuotes open = OPEN_QUOTES.remove(player.getUniqueId());
+                StockQuote quote = open != null && open.productId().equals(productId) && open.type() == type
+                        ? open.quotes()[i] : null;
+                if (quote == null) {
+                    // not opened through open(), so there is no displayed price to hold the trade to
+                    quote = stockMarketManager.quote(productId, amount, shopType(type));
+                }
+                processTransaction(player, productId, amount, type, quote, stockMarketManager, economyPipeline,
+                        ledger != null ? ledger : TransactionLedger.DISABLED);
                 player.closeInventory();
                 if (returnGui != null) {
                     returnGui.open(player, returnPage, returnFilter);
@@ -174,33 +220,49 @@ public class StockTransactionConfirmGui {
         return false;
     }
     
+    /**
+     * Commits the quote the player confirmed inside the economy call, so the price the player pays, the
+     * price move and the holdings change together even while other players trade the same stock.
+     */
     private static void processTransaction(Player player, String productId, int amount, 
-                                          TransactionType type, StockMarketManager stockMarketManager) {
-        double totalCost = stockMarketManager.estimateBulkTotal(productId, amount,
-            type == TransactionType.BUY ? com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY : com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
+                                          TransactionType type, StockQuote quote, StockMarketManager stockMarketManager,
+                                          EconomyPipeline economyPipeline, TransactionLedger ledger) {
         
-        RegisteredServiceProvider<Economy> rsp = player.getServer().getServicesManager().getRegistration(Economy.class);
-        if (rsp == null) {
-            player.sendMessage(ChatColor.RED + "Economy system not available.");
-            return;
+        EconomyPipeline pipeline = economyPipeline;
+        if (pipeline == null) {
+            RegisteredServiceProvider<Economy> rsp = player.getServer().getServicesManager().getRegistration(Economy.class);
+            if (rsp == null) {
+                player.sendMessage(ChatColor.RED + "Economy system not available.");
+                return;
+            }
+            pipeline = EconomyPipeline.direct(rsp.getProvider());
         }
-        Economy econ = rsp.getProvider();
         
-            if (type == TransactionType.BUY) {
-                // Check if player has enough money
-                if (econ.getBalance(player) < totalCost) {
-                    player.sendMessage(ChatColor.RED + "Insufficient funds! You need " + String.format("%.2f", totalCost) + " but only have " + String.format("%.2f", econ.getBalance(player)));
+        if (type == TransactionType.BUY) {
+            // Check the balance, withdraw and add the stock while the price is held
+            pipeline.submit(player.getUniqueId(), econ -> {
+                Purchase purchase = new Purchase(econ, player, productId, amount);
+                return new Settled(stockMarketManager.commit(quote, purchase), purchase.balance);
+            }, (settled, error) -> {
+                if (error != null) {
+                    player.sendMessage(ChatColor.RED + "Failed to buy stock. Please try again.");
                     return;
                 }
+                StockTrade trade = settled.trade();
+                if (!trade.isCompleted()) {
+                    if (trade.status() == StockTrade.Status.DECLINED && settled.balance() < trade.total()) {
+                        player.sendMessage(ChatColor.RED + "Insufficient funds! You need " + String.format("%.2f", trade.total()) + " but only have " + String.format("%.2f", settled.balance()));
+                    } else {
+                        sendNotTraded(player, trade, "buy");
+                    }
+                    return;
+                }
+                ledger.record(LedgerEntry.of(LedgerEntry.Source.STOCK, LedgerEntry.Side.BUY, player.getUniqueId(),
+                        productId, amount, trade.total()));
 
-                // Deduct money and add stock
-                econ.withdrawPlayer(player, totalCost);
-                StockManager.addPlayerStock(player, productId, amount);
-                // Apply actual per-unit updates to market price
-                stockMarketManager.updatePrice(productId, amount);
-
-                player.sendMessage(ChatColor.GREEN + "Successfully bought " + amount + " " + productId + " for " + String.format("%.2f", totalCost));
-            } else {
+                player.sendMessage(ChatColor.GREEN + "Successfully bought " + amount + " " + productId + " for " + String.format("%.2f", trade.total()));
+            });
+        } else {
             // Check if player has enough stock
             int owned = StockManager.getPlayerStockAmount(player, productId);
             if (owned < amount) {
@@ -208,17 +270,88 @@ public class StockTransactionConfirmGui {
                 return;
             }
             
-                // Remove stock and add money
-                boolean removed = StockManager.removePlayerStock(player, productId, amount);
-                if (removed) {
-                    econ.depositPlayer(player, totalCost);
-                    // Apply actual per-unit updates to market price
-                    stockMarketManager.updatePrice(productId, -amount);
-
-                    player.sendMessage(ChatColor.GREEN + "Successfully sold " + amount + " " + productId + " for " + String.format("%.2f", totalCost));
-                } else {
+            // Remove the stock and deposit while the price is held; the removal fails if it was sold meanwhile
+            pipeline.submit(player.getUniqueId(), econ -> stockMarketManager.commit(quote, total -> {
+                if (!StockManager.removePlayerStock(player, productId, amount)) {
+                    return false;
+                }
+                EconomyResponse response = econ.depositPlayer(player, total);
+                if (response == null || !response.transactionSuccess()) {
+                    StockManager.addPlayerStock(player, productId, amount);
+                    return false;
+                }
+                return true;
+            }), (trade, error) -> {
+                if (error != null) {
                     player.sendMessage(ChatColor.RED + "Failed to sell stock. Please try again.");
+                    return;
                 }
+                if (!trade.isCompleted()) {
+                    sendNotTraded(player, trade, "sell");
+                    return;
+                }
+                ledger.record(LedgerEntry.of(LedgerEntry.Source.STOCK, LedgerEntry.Side.SELL, player.getUniqueId(),
+                        productId, amount, trade.total()));
+
+                player.sendMessage(ChatColor.GREEN + "Successfully sold " + amount + " " + productId + " for " + String.format("%.2f", trade.total()));
+            });
+        }
+    }
+
+    private static void sendNotTraded(Player player, StockTrade trade, String action) {
+        if (trade.status() == StockTrade.Status.SLIPPAGE) {
+            player.sendMessage(ChatColor.RED + "The price moved from " + String.format("%.2f", trade.quotedTotal())
+                    + " to " + String.format("%.2f", trade.total()) + " before your order went through, so nothing was traded. Please try again.");
+        } else if (trade.status() == StockTrade.Status.EXPIRED) {
+            player.sendMessage(ChatColor.RED + "These prices have expired, so nothing was traded. Please open the menu again.");
+        } else {
+            player.sendMessage(ChatColor.RED + "Failed to " + action + " stock. Please try again.");
         }
     }
+
+    /**
+     * Withdraws the committed total and adds the stock, refunding the withdrawal if the stock cannot be
+     * added. Remembers the balance for the insufficient funds message.
+     */
+    private static final class Purchase implements DoublePredicate {
+        private final Economy econ;
+        private final Player player;
+        private final String productId;
+        private final int amount;
+        private double balance = Double.NaN;
+
+        private Purchase(Economy econ, Player player, String productId, int amount) {
+            this.econ = econ;
+            this.player = player;
+            this.productId = productId;
+            this.amount = amount;
+        }
+
+        @Override
+        public boolean test(double total) {
+            balance = econ.getBalance(player);
+            if (balance < total) {
+                return false;
+            }
+            EconomyResponse response = econ.withdrawPlayer(player, total);
+            if (response == null || !response.transactionSuccess()) {
+                return false;
+            }
+            if (!StockManager.addPlayerStock(player, productId, amount)) {
+                econ.depositPlayer(player, total);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static com.skyblockexp.ezshops.gui.shop.ShopTransactionType shopType(TransactionType type) {
+        return type == TransactionType.BUY ? com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY : com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL;
+    }
+
+    private record Settled(StockTrade trade, double balance) {
+    }
+
+    private record OpenQuotes(String productId, TransactionType type, StockQuote[] quotes) {
+    }
 }
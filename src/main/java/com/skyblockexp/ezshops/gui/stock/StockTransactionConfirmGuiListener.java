@@ -1,11 +1,14 @@
 package com.skyblockexp.ezshops.gui.stock;
 
+import com.skyblockexp.ezshops.common.EconomyPipeline;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.ItemStack;
 
@@ -15,10 +18,24 @@ import org.bukkit.inventory.ItemStack;
 public class StockTransactionConfirmGuiListener implements Listener {
     private final StockMarketManager stockMarketManager;
     private final AllStocksGui allStocksGui;
+    private final EconomyPipeline economyPipeline;
+    private final TransactionLedger ledger;
 
     public StockTransactionConfirmGuiListener(StockMarketManager stockMarketManager, AllStocksGui allStocksGui) {
+        this(stockMarketManager, allStocksGui, null, null);
+    }
+
+    public StockTransactionConfirmGuiListener(StockMarketManager stockMarketManager, AllStocksGui allStocksGui,
+            EconomyPipeline economyPipeline) {
+        this(stockMarketManager, allStocksGui, economyPipeline, null);
+    }
+
+    public StockTransactionConfirmGuiListener(StockMarketManager stockMarketManager, AllStocksGui allStocksGui,
+            EconomyPipeline economyPipeline, TransactionLedger ledger) {
         this.stockMarketManager = stockMarketManager;
         this.allStocksGui = allStocksGui;
+        this.economyPipeline = economyPipeline;
+        this.ledger = ledger;
     }
 
     @EventHandler
@@ -47,7 +64,7 @@ public class StockTransactionConfirmGuiListener implements Listener {
         
         // Try to handle the click
         StockTransactionConfirmGui.handleClick(player, event.getInventory(), slot, productId, type, 
-            stockMarketManager, allStocksGui, 1, "all");
+            stockMarketManager, economyPipeline, ledger, allStocksGui, null, 1, "all");
     }
 
     @EventHandler
@@ -61,4 +78,11 @@ public class StockTransactionConfirmGuiListener implements Listener {
         
         event.setCancelled(true);
     }
+
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        String strippedTitle = ChatColor.stripColor(event.getView().getTitle());
+        if (!strippedTitle.equals("Buy Stock") && !strippedTitle.equals("Sell Stock")) return;
+        StockTransactionConfirmGui.forgetQuotes(event.getPlayer().getUniqueId());
+    }
 }
@@ -0,0 +1,242 @@
+package com.skyblockexp.ezshops.hook;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Resolves a player's EzBoost sell price boost and discount as price multipliers without a hard
+ * dependency on EzBoost.
+ *
+ * <p>The EzBoost API is bound once into method handles; accessors on EzBoost's boost and effect types
+ * are bound the first time each concrete type is seen. Both multipliers are computed in one pass over
+ * the player's boosts and reused for a short time, so a burst of transactions asks EzBoost once. When
+ * EzBoost is missing or its API does not match, both multipliers are {@code 1.0}.</p>
+ */
+public final class EzBoostMultiplierResolver implements Listener {
+
+    public static final long DEFAULT_CACHE_MILLIS = 1000L;
+
+    private static final String PLUGIN_NAME = "EzBoost";
+    private static final String API_CLASS = "com.skyblockexp.ezboost.api.EzBoostAPI";
+    private static final String SELL_PRICE_EFFECT = "ezshops_sellprice";
+    private static final String DISCOUNT_EFFECT = "ezshops_discountboost";
+    private static final Multipliers NEUTRAL = new Multipliers(1.0D, 1.0D, 0L);
+
+    private static final ClassValue<ManagerHandles> MANAGER_HANDLES = new ClassValue<>() {
+        @Override
+        protected ManagerHandles computeValue(Class<?> type) {
+            return new ManagerHandles(bind(type, "getBoosts", Player.class),
+                    bind(type, "isActive", Player.class, String.class));
+        }
+    };
+    private static final ClassValue<BoostHandles> BOOST_HANDLES = new ClassValue<>() {
+        @Override
+        protected BoostHandles computeValue(Class<?> type) {
+            return new BoostHandles(bind(type, "key"), bind(type, "effects"));
+        }
+    };
+    private static final ClassValue<EffectHandles> EFFECT_HANDLES = new ClassValue<>() {
+        @Override
+        protected EffectHandles computeValue(Class<?> type) {
+            return new EffectHandles(bind(type, "customName"), bind(type, "amplifier"));
+        }
+    };
+
+    private final Supplier<ClassLoader> classLoaderLookup;
+    private final long cacheNanos;
+    private final Map<UUID, Multipliers> cache = new ConcurrentHashMap<>();
+    private volatile Binding binding;
+
+    /**
+     * @param cacheMillis how long a player's multipliers are reused; {@code 0} asks EzBoost every time
+     */
+    public EzBoostMultiplierResolver(long cacheMillis) {
+        this(EzBoostMultiplierResolver::installedClassLoader, cacheMillis);
+    }
+
+    EzBoostMultiplierResolver(Supplier<ClassLoader> classLoaderLookup, long cacheMillis) {
+        this.classLoaderLookup = classLoaderLookup;
+        this.cacheNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, cacheMillis));
+    }
+
+    /**
+     * Returns the factor sell totals are multiplied by; {@code 1.0} without an active sell price boost.
+     */
+    public double sellMultiplier(Player player) {
+        return multipliers(player).sell();
+    }
+
+    /**
+     * Returns the factor buy totals are multiplied by, never below {@code 0.0}; {@code 1.0} without an
+     * active discount.
+     */
+    public double buyMultiplier(Player player) {
+        return multipliers(player).buy();
+    }
+
+    public void invalidate(UUID playerId) {
+        cache.remove(playerId);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            reset();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        binding = null;
+        cache.clear();
+    }
+
+    private Multipliers multipliers(Player player) {
+        if (player == null) {
+            return NEUTRAL;
+        }
+        long now = System.nanoTime();
+        Multipliers cached = cache.get(player.getUniqueId());
+        if (cached != null && now - cached.expiresAt() < 0L) {
+            return cached;
+        }
+        Multipliers resolved = resolve(player, now + cacheNanos);
+        if (cacheNanos > 0L) {
+            cache.put(player.getUniqueId(), resolved);
+        }
+        return resolved;
+    }
+
+    private Multipliers resolve(Player player, long expiresAt) {
+        Binding current = binding();
+        if (current == null) {
+            return new Multipliers(1.0D, 1.0D, expiresAt);
+        }
+        try {
+            Object manager = (Object) current.boostManager().invokeExact();
+            if (manager == null) {
+                return new Multipliers(1.0D, 1.0D, expiresAt);
+            }
+            ManagerHandles managerHandles = MANAGER_HANDLES.get(manager.getClass());
+            Map<?, ?> boosts = (Map<?, ?>) (Object) managerHandles.getBoosts().invokeExact(manager, (Object) player);
+            double sell = 1.0D;
+            double buy = 1.0D;
+            if (boosts != null) {
+                for (Object boost : boosts.values()) {
+                    BoostHandles boostHandles = BOOST_HANDLES.get(boost.getClass());
+                    Object key = (Object) boostHandles.key().invokeExact(boost);
+                    Object active = (Object) managerHandles.isActive().invokeExact(manager, (Object) player, key);
+                    if (!Boolean.TRUE.equals(active)) {
+                        continue;
+                    }
+                    Collection<?> effects = (Collection<?>) (Object) boostHandles.effects().invokeExact(boost);
+                    for (Object effect : effects) {
+                        EffectHandles effectHandles = EFFECT_HANDLES.get(effect.getClass());
+                        Object name = (Object) effectHandles.customName().invokeExact(effect);
+                        if (SELL_PRICE_EFFECT.equals(name)) {
+                            sell += amplifier(effectHandles, effect) / 100.0D;
+                        } else if (DISCOUNT_EFFECT.equals(name)) {
+                            buy -= amplifier(effectHandles, effect) / 100.0D;
+                        }
+                    }
+                }
+            }
+            return new Multipliers(sell, Math.max(0.0D, buy), expiresAt);
+        } catch (VirtualMachineError error) {
+            throw error;
+        } catch (Throwable ex) {
+            // EzBoost integration failed, use the default multipliers
+            return new Multipliers(1.0D, 1.0D, expiresAt);
+        }
+    }
+
+    private static double amplifier(EffectHandles handles, Object effect) throws Throwable {
+        return ((Number) (Object) handles.amplifier().invokeExact(effect)).doubleValue();
+    }
+
+    /**
+     * Returns the handles for the installed EzBoost, binding them again if EzBoost was reloaded, or
+     * {@code null} if EzBoost is not installed or its API cannot be bound.
+     */
+    private Binding binding() {
+        ClassLoader loader = classLoaderLookup.get();
+        if (loader == null) {
+            return null;
+        }
+        Binding current = binding;
+        if (current != null && current.classLoader() == loader) {
+            return current;
+        }
+        try {
+            Class<?> api = Class.forName(API_CLASS, true, loader);
+            MethodHandle boostManager = MethodHandles.publicLookup().unreflect(api.getMethod("getBoostManager"))
+                    .asType(MethodType.methodType(Object.class));
+            current = new Binding(loader, boostManager);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            // EzBoost not available or its API changed; an unbound loader is retried on the next lookup
+            return null;
+        }
+        binding = current;
+        return current;
+    }
+
+    private static MethodHandle bind(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(type.getMethod(name, parameterTypes));
+            return handle.asType(handle.type().generic());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Unsupported EzBoost type " + type.getName() + '#' + name, ex);
+        }
+    }
+
+    private static ClassLoader installedClassLoader() {
+        Plugin plugin = Bukkit.getPluginManager().getPlugin(PLUGIN_NAME);
+        return plugin != null ? plugin.getClass().getClassLoader() : null;
+    }
+
+    private record Binding(ClassLoader classLoader, MethodHandle boostManager) {
+    }
+
+    private record ManagerHandles(MethodHandle getBoosts, MethodHandle isActive) {
+    }
+
+    private record BoostHandles(MethodHandle key, MethodHandle effects) {
+    }
+
+    private record EffectHandles(MethodHandle customName, MethodHandle amplifier) {
+    }
+
+    private record Multipliers(double sell, double buy, long expiresAt) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.skyblockexp.ezshops.ledger;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Admin command for reading the transaction ledger.
+ *
+ * Subcommands:
+ *   /shopledger recent [hours]          - Latest trades
+ *   /shopledger player <name> [hours]   - Latest trades a player took part in
+ *   /shopledger item <item> [hours]     - Latest trades of an item
+ *
+ * Requires ezshops.ledger.admin. The ledger is read off the main thread.
+ */
+public class LedgerCommand implements CommandExecutor, TabCompleter {
+
+    public static final String PERMISSION = "ezshops.ledger.admin";
+
+    private static final int SHOWN_ENTRIES = 10;
+
+    private final Plugin plugin;
+    private final TransactionLedger ledger;
+
+    public LedgerCommand(Plugin plugin, TransactionLedger ledger) {
+        this.plugin = plugin;
+        this.ledger = ledger;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission(PERMISSION)) {
+            sender.sendMessage(ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+        if (args.length == 0) {
+            sender.sendMessage(ChatColor.YELLOW + "/" + label + " <recent|player|item> ...");
+            return true;
+        }
+        LedgerQuery query = LedgerQuery.all().withLimit(SHOWN_ENTRIES);
+        String sub = args[0].toLowerCase(Locale.ROOT);
+        int hoursIndex;
+        switch (sub) {
+            case "recent":
+                hoursIndex = 1;
+                break;
+            case "player":
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.YELLOW + "/" + label + " player <name> [hours]");
+                    return true;
+                }
+                @SuppressWarnings("deprecation")
+                OfflinePlayer target = Bukkit.getOfflinePlayer(args[1]);
+                query = query.withPlayer(target.getUniqueId());
+                hoursIndex = 2;
+                break;
+            case "item":
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.YELLOW + "/" + label + " item <item> [hours]");
+                    return true;
+                }
+                query = query.withItem(args[1]);
+                hoursIndex = 2;
+                break;
+            default:
+                sender.sendMessage(ChatColor.YELLOW + "/" + label + " <recent|player|item> ...");
+                return true;
+        }
+        if (args.length > hoursIndex) {
+            long hours;
+            try {
+                hours = Long.parseLong(args[hoursIndex]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid number of hours.");
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            query = query.between(now - TimeUnit.HOURS.toMillis(Math.max(0L, hours)), now);
+        }
+
+        LedgerQuery finalQuery = query;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<LedgerEntry> entries = ledger.query(finalQuery);
+            Bukkit.getScheduler().runTask(plugin, () -> send(sender, entries));
+        });
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1 && sender.hasPermission(PERMISSION)) {
+            for (String sub : List.of("recent", "player", "item")) {
+                if (sub.startsWith(args[0].toLowerCase(Locale.ROOT))) {
+                    completions.add(sub);
+                }
+            }
+        }
+        return completions;
+    }
+
+    private static void send(CommandSender sender, List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No matching trades in the ledger.");
+            return;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.ROOT);
+        sender.sendMessage(ChatColor.GOLD + "Latest " + entries.size() + " trades:");
+        for (LedgerEntry entry : entries) {
+            StringBuilder line = new StringBuilder()
+                    .append(ChatColor.GRAY).append(format.format(new Date(entry.timestamp()))).append(' ')
+                    .append(ChatColor.AQUA).append(nameOf(entry.player())).append(' ')
+                    .append(entry.side() == LedgerEntry.Side.BUY ? ChatColor.GREEN + "bought " : ChatColor.RED + "sold ")
+                    .append(ChatColor.WHITE).append(entry.amount()).append("x ").append(entry.item())
+                    .append(ChatColor.GRAY).append(" for ").append(ChatColor.GOLD)
+                    .append(String.format(Locale.ROOT, "%.2f", entry.total()));
+            if (entry.counterparty() != null) {
+                line.append(ChatColor.GRAY).append(" from ").append(ChatColor.AQUA).append(nameOf(entry.counterparty()));
+            }
+            line.append(ChatColor.DARK_GRAY).append(" (").append(entry.source().name().toLowerCase(Locale.ROOT)
+                    .replace('_', ' ')).append(')');
+            sender.sendMessage(line.toString());
+        }
+    }
+
+    private static String nameOf(UUID playerId) {
+        String name = Bukkit.getOfflinePlayer(playerId).getName();
+        return name != null ? name : playerId.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.skyblockexp.ezshops.ledger;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One completed trade as kept by the {@link TransactionLedger}.
+ *
+ * @param timestamp    epoch milliseconds the trade completed at
+ * @param player       the player who bought or sold
+ * @param counterparty the other player of a player shop trade, or {@code null} when trading with the server
+ * @param source       where the trade took place
+ * @param side         whether {@code player} bought or sold
+ * @param item         the traded item in upper case: a material or price key, a stock id, or a custom
+ *                     key such as {@code SPAWNER:ZOMBIE}
+ * @param amount       number of items or stock units traded
+ * @param total        money that changed hands, after boosts
+ */
+public record LedgerEntry(long timestamp, UUID player, UUID counterparty, Source source, Side side, String item,
+        int amount, double total) {
+
+    public enum Source {
+        SHOP,
+        SIGN_SHOP,
+        PLAYER_SHOP,
+        STOCK,
+        AUTO_SELL
+    }
+
+    public enum Side {
+        BUY,
+        SELL
+    }
+
+    public LedgerEntry {
+        Objects.requireNonNull(player, "player");
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(side, "side");
+        item = Objects.requireNonNull(item, "item").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns an entry for a trade with the server that completed now.
+     */
+    public static LedgerEntry of(Source source, Side side, UUID player, String item, int amount, double total) {
+        return new LedgerEntry(System.currentTimeMillis(), player, null, source, side, item, amount, total);
+    }
+}
@@ -0,0 +1,52 @@
+package com.skyblockexp.ezshops.ledger;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Filter for {@link TransactionLedger#query(LedgerQuery)}. Unset filters match everything.
+ *
+ * @param player matches entries where this player bought, sold or was the counterparty, or {@code null}
+ * @param item   matches entries for this item key, case-insensitively, or {@code null}
+ * @param from   earliest timestamp to include, in epoch milliseconds
+ * @param to     latest timestamp to include, in epoch milliseconds
+ * @param limit  maximum number of entries returned, newest first
+ */
+public record LedgerQuery(UUID player, String item, long from, long to, int limit) {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public LedgerQuery {
+        item = item != null ? item.toUpperCase(Locale.ROOT) : null;
+        limit = Math.max(1, limit);
+    }
+
+    /**
+     * Returns a query for the latest {@link #DEFAULT_LIMIT} entries of all time.
+     */
+    public static LedgerQuery all() {
+        return new LedgerQuery(null, null, Long.MIN_VALUE, Long.MAX_VALUE, DEFAULT_LIMIT);
+    }
+
+    public LedgerQuery withPlayer(UUID player) {
+        return new LedgerQuery(player, item, from, to, limit);
+    }
+
+    public LedgerQuery withItem(String item) {
+        return new LedgerQuery(player, item, from, to, limit);
+    }
+
+    public LedgerQuery between(long from, long to) {
+        return new LedgerQuery(player, item, from, to, limit);
+    }
+
+    public LedgerQuery withLimit(int limit) {
+        return new LedgerQuery(player, item, from, to, limit);
+    }
+
+    boolean matches(LedgerEntry entry) {
+        return entry.timestamp() >= from && entry.timestamp() <= to
+                && (player == null || player.equals(entry.player()) || player.equals(entry.counterparty()))
+                && (item == null || item.equals(entry.item()));
+    }
+}
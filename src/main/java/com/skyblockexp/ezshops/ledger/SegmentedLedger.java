@@ -0,0 +1,552 @@
+package com.skyblockexp.ezshops.ledger;
+
+import com.skyblockexp.ezshops.common.AtomicFileWriter;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link TransactionLedger} stored as fixed-width binary records in memory-mapped segment files.
+ *
+ * <p>Each segment holds {@code segmentRecords} records of {@value #RECORD_BYTES} bytes and is mapped
+ * once at its full size, so appending is a handful of absolute puts; unused space is all zeros, which is
+ * how the end of a segment is found again on start. Item keys are stored as ids into {@code items.dat},
+ * one key per line. A full segment is sealed with a small {@code .idx} summary of its time range, players
+ * and items, which lets queries skip it without reading it; sealed segments older than the retention are
+ * deleted.</p>
+ *
+ * <p>{@link #record(LedgerEntry)} only queues the entry. A single writer thread appends queued entries in
+ * order and forces the active segment to disk every flush interval and on {@link #close()}.</p>
+ */
+public final class SegmentedLedger implements TransactionLedger {
+
+    static final int RECORD_BYTES = 64;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String ITEMS_FILE = "items.dat";
+    private static final int INDEX_MAGIC = 0x455A4C49; // "EZLI"
+    private static final int INDEX_VERSION = 1;
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int BATCH_SIZE = 512;
+    private static final long POLL_MILLIS = 250L;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000L;
+    private static final LedgerEntry CLOSE = LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY,
+            new UUID(0L, 0L), "", 0, 0.0D);
+
+    private final File directory;
+    private final int segmentRecords;
+    private final long retentionMillis;
+    private final long flushIntervalNanos;
+    private final Logger logger;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final List<String> itemNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> itemIds = new HashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private Writer itemsOut;
+    private Segment active;
+    private volatile boolean closed;
+
+    private SegmentedLedger(File directory, int segmentRecords, long retentionMillis, long flushIntervalMillis,
+            Logger logger) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.retentionMillis = retentionMillis;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, flushIntervalMillis));
+        this.logger = logger;
+        this.writer = new Thread(this::run, "EzShops-ledger");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens or creates the ledger in {@code directory} and starts its writer thread.
+     *
+     * @param segmentRecords      records per segment file
+     * @param retentionMillis     how long sealed segments are kept; {@code 0} keeps them forever
+     * @param flushIntervalMillis how often appended records are forced to disk
+     * @throws IOException if the directory or the active segment cannot be opened
+     */
+    public static SegmentedLedger open(File directory, int segmentRecords, long retentionMillis,
+            long flushIntervalMillis, Logger logger) throws IOException {
+        if (segmentRecords <= 0) {
+            throw new IllegalArgumentException("segmentRecords must be positive");
+        }
+        Files.createDirectories(directory.toPath());
+        SegmentedLedger ledger = new SegmentedLedger(directory, segmentRecords, retentionMillis,
+                flushIntervalMillis, logger);
+        ledger.load();
+        ledger.writer.start();
+        return ledger;
+    }
+
+    @Override
+    public void record(LedgerEntry entry) {
+        if (closed || entry == null) {
+            return;
+        }
+        if (!queue.offer(entry) && dropped.getAndIncrement() == 0L) {
+            logger.warning("Transaction ledger cannot keep up; dropping entries until the queue drains.");
+        }
+    }
+
+    @Override
+    public List<LedgerEntry> query(LedgerQuery query) {
+        Integer itemId = null;
+        if (query.item() != null) {
+            int index = itemNames.indexOf(query.item());
+            if (index < 0) {
+                return List.of();
+            }
+            itemId = index;
+        }
+        List<LedgerEntry> matches = new ArrayList<>();
+        List<Segment> snapshot = List.copyOf(segments);
+        for (int i = snapshot.size() - 1; i >= 0 && matches.size() < query.limit(); i--) {
+            Segment segment = snapshot.get(i);
+            if (!segment.mayContain(query, itemId)) {
+                continue;
+            }
+            try {
+                segment.scan(query, itemId, matches, this);
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Failed to read ledger segment " + segment.file.getName(), ex);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!queue.offer(CLOSE, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.warning("Transaction ledger writer is not draining its queue; closing without it.");
+                return;
+            }
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+            if (writer.isAlive()) {
+                logger.warning("Transaction ledger writer did not finish within " + CLOSE_TIMEOUT_MILLIS
+                        + " ms; " + queue.size() + " entries may not have been written.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns how many entries were dropped because the writer could not keep up.
+     */
+    public long droppedEntries() {
+        return dropped.get();
+    }
+
+    private void load() throws IOException {
+        File items = new File(directory, ITEMS_FILE);
+        if (items.isFile()) {
+            for (String name : Files.readAllLines(items.toPath(), StandardCharsets.UTF_8)) {
+                itemIds.putIfAbsent(name, itemNames.size());
+                itemNames.add(name);
+            }
+        }
+        itemsOut = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(items, true), StandardCharsets.UTF_8));
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        List<File> segmentFiles = new ArrayList<>(files != null ? List.of(files) : List.of());
+        segmentFiles.removeIf(file -> sequenceOf(file) < 0L);
+        segmentFiles.sort((left, right) -> Long.compare(sequenceOf(left), sequenceOf(right)));
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            File file = segmentFiles.get(i);
+            boolean last = i == segmentFiles.size() - 1;
+            Segment segment = last ? Segment.openActive(file, sequenceOf(file), segmentRecords)
+                    : Segment.openSealed(file, sequenceOf(file), this);
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(1L);
+        } else {
+            active = segments.get(segments.size() - 1);
+            if (active.isFull()) {
+                rollOver();
+            }
+        }
+        applyRetention();
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(BATCH_SIZE);
+        long lastForce = System.nanoTime();
+        boolean running = true;
+        while (running) {
+            try {
+                LedgerEntry next = queue.poll(Math.min(POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1L),
+                        TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    for (LedgerEntry entry : batch) {
+                        if (entry == CLOSE) {
+                            running = false;
+                            continue;
+                        }
+                        try {
+                            append(entry);
+                        } catch (IOException | RuntimeException ex) {
+                            // skip only this entry; the rest of the batch, and the close marker, still count
+                            logger.log(Level.SEVERE, "Failed to write to the transaction ledger", ex);
+                        }
+                    }
+                    batch.clear();
+                }
+                if (!running || System.nanoTime() - lastForce >= flushIntervalNanos) {
+                    force();
+                    lastForce = System.nanoTime();
+                }
+            } catch (InterruptedException ex) {
+                // only close() stops the writer, so every queued entry is written
+                Thread.interrupted();
+            } catch (IOException | RuntimeException ex) {
+                logger.log(Level.SEVERE, "Failed to flush the transaction ledger", ex);
+            }
+        }
+        try {
+            itemsOut.close();
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Failed to close the ledger item file", ex);
+        }
+        if (dropped.get() > 0L) {
+            logger.warning("Transaction ledger dropped " + dropped.get() + " entries while the writer was behind.");
+        }
+    }
+
+    private void append(LedgerEntry entry) throws IOException {
+        if (active.isFull()) {
+            rollOver();
+        }
+        int itemId = itemId(entry.item());
+        active.append(entry, itemId);
+    }
+
+    private int itemId(String item) throws IOException {
+        Integer id = itemIds.get(item);
+        if (id != null) {
+            return id;
+        }
+        // keys end up one per line, so a line break inside a key would shift every later id
+        String key = item.replace('\n', ' ').replace('\r', ' ');
+        itemsOut.write(key);
+        itemsOut.write('\n');
+        itemsOut.flush();
+        int created = itemNames.size();
+        itemNames.add(key);
+        itemIds.put(item, created);
+        return created;
+    }
+
+    private void force() throws IOException {
+        itemsOut.flush();
+        active.force();
+    }
+
+    private void rollOver() throws IOException {
+        active.seal(this);
+        active = createSegment(active.sequence + 1L);
+        applyRetention();
+    }
+
+    private Segment createSegment(long sequence) throws IOException {
+        File file = new File(directory, String.format("%016d%s", sequence, SEGMENT_SUFFIX));
+        Segment segment = Segment.openActive(file, sequence, segmentRecords);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void applyRetention() {
+        if (retentionMillis <= 0L) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (Segment segment : segments) {
+            if (segment.sealed && segment.maxTime < cutoff) {
+                segments.remove(segment);
+                deleteQuietly(segment.file);
+                deleteQuietly(indexFile(segment.file));
+            }
+        }
+    }
+
+    private void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Failed to delete expired ledger file " + file.getName(), ex);
+        }
+    }
+
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private static File indexFile(File segmentFile) {
+        String name = segmentFile.getName();
+        return new File(segmentFile.getParentFile(), name.substring(0, name.length() - SEGMENT_SUFFIX.length())
+                + INDEX_SUFFIX);
+    }
+
+    private LedgerEntry decode(ByteBuffer buffer, int offset) {
+        long timestamp = buffer.getLong(offset);
+        UUID player = new UUID(buffer.getLong(offset + 8), buffer.getLong(offset + 16));
+        long counterpartyMost = buffer.getLong(offset + 24);
+        long counterpartyLeast = buffer.getLong(offset + 32);
+        UUID counterparty = counterpartyMost == 0L && counterpartyLeast == 0L ? null
+                : new UUID(counterpartyMost, counterpartyLeast);
+        int itemId = buffer.getInt(offset + 40);
+        String item = itemId >= 0 && itemId < itemNames.size() ? itemNames.get(itemId) : "#" + itemId;
+        return new LedgerEntry(timestamp, player, counterparty, LedgerEntry.Source.values()[buffer.get(offset + 56)],
+                LedgerEntry.Side.values()[buffer.get(offset + 57)], item, buffer.getInt(offset + 44),
+                buffer.getDouble(offset + 48));
+    }
+
+    /**
+     * One segment file. The active segment is written by the writer thread only and publishes each
+     * record through {@link #count}; a sealed segment never changes again and is read through its summary.
+     */
+    private static final class Segment {
+
+        private final File file;
+        private final long sequence;
+        private volatile MappedByteBuffer buffer;
+        private volatile int count;
+        private int capacity;
+        private volatile boolean sealed;
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+        private final Set<UUID> players = new HashSet<>();
+        private final BitSet items = new BitSet();
+
+        private Segment(File file, long sequence) {
+            this.file = file;
+            this.sequence = sequence;
+        }
+
+        static Segment openActive(File file, long sequence, int segmentRecords) throws IOException {
+            Segment segment = new Segment(file, sequence);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // a segment created with a larger segment-records setting keeps its size
+                segment.capacity = (int) Math.max(segmentRecords, channel.size() / RECORD_BYTES);
+                segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, (long) segment.capacity * RECORD_BYTES);
+            }
+            segment.summarize(segment.buffer, segment.capacity);
+            return segment;
+        }
+
+        static Segment openSealed(File file, long sequence, SegmentedLedger ledger) throws IOException {
+            Segment segment = new Segment(file, sequence);
+            if (!segment.readIndex()) {
+                ByteBuffer contents = segment.map();
+                segment.summarize(contents, contents.capacity() / RECORD_BYTES);
+                segment.writeIndex(ledger.logger);
+            }
+            segment.sealed = true;
+            return segment;
+        }
+
+        boolean isFull() {
+            return count >= capacity;
+        }
+
+        void append(LedgerEntry entry, int itemId) {
+            MappedByteBuffer target = buffer;
+            int offset = count * RECORD_BYTES;
+            target.putLong(offset, entry.timestamp());
+            target.putLong(offset + 8, entry.player().getMostSignificantBits());
+            target.putLong(offset + 16, entry.player().getLeastSignificantBits());
+            UUID counterparty = entry.counterparty();
+            target.putLong(offset + 24, counterparty != null ? counterparty.getMostSignificantBits() : 0L);
+            target.putLong(offset + 32, counterparty != null ? counterparty.getLeastSignificantBits() : 0L);
+            target.putInt(offset + 40, itemId);
+            target.putInt(offset + 44, entry.amount());
+            target.putDouble(offset + 48, entry.total());
+            target.put(offset + 56, (byte) entry.source().ordinal());
+            target.put(offset + 57, (byte) entry.side().ordinal());
+            note(entry.timestamp(), entry.player(), counterparty, itemId);
+            count = count + 1;
+        }
+
+        void force() {
+            MappedByteBuffer target = buffer;
+            if (target != null) {
+                target.force();
+            }
+        }
+
+        void seal(SegmentedLedger ledger) {
+            force();
+            writeIndex(ledger.logger);
+            buffer = null;
+            sealed = true;
+        }
+
+        boolean mayContain(LedgerQuery query, Integer itemId) {
+            if (!sealed) {
+                return true;
+            }
+            return count > 0 && maxTime >= query.from() && minTime <= query.to()
+                    && (query.player() == null || players.contains(query.player()))
+                    && (itemId == null || items.get(itemId));
+        }
+
+        void scan(LedgerQuery query, Integer itemId, List<LedgerEntry> matches, SegmentedLedger ledger)
+                throws IOException {
+            int records = count;
+            ByteBuffer contents = sealed ? map() : buffer;
+            if (contents == null) {
+                // sealed by the writer after this scan began
+                contents = map();
+            }
+            for (int record = records - 1; record >= 0 && matches.size() < query.limit(); record--) {
+                int offset = record * RECORD_BYTES;
+                long timestamp = contents.getLong(offset);
+                if (timestamp < query.from() || timestamp > query.to()) {
+                    continue;
+                }
+                if (itemId != null && contents.getInt(offset + 40) != itemId) {
+                    continue;
+                }
+                LedgerEntry entry = ledger.decode(contents, offset);
+                if (query.matches(entry)) {
+                    matches.add(entry);
+                }
+            }
+        }
+
+        private ByteBuffer map() throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            }
+        }
+
+        private void summarize(ByteBuffer contents, int capacity) {
+            int records = 0;
+            while (records < capacity && contents.getLong(records * RECORD_BYTES) != 0L) {
+                int offset = records * RECORD_BYTES;
+                long counterpartyMost = contents.getLong(offset + 24);
+                long counterpartyLeast = contents.getLong(offset + 32);
+                note(contents.getLong(offset),
+                        new UUID(contents.getLong(offset + 8), contents.getLong(offset + 16)),
+                        counterpartyMost == 0L && counterpartyLeast == 0L ? null
+                                : new UUID(counterpartyMost, counterpartyLeast),
+                        contents.getInt(offset + 40));
+                records++;
+            }
+            count = records;
+        }
+
+        private void note(long timestamp, UUID player, UUID counterparty, int itemId) {
+            minTime = Math.min(minTime, timestamp);
+            maxTime = Math.max(maxTime, timestamp);
+            players.add(player);
+            if (counterparty != null) {
+                players.add(counterparty);
+            }
+            items.set(itemId);
+        }
+
+        private boolean readIndex() {
+            File index = indexFile(file);
+            if (!index.isFile()) {
+                return false;
+            }
+            try (DataInputStream in = new DataInputStream(new FileInputStream(index))) {
+                if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                    return false;
+                }
+                int records = in.readInt();
+                minTime = in.readLong();
+                maxTime = in.readLong();
+                int playerCount = in.readInt();
+                for (int i = 0; i < playerCount; i++) {
+                    players.add(new UUID(in.readLong(), in.readLong()));
+                }
+                long[] words = new long[in.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.readLong();
+                }
+                items.or(BitSet.valueOf(words));
+                count = records;
+                return true;
+            } catch (IOException ex) {
+                players.clear();
+                items.clear();
+                minTime = Long.MAX_VALUE;
+                maxTime = Long.MIN_VALUE;
+                return false;
+            }
+        }
+
+        private void writeIndex(Logger logger) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(count);
+                out.writeLong(minTime);
+                out.writeLong(maxTime);
+                out.writeInt(players.size());
+                for (UUID player : players) {
+                    out.writeLong(player.getMostSignificantBits());
+                    out.writeLong(player.getLeastSignificantBits());
+                }
+                long[] words = items.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+                out.flush();
+                AtomicFileWriter.write(indexFile(file), bytes.toByteArray());
+            } catch (IOException ex) {
+                // the segment is summarized again from its records on the next start
+                logger.log(Level.WARNING, "Failed to write ledger index for " + file.getName(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.skyblockexp.ezshops.ledger;
+
+import java.util.List;
+
+/**
+ * Append-only record of completed shop, sign shop, auto-sell, player shop and stock trades.
+ */
+public interface TransactionLedger extends AutoCloseable {
+
+    /**
+     * A ledger that keeps nothing, used when the ledger is disabled.
+     */
+    TransactionLedger DISABLED = new TransactionLedger() {
+        @Override
+        public void record(LedgerEntry entry) {
+        }
+
+        @Override
+        public List<LedgerEntry> query(LedgerQuery query) {
+            return List.of();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Queues {@code entry} for writing. Never blocks and never touches the disk on the calling thread.
+     */
+    void record(LedgerEntry entry);
+
+    /**
+     * Returns the entries matching {@code query}, newest first. Reads from disk, so call it off the main
+     * thread.
+     */
+    List<LedgerEntry> query(LedgerQuery query);
+
+    /**
+     * Writes every queued entry and releases the ledger files.
+     */
+    @Override
+    void close();
+}
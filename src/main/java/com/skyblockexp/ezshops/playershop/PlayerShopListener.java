@@ -2,6 +2,7 @@ package com.skyblockexp.ezshops.playershop;
 
 import com.skyblockexp.ezshops.config.PlayerShopConfiguration;
 import com.skyblockexp.ezshops.playershop.PlayerShopMessages;
+import com.skyblockexp.ezshops.shop.ShopRateLimiter;
 import com.skyblockexp.ezshops.shop.ShopTransactionResult;
 import java.text.NumberFormat;
 import java.util.Locale;
@@ -37,6 +38,8 @@ public final class PlayerShopListener implements Listener {
     private final PlayerShopManager manager;
     private final PlayerShopConfiguration configuration;
     private final PlayerShopMessages messages;
+    private ShopRateLimiter rateLimiter = ShopRateLimiter.UNLIMITED;
+    private String rateLimitedMessage = "";
 
     public PlayerShopListener(PlayerShopManager manager, PlayerShopConfiguration configuration) {
         this.manager = Objects.requireNonNull(manager, "manager");
@@ -44,6 +47,15 @@ public final class PlayerShopListener implements Listener {
         this.messages = configuration.messages();
     }
 
+    /**
+     * Limits how fast a player can buy from player shops; clicks over the limit are refused with
+     * {@code rateLimitedMessage}.
+     */
+    public void setRateLimiter(ShopRateLimiter rateLimiter, String rateLimitedMessage) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+        this.rateLimitedMessage = Objects.requireNonNull(rateLimitedMessage, "rateLimitedMessage");
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onSignChange(SignChangeEvent event) {
         Player player = event.getPlayer();
@@ -124,8 +136,14 @@ public final class PlayerShopListener implements Listener {
                 return;
             }
             event.setCancelled(true);
+            if (!rateLimiter.tryAcquire(player.getUniqueId(), ShopRateLimiter.Action.PLAYER_SHOP)) {
+                player.sendMessage(rateLimitedMessage);
+                return;
+            }
             ShopTransactionResult result = manager.purchase(shop, player);
-            player.sendMessage(result.message());
+            if (!result.pending()) {
+                player.sendMessage(result.message());
+            }
             return;
         }
 
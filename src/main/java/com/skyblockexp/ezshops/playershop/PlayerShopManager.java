@@ -1,8 +1,13 @@
 package com.skyblockexp.ezshops.playershop;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.repository.PlayerShopRepository;
 import com.skyblockexp.ezshops.config.PlayerShopConfiguration;
 import com.skyblockexp.ezshops.playershop.SignFormat;
+import com.skyblockexp.ezshops.common.EconomyPipeline;
+import com.skyblockexp.ezshops.common.InventoryCapacity;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import com.skyblockexp.ezshops.shop.ShopTransactionResult;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -52,6 +57,8 @@ public final class PlayerShopManager {
     private final Map<String, PlayerShop> shopsBySign;
     private final Map<String, PlayerShop> shopsByChest;
     private final Map<UUID, PlayerShopSetup> pendingSetups;
+    private EconomyPipeline economyPipeline;
+    private TransactionLedger ledger = TransactionLedger.DISABLED;
 
     public PlayerShopManager(JavaPlugin plugin, Economy economy, PlayerShopConfiguration configuration,
             PlayerShopRepository repository) {
@@ -63,6 +70,23 @@ public final class PlayerShopManager {
         this.shopsBySign = new HashMap<>();
         this.shopsByChest = new HashMap<>();
         this.pendingSetups = new HashMap<>();
+        this.economyPipeline = EconomyPipeline.direct(economy);
+    }
+
+    /**
+     * Routes purchase payments through {@code economyPipeline}. With an asynchronous pipeline
+     * {@link #purchase(PlayerShop, Player)} returns {@link ShopTransactionResult#pending()} and the outcome
+     * is sent to the buyer once paid.
+     */
+    public void setEconomyPipeline(EconomyPipeline economyPipeline) {
+        this.economyPipeline = Objects.requireNonNull(economyPipeline, "economyPipeline");
+    }
+
+    /**
+     * Records every completed purchase to {@code ledger}, with the shop owner as counterparty.
+     */
+    public void setTransactionLedger(TransactionLedger ledger) {
+        this.ledger = Objects.requireNonNull(ledger, "ledger");
     }
 
     public void enable() {
@@ -285,41 +309,59 @@ public final class PlayerShopManager {
             return ShopTransactionResult.failure(messages.purchaseNoSpace());
         }
 
+        // the stock leaves the chest before any money moves, so a concurrent buyer cannot take it as well
+        int quantity = shop.quantityPerSale();
+        removeItems(inventory, template, quantity);
         double price = shop.price();
-        EconomyResponse withdraw = economy.withdrawPlayer(buyer, price);
-        if (!withdraw.transactionSuccess()) {
-            return ShopTransactionResult.failure(messages.purchaseTransactionFailed(withdraw.errorMessage));
-        }
-
-        removeItems(inventory, template, shop.quantityPerSale());
-
-        Map<Integer, ItemStack> leftovers = buyer.getInventory().addItem(toGive);
-        int deliveredAmount = shop.quantityPerSale();
-        if (!leftovers.isEmpty()) {
-            deliveredAmount = deliveredAmount - leftovers.values().stream().filter(Objects::nonNull)
-                    .mapToInt(ItemStack::getAmount).sum();
-        }
-
-        if (deliveredAmount < shop.quantityPerSale()) {
-            int amountToReturn = shop.quantityPerSale() - deliveredAmount;
-            addItems(inventory, template, amountToReturn);
-            economy.depositPlayer(buyer, price);
-            removeItems(buyer.getInventory(), template, deliveredAmount);
-            refreshSign(shop);
-            return ShopTransactionResult.failure(messages.purchaseNoSpace());
-        }
-
         OfflinePlayer owner = Bukkit.getOfflinePlayer(shop.ownerId());
-        EconomyResponse deposit = economy.depositPlayer(owner, price);
-        if (!deposit.transactionSuccess()) {
-            removeItems(buyer.getInventory(), template, shop.quantityPerSale());
-            addItems(inventory, template, shop.quantityPerSale());
-            economy.depositPlayer(buyer, price);
-            refreshSign(shop);
-            return ShopTransactionResult.failure(messages.purchaseTransactionFailed(deposit.errorMessage));
+        boolean async = economyPipeline.isAsync();
+        ShopTransactionResult[] inline = new ShopTransactionResult[1];
+        economyPipeline.submit(buyer.getUniqueId(), econ -> {
+            EconomyResponse withdraw = econ.withdrawPlayer(buyer, price);
+            if (!withdraw.transactionSuccess()) {
+                return withdraw;
+            }
+            EconomyResponse deposit = econ.depositPlayer(owner, price);
+            if (!deposit.transactionSuccess()) {
+                econ.depositPlayer(buyer, price);
+            }
+            return deposit;
+        }, (response, error) -> {
+            ShopTransactionResult result;
+            if (error != null || response == null || !response.transactionSuccess()) {
+                returnToChest(shop, template, quantity);
+                refreshSign(shop);
+                result = ShopTransactionResult.failure(messages.purchaseTransactionFailed(
+                        error != null ? error.getMessage() : response != null ? response.errorMessage : null));
+            } else {
+                result = completePurchase(shop, buyer, owner, template, price);
+            }
+            if (!async) {
+                inline[0] = result;
+            } else if (buyer.isOnline()) {
+                buyer.sendMessage(result.message());
+            }
+        });
+        return async ? ShopTransactionResult.pending() : inline[0];
+    }
+
+    /**
+     * Hands the paid items to the buyer, dropping whatever no longer fits, and notifies the owner.
+     */
+    private ShopTransactionResult completePurchase(PlayerShop shop, Player buyer, OfflinePlayer owner,
+            ItemStack template, double price) {
+        ItemStack toGive = template.clone();
+        toGive.setAmount(shop.quantityPerSale());
+        for (ItemStack leftover : buyer.getInventory().addItem(toGive).values()) {
+            if (leftover != null && leftover.getAmount() > 0) {
+                buyer.getWorld().dropItemNaturally(buyer.getLocation(), leftover);
+            }
         }
 
         refreshSign(shop);
+        ledger.record(new LedgerEntry(System.currentTimeMillis(), buyer.getUniqueId(), shop.ownerId(),
+                LedgerEntry.Source.PLAYER_SHOP, LedgerEntry.Side.BUY, template.getType().name(),
+                shop.quantityPerSale(), price));
         String ownerName = owner != null ? owner.getName() : messages.unknownSellerName();
         if (ownerName == null || ownerName.isEmpty()) {
             ownerName = messages.unknownSellerName();
@@ -336,6 +378,25 @@ public final class PlayerShopManager {
                 .success(messages.purchaseBuyerSuccess(itemName, ownerName, formatCurrency(price)));
     }
 
+    /**
+     * Puts reserved stock back into the shop chest, or drops it at the chest if the chest is gone or full.
+     */
+    private void returnToChest(PlayerShop shop, ItemStack template, int amount) {
+        Inventory inventory = getInventory(shop.primaryChestLocation());
+        Location dropAt = shop.primaryChestLocation();
+        int remaining = amount;
+        if (inventory != null) {
+            remaining -= InventoryCapacity.deliverable(inventory, template, amount);
+            addItems(inventory, template, amount - remaining);
+        }
+        while (remaining > 0 && dropAt.getWorld() != null) {
+            ItemStack stack = template.clone();
+            stack.setAmount(Math.min(remaining, Math.max(1, template.getMaxStackSize())));
+            remaining -= stack.getAmount();
+            dropAt.getWorld().dropItemNaturally(dropAt, stack);
+        }
+    }
+
     public void removeShop(PlayerShop shop) {
         if (shop == null) {
             return;
@@ -395,7 +456,7 @@ public final class PlayerShopManager {
         String ownerName = Optional.ofNullable(Bukkit.getOfflinePlayer(shop.ownerId()).getName())
                 .filter(name -> !name.isBlank()).orElse(signFormat.unknownOwnerName());
         ItemStack template = shop.itemTemplate();
-        String itemName = friendlyItemName(template.getType());
+        String itemName = DisplayNames.material(template.getType());
         String priceText = formatCurrency(shop.price());
         return signFormat.formatLines(ownerName, shop.quantityPerSale(), itemName, priceText, hasStock);
     }
@@ -583,28 +644,7 @@ public final class PlayerShopManager {
         if (player == null || item == null) {
             return false;
         }
-        int remaining = item.getAmount();
-        int stackLimit = Math.min(item.getMaxStackSize(), player.getInventory().getMaxStackSize());
-        for (ItemStack content : player.getInventory().getStorageContents()) {
-            if (remaining <= 0) {
-                break;
-            }
-            if (content == null || content.getType() == Material.AIR) {
-                remaining -= stackLimit;
-                continue;
-            }
-            if (!content.isSimilar(item)) {
-                continue;
-            }
-            int contentLimit = Math.min(stackLimit, content.getMaxStackSize());
-            remaining -= Math.max(0, contentLimit - content.getAmount());
-        }
-        return remaining <= 0;
-    }
-
-    private String friendlyItemName(Material material) {
-        return material == null ? "Item"
-                : capitalize(material.name().replace('_', ' ').toLowerCase(Locale.US));
+        return InventoryCapacity.deliverable(player.getInventory(), item, item.getAmount()) >= item.getAmount();
     }
 
     private String describeItem(ItemStack item, int amount) {
@@ -616,29 +656,11 @@ public final class PlayerShopManager {
         if (meta != null && meta.hasDisplayName()) {
             itemName = meta.getDisplayName();
         } else {
-            itemName = ChatColor.AQUA + friendlyItemName(item.getType());
+            itemName = ChatColor.AQUA + DisplayNames.material(item.getType());
         }
         return messages.menu().itemDescription(amount, itemName);
     }
 
-    private String capitalize(String text) {
-        String[] parts = text.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            if (builder.length() > 0) {
-                builder.append(' ');
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-        }
-        return builder.length() == 0 ? text : builder.toString();
-    }
-
     private String formatCurrency(double value) {
         synchronized (CURRENCY_FORMAT) {
             return CURRENCY_FORMAT.format(value);
@@ -2,6 +2,7 @@ package com.skyblockexp.ezshops.repository.yml;
 
 import com.skyblockexp.ezshops.repository.PlayerShopRepository;
 import com.skyblockexp.ezshops.playershop.PlayerShop;
+import com.skyblockexp.ezshops.util.ItemStackCodec;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -20,8 +21,15 @@ import java.util.stream.Collectors;
 /**
  * YML-based implementation of PlayerShopRepository.
  * Handles persistence of player shops to player-shops.yml file.
+ *
+ * <p>Item templates are written once for the whole file as an {@link ItemStackCodec} buffer under
+ * {@code item-palette}, which each shop points into with {@code item-index}. Files written by older versions
+ * keep an {@code item} map per shop instead; those are still read, and are rewritten in the palette format
+ * on the next save. Only if the palette cannot be encoded does each shop get its own {@code item} map.</p>
  */
 public class YmlPlayerShopRepository implements PlayerShopRepository {
+
+    private static final String PALETTE_KEY = "item-palette";
     
     private final File dataFile;
     private final Logger logger;
@@ -50,6 +58,7 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
         if (section == null) {
             return shops;
         }
+        List<ItemStack> palette = readPalette(configuration);
         
         for (String key : section.getKeys(false)) {
             ConfigurationSection shopSection = section.getConfigurationSection(key);
@@ -64,7 +73,7 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
                     logger.log(Level.INFO,
                             "Skipping player shop at {0} because world ''{1}'' is not loaded; preserving entry.",
                             new Object[] { key, signWorld });
-                    deferredEntries.put(key, new HashMap<>(shopSection.getValues(false)));
+                    deferredEntries.put(key, deferredValues(shopSection, palette));
                 }
                 continue;
             }
@@ -84,7 +93,7 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
             
             int quantity = shopSection.getInt("quantity");
             double price = shopSection.getDouble("price");
-            ItemStack item = shopSection.getItemStack("item");
+            ItemStack item = readItem(shopSection, palette);
             List<String> chestKeys = shopSection.getStringList("chests");
             if (quantity <= 0 || price <= 0 || item == null || chestKeys.isEmpty()) {
                 continue;
@@ -108,7 +117,7 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
                 logger.log(Level.INFO,
                         "Skipping player shop at {0} because world(s) {1} are not loaded; preserving entry.",
                         new Object[] { key, String.join(", ", missingWorlds) });
-                deferredEntries.put(key, new HashMap<>(shopSection.getValues(false)));
+                deferredEntries.put(key, deferredValues(shopSection, palette));
                 continue;
             }
             
@@ -140,6 +149,8 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
         
         YamlConfiguration configuration = new YamlConfiguration();
         ConfigurationSection section = configuration.createSection("shops");
+        Map<ItemStack, Integer> paletteIndex = new HashMap<>();
+        List<ItemStack> palette = new ArrayList<>();
         
         for (PlayerShop shop : shopsBySign.values()) {
             String key = locationKey(shop.signLocation());
@@ -147,7 +158,7 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
             shopSection.set("owner", shop.ownerId().toString());
             shopSection.set("quantity", shop.quantityPerSale());
             shopSection.set("price", shop.price());
-            shopSection.set("item", shop.itemTemplate());
+            shopSection.set("item-index", paletteEntry(shop.itemTemplate(), paletteIndex, palette));
             List<String> chestKeys = shop.chestLocations().stream()
                     .map(this::locationKey)
                     .collect(Collectors.toList());
@@ -158,7 +169,14 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
             if (section.getConfigurationSection(entry.getKey()) != null) {
                 continue;
             }
-            section.createSection(entry.getKey(), entry.getValue());
+            ConfigurationSection deferredSection = section.createSection(entry.getKey(), entry.getValue());
+            if (deferredSection.get("item") instanceof ItemStack item) {
+                deferredSection.set("item", null);
+                deferredSection.set("item-index", paletteEntry(item, paletteIndex, palette));
+            }
+        }
+        if (!writePalette(configuration, palette)) {
+            inlineItems(section, palette);
         }
         
         try {
@@ -215,6 +233,88 @@ public class YmlPlayerShopRepository implements PlayerShopRepository {
         return new HashMap<>(deferredEntries);
     }
     
+    /**
+     * Reads a shop's item template from the file's palette, falling back to the shop's own {@code item}
+     * map.
+     */
+    private static ItemStack readItem(ConfigurationSection shopSection, List<ItemStack> palette) {
+        int index = shopSection.getInt("item-index", -1);
+        if (index >= 0 && index < palette.size() && palette.get(index) != null) {
+            return palette.get(index).clone();
+        }
+        return shopSection.getItemStack("item");
+    }
+
+    private List<ItemStack> readPalette(YamlConfiguration configuration) {
+        String data = configuration.getString(PALETTE_KEY);
+        if (data == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return ItemStackCodec.decodeAll(Base64.getDecoder().decode(data));
+        } catch (IOException | IllegalArgumentException ex) {
+            logger.log(Level.WARNING, "Unreadable player shop item palette; using each shop's own item.", ex);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns the palette index of {@code item}, adding it to the palette if no equal item is there yet.
+     */
+    private static int paletteEntry(ItemStack item, Map<ItemStack, Integer> paletteIndex, List<ItemStack> palette) {
+        Integer index = paletteIndex.get(item);
+        if (index == null) {
+            index = palette.size();
+            paletteIndex.put(item.clone(), index);
+            palette.add(item);
+        }
+        return index;
+    }
+
+    /**
+     * Writes the palette, returning {@code false} if it could not be encoded.
+     */
+    private boolean writePalette(YamlConfiguration configuration, List<ItemStack> palette) {
+        if (palette.isEmpty()) {
+            return true;
+        }
+        try {
+            configuration.set(PALETTE_KEY, Base64.getEncoder().encodeToString(ItemStackCodec.encodeAll(palette)));
+            return true;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to encode player shop item palette; storing items uncompressed.", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Replaces every shop's palette index with its own {@code item} map.
+     */
+    private static void inlineItems(ConfigurationSection section, List<ItemStack> palette) {
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection shopSection = section.getConfigurationSection(key);
+            if (shopSection == null || !shopSection.isInt("item-index")) {
+                continue;
+            }
+            shopSection.set("item", palette.get(shopSection.getInt("item-index")));
+            shopSection.set("item-index", null);
+        }
+    }
+
+    /**
+     * Copies a shop entry that cannot be loaded yet. Its palette index only holds for the file it was read
+     * from, so the entry carries its resolved item instead and is put back into the palette when saved.
+     */
+    private static Map<String, Object> deferredValues(ConfigurationSection shopSection, List<ItemStack> palette) {
+        Map<String, Object> values = new HashMap<>(shopSection.getValues(false));
+        values.remove("item-index");
+        ItemStack item = readItem(shopSection, palette);
+        if (item != null) {
+            values.put("item", item);
+        }
+        return values;
+    }
+
     private void ensureDataFile() throws IOException {
         if (!dataFile.exists()) {
             File parent = dataFile.getParentFile();
@@ -6,6 +6,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * YML-based implementation of StockMarketRepository.
@@ -14,12 +15,13 @@ import java.util.*;
 public class YmlStockMarketRepository implements StockMarketRepository {
     
     private final File file;
+    // concurrent so trades can check it without waiting for a save
     private final Map<String, FrozenMeta> frozen;
     private final File pricesFile;
     
     public YmlStockMarketRepository(File dataFolder) {
         this.file = new File(dataFolder, "stock-frozen.yml");
-        this.frozen = new HashMap<>();
+        this.frozen = new ConcurrentHashMap<>();
         this.pricesFile = new File(dataFolder, "stock-prices.yml");
     }
 
@@ -98,7 +100,7 @@ public class YmlStockMarketRepository implements StockMarketRepository {
     }
     
     @Override
-    public synchronized boolean isFrozen(String id) {
+    public boolean isFrozen(String id) {
         return frozen.containsKey(id.toUpperCase());
     }
     
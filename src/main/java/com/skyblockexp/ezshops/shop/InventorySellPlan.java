@@ -0,0 +1,143 @@
+package com.skyblockexp.ezshops.shop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Slot by slot removal plan for selling from a player's storage contents, built in a single pass.
+ *
+ * <p>Planning never modifies the scanned stacks. {@link #apply(Inventory)} writes the reduced contents
+ * with one {@code setStorageContents} call and {@link #rollback(Inventory)} writes the scanned contents
+ * back unchanged, so a failed payout restores the inventory exactly as it was. When the payout completes
+ * later and the inventory may have changed meanwhile, {@link #refund(Inventory)} adds the taken items back
+ * instead.</p>
+ */
+final class InventorySellPlan {
+
+    private final ItemStack[] contents;
+    private final int[] taken;
+    private final Map<Material, Integer> amounts = new EnumMap<>(Material.class);
+
+    private InventorySellPlan(ItemStack[] contents) {
+        this.contents = contents;
+        this.taken = new int[contents.length];
+    }
+
+    /**
+     * Plans the removal of up to {@code limit} items of each sellable material.
+     *
+     * @param contents storage contents as returned by the inventory; the array is kept as the rollback
+     *                 snapshot and must not be modified afterwards
+     * @param ignored  stacks that must stay in the inventory regardless of their material
+     * @param sellable materials to take; evaluated once per material
+     * @param limit    maximum number of items taken per material
+     */
+    static InventorySellPlan plan(ItemStack[] contents, Predicate<ItemStack> ignored,
+            Predicate<Material> sellable, int limit) {
+        InventorySellPlan plan = new InventorySellPlan(contents);
+        Map<Material, Boolean> verdicts = new EnumMap<>(Material.class);
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack stack = contents[slot];
+            if (stack == null || stack.getType() == Material.AIR || stack.getAmount() <= 0) {
+                continue;
+            }
+            Material material = stack.getType();
+            if (!verdicts.computeIfAbsent(material, sellable::test)) {
+                continue;
+            }
+            int planned = plan.amounts.getOrDefault(material, 0);
+            if (planned >= limit || ignored.test(stack)) {
+                continue;
+            }
+            int take = Math.min(stack.getAmount(), limit - planned);
+            plan.taken[slot] = take;
+            plan.amounts.put(material, planned + take);
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the planned amount per material, in material order.
+     */
+    Map<Material, Integer> amounts() {
+        return Collections.unmodifiableMap(amounts);
+    }
+
+    int amount(Material material) {
+        return amounts.getOrDefault(material, 0);
+    }
+
+    boolean isEmpty() {
+        return amounts.isEmpty();
+    }
+
+    /**
+     * Drops every material rejected by {@code keep} from the plan; their slots are left untouched.
+     */
+    void retain(Predicate<Material> keep) {
+        if (!amounts.keySet().removeIf(material -> !keep.test(material))) {
+            return;
+        }
+        for (int slot = 0; slot < taken.length; slot++) {
+            if (taken[slot] > 0 && !amounts.containsKey(contents[slot].getType())) {
+                taken[slot] = 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the planned items with a single storage write.
+     */
+    void apply(Inventory inventory) {
+        ItemStack[] updated = contents.clone();
+        for (int slot = 0; slot < taken.length; slot++) {
+            if (taken[slot] <= 0) {
+                continue;
+            }
+            int left = contents[slot].getAmount() - taken[slot];
+            if (left <= 0) {
+                updated[slot] = null;
+            } else {
+                ItemStack reduced = contents[slot].clone();
+                reduced.setAmount(left);
+                updated[slot] = reduced;
+            }
+        }
+        inventory.setStorageContents(updated);
+    }
+
+    /**
+     * Restores the storage contents the plan was built from.
+     */
+    void rollback(Inventory inventory) {
+        inventory.setStorageContents(contents.clone());
+    }
+
+    /**
+     * Adds the taken items back to {@code inventory} without touching anything else in it, for when the
+     * inventory may have changed since {@link #apply(Inventory)}.
+     *
+     * @return the items that no longer fit
+     */
+    List<ItemStack> refund(Inventory inventory) {
+        List<ItemStack> returned = new ArrayList<>();
+        for (int slot = 0; slot < taken.length; slot++) {
+            if (taken[slot] > 0) {
+                ItemStack stack = contents[slot].clone();
+                stack.setAmount(taken[slot]);
+                returned.add(stack);
+            }
+        }
+        if (returned.isEmpty()) {
+            return List.of();
+        }
+        return new ArrayList<>(inventory.addItem(returned.toArray(ItemStack[]::new)).values());
+    }
+}
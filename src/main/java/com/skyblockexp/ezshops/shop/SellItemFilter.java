@@ -0,0 +1,191 @@
+package com.skyblockexp.ezshops.shop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Decides which stacks selling leaves in the player's inventory, compiled once from the {@code sell}
+ * section of {@code config.yml}.
+ *
+ * <p>Only stacks carrying persistent data are candidates. With {@code ignore-items-with-nbt} enabled,
+ * such a stack is kept when the filter mode is {@code off}, when any of its keys is missing from the
+ * whitelist, or when any of its keys is on the blacklist.</p>
+ */
+public final class SellItemFilter {
+
+    public static final SellItemFilter DISABLED = new SellItemFilter(false, Mode.OFF, Set.of(), Set.of());
+
+    public enum Mode {
+        OFF,
+        WHITELIST,
+        BLACKLIST;
+
+        static Mode fromConfig(String value) {
+            if (value == null) {
+                return OFF;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final Mode mode;
+    private final Set<NamespacedKey> whitelist;
+    private final Set<NamespacedKey> blacklist;
+
+    private SellItemFilter(boolean enabled, Mode mode, Set<NamespacedKey> whitelist, Set<NamespacedKey> blacklist) {
+        this.enabled = enabled;
+        this.mode = mode;
+        this.whitelist = whitelist;
+        this.blacklist = blacklist;
+    }
+
+    public static SellItemFilter of(boolean enabled, Mode mode, Collection<NamespacedKey> whitelist,
+            Collection<NamespacedKey> blacklist) {
+        return new SellItemFilter(enabled, mode != null ? mode : Mode.OFF,
+                whitelist != null ? Set.copyOf(whitelist) : Set.of(),
+                blacklist != null ? Set.copyOf(blacklist) : Set.of());
+    }
+
+    /**
+     * Reads {@code sell.ignore-items-with-nbt} and {@code sell.nbt-filter} from {@code root}.
+     */
+    public static SellItemFilter from(ConfigurationSection root, Logger logger) {
+        ConfigurationSection sell = root != null ? root.getConfigurationSection("sell") : null;
+        if (sell == null) {
+            return DISABLED;
+        }
+        String rawMode = sell.getString("nbt-filter.mode", "off");
+        Mode mode = Mode.fromConfig(rawMode);
+        if (mode == null) {
+            logger.warning("Unknown sell.nbt-filter.mode '" + rawMode + "'; ignoring every item with NBT.");
+        }
+        return of(sell.getBoolean("ignore-items-with-nbt", false), mode,
+                parseKeys(sell.getStringList("nbt-filter.whitelist"), logger),
+                parseKeys(sell.getStringList("nbt-filter.blacklist"), logger));
+    }
+
+    /**
+     * Parses {@code namespace:key} strings; keys without a namespace belong to {@code minecraft}.
+     *
+     * @param logger receives a warning for every invalid key, or {@code null} to skip them silently
+     */
+    public static List<NamespacedKey> parseKeys(Collection<String> rawKeys, Logger logger) {
+        if (rawKeys == null || rawKeys.isEmpty()) {
+            return List.of();
+        }
+        List<NamespacedKey> keys = new ArrayList<>(rawKeys.size());
+        for (String rawKey : rawKeys) {
+            NamespacedKey key = rawKey != null ? NamespacedKey.fromString(rawKey.trim().toLowerCase(Locale.ROOT)) : null;
+            if (key != null) {
+                keys.add(key);
+            } else if (logger != null) {
+                logger.warning("Ignoring invalid NBT key '" + rawKey + "' in sell.nbt-filter.");
+            }
+        }
+        return keys;
+    }
+
+    public SellItemFilter withEnabled(boolean enabled) {
+        return new SellItemFilter(enabled, mode, whitelist, blacklist);
+    }
+
+    public SellItemFilter withMode(Mode mode, Collection<NamespacedKey> whitelist, Collection<NamespacedKey> blacklist) {
+        return of(enabled, mode, whitelist, blacklist);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Returns whether selling must leave {@code stack} alone.
+     */
+    public boolean ignores(ItemStack stack) {
+        if (!enabled || stack == null || !stack.hasItemMeta()) {
+            return false;
+        }
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) {
+            return false;
+        }
+        Set<NamespacedKey> stackKeys = meta.getPersistentDataContainer().getKeys();
+        if (stackKeys.isEmpty()) {
+            return false;
+        }
+        return switch (mode) {
+            case OFF -> true;
+            case WHITELIST -> !whitelist.containsAll(stackKeys);
+            case BLACKLIST -> containsAny(stackKeys);
+        };
+    }
+
+    /**
+     * Returns a check for a single transaction that reuses the verdict of an earlier
+     * {@linkplain ItemStack#isSimilar(ItemStack) similar} stack instead of reading its metadata again.
+     */
+    public Predicate<ItemStack> session() {
+        if (!enabled) {
+            return stack -> false;
+        }
+        return new Session();
+    }
+
+    private boolean containsAny(Set<NamespacedKey> stackKeys) {
+        for (NamespacedKey key : stackKeys) {
+            if (blacklist.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Memo of verdicts keyed by {@link Material}, checked with {@link ItemStack#isSimilar(ItemStack)} only
+     * against the few distinct stacks of the same material seen so far. Keying by material rather than by
+     * {@link ItemStack#hashCode()} avoids copying each stack's metadata just to look it up.
+     */
+    private final class Session implements Predicate<ItemStack> {
+
+        private final Map<Material, List<Verdict>> verdicts = new EnumMap<>(Material.class);
+
+        @Override
+        public boolean test(ItemStack stack) {
+            if (stack == null || !stack.hasItemMeta()) {
+                return false;
+            }
+            List<Verdict> candidates = verdicts.computeIfAbsent(stack.getType(), type -> new ArrayList<>(1));
+            for (Verdict candidate : candidates) {
+                if (candidate.stack().isSimilar(stack)) {
+                    return candidate.ignored();
+                }
+            }
+            boolean ignored = ignores(stack);
+            candidates.add(new Verdict(stack, ignored));
+            return ignored;
+        }
+    }
+
+    private record Verdict(ItemStack stack, boolean ignored) {
+    }
+}
@@ -0,0 +1,627 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.common.AtomicFileWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.EntityType;
+
+/**
+ * Binary snapshot of the fully resolved shop catalog: legacy price entries, rotation definitions, the
+ * main menu and every category template together with the registrations it makes. The snapshot is
+ * keyed by a hash of everything the catalog was built from; a start whose key matches reads the file
+ * and rebuilds the catalog from it instead of parsing YAML.
+ *
+ * <p>Anything unexpected while reading, including a material or enchantment that no longer exists,
+ * makes the snapshot a miss so the caller falls back to the YAML path. Writing is all or nothing: a
+ * catalog that contains a value the format cannot represent is simply not cached.</p>
+ */
+final class ShopCatalogCache {
+
+    private static final int MAGIC = 0x455A5343; // "EZSC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_BOOLEAN = 5;
+    private static final byte VALUE_LIST = 6;
+    private static final byte VALUE_MAP = 7;
+
+    private static final byte EFFECT_PRICE = 1;
+    private static final byte EFFECT_ITEM_TYPE = 2;
+
+    private final File file;
+    private final Logger logger;
+
+    ShopCatalogCache(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns a hex SHA-256 over the given parts, in order. Parts are length-prefixed so adjacent parts
+     * cannot run into each other.
+     */
+    static String key(List<String> parts) {
+        MessageDigest digest = sha256();
+        digest.update(Integer.toString(FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+        for (String part : parts) {
+            byte[] bytes = (part == null ? "" : part).getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns a hex SHA-256 of a file's content, or {@code "missing"} if it cannot be read.
+     */
+    static String hashFile(File source) {
+        try {
+            return HexFormat.of().formatHex(sha256().digest(java.nio.file.Files.readAllBytes(source.toPath())));
+        } catch (IOException ex) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Loads the snapshot if it exists and was written for {@code key}; returns {@code null} otherwise.
+     */
+    Snapshot load(String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // check the header first so a stale snapshot is never read in full
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES + keyBytes.length);
+            readFully(channel, header);
+            if (header.remaining() < header.capacity() || header.getInt() != MAGIC
+                    || header.getInt() != FORMAT_VERSION || !key.equals(readString(header))) {
+                return null;
+            }
+            // a heap buffer rather than a mapping, which would keep the file from being replaced on Windows
+            long length = channel.size() - header.capacity();
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer body = ByteBuffer.allocate((int) length);
+            readFully(channel, body);
+            if (body.remaining() < body.capacity()) {
+                return null;
+            }
+            return readSnapshot(body);
+        } catch (IOException | RuntimeException ex) {
+            logger.log(Level.WARNING, "Ignoring unreadable shop catalog cache " + file.getName(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Reads until {@code buffer} is full or the file ends, then flips it for reading.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the buffer is complete or the file ends
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Writes the snapshot for {@code key}, replacing any previous one. Failures are logged and leave the
+     * previous file in place.
+     */
+    void store(String key, Snapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, key);
+            writeSnapshot(out, snapshot);
+        } catch (IOException | IllegalArgumentException ex) {
+            logger.log(Level.FINE, "Shop catalog cannot be cached: " + ex.getMessage());
+            return;
+        }
+        try {
+            AtomicFileWriter.write(file, bytes.toByteArray());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to write shop catalog cache " + file.getName(), ex);
+        }
+    }
+
+    void invalidate() {
+        if (file.exists() && !file.delete()) {
+            logger.warning("Unable to delete shop catalog cache " + file.getName());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // writing
+
+    private static void writeSnapshot(DataOutputStream out, Snapshot snapshot) throws IOException {
+        out.writeInt(snapshot.legacyPrices().size());
+        for (ShopPricingManager.PriceRegistration registration : snapshot.legacyPrices()) {
+            writePriceRegistration(out, registration);
+        }
+        out.writeInt(snapshot.rotations().size());
+        for (ShopRotationDefinition rotation : snapshot.rotations()) {
+            writeRotation(out, rotation);
+        }
+        writeString(out, snapshot.mainMenuTitle());
+        out.writeInt(snapshot.mainMenuSize());
+        writeDecoration(out, snapshot.mainMenuFill());
+        writeButtons(out, snapshot.defaultCategoryButtons());
+        writeButtons(out, snapshot.mainMenuButtons());
+        out.writeInt(snapshot.categories().size());
+        for (ShopPricingManager.CachedCategory category : snapshot.categories()) {
+            writeTemplate(out, category.template());
+            out.writeInt(category.effects().size());
+            for (ShopPricingManager.CategoryEffect effect : category.effects()) {
+                if (effect instanceof ShopPricingManager.PriceRegistration registration) {
+                    out.writeByte(EFFECT_PRICE);
+                    writePriceRegistration(out, registration);
+                } else if (effect instanceof ShopPricingManager.ItemTypeRegistration registration) {
+                    out.writeByte(EFFECT_ITEM_TYPE);
+                    writeString(out, registration.material().name());
+                    writeString(out, registration.type().name());
+                    writeString(out, registration.context());
+                }
+            }
+        }
+    }
+
+    private static void writePriceRegistration(DataOutputStream out, ShopPricingManager.PriceRegistration registration)
+            throws IOException {
+        writeString(out, registration.priceKey());
+        writePrice(out, registration.price());
+        ShopPricingManager.DynamicSettings settings = registration.settings();
+        out.writeBoolean(settings != null);
+        if (settings != null) {
+            out.writeDouble(settings.startingMultiplier());
+            out.writeDouble(settings.minMultiplier());
+            out.writeDouble(settings.maxMultiplier());
+            out.writeDouble(settings.buyChange());
+            out.writeDouble(settings.sellChange());
+            out.writeDouble(settings.recoveryHalfLifeMillis());
+        }
+        writeEnum(out, registration.priceType());
+    }
+
+    private static void writeRotation(DataOutputStream out, ShopRotationDefinition rotation) throws IOException {
+        writeString(out, rotation.id());
+        Duration interval = rotation.interval();
+        out.writeBoolean(interval != null);
+        if (interval != null) {
+            out.writeLong(interval.getSeconds());
+            out.writeInt(interval.getNano());
+        }
+        writeString(out, rotation.mode().name());
+        out.writeInt(rotation.options().size());
+        for (ShopRotationOption option : rotation.options()) {
+            writeString(out, option.id());
+            writeDecoration(out, option.iconOverride());
+            writeString(out, option.menuTitleOverride());
+            writeValue(out, option.itemOverrides());
+            out.writeDouble(option.weight());
+        }
+        writeString(out, rotation.defaultOptionId());
+    }
+
+    private static void writeTemplate(DataOutputStream out, ShopPricingManager.CategoryTemplate template)
+            throws IOException {
+        writeString(out, template.id());
+        writeString(out, template.displayName());
+        writeDecoration(out, template.icon());
+        out.writeInt(template.slot());
+        writeString(out, template.menuTitle());
+        out.writeInt(template.menuSize());
+        writeDecoration(out, template.menuFill());
+        writeButtons(out, template.buttons());
+        out.writeBoolean(template.preserveLastRow());
+        writeItems(out, template.staticItems());
+        ShopPricingManager.RotationBinding rotation = template.rotation();
+        out.writeBoolean(rotation != null);
+        if (rotation != null) {
+            writeString(out, rotation.groupId());
+            writeDecoration(out, rotation.defaultIcon());
+            writeString(out, rotation.defaultMenuTitle());
+            out.writeInt(rotation.optionItems().size());
+            for (Map.Entry<String, List<ShopMenuLayout.Item>> entry : rotation.optionItems().entrySet()) {
+                writeString(out, entry.getKey());
+                writeItems(out, entry.getValue());
+            }
+        }
+        writeString(out, template.command());
+    }
+
+    private static void writeItems(DataOutputStream out, List<ShopMenuLayout.Item> items) throws IOException {
+        out.writeInt(items.size());
+        for (ShopMenuLayout.Item item : items) {
+            writeString(out, item.id());
+            writeString(out, item.material().name());
+            writeDecoration(out, item.display());
+            out.writeInt(item.slot());
+            out.writeInt(item.page());
+            out.writeInt(item.amount());
+            out.writeInt(item.bulkAmount());
+            writePrice(out, item.price());
+            writeEnum(out, item.type());
+            writeEnum(out, item.spawnerEntity());
+            out.writeInt(item.enchantments().size());
+            for (Map.Entry<Enchantment, Integer> entry : item.enchantments().entrySet()) {
+                writeString(out, entry.getKey().getKey().toString());
+                out.writeInt(entry.getValue());
+            }
+            out.writeInt(item.requiredIslandLevel());
+            writeEnum(out, item.priceType());
+            writeStrings(out, item.buyCommands());
+            writeStrings(out, item.sellCommands());
+            out.writeBoolean(item.commandsRunAsConsole());
+            writeString(out, item.priceId());
+            writeEnum(out, item.delivery());
+        }
+    }
+
+    private static void writeButtons(DataOutputStream out, List<ShopMenuLayout.ConfigurableButton> buttons)
+            throws IOException {
+        out.writeInt(buttons.size());
+        for (ShopMenuLayout.ConfigurableButton button : buttons) {
+            writeString(out, button.id());
+            out.writeInt(button.slot());
+            writeDecoration(out, button.display());
+            writeString(out, button.action().name());
+            writeString(out, button.sound());
+            out.writeFloat(button.soundVolume());
+            out.writeFloat(button.soundPitch());
+            writeString(out, button.command());
+        }
+    }
+
+    private static void writeDecoration(DataOutputStream out, ShopMenuLayout.ItemDecoration decoration)
+            throws IOException {
+        out.writeBoolean(decoration != null);
+        if (decoration != null) {
+            writeEnum(out, decoration.material());
+            out.writeInt(decoration.amount());
+            writeString(out, decoration.displayName());
+            writeStrings(out, decoration.lore());
+        }
+    }
+
+    private static void writePrice(DataOutputStream out, ShopPrice price) throws IOException {
+        out.writeDouble(price.buyPrice());
+        out.writeDouble(price.sellPrice());
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(VALUE_INT);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(VALUE_LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(VALUE_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // reading
+
+    private static Snapshot readSnapshot(ByteBuffer in) {
+        int legacyCount = in.getInt();
+        List<ShopPricingManager.PriceRegistration> legacyPrices = new ArrayList<>(legacyCount);
+        for (int i = 0; i < legacyCount; i++) {
+            legacyPrices.add(readPriceRegistration(in));
+        }
+        int rotationCount = in.getInt();
+        List<ShopRotationDefinition> rotations = new ArrayList<>(rotationCount);
+        for (int i = 0; i < rotationCount; i++) {
+            rotations.add(readRotation(in));
+        }
+        String mainMenuTitle = readString(in);
+        int mainMenuSize = in.getInt();
+        ShopMenuLayout.ItemDecoration mainMenuFill = readDecoration(in);
+        List<ShopMenuLayout.ConfigurableButton> defaultCategoryButtons = readButtons(in);
+        List<ShopMenuLayout.ConfigurableButton> mainMenuButtons = readButtons(in);
+        int categoryCount = in.getInt();
+        List<ShopPricingManager.CachedCategory> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            ShopPricingManager.CategoryTemplate template = readTemplate(in);
+            int effectCount = in.getInt();
+            List<ShopPricingManager.CategoryEffect> effects = new ArrayList<>(effectCount);
+            for (int j = 0; j < effectCount; j++) {
+                byte kind = in.get();
+                if (kind == EFFECT_PRICE) {
+                    effects.add(readPriceRegistration(in));
+                } else if (kind == EFFECT_ITEM_TYPE) {
+                    effects.add(new ShopPricingManager.ItemTypeRegistration(readMaterial(in),
+                            ShopMenuLayout.ItemType.valueOf(readString(in)), readString(in)));
+                } else {
+                    throw new IllegalStateException("unknown category effect " + kind);
+                }
+            }
+            categories.add(new ShopPricingManager.CachedCategory(template, List.copyOf(effects)));
+        }
+        return new Snapshot(legacyPrices, rotations, mainMenuTitle, mainMenuSize, mainMenuFill,
+                defaultCategoryButtons, mainMenuButtons, categories);
+    }
+
+    private static ShopPricingManager.PriceRegistration readPriceRegistration(ByteBuffer in) {
+        String priceKey = readString(in);
+        ShopPrice price = readPrice(in);
+        ShopPricingManager.DynamicSettings settings = null;
+        if (in.get() != 0) {
+            settings = new ShopPricingManager.DynamicSettings(in.getDouble(), in.getDouble(), in.getDouble(),
+                    in.getDouble(), in.getDouble(), in.getDouble());
+        }
+        return new ShopPricingManager.PriceRegistration(priceKey, price, settings,
+                readEnum(in, ShopPriceType.class));
+    }
+
+    private static ShopRotationDefinition readRotation(ByteBuffer in) {
+        String id = readString(in);
+        Duration interval = in.get() != 0 ? Duration.ofSeconds(in.getLong(), in.getInt()) : null;
+        ShopRotationMode mode = ShopRotationMode.valueOf(readString(in));
+        int optionCount = in.getInt();
+        List<ShopRotationOption> options = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            String optionId = readString(in);
+            ShopMenuLayout.ItemDecoration icon = readDecoration(in);
+            String menuTitle = readString(in);
+            @SuppressWarnings("unchecked")
+            Map<String, Map<String, Object>> overrides = (Map<String, Map<String, Object>>) readValue(in);
+            options.add(new ShopRotationOption(optionId, icon, menuTitle, overrides, in.getDouble()));
+        }
+        return new ShopRotationDefinition(id, interval, mode, options, readString(in));
+    }
+
+    private static ShopPricingManager.CategoryTemplate readTemplate(ByteBuffer in) {
+        String id = readString(in);
+        String displayName = readString(in);
+        ShopMenuLayout.ItemDecoration icon = readDecoration(in);
+        int slot = in.getInt();
+        String menuTitle = readString(in);
+        int menuSize = in.getInt();
+        ShopMenuLayout.ItemDecoration menuFill = readDecoration(in);
+        List<ShopMenuLayout.ConfigurableButton> buttons = readButtons(in);
+        boolean preserveLastRow = in.get() != 0;
+        List<ShopMenuLayout.Item> staticItems = readItems(in);
+        ShopPricingManager.RotationBinding rotation = null;
+        if (in.get() != 0) {
+            String groupId = readString(in);
+            ShopMenuLayout.ItemDecoration defaultIcon = readDecoration(in);
+            String defaultMenuTitle = readString(in);
+            int optionCount = in.getInt();
+            Map<String, List<ShopMenuLayout.Item>> optionItems = new LinkedHashMap<>();
+            for (int i = 0; i < optionCount; i++) {
+                optionItems.put(readString(in), readItems(in));
+            }
+            rotation = new ShopPricingManager.RotationBinding(groupId, defaultIcon, defaultMenuTitle, optionItems);
+        }
+        return new ShopPricingManager.CategoryTemplate(id, displayName, icon, slot, menuTitle, menuSize, menuFill,
+                buttons, preserveLastRow, staticItems, rotation, readString(in));
+    }
+
+    private static List<ShopMenuLayout.Item> readItems(ByteBuffer in) {
+        int count = in.getInt();
+        List<ShopMenuLayout.Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            Material material = readMaterial(in);
+            ShopMenuLayout.ItemDecoration display = readDecoration(in);
+            int slot = in.getInt();
+            int page = in.getInt();
+            int amount = in.getInt();
+            int bulkAmount = in.getInt();
+            ShopPrice price = readPrice(in);
+            ShopMenuLayout.ItemType type = readEnum(in, ShopMenuLayout.ItemType.class);
+            EntityType spawnerEntity = readEnum(in, EntityType.class);
+            int enchantmentCount = in.getInt();
+            Map<Enchantment, Integer> enchantments = new LinkedHashMap<>();
+            for (int j = 0; j < enchantmentCount; j++) {
+                String key = readString(in);
+                Enchantment enchantment = Enchantment.getByKey(NamespacedKey.fromString(key));
+                if (enchantment == null) {
+                    throw new IllegalStateException("unknown enchantment " + key);
+                }
+                enchantments.put(enchantment, in.getInt());
+            }
+            int requiredIslandLevel = in.getInt();
+            ShopPriceType priceType = readEnum(in, ShopPriceType.class);
+            List<String> buyCommands = readStrings(in);
+            List<String> sellCommands = readStrings(in);
+            boolean runAsConsole = in.get() != 0;
+            String priceId = readString(in);
+            DeliveryType delivery = readEnum(in, DeliveryType.class);
+            items.add(new ShopMenuLayout.Item(id, material, display, slot, page, amount, bulkAmount, price, type,
+                    spawnerEntity, enchantments, requiredIslandLevel, priceType, buyCommands, sellCommands,
+                    runAsConsole, priceId, delivery));
+        }
+        return items;
+    }
+
+    private static List<ShopMenuLayout.ConfigurableButton> readButtons(ByteBuffer in) {
+        int count = in.getInt();
+        List<ShopMenuLayout.ConfigurableButton> buttons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            int slot = in.getInt();
+            ShopMenuLayout.ItemDecoration display = readDecoration(in);
+            ShopMenuLayout.ButtonAction action = ShopMenuLayout.ButtonAction.valueOf(readString(in));
+            String sound = readString(in);
+            float volume = in.getFloat();
+            float pitch = in.getFloat();
+            buttons.add(new ShopMenuLayout.ConfigurableButton(id, slot, display, action, sound, volume, pitch,
+                    readString(in)));
+        }
+        return buttons;
+    }
+
+    private static ShopMenuLayout.ItemDecoration readDecoration(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        Material material = readEnum(in, Material.class);
+        int amount = in.getInt();
+        String displayName = readString(in);
+        return new ShopMenuLayout.ItemDecoration(material, amount, displayName, readStrings(in));
+    }
+
+    private static ShopPrice readPrice(ByteBuffer in) {
+        return new ShopPrice(in.getDouble(), in.getDouble());
+    }
+
+    private static Material readMaterial(ByteBuffer in) {
+        Material material = readEnum(in, Material.class);
+        if (material == null) {
+            throw new IllegalStateException("missing material");
+        }
+        return material;
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, Class<E> type) {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    private static List<String> readStrings(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte kind = in.get();
+        switch (kind) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_INT:
+                return in.getInt();
+            case VALUE_LONG:
+                return in.getLong();
+            case VALUE_DOUBLE:
+                return in.getDouble();
+            case VALUE_BOOLEAN:
+                return in.get() != 0;
+            case VALUE_LIST: {
+                int size = in.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case VALUE_MAP: {
+                int size = in.getInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalStateException("unknown value type " + kind);
+        }
+    }
+
+    /**
+     * The resolved catalog as produced by a full YAML load.
+     */
+    record Snapshot(List<ShopPricingManager.PriceRegistration> legacyPrices, List<ShopRotationDefinition> rotations,
+            String mainMenuTitle, int mainMenuSize, ShopMenuLayout.ItemDecoration mainMenuFill,
+            List<ShopMenuLayout.ConfigurableButton> defaultCategoryButtons,
+            List<ShopMenuLayout.ConfigurableButton> mainMenuButtons,
+            List<ShopPricingManager.CachedCategory> categories) {
+    }
+}
@@ -1,17 +1,25 @@
 package com.skyblockexp.ezshops.shop;
 
+import com.skyblockexp.ezshops.common.AtomicFileWriter;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.EconomyUtils;
+import com.skyblockexp.ezshops.common.GeometricPricing;
 import com.skyblockexp.ezshops.common.MessageUtil;
+import com.skyblockexp.ezshops.config.ConfigTranslator;
 import com.skyblockexp.ezshops.config.DynamicPricingConfiguration;
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -19,6 +27,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -28,6 +38,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
 
 /**
@@ -39,14 +50,21 @@ public class ShopPricingManager {
     private static final String CATEGORY_MENU_KEY = "category-menu";
     private static final String CATEGORIES_KEY = "categories";
     private static final String ROTATIONS_KEY = "rotations";
+    private static final String RECOVERY_STATE_KEY = "recovery";
 
     private final JavaPlugin plugin;
-    private final Map<String, PriceEntry> priceMap = new LinkedHashMap<>();
+    private final PriceTable priceMap = new PriceTable();
     private final Map<Material, ShopMenuLayout.ItemType> menuItemTypes = new EnumMap<>(Material.class);
     private final Logger logger;
     private final File dynamicStateFile;
     private final DynamicPricingConfiguration dynamicConfiguration;
     private YamlConfiguration dynamicStateConfiguration = new YamlConfiguration();
+    private final Object dynamicStateWriteLock = new Object();
+    private final AtomicLong dynamicStateGeneration = new AtomicLong();
+    private long writtenDynamicStateGeneration;
+    private volatile boolean dynamicStateDirty;
+    private final Set<String> pendingDynamicKeys = ConcurrentHashMap.newKeySet();
+    private BukkitTask dynamicStateFlushTask;
     private ShopMenuLayout menuLayout = ShopMenuLayout.empty();
     private final Map<String, ShopRotationDefinition> rotationDefinitions = new LinkedHashMap<>();
     private final Map<String, String> activeRotationOptions = new LinkedHashMap<>();
@@ -56,6 +74,16 @@ public class ShopPricingManager {
     private ShopMenuLayout.ItemDecoration mainMenuFillDecoration = null;
     private List<ShopMenuLayout.ConfigurableButton> defaultCategoryButtons = List.of();
     private List<ShopMenuLayout.ConfigurableButton> mainMenuButtons = List.of();
+    private final ShopSourceCache sourceCache;
+    private final ShopCatalogCache catalogCache;
+    private final Map<String, CachedCategory> categoryCache = new LinkedHashMap<>();
+    // only set while a reload runs: live entries and categories that may be carried over unchanged
+    private Map<String, PriceEntry> reusableEntries;
+    private Set<String> reusableCategories = Set.of();
+    private List<CategoryEffect> recordedEffects;
+    private int reparsedCategoryCount;
+    private int reusedCategoryCount;
+    private ShopReloadReport lastReloadReport;
 
     public ShopPricingManager(JavaPlugin plugin, DynamicPricingConfiguration dynamicConfiguration) {
         this.plugin = plugin;
@@ -63,6 +91,8 @@ public class ShopPricingManager {
         this.dynamicConfiguration =
                 dynamicConfiguration != null ? dynamicConfiguration : DynamicPricingConfiguration.defaults();
         this.dynamicStateFile = new File(plugin.getDataFolder(), "shop-dynamic.yml");
+        this.sourceCache = new ShopSourceCache(logger);
+        this.catalogCache = new ShopCatalogCache(new File(plugin.getDataFolder(), "shop-catalog.cache"), logger);
         reload();
     }
 
@@ -70,7 +100,42 @@ public class ShopPricingManager {
      * Reloads the pricing information from the configuration file.
      */
     public final void reload() {
-        priceMap.clear();
+        reload(false);
+    }
+
+    /**
+     * Reloads only what changed since the previous reload. Files are re-parsed only when their content
+     * changed, categories whose files did not change are reused as they are, and price entries whose
+     * configuration did not change are kept, so live dynamic multipliers stay intact. The saved dynamic
+     * state file is not re-read because the in-memory state is authoritative while the plugin runs.
+     */
+    public ShopReloadReport reloadIncremental() {
+        return reload(true);
+    }
+
+    private ShopReloadReport reload(boolean incremental) {
+        drainPendingDynamicState();
+        if (!incremental) {
+            if (dynamicStateDirty) {
+                // persist pending write-behind changes before the state file is re-read
+                writeDynamicState(dynamicStateGeneration.incrementAndGet(), dynamicStateConfiguration.saveToString());
+            }
+            sourceCache.clear();
+            categoryCache.clear();
+        }
+
+        reparsedCategoryCount = 0;
+        reusedCategoryCount = 0;
+        ensureDataFolder();
+        ShopSourceCache.Scan scan = sourceCache.scan(plugin.getDataFolder());
+        if (incremental && !scan.hasChanges()) {
+            return report(true, false, scan, 0, 0, 0, 0L, 0L);
+        }
+
+        long buildStartedAt = System.nanoTime();
+        Map<String, PriceEntry> previousEntries = new LinkedHashMap<>(priceMap);
+        // the material index is built once from the loaded entries instead of on every registration
+        priceMap.clearDeferringIndex();
         menuItemTypes.clear();
         menuLayout = ShopMenuLayout.empty();
         rotationDefinitions.clear();
@@ -82,28 +147,180 @@ public class ShopPricingManager {
         defaultCategoryButtons = List.of();
         mainMenuButtons = List.of();
 
-        ensureDataFolder();
-        if (dynamicStateFile.exists()) {
-            dynamicStateConfiguration = YamlConfiguration.loadConfiguration(dynamicStateFile);
-        } else {
-            dynamicStateConfiguration = new YamlConfiguration();
+        if (!incremental) {
+            if (dynamicStateFile.exists()) {
+                dynamicStateConfiguration = YamlConfiguration.loadConfiguration(dynamicStateFile);
+            } else {
+                dynamicStateConfiguration = new YamlConfiguration();
+            }
+            // the state now matches the file, so there is nothing left for the flush task to write
+            dynamicStateDirty = false;
         }
 
-        YamlConfiguration root = loadCombinedConfiguration();
-        if (root == null) {
-            return;
+        String snapshotKey = catalogKey(scan);
+        ShopCatalogCache.Snapshot snapshot = incremental || scan.sources().isEmpty()
+                ? null : catalogCache.load(snapshotKey);
+        long parseNanos = 0L;
+        try {
+            if (snapshot != null) {
+                restoreSnapshot(snapshot);
+                cleanupDynamicState();
+            } else {
+                parseNanos = sourceCache.parse(scan.sources());
+                buildStartedAt += parseNanos;
+                reusableEntries = incremental ? previousEntries : null;
+                reusableCategories = incremental ? unaffectedCategories(scan) : Set.of();
+                List<PriceRegistration> legacyPrices = new ArrayList<>();
+                try {
+                    YamlConfiguration root = loadCombinedConfiguration(scan);
+                    if (root != null) {
+                        loadLegacyEntries(root, legacyPrices);
+                        parseRotations(root);
+                        menuLayout = loadMenuLayout(root);
+                        cleanupDynamicState();
+                        catalogCache.store(snapshotKey, captureSnapshot(legacyPrices));
+                    } else {
+                        categoryCache.clear();
+                        catalogCache.invalidate();
+                    }
+                } finally {
+                    reusableEntries = null;
+                    reusableCategories = Set.of();
+                }
+            }
+        } finally {
+            priceMap.rebuildIndex();
         }
-        loadLegacyEntries(root);
-        parseRotations(root);
-        menuLayout = loadMenuLayout(root);
-        cleanupDynamicState();
+
+        int added = 0;
+        int updated = 0;
+        for (Map.Entry<String, PriceEntry> entry : priceMap.entrySet()) {
+            PriceEntry previous = previousEntries.remove(entry.getKey());
+            if (previous == null) {
+                added++;
+            } else if (previous != entry.getValue() && !previous.hasSameConfiguration(entry.getValue())) {
+                updated++;
+            }
+        }
+        return report(incremental, snapshot != null, scan, added, updated, previousEntries.size(), parseNanos,
+                System.nanoTime() - buildStartedAt);
     }
 
-    public Optional<ShopPrice> getPrice(Material material) {
-        if (material == null) {
-            return Optional.empty();
+    /**
+     * Returns the report of the most recent reload, including the one made when the manager was created.
+     */
+    public ShopReloadReport lastReloadReport() {
+        return lastReloadReport;
+    }
+
+    private ShopReloadReport report(boolean incremental, boolean fromSnapshot, ShopSourceCache.Scan scan,
+            int addedPrices, int updatedPrices, int removedPrices, long parseNanos, long buildNanos) {
+        lastReloadReport = new ShopReloadReport(incremental, fromSnapshot, scan.added(), scan.changed(), scan.removed(),
+                scan.unchanged(), reparsedCategoryCount, reusedCategoryCount, addedPrices, updatedPrices, removedPrices,
+                Duration.ofNanos(scan.scanNanos()).toMillis(), Duration.ofNanos(parseNanos).toMillis(),
+                Duration.ofNanos(buildNanos).toMillis());
+        return lastReloadReport;
+    }
+
+    /**
+     * Returns the key the catalog snapshot is stored under: everything that feeds into the resolved
+     * catalog besides the shop files themselves, followed by the name and hash of every shop file in
+     * merge order.
+     */
+    private String catalogKey(ShopSourceCache.Scan scan) {
+        List<String> parts = new ArrayList<>();
+        parts.add(plugin.getDescription().getVersion());
+        parts.add(plugin.getServer().getBukkitVersion());
+        parts.add(dynamicConfiguration.enabled() + "," + dynamicConfiguration.defaultStartingMultiplier() + ','
+                + dynamicConfiguration.defaultMinMultiplier() + ',' + dynamicConfiguration.defaultMaxMultiplier() + ','
+                + dynamicConfiguration.defaultBuyChange() + ',' + dynamicConfiguration.defaultSellChange() + ','
+                + dynamicConfiguration.defaultRecoveryHalfLifeMinutes());
+        // category names and lore may contain {translate:...} tokens
+        parts.add(plugin.getConfig().getString("language", ""));
+        parts.add(Boolean.toString(ConfigTranslator.hasMessages()));
+        File[] messageFiles = new File(plugin.getDataFolder(), "messages").listFiles();
+        if (messageFiles != null) {
+            Arrays.sort(messageFiles, Comparator.comparing(File::getName));
+            for (File messageFile : messageFiles) {
+                parts.add(messageFile.getName());
+                parts.add(ShopCatalogCache.hashFile(messageFile));
+            }
+        }
+        for (ShopSourceCache.Source source : scan.sources()) {
+            parts.add(source.name());
+            parts.add(source.hash());
+        }
+        return ShopCatalogCache.key(parts);
+    }
+
+    private ShopCatalogCache.Snapshot captureSnapshot(List<PriceRegistration> legacyPrices) {
+        List<CachedCategory> categories = new ArrayList<>(categoryTemplates.size());
+        for (CategoryTemplate template : categoryTemplates) {
+            CachedCategory cached = categoryCache.get(template.id());
+            categories.add(cached != null ? cached : new CachedCategory(template, List.of()));
+        }
+        return new ShopCatalogCache.Snapshot(legacyPrices, List.copyOf(rotationDefinitions.values()), mainMenuTitle,
+                mainMenuSize, mainMenuFillDecoration, defaultCategoryButtons, mainMenuButtons, categories);
+    }
+
+    /**
+     * Rebuilds prices, rotations and menus from a snapshot exactly as the YAML path would have left
+     * them. Active rotation options still come from the saved dynamic state.
+     */
+    private void restoreSnapshot(ShopCatalogCache.Snapshot snapshot) {
+        replayEffects(snapshot.legacyPrices());
+        for (ShopRotationDefinition definition : snapshot.rotations()) {
+            addRotation(definition);
+        }
+        mainMenuTitle = snapshot.mainMenuTitle();
+        mainMenuSize = snapshot.mainMenuSize();
+        mainMenuFillDecoration = snapshot.mainMenuFill();
+        defaultCategoryButtons = List.copyOf(snapshot.defaultCategoryButtons());
+        mainMenuButtons = List.copyOf(snapshot.mainMenuButtons());
+        categoryCache.clear();
+        List<CategoryTemplate> templates = new ArrayList<>(snapshot.categories().size());
+        for (CachedCategory category : snapshot.categories()) {
+            replayEffects(category.effects());
+            categoryCache.put(category.template().id(), category);
+            templates.add(category.template());
         }
-        PriceEntry entry = priceMap.get(material.name());
+        categoryTemplates = List.copyOf(templates);
+        menuLayout = rebuildMenuLayoutFromTemplates();
+    }
+
+    private void replayEffects(List<? extends CategoryEffect> effects) {
+        for (CategoryEffect effect : effects) {
+            if (effect instanceof PriceRegistration registration) {
+                registerPrice(registration.priceKey(), registration.price(), registration.settings(),
+                        registration.priceType());
+            } else if (effect instanceof ItemTypeRegistration registration) {
+                registerMenuItemType(registration.material(), registration.type(), registration.context());
+            }
+        }
+    }
+
+    /**
+     * Returns the cached categories that no added, changed or removed file contributed to. Menu and
+     * rotation sections feed into every category, so touching one of them reuses nothing.
+     */
+    private Set<String> unaffectedCategories(ShopSourceCache.Scan scan) {
+        Set<String> affected = new HashSet<>();
+        for (ShopSourceCache.Source source : scan.touched()) {
+            for (String key : source.topLevelKeys()) {
+                if (MAIN_MENU_KEY.equalsIgnoreCase(key) || CATEGORY_MENU_KEY.equalsIgnoreCase(key)
+                        || ROTATIONS_KEY.equalsIgnoreCase(key)) {
+                    return Set.of();
+                }
+            }
+            affected.addAll(source.categoryIds());
+        }
+        Set<String> reusable = new HashSet<>(categoryCache.keySet());
+        reusable.removeAll(affected);
+        return reusable;
+    }
+
+    public Optional<ShopPrice> getPrice(Material material) {
+        PriceEntry entry = priceMap.exactEntry(material);
         if (entry == null) {
             return Optional.empty();
         }
@@ -111,7 +328,7 @@ public class ShopPricingManager {
             double stockPrice = com.skyblockexp.ezshops.stock.StockMarketManagerHolder.get().getPrice(material.name());
             return Optional.of(new ShopPrice(stockPrice, stockPrice));
         }
-        return Optional.of(entry.currentPrice());
+        return entry.cachedPrice();
     }
 
     /**
@@ -122,7 +339,7 @@ public class ShopPricingManager {
         if (material == null || amount <= 0) {
             return -1.0D;
         }
-        PriceEntry entry = priceMap.get(material.name());
+        PriceEntry entry = priceMap.exactEntry(material);
         if (entry == null) {
             return -1.0D;
         }
@@ -130,7 +347,7 @@ public class ShopPricingManager {
     }
 
     public boolean isConfigured(Material material) {
-        return material != null && priceMap.containsKey(material.name());
+        return priceMap.exactEntry(material) != null;
     }
 
     public Collection<Material> getBuyableMaterials() {
@@ -281,7 +498,7 @@ public class ShopPricingManager {
             double stockPrice = com.skyblockexp.ezshops.stock.StockMarketManagerHolder.get().getPrice(priceKey);
             return Optional.of(new ShopPrice(stockPrice, stockPrice));
         }
-        return Optional.of(entry.currentPrice());
+        return entry.cachedPrice();
     }
 
     public double estimateBulkTotal(String priceKey, int amount, ShopTransactionType type) {
@@ -295,6 +512,21 @@ public class ShopPricingManager {
         return entry.estimateBulkTotal(amount, type);
     }
 
+    private void loadLegacyEntries(ConfigurationSection root, List<PriceRegistration> registrations) {
+        List<CategoryEffect> effects = new ArrayList<>();
+        recordedEffects = effects;
+        try {
+            loadLegacyEntries(root);
+        } finally {
+            recordedEffects = null;
+        }
+        for (CategoryEffect effect : effects) {
+            if (effect instanceof PriceRegistration registration) {
+                registrations.add(registration);
+            }
+        }
+    }
+
     private void loadLegacyEntries(ConfigurationSection root) {
         for (String key : root.getKeys(false)) {
             if (MAIN_MENU_KEY.equalsIgnoreCase(key) || CATEGORY_MENU_KEY.equalsIgnoreCase(key)
@@ -336,9 +568,6 @@ public class ShopPricingManager {
             return;
         }
 
-        ConfigurationSection savedRotations =
-                dynamicStateConfiguration != null ? dynamicStateConfiguration.getConfigurationSection("rotations") : null;
-
         for (String rotationId : rotationsSection.getKeys(false)) {
             ConfigurationSection rotationSection = rotationsSection.getConfigurationSection(rotationId);
             if (rotationSection == null) {
@@ -391,19 +620,26 @@ public class ShopPricingManager {
             }
 
             String defaultOption = rotationSection.getString("default-option");
-            ShopRotationDefinition definition = new ShopRotationDefinition(rotationId, interval, mode, options,
-                    defaultOption);
-            rotationDefinitions.put(rotationId, definition);
-
-            String activeOption = definition.defaultOptionId();
-            if (savedRotations != null) {
-                String saved = savedRotations.getString(rotationId);
-                if (definition.containsOption(saved)) {
-                    activeOption = saved;
-                }
+            addRotation(new ShopRotationDefinition(rotationId, interval, mode, options, defaultOption));
+        }
+    }
+
+    /**
+     * Registers a rotation and activates the option saved in the dynamic state, falling back to its
+     * default option.
+     */
+    private void addRotation(ShopRotationDefinition definition) {
+        rotationDefinitions.put(definition.id(), definition);
+        ConfigurationSection savedRotations =
+                dynamicStateConfiguration != null ? dynamicStateConfiguration.getConfigurationSection("rotations") : null;
+        String activeOption = definition.defaultOptionId();
+        if (savedRotations != null) {
+            String saved = savedRotations.getString(definition.id());
+            if (definition.containsOption(saved)) {
+                activeOption = saved;
             }
-            activeRotationOptions.put(rotationId, activeOption);
         }
+        activeRotationOptions.put(definition.id(), activeOption);
     }
 
     private ShopMenuLayout loadMenuLayout(ConfigurationSection root) {
@@ -440,19 +676,60 @@ public class ShopPricingManager {
                     continue;
                 }
 
-                CategoryTemplate template = parseCategoryTemplate(categoryId, categorySection);
+                CategoryTemplate template = reuseCategory(categoryId);
+                if (template == null) {
+                    template = parseAndCacheCategory(categoryId, categorySection);
+                }
                 if (template != null) {
                     templates.add(template);
                 }
             }
+            categoryCache.keySet().retainAll(categoriesSection.getKeys(false));
+        } else {
+            categoryCache.clear();
         }
 
         categoryTemplates = List.copyOf(templates);
         return rebuildMenuLayoutFromTemplates();
     }
 
+    /**
+     * Returns the cached template for an unaffected category after replaying the prices and item types
+     * it registered when it was parsed, or {@code null} if the category has to be parsed again.
+     */
+    private CategoryTemplate reuseCategory(String categoryId) {
+        if (!reusableCategories.contains(categoryId)) {
+            return null;
+        }
+        CachedCategory cached = categoryCache.get(categoryId);
+        if (cached == null) {
+            return null;
+        }
+        replayEffects(cached.effects());
+        reusedCategoryCount++;
+        return cached.template();
+    }
+
+    private CategoryTemplate parseAndCacheCategory(String categoryId, ConfigurationSection section) {
+        List<CategoryEffect> effects = new ArrayList<>();
+        recordedEffects = effects;
+        CategoryTemplate template;
+        try {
+            template = parseCategoryTemplate(categoryId, section);
+        } finally {
+            recordedEffects = null;
+        }
+        reparsedCategoryCount++;
+        if (template != null) {
+            categoryCache.put(categoryId, new CachedCategory(template, List.copyOf(effects)));
+        } else {
+            categoryCache.remove(categoryId);
+        }
+        return template;
+    }
+
     private CategoryTemplate parseCategoryTemplate(String categoryId, ConfigurationSection section) {
-        String displayName = colorize(section.getString("name", friendlyName(categoryId)));
+        String displayName = colorize(section.getString("name", DisplayNames.humanize(categoryId)));
         ShopMenuLayout.ItemDecoration icon = parseDecoration(section.getConfigurationSection("icon"),
                 new ShopMenuLayout.ItemDecoration(Material.CHEST, 1, displayName, List.of()));
 
@@ -726,7 +1003,7 @@ public class ShopPricingManager {
         int iconAmount = Math.max(1, section.getInt("icon-amount", Math.min(amount, 64)));
         iconAmount = Math.min(64, iconAmount);
 
-        String displayName = colorize(section.getString("display-name", friendlyName(material.name())));
+        String displayName = colorize(section.getString("display-name", DisplayNames.material(material)));
         List<String> lore = colorize(section.getStringList("lore"));
         ShopMenuLayout.ItemDecoration decoration = new ShopMenuLayout.ItemDecoration(iconMaterial, iconAmount, displayName,
                 lore);
@@ -888,25 +1165,49 @@ public class ShopPricingManager {
     }
 
     private void registerPrice(String priceKey, ShopPrice price, DynamicSettings dynamicSettings) {
-        PriceEntry entry = new PriceEntry(price, dynamicSettings,
-                loadSavedMultiplier(priceKey, dynamicSettings));
-        PriceEntry previous = priceMap.put(priceKey, entry);
-        if (previous != null && !previous.basePrice.equals(price)) {
-            logger.fine("Overriding shop price for key " + priceKey + " with new configuration values.");
-        }
+        registerPrice(priceKey, price, dynamicSettings, ShopPriceType.STATIC);
     }
 
     // Overload for price type
     private void registerPrice(String priceKey, ShopPrice price, DynamicSettings dynamicSettings, ShopPriceType priceType) {
-        PriceEntry entry = new PriceEntry(price, dynamicSettings,
-                loadSavedMultiplier(priceKey, dynamicSettings), priceType);
+        if (recordedEffects != null) {
+            recordedEffects.add(new PriceRegistration(priceKey, price, dynamicSettings, priceType));
+        }
+        PriceEntry entry = reusableEntry(priceKey, price, dynamicSettings, priceType);
+        if (entry == null) {
+            entry = new PriceEntry(price, dynamicSettings, loadSavedMultiplier(priceKey, dynamicSettings), priceType,
+                    loadSavedTouchedAt(priceKey, dynamicSettings));
+        }
         PriceEntry previous = priceMap.put(priceKey, entry);
         if (previous != null && !previous.basePrice.equals(price)) {
             logger.fine("Overriding shop price for key " + priceKey + " with new configuration values.");
         }
     }
 
+    /**
+     * During an incremental reload, returns the live entry for the key when its configuration did not
+     * change, or a reconfigured copy that keeps the live multiplier when it did. Returns {@code null}
+     * when the entry has to be created from the saved state instead.
+     */
+    private PriceEntry reusableEntry(String priceKey, ShopPrice price, DynamicSettings dynamicSettings,
+            ShopPriceType priceType) {
+        PriceEntry live = reusableEntries != null ? reusableEntries.get(priceKey) : null;
+        if (live == null) {
+            return null;
+        }
+        if (live.hasConfiguration(price, dynamicSettings, priceType)) {
+            return live;
+        }
+        if (live.settings == null || dynamicSettings == null) {
+            return null;
+        }
+        return live.reconfigure(price, dynamicSettings, priceType);
+    }
+
     private void registerMenuItemType(Material material, ShopMenuLayout.ItemType type, String context) {
+        if (recordedEffects != null) {
+            recordedEffects.add(new ItemTypeRegistration(material, type, context));
+        }
         ShopMenuLayout.ItemType previous = menuItemTypes.get(material);
         if (previous == null) {
             menuItemTypes.put(material, type);
@@ -930,6 +1231,38 @@ public class ShopPricingManager {
                 + "' is already registered as '" + previous + "'.");
     }
 
+    /**
+     * Starts the write-behind flush task for {@code shop-dynamic.yml}. Until this is called, or when
+     * {@code dynamic-pricing.persistence.mode} is {@code immediate}, every state change is written
+     * synchronously.
+     */
+    public void startDynamicStatePersistence() {
+        if (!dynamicConfiguration.writeBehind()) {
+            return;
+        }
+        if (dynamicStateFlushTask != null) {
+            dynamicStateFlushTask.cancel();
+        }
+        long interval = dynamicConfiguration.flushIntervalTicks();
+        dynamicStateFlushTask = plugin.getServer().getScheduler()
+                .runTaskTimer(plugin, this::flushDynamicStateAsync, interval, interval);
+    }
+
+    /**
+     * Stops the write-behind flush task and synchronously writes any pending dynamic pricing state.
+     */
+    public void shutdown() {
+        if (dynamicStateFlushTask != null) {
+            dynamicStateFlushTask.cancel();
+            dynamicStateFlushTask = null;
+        }
+        drainPendingDynamicState();
+        if (dynamicStateDirty && dynamicStateConfiguration != null) {
+            dynamicStateDirty = false;
+            writeDynamicState(dynamicStateGeneration.incrementAndGet(), dynamicStateConfiguration.saveToString());
+        }
+    }
+
     public void handlePurchase(Material material, int amount) {
         adjustDynamicMultiplier(material, amount, true);
     }
@@ -946,6 +1279,67 @@ public class ShopPricingManager {
         adjustDynamicMultiplier(priceKey, amount, false);
     }
 
+    /**
+     * Sells a whole basket at once. Each line is priced from exactly the multiplier it moves, so the
+     * quote matches the state it leaves behind, and the dynamic state is persisted once for the basket
+     * instead of once per line.
+     *
+     * @param basket amount to sell per price key
+     * @return what the basket was worth; keys that could not be sold are absent and left untouched
+     */
+    public ShopSaleQuote settleSales(Map<String, Integer> basket) {
+        if (basket == null || basket.isEmpty()) {
+            return ShopSaleQuote.empty();
+        }
+        Map<String, Double> lines = new LinkedHashMap<>();
+        Map<String, SaleSettlement> settlements = new LinkedHashMap<>();
+        Map<String, PriceEntry> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : basket.entrySet()) {
+            PriceEntry entry = line.getKey() != null ? priceMap.get(line.getKey()) : null;
+            int amount = line.getValue() != null ? line.getValue() : 0;
+            if (entry == null || amount <= 0) {
+                continue;
+            }
+            SaleSettlement settlement = entry.settleSale(amount);
+            if (settlement == null) {
+                continue;
+            }
+            if (settlement.total() <= 0.0D) {
+                // worth nothing, so it is not sold and must not move the price either
+                entry.revertSale(settlement);
+                continue;
+            }
+            lines.put(line.getKey(), settlement.total());
+            settlements.put(line.getKey(), settlement);
+            if (settlement.replaced() != settlement.installed()) {
+                changed.put(line.getKey(), entry);
+            }
+        }
+        saveDynamicState(changed);
+        return ShopSaleQuote.of(lines, settlements);
+    }
+
+    /**
+     * Takes back the multiplier moves of a basket settled with {@link #settleSales(Map)} that could not be
+     * paid for. A line nothing else traded since gets back exactly the state it replaced, recovery clock
+     * included; otherwise only its own move is undone and moves made by other trades since are kept.
+     *
+     * @param settled the quote {@link #settleSales(Map)} returned; quotes it did not produce are ignored
+     */
+    public void revertSales(ShopSaleQuote settled) {
+        if (settled == null || settled.isEmpty()) {
+            return;
+        }
+        Map<String, PriceEntry> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, SaleSettlement> line : settled.settlements().entrySet()) {
+            PriceEntry entry = priceMap.get(line.getKey());
+            if (entry != null && entry.revertSale(line.getValue())) {
+                changed.put(line.getKey(), entry);
+            }
+        }
+        saveDynamicState(changed);
+    }
+
     private void adjustDynamicMultiplier(String priceKey, int amount, boolean purchase) {
         if (amount <= 0 || priceKey == null) {
             return;
@@ -964,78 +1358,29 @@ public class ShopPricingManager {
         if (amount <= 0) {
             return;
         }
-        if (material == null) {
-            return;
-        }
-        String nameKey = material.name();
-        PriceEntry entry = priceMap.get(nameKey);
-        String foundKey = nameKey;
-        if (entry == null) {
-            // fallback: some price keys are stored using the item id (lowercase), try that too
-            String lowerKey = nameKey.toLowerCase(Locale.ENGLISH);
-            entry = priceMap.get(lowerKey);
-            foundKey = lowerKey;
-        }
-        if (entry == null || !entry.hasDynamicPricing()) {
+        // some price keys are stored using the item id (lowercase); the slot falls back to those
+        MaterialSlot slot = priceMap.slot(material);
+        if (slot == null || !slot.entry().hasDynamicPricing()) {
             return;
         }
+        PriceEntry entry = slot.entry();
         boolean changed = purchase ? entry.adjustAfterPurchase(amount) : entry.adjustAfterSale(amount);
         if (changed) {
-            saveDynamicState(foundKey, entry);
+            saveDynamicState(slot.key(), entry);
         }
     }
 
-    private YamlConfiguration loadCombinedConfiguration() {
-        File dataFolder = plugin.getDataFolder();
-        YamlConfiguration combined = new YamlConfiguration();
-
-        File primaryFile = new File(dataFolder, "shop.yml");
-        boolean foundConfig = false;
-        if (primaryFile.exists()) {
-            mergeSections(combined, YamlConfiguration.loadConfiguration(primaryFile));
-            foundConfig = true;
-        }
-
-        File directory = new File(dataFolder, "shop");
-        if (mergeDirectory(combined, directory)) {
-            foundConfig = true;
-        }
-
-        if (!foundConfig) {
-            logger.warning("Shop pricing file not found: " + primaryFile.getName());
+    private YamlConfiguration loadCombinedConfiguration(ShopSourceCache.Scan scan) {
+        if (scan.sources().isEmpty()) {
+            logger.warning("Shop pricing file not found: shop.yml");
             return null;
         }
 
-        return combined;
-    }
-
-    private boolean mergeDirectory(ConfigurationSection target, File directory) {
-        if (directory == null || !directory.exists()) {
-            return false;
-        }
-
-        File[] files = directory.listFiles();
-        if (files == null || files.length == 0) {
-            return false;
-        }
-
-        Arrays.sort(files, Comparator.comparing(File::getName, String::compareToIgnoreCase));
-
-        boolean merged = false;
-        for (File file : files) {
-            if (file.isDirectory()) {
-                merged |= mergeDirectory(target, file);
-                continue;
-            }
-
-            if (!file.getName().toLowerCase(Locale.ROOT).endsWith(".yml")) {
-                continue;
-            }
-
-            mergeSections(target, YamlConfiguration.loadConfiguration(file));
-            merged = true;
+        YamlConfiguration combined = new YamlConfiguration();
+        for (ShopSourceCache.Source source : scan.sources()) {
+            mergeSections(combined, source.configuration());
         }
-        return merged;
+        return combined;
     }
 
     private void mergeSections(ConfigurationSection target, ConfigurationSection source) {
@@ -1073,15 +1418,127 @@ public class ShopPricingManager {
         return settings.clamp(dynamicStateConfiguration.getDouble(priceKey, settings.startingMultiplier()));
     }
 
+    private long loadSavedTouchedAt(String priceKey, DynamicSettings settings) {
+        long saved = settings != null && settings.recoveryEnabled() && dynamicStateConfiguration != null
+                ? dynamicStateConfiguration.getLong(RECOVERY_STATE_KEY + '.' + priceKey, 0L)
+                : 0L;
+        return saved > 0L ? saved : System.currentTimeMillis();
+    }
+
     private void saveDynamicState(String priceKey, PriceEntry entry) {
         if (dynamicStateConfiguration == null || entry == null || !entry.hasDynamicPricing()) {
             return;
         }
-        dynamicStateConfiguration.set(priceKey, entry.multiplier);
-        try {
-            dynamicStateConfiguration.save(dynamicStateFile);
-        } catch (IOException ex) {
-            logger.warning("Failed to save dynamic shop pricing data: " + ex.getMessage());
+        if (!plugin.getServer().isPrimaryThread()) {
+            // the YAML state is main-thread only; the next flush copies the multiplier across
+            pendingDynamicKeys.add(priceKey);
+            dynamicStateDirty = true;
+            return;
+        }
+        writeDynamicEntry(priceKey, entry);
+        persistDynamicState();
+    }
+
+    private void saveDynamicState(Map<String, PriceEntry> entries) {
+        if (dynamicStateConfiguration == null || entries.isEmpty()) {
+            return;
+        }
+        if (!plugin.getServer().isPrimaryThread()) {
+            pendingDynamicKeys.addAll(entries.keySet());
+            dynamicStateDirty = true;
+            return;
+        }
+        entries.forEach(this::writeDynamicEntry);
+        persistDynamicState();
+    }
+
+    private void writeDynamicEntry(String priceKey, PriceEntry entry) {
+        MultiplierState state = entry.state;
+        dynamicStateConfiguration.set(priceKey, state.multiplier());
+        if (entry.settings.recoveryEnabled()) {
+            // store the last traded multiplier with its timestamp; recovery is re-derived from them on load
+            dynamicStateConfiguration.set(RECOVERY_STATE_KEY + '.' + priceKey, state.touchedAt());
+        }
+    }
+
+    private void drainPendingDynamicState() {
+        if (pendingDynamicKeys.isEmpty() || dynamicStateConfiguration == null) {
+            return;
+        }
+        for (java.util.Iterator<String> iterator = pendingDynamicKeys.iterator(); iterator.hasNext(); ) {
+            String key = iterator.next();
+            iterator.remove();
+            PriceEntry entry = priceMap.get(key);
+            if (entry != null && entry.hasDynamicPricing()) {
+                writeDynamicEntry(key, entry);
+            }
+        }
+        dynamicStateDirty = true;
+    }
+
+    /**
+     * Persists the in-memory dynamic state. With write-behind enabled this only marks the state as
+     * dirty; the flush task copies it on the main thread and serializes and writes the copy asynchronously.
+     *
+     * @return {@code false} if an immediate write failed
+     */
+    private boolean persistDynamicState() {
+        if (dynamicStateFlushTask != null) {
+            dynamicStateDirty = true;
+            return true;
+        }
+        return writeDynamicState(dynamicStateGeneration.incrementAndGet(), dynamicStateConfiguration.saveToString());
+    }
+
+    private void flushDynamicStateAsync() {
+        drainPendingDynamicState();
+        if (!dynamicStateDirty || dynamicStateConfiguration == null) {
+            return;
+        }
+        dynamicStateDirty = false;
+        Map<String, Object> snapshot = snapshotDynamicState();
+        long generation = dynamicStateGeneration.incrementAndGet();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            if (!writeDynamicState(generation, serializeDynamicState(snapshot))) {
+                dynamicStateDirty = true;
+            }
+        });
+    }
+
+    /**
+     * Copies the leaf values of the dynamic state, which are all numbers and strings, so the YAML can be
+     * built off the main thread without touching the live configuration.
+     */
+    private Map<String, Object> snapshotDynamicState() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        dynamicStateConfiguration.getValues(true).forEach((path, value) -> {
+            if (!(value instanceof ConfigurationSection)) {
+                values.put(path, value);
+            }
+        });
+        return values;
+    }
+
+    private static String serializeDynamicState(Map<String, Object> values) {
+        YamlConfiguration configuration = new YamlConfiguration();
+        values.forEach(configuration::set);
+        return configuration.saveToString();
+    }
+
+    private boolean writeDynamicState(long generation, String snapshot) {
+        synchronized (dynamicStateWriteLock) {
+            if (generation <= writtenDynamicStateGeneration) {
+                // a newer snapshot already reached the disk
+                return true;
+            }
+            try {
+                AtomicFileWriter.write(dynamicStateFile, snapshot);
+                writtenDynamicStateGeneration = generation;
+                return true;
+            } catch (IOException ex) {
+                logger.warning("Failed to save dynamic shop pricing data: " + ex.getMessage());
+                return false;
+            }
         }
     }
 
@@ -1094,11 +1551,7 @@ public class ShopPricingManager {
             rotationSection = dynamicStateConfiguration.createSection("rotations");
         }
         rotationSection.set(rotationId, optionId);
-        try {
-            dynamicStateConfiguration.save(dynamicStateFile);
-        } catch (IOException ex) {
-            logger.warning("Failed to save rotation state: " + ex.getMessage());
-        }
+        persistDynamicState();
     }
 
     private void cleanupDynamicState() {
@@ -1107,7 +1560,7 @@ public class ShopPricingManager {
         }
         boolean dirty = false;
         for (String key : new ArrayList<>(dynamicStateConfiguration.getKeys(false))) {
-            if ("rotations".equalsIgnoreCase(key)) {
+            if ("rotations".equalsIgnoreCase(key) || RECOVERY_STATE_KEY.equals(key)) {
                 continue;
             }
             PriceEntry entry = priceMap.get(key);
@@ -1116,6 +1569,20 @@ public class ShopPricingManager {
                 dirty = true;
             }
         }
+        ConfigurationSection recoverySection = dynamicStateConfiguration.getConfigurationSection(RECOVERY_STATE_KEY);
+        if (recoverySection != null) {
+            for (String key : new ArrayList<>(recoverySection.getKeys(false))) {
+                PriceEntry entry = priceMap.get(key);
+                if (entry == null || !entry.hasDynamicPricing() || !entry.settings.recoveryEnabled()) {
+                    recoverySection.set(key, null);
+                    dirty = true;
+                }
+            }
+            if (recoverySection.getKeys(false).isEmpty()) {
+                dynamicStateConfiguration.set(RECOVERY_STATE_KEY, null);
+                dirty = true;
+            }
+        }
         ConfigurationSection rotationSection = dynamicStateConfiguration.getConfigurationSection("rotations");
         if (rotationSection != null) {
             for (String key : new ArrayList<>(rotationSection.getKeys(false))) {
@@ -1132,11 +1599,7 @@ public class ShopPricingManager {
             }
         }
         if (dirty) {
-            try {
-                dynamicStateConfiguration.save(dynamicStateFile);
-            } catch (IOException ex) {
-                logger.warning("Failed to clean up dynamic shop pricing data: " + ex.getMessage());
-            }
+            persistDynamicState();
         }
     }
 
@@ -1150,23 +1613,16 @@ public class ShopPricingManager {
         boolean removedSaved = false;
         if (dynamicStateConfiguration != null && dynamicStateConfiguration.isSet(priceKey)) {
             dynamicStateConfiguration.set(priceKey, null);
-            try {
-                dynamicStateConfiguration.save(dynamicStateFile);
-                removedSaved = true;
-            } catch (IOException ex) {
-                logger.warning("Failed to save dynamic shop pricing data: " + ex.getMessage());
-                // continue - we may still be able to reset in-memory
-            }
+            dynamicStateConfiguration.set(RECOVERY_STATE_KEY + '.' + priceKey, null);
+            // continue on failure - we may still be able to reset in-memory
+            removedSaved = persistDynamicState();
         }
 
+        pendingDynamicKeys.remove(priceKey);
         PriceEntry entry = priceMap.get(priceKey);
         boolean resetInMemory = false;
         if (entry != null && entry.hasDynamicPricing()) {
-            double defaultMultiplier = entry.settings.clamp(entry.settings.startingMultiplier());
-            if (Double.compare(entry.multiplier, defaultMultiplier) != 0) {
-                entry.multiplier = defaultMultiplier;
-                resetInMemory = true;
-            }
+            resetInMemory = entry.resetMultiplier();
         }
 
         return removedSaved || resetInMemory;
@@ -1177,18 +1633,16 @@ public class ShopPricingManager {
      */
     public int resetAllDynamicPricing() {
         if (dynamicStateConfiguration == null) dynamicStateConfiguration = new YamlConfiguration();
+        pendingDynamicKeys.clear();
         int count = 0;
 
         // Reset any persisted entries
         for (String key : new java.util.ArrayList<>(dynamicStateConfiguration.getKeys(false))) {
-            if ("rotations".equalsIgnoreCase(key)) continue;
+            if ("rotations".equalsIgnoreCase(key) || RECOVERY_STATE_KEY.equals(key)) continue;
             PriceEntry entry = priceMap.get(key);
             if (entry != null && entry.hasDynamicPricing()) {
                 // reset in-memory multiplier
-                double defaultMultiplier = entry.settings.clamp(entry.settings.startingMultiplier());
-                if (Double.compare(entry.multiplier, defaultMultiplier) != 0) {
-                    entry.multiplier = defaultMultiplier;
-                }
+                entry.resetMultiplier();
                 // remove persisted state
                 if (dynamicStateConfiguration.isSet(key)) {
                     dynamicStateConfiguration.set(key, null);
@@ -1208,9 +1662,7 @@ public class ShopPricingManager {
             String key = e.getKey();
             PriceEntry entry = e.getValue();
             if (entry != null && entry.hasDynamicPricing()) {
-                double defaultMultiplier = entry.settings.clamp(entry.settings.startingMultiplier());
-                if (Double.compare(entry.multiplier, defaultMultiplier) != 0) {
-                    entry.multiplier = defaultMultiplier;
+                if (entry.resetMultiplier()) {
                     // ensure we count it if it wasn't counted above
                     if (!dynamicStateConfiguration.isSet(key)) {
                         count++;
@@ -1221,12 +1673,12 @@ public class ShopPricingManager {
             }
         }
 
+        if (dynamicStateConfiguration.isSet(RECOVERY_STATE_KEY)) {
+            dynamicStateConfiguration.set(RECOVERY_STATE_KEY, null);
+        }
+
         if (count > 0) {
-            try {
-                dynamicStateConfiguration.save(dynamicStateFile);
-            } catch (IOException ex) {
-                logger.warning("Failed to save dynamic shop pricing data: " + ex.getMessage());
-            }
+            persistDynamicState();
         }
         return count;
     }
@@ -1241,7 +1693,7 @@ public class ShopPricingManager {
         PriceEntry previous = priceMap.get(priceKey);
         if (previous == null) return false;
         ShopPrice newBase = new ShopPrice(price, price);
-        PriceEntry replacement = new PriceEntry(newBase, previous.settings, previous.multiplier, previous.priceType);
+        PriceEntry replacement = previous.reconfigure(newBase, previous.settings, previous.priceType);
         priceMap.put(priceKey, replacement);
         return true;
     }
@@ -1256,7 +1708,7 @@ public class ShopPricingManager {
         ShopPrice base = previous.basePrice;
         double sell = base == null ? -1.0D : base.sellPrice();
         ShopPrice newBase = new ShopPrice(-1.0D, sell);
-        PriceEntry replacement = new PriceEntry(newBase, previous.settings, previous.multiplier, previous.priceType);
+        PriceEntry replacement = previous.reconfigure(newBase, previous.settings, previous.priceType);
         priceMap.put(priceKey, replacement);
         return true;
     }
@@ -1271,7 +1723,7 @@ public class ShopPricingManager {
         ShopPrice base = previous.basePrice;
         double buy = base == null ? -1.0D : base.buyPrice();
         ShopPrice newBase = new ShopPrice(buy, -1.0D);
-        PriceEntry replacement = new PriceEntry(newBase, previous.settings, previous.multiplier, previous.priceType);
+        PriceEntry replacement = previous.reconfigure(newBase, previous.settings, previous.priceType);
         priceMap.put(priceKey, replacement);
         return true;
     }
@@ -1308,6 +1760,8 @@ public class ShopPricingManager {
                 dynamicConfiguration.defaultBuyChange());
         double sellChange = readDynamicValue(dynamicSection, materialKey, "sell-change",
                 dynamicConfiguration.defaultSellChange());
+        double recoveryHalfLife = readDynamicValue(dynamicSection, materialKey, "recovery-half-life-minutes",
+                dynamicConfiguration.defaultRecoveryHalfLifeMinutes());
 
         if (Double.isNaN(startingMultiplier) || startingMultiplier <= 0.0D) {
             logger.warning("Invalid starting-multiplier for dynamic pricing on material '" + materialKey + "'. Using "
@@ -1339,8 +1793,14 @@ public class ShopPricingManager {
                     + dynamicConfiguration.defaultSellChange() + '.');
             sellChange = dynamicConfiguration.defaultSellChange();
         }
+        if (Double.isNaN(recoveryHalfLife) || recoveryHalfLife < 0.0D) {
+            logger.warning("Invalid recovery-half-life-minutes for dynamic pricing on material '" + materialKey
+                    + "'. Using " + dynamicConfiguration.defaultRecoveryHalfLifeMinutes() + '.');
+            recoveryHalfLife = dynamicConfiguration.defaultRecoveryHalfLifeMinutes();
+        }
 
-        return new DynamicSettings(startingMultiplier, minMultiplier, maxMultiplier, buyChange, sellChange);
+        return new DynamicSettings(startingMultiplier, minMultiplier, maxMultiplier, buyChange, sellChange,
+                recoveryHalfLife * 60_000.0D);
     }
 
     private double readDynamicValue(ConfigurationSection section, String materialKey, String path, double fallback) {
@@ -1468,58 +1928,17 @@ public class ShopPricingManager {
         }
     }
 
-    private String friendlyName(String raw) {
-        String lower = raw.toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = lower.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return lower;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
-
-    private static final class CategoryTemplate {
-
-        private final String id;
-        private final String displayName;
-        private final ShopMenuLayout.ItemDecoration icon;
-        private final int slot;
-        private final String menuTitle;
-        private final int menuSize;
-        private final ShopMenuLayout.ItemDecoration menuFill;
-        private final List<ShopMenuLayout.ConfigurableButton> buttons;
-        private final boolean preserveLastRow;
-        private final List<ShopMenuLayout.Item> staticItems;
-        private final RotationBinding rotation;
-        private final String command;
-
-        private CategoryTemplate(String id, String displayName, ShopMenuLayout.ItemDecoration icon, int slot,
-                String menuTitle, int menuSize, ShopMenuLayout.ItemDecoration menuFill,
-                List<ShopMenuLayout.ConfigurableButton> buttons, boolean preserveLastRow, List<ShopMenuLayout.Item> staticItems,
-                RotationBinding rotation, String command) {
-            this.id = Objects.requireNonNull(id, "id");
-            this.displayName = Objects.requireNonNull(displayName, "displayName");
-            this.icon = icon;
-            this.slot = slot;
-            this.menuTitle = Objects.requireNonNull(menuTitle, "menuTitle");
-            this.menuSize = menuSize;
-            this.menuFill = menuFill;
-            this.buttons = buttons == null ? List.of() : List.copyOf(buttons);
-            this.preserveLastRow = preserveLastRow;
-            this.staticItems = staticItems == null ? List.of() : List.copyOf(staticItems);
-            this.rotation = rotation;
-            this.command = command;
+    record CategoryTemplate(String id, String displayName, ShopMenuLayout.ItemDecoration icon, int slot,
+            String menuTitle, int menuSize, ShopMenuLayout.ItemDecoration menuFill,
+            List<ShopMenuLayout.ConfigurableButton> buttons, boolean preserveLastRow,
+            List<ShopMenuLayout.Item> staticItems, RotationBinding rotation, String command) {
+
+        CategoryTemplate {
+            Objects.requireNonNull(id, "id");
+            Objects.requireNonNull(displayName, "displayName");
+            Objects.requireNonNull(menuTitle, "menuTitle");
+            buttons = buttons == null ? List.of() : List.copyOf(buttons);
+            staticItems = staticItems == null ? List.of() : List.copyOf(staticItems);
         }
 
         private boolean isRotating() {
@@ -1527,37 +1946,18 @@ public class ShopPricingManager {
         }
     }
 
-    private static final class RotationBinding {
-
-        private final String groupId;
-        private final ShopMenuLayout.ItemDecoration defaultIcon;
-        private final String defaultMenuTitle;
-        private final Map<String, List<ShopMenuLayout.Item>> optionItems;
+    record RotationBinding(String groupId, ShopMenuLayout.ItemDecoration defaultIcon, String defaultMenuTitle,
+            Map<String, List<ShopMenuLayout.Item>> optionItems) {
 
-        private RotationBinding(String groupId, ShopMenuLayout.ItemDecoration defaultIcon, String defaultMenuTitle,
-                Map<String, List<ShopMenuLayout.Item>> optionItems) {
-            this.groupId = Objects.requireNonNull(groupId, "groupId");
-            this.defaultIcon = defaultIcon;
-            this.defaultMenuTitle = defaultMenuTitle;
+        RotationBinding {
+            Objects.requireNonNull(groupId, "groupId");
             Map<String, List<ShopMenuLayout.Item>> items = new LinkedHashMap<>();
             if (optionItems != null) {
                 for (Map.Entry<String, List<ShopMenuLayout.Item>> entry : optionItems.entrySet()) {
                     items.put(entry.getKey(), entry.getValue() == null ? List.of() : List.copyOf(entry.getValue()));
                 }
             }
-            this.optionItems = Collections.unmodifiableMap(items);
-        }
-
-        private String groupId() {
-            return groupId;
-        }
-
-        private ShopMenuLayout.ItemDecoration defaultIcon() {
-            return defaultIcon;
-        }
-
-        private String defaultMenuTitle() {
-            return defaultMenuTitle;
+            optionItems = Collections.unmodifiableMap(items);
         }
 
         private List<ShopMenuLayout.Item> itemsFor(String optionId) {
@@ -1566,27 +1966,109 @@ public class ShopPricingManager {
     }
 
     private static final class PriceEntry {
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(PriceEntry.class, "state", MultiplierState.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
         private final ShopPrice basePrice;
         private final DynamicSettings settings;
-        private double multiplier;
+        // the multiplier and when it was last traded, only ever swapped whole through STATE so concurrent
+        // trades never lose an update; recovery toward the starting multiplier is measured from the timestamp
+        private volatile MultiplierState state;
         private final ShopPriceType priceType;
+        private volatile PriceSnapshot snapshot;
 
         private PriceEntry(ShopPrice basePrice, DynamicSettings settings, double initialMultiplier) {
             this(basePrice, settings, initialMultiplier, ShopPriceType.STATIC);
         }
 
         private PriceEntry(ShopPrice basePrice, DynamicSettings settings, double initialMultiplier, ShopPriceType priceType) {
+            this(basePrice, settings, initialMultiplier, priceType, System.currentTimeMillis());
+        }
+
+        private PriceEntry(ShopPrice basePrice, DynamicSettings settings, double initialMultiplier, ShopPriceType priceType,
+                long touchedAt) {
             this.basePrice = basePrice;
             this.settings = settings;
-            if (settings != null) {
-                this.multiplier = settings.clamp(initialMultiplier);
-            } else {
-                this.multiplier = 1.0D;
-            }
+            this.state = new MultiplierState(settings != null ? settings.clamp(initialMultiplier) : 1.0D, touchedAt);
             this.priceType = priceType == null ? ShopPriceType.STATIC : priceType;
         }
 
         private ShopPrice currentPrice() {
+            return cachedPrice().get();
+        }
+
+        private boolean hasConfiguration(ShopPrice basePrice, DynamicSettings settings, ShopPriceType priceType) {
+            return Objects.equals(this.basePrice, basePrice) && Objects.equals(this.settings, settings)
+                    && this.priceType == (priceType == null ? ShopPriceType.STATIC : priceType);
+        }
+
+        private boolean hasSameConfiguration(PriceEntry other) {
+            return hasConfiguration(other.basePrice, other.settings, other.priceType);
+        }
+
+        /**
+         * Returns an entry with the given configuration that carries over this entry's multiplier and,
+         * if it was recovering, its recovery clock.
+         */
+        private PriceEntry reconfigure(ShopPrice basePrice, DynamicSettings settings, ShopPriceType priceType) {
+            MultiplierState current = state;
+            long touchedAt = this.settings != null && this.settings.recoveryEnabled()
+                    ? current.touchedAt() : System.currentTimeMillis();
+            return new PriceEntry(basePrice, settings, current.multiplier(), priceType, touchedAt);
+        }
+
+        /**
+         * Returns the current price, rebuilding the cached snapshot only when the multiplier has moved
+         * since it was taken.
+         */
+        private Optional<ShopPrice> cachedPrice() {
+            double current = effectiveMultiplier();
+            PriceSnapshot cached = snapshot;
+            if (cached != null && Double.compare(cached.multiplier(), current) == 0) {
+                return cached.price();
+            }
+            cached = new PriceSnapshot(current, Optional.of(priceAt(current)));
+            snapshot = cached;
+            return cached.price();
+        }
+
+        private double effectiveMultiplier() {
+            MultiplierState current = state;
+            if (settings == null || !settings.recoveryEnabled()) {
+                return current.multiplier();
+            }
+            return settings.recover(current.multiplier(), System.currentTimeMillis() - current.touchedAt());
+        }
+
+        /**
+         * Returns the multiplier of {@code current} recovered up to {@code now}.
+         */
+        private double recovered(MultiplierState current, long now) {
+            return settings.recoveryEnabled()
+                    ? settings.recover(current.multiplier(), now - current.touchedAt())
+                    : current.multiplier();
+        }
+
+        /**
+         * Returns the state after a trade at {@code now} left the multiplier at {@code next}. Without
+         * recovery the timestamp is not used and the previous state is kept if the multiplier did not move.
+         */
+        private MultiplierState traded(MultiplierState previous, double next, long now) {
+            if (settings.recoveryEnabled()) {
+                return new MultiplierState(next, now);
+            }
+            return Double.compare(previous.multiplier(), next) == 0 ? previous
+                    : new MultiplierState(next, previous.touchedAt());
+        }
+
+        private ShopPrice priceAt(double multiplier) {
             if (!hasDynamicPricing()) {
                 return basePrice;
             }
@@ -1614,10 +2096,7 @@ public class ShopPricingManager {
                 return false;
             }
             // Apply multiplicative change per unit: multiplier *= (1 + buyChange) ^ amount
-            double factor = Math.pow(1.0 + settings.buyChange(), amount);
-            double previous = multiplier;
-            multiplier = settings.clamp(multiplier * factor);
-            return Double.compare(previous, multiplier) != 0;
+            return advanceMultiplier(1.0 + settings.buyChange(), amount);
         }
 
         private boolean adjustAfterSale(int amount) {
@@ -1625,19 +2104,89 @@ public class ShopPricingManager {
                 return false;
             }
             // Apply multiplicative decrease per unit: multiplier *= (1 - sellChange) ^ amount
-            double factor = Math.pow(1.0 - settings.sellChange(), amount);
-            double previous = multiplier;
-            multiplier = settings.clamp(multiplier * factor);
-            return Double.compare(previous, multiplier) != 0;
+            return advanceMultiplier(1.0 - settings.sellChange(), amount);
+        }
+
+        private boolean advanceMultiplier(double ratio, int amount) {
+            while (true) {
+                MultiplierState previous = state;
+                long now = System.currentTimeMillis();
+                double next = settings.advance(recovered(previous, now), ratio, amount);
+                MultiplierState updated = traded(previous, next, now);
+                if (updated == previous || STATE.compareAndSet(this, previous, updated)) {
+                    return Double.compare(previous.multiplier(), next) != 0;
+                }
+            }
+        }
+
+        /**
+         * Prices a sale of {@code amount} units and moves the multiplier as one step, so the total is
+         * always computed from the multiplier the sale advanced. Returns {@code null} if the entry cannot
+         * be sold.
+         */
+        private SaleSettlement settleSale(int amount) {
+            double baseUnit = basePrice.sellPrice();
+            if (amount <= 0 || baseUnit < 0.0D) {
+                return null;
+            }
+            if (!hasDynamicPricing()) {
+                MultiplierState current = state;
+                return new SaleSettlement(EconomyUtils.normalizeCurrency(baseUnit * amount), current, current,
+                        current.multiplier());
+            }
+            double ratio = 1.0 - settings.sellChange();
+            while (true) {
+                MultiplierState previous = state;
+                long now = System.currentTimeMillis();
+                double current = recovered(previous, now);
+                MultiplierState updated = traded(previous, settings.advance(current, ratio, amount), now);
+                if (updated == previous || STATE.compareAndSet(this, previous, updated)) {
+                    double total = GeometricPricing.roundedClampedSum(baseUnit, current, ratio,
+                            settings.minMultiplier(), settings.maxMultiplier(), amount);
+                    return new SaleSettlement(total, previous, updated, current);
+                }
+            }
+        }
+
+        /**
+         * Takes back a sale settled by {@link #settleSale(int)}. If the sale's state is still installed the
+         * state it replaced is swapped back in; otherwise the multiplier is moved by exactly what the sale
+         * moved it, which also holds when the sale ran into a clamp.
+         */
+        private boolean revertSale(SaleSettlement sale) {
+            if (!hasDynamicPricing() || sale.replaced() == sale.installed()) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, sale.installed(), sale.replaced())) {
+                return true;
+            }
+            return applyChange(sale.movedFrom() - sale.installed().multiplier());
         }
 
         private boolean applyChange(double delta) {
             if (delta == 0.0D) {
                 return false;
             }
-            double previous = multiplier;
-            multiplier = settings.clamp(multiplier + delta);
-            return Double.compare(previous, multiplier) != 0;
+            while (true) {
+                MultiplierState previous = state;
+                double next = settings.clamp(previous.multiplier() + delta);
+                if (Double.compare(previous.multiplier(), next) == 0) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, previous, new MultiplierState(next, previous.touchedAt()))) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Restores the configured starting multiplier. Returns {@code true} if the multiplier changed.
+         */
+        private boolean resetMultiplier() {
+            double defaultMultiplier = settings.clamp(settings.startingMultiplier());
+            MultiplierState previous = (MultiplierState) STATE.getAndSet(this,
+                    new MultiplierState(defaultMultiplier, System.currentTimeMillis()));
+            return Double.compare(previous.multiplier(), defaultMultiplier) != 0;
         }
 
         private double estimateBulkTotal(int amount, ShopTransactionType type) {
@@ -1651,27 +2200,220 @@ public class ShopPricingManager {
             if (baseUnit < 0.0D) {
                 return -1.0D;
             }
-            double simMultiplier = multiplier;
-            double total = 0.0D;
-            for (int i = 0; i < amount; i++) {
-                double unitPrice = EconomyUtils.normalizeCurrency(baseUnit * simMultiplier);
-                total += unitPrice;
-                if (isBuy) {
-                    simMultiplier = settings.clamp(simMultiplier * (1.0 + settings.buyChange()));
-                } else {
-                    simMultiplier = settings.clamp(simMultiplier * (1.0 - settings.sellChange()));
+            double ratio = isBuy ? 1.0 + settings.buyChange() : 1.0 - settings.sellChange();
+            return GeometricPricing.roundedClampedSum(baseUnit, effectiveMultiplier(), ratio, settings.minMultiplier(),
+                    settings.maxMultiplier(), amount);
+        }
+    }
+
+    private record PriceSnapshot(double multiplier, Optional<ShopPrice> price) {
+    }
+
+    /**
+     * How settling one line of a sale moved its price entry, kept on the {@link ShopSaleQuote} so an unpaid
+     * sale can be taken back exactly.
+     *
+     * @param total     what the line was worth
+     * @param replaced  the state the sale swapped out
+     * @param installed the state the sale swapped in; the same as {@code replaced} if nothing moved
+     * @param movedFrom the multiplier the sale started from, after recovery
+     */
+    record SaleSettlement(double total, MultiplierState replaced, MultiplierState installed, double movedFrom) {
+    }
+
+    /**
+     * A price entry's multiplier together with when it was last traded.
+     */
+    private record MultiplierState(double multiplier, long touchedAt) {
+    }
+
+    /**
+     * A parsed category together with the registrations it made while it was parsed, so an incremental
+     * reload can reuse it without parsing it again.
+     */
+    record CachedCategory(CategoryTemplate template, List<CategoryEffect> effects) {
+    }
+
+    sealed interface CategoryEffect permits PriceRegistration, ItemTypeRegistration {
+    }
+
+    record PriceRegistration(String priceKey, ShopPrice price, DynamicSettings settings,
+            ShopPriceType priceType) implements CategoryEffect {
+    }
+
+    record ItemTypeRegistration(Material material, ShopMenuLayout.ItemType type, String context)
+            implements CategoryEffect {
+    }
+
+    /**
+     * Resolved price entry for a material: the exact {@code MATERIAL} key when present, otherwise the
+     * lowercase item id key.
+     */
+    private record MaterialSlot(String key, PriceEntry entry, boolean exact) {
+    }
+
+    /**
+     * Price entries keyed by price key, with a dense index by {@link Material#ordinal()} so material
+     * lookups are a single array read. The entries live in a private {@link LinkedHashMap}; every change
+     * goes through this class, which updates the index slot of the material it touches and publishes a
+     * new index array. A reload clears the table without indexing and builds the whole index once at the
+     * end with {@link #rebuildIndex()}.
+     */
+    private static final class PriceTable extends AbstractMap<String, PriceEntry> {
+
+        private final Map<String, PriceEntry> entries = new LinkedHashMap<>();
+        private final Set<Map.Entry<String, PriceEntry>> entryView = Collections.unmodifiableMap(entries).entrySet();
+        private volatile MaterialSlot[] slots = new MaterialSlot[Material.values().length];
+        private boolean indexDeferred;
+
+        private PriceEntry exactEntry(Material material) {
+            MaterialSlot slot = slot(material);
+            return slot != null && slot.exact() ? slot.entry() : null;
+        }
+
+        private MaterialSlot slot(Material material) {
+            return material != null ? slots[material.ordinal()] : null;
+        }
+
+        /**
+         * Removes every entry and leaves the index empty until {@link #rebuildIndex()}, so a reload does
+         * not re-publish the index for each entry it registers.
+         */
+        private synchronized void clearDeferringIndex() {
+            clear();
+            indexDeferred = true;
+        }
+
+        private synchronized void rebuildIndex() {
+            indexDeferred = false;
+            MaterialSlot[] rebuilt = new MaterialSlot[slots.length];
+            for (String key : entries.keySet()) {
+                Material material = materialOf(key);
+                if (material != null && rebuilt[material.ordinal()] == null) {
+                    rebuilt[material.ordinal()] = slotOf(material);
                 }
             }
-            return EconomyUtils.normalizeCurrency(total);
+            slots = rebuilt;
+        }
+
+        private void reindex(String key) {
+            Material material = materialOf(key);
+            if (indexDeferred || material == null) {
+                return;
+            }
+            MaterialSlot[] updated = slots.clone();
+            updated[material.ordinal()] = slotOf(material);
+            slots = updated;
+        }
+
+        /**
+         * Returns the material a key is indexed under: the key is the material's name, or its name in lower
+         * case.
+         */
+        private static Material materialOf(String key) {
+            Material material = Material.getMaterial(key.toUpperCase(Locale.ENGLISH));
+            if (material == null) {
+                return null;
+            }
+            return key.equals(material.name()) || key.equals(material.name().toLowerCase(Locale.ENGLISH))
+                    ? material : null;
+        }
+
+        /**
+         * An entry under the material's exact name wins over one under its lower case item id.
+         */
+        private MaterialSlot slotOf(Material material) {
+            PriceEntry exact = entries.get(material.name());
+            if (exact != null) {
+                return new MaterialSlot(material.name(), exact, true);
+            }
+            String lower = material.name().toLowerCase(Locale.ENGLISH);
+            PriceEntry lowered = entries.get(lower);
+            return lowered != null ? new MaterialSlot(lower, lowered, false) : null;
+        }
+
+        @Override
+        public PriceEntry get(Object key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public Set<Map.Entry<String, PriceEntry>> entrySet() {
+            return entryView;
+        }
+
+        @Override
+        public synchronized PriceEntry put(String key, PriceEntry value) {
+            PriceEntry previous = entries.put(Objects.requireNonNull(key, "key"), value);
+            reindex(key);
+            return previous;
+        }
+
+        @Override
+        public synchronized PriceEntry remove(Object key) {
+            if (!(key instanceof String name) || !entries.containsKey(name)) {
+                return null;
+            }
+            PriceEntry previous = entries.remove(name);
+            reindex(name);
+            return previous;
+        }
+
+        @Override
+        public synchronized void clear() {
+            entries.clear();
+            slots = new MaterialSlot[slots.length];
         }
     }
 
-    private record DynamicSettings(double startingMultiplier, double minMultiplier, double maxMultiplier,
-            double buyChange, double sellChange) {
+    record DynamicSettings(double startingMultiplier, double minMultiplier, double maxMultiplier,
+            double buyChange, double sellChange, double recoveryHalfLifeMillis) {
+
+        private static final double RECOVERED_EPSILON = 1.0E-9D;
+
+        private DynamicSettings(double startingMultiplier, double minMultiplier, double maxMultiplier,
+                double buyChange, double sellChange) {
+            this(startingMultiplier, minMultiplier, maxMultiplier, buyChange, sellChange, 0.0D);
+        }
+
+        private boolean recoveryEnabled() {
+            return recoveryHalfLifeMillis > 0.0D;
+        }
+
+        /**
+         * Moves {@code multiplier} toward the starting multiplier by the half-life decay accumulated over
+         * {@code elapsedMillis}.
+         */
+        private double recover(double multiplier, long elapsedMillis) {
+            if (!recoveryEnabled() || elapsedMillis <= 0L) {
+                return multiplier;
+            }
+            double target = clamp(startingMultiplier);
+            double recovered = target + (multiplier - target) * Math.pow(0.5D, elapsedMillis / recoveryHalfLifeMillis);
+            return Math.abs(recovered - target) < RECOVERED_EPSILON ? target : recovered;
+        }
 
         private double clamp(double value) {
-            double clamped = Math.min(maxMultiplier, Math.max(minMultiplier, value));
-            return clamped <= 0.0D ? minMultiplier : clamped;
+            return GeometricPricing.clamp(value, minMultiplier, maxMultiplier);
+        }
+
+        private double advance(double multiplier, double ratio, int steps) {
+            return GeometricPricing.clampedValue(multiplier, ratio, steps, minMultiplier, maxMultiplier);
         }
     }
 
@@ -0,0 +1,293 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Per-player token buckets that limit how fast shop trades are processed, one bucket per {@link Action}.
+ *
+ * <p>Each bucket is a single {@code long} holding the time its next token is due (the generic cell rate
+ * form of a token bucket), updated with compare-and-set, so {@link #tryAcquire(UUID, Action)} never locks.
+ * A bucket lets {@code burst} trades through back to back and then one per {@code 1 / per-second}.</p>
+ *
+ * <p>In {@link Mode#MERGE} refused trades are not dropped: {@link #merge(Player, MergeKey, int, MergedTrade)}
+ * adds their amounts up per player and item and runs them as one trade once the bucket has a token again.
+ * Merging is main-thread only, like the trades themselves.</p>
+ */
+public final class ShopRateLimiter {
+
+    public enum Action {
+        BUY("buy"),
+        SELL("sell"),
+        SELL_INVENTORY("sell-inventory"),
+        SIGN("sign"),
+        PLAYER_SHOP("player-shop");
+
+        private final String configKey;
+
+        Action(String configKey) {
+            this.configKey = configKey;
+        }
+
+        public String configKey() {
+            return configKey;
+        }
+    }
+
+    public enum Mode {
+        /** Refused trades fail with a message. */
+        REJECT,
+        /** Refused trades are queued and run together once the limit allows. */
+        MERGE
+    }
+
+    /**
+     * Identifies trades that can be merged into one: the same action on the same item.
+     *
+     * @param material the traded material when trading by material, otherwise {@code null}
+     * @param item     the traded shop entry when trading through the menu or by item id, otherwise
+     *                 {@code null}
+     */
+    public record MergeKey(Action action, LedgerEntry.Source source, LedgerEntry.Side side, Material material,
+            ShopMenuLayout.Item item) {
+        public MergeKey {
+            Objects.requireNonNull(action, "action");
+            Objects.requireNonNull(source, "source");
+            Objects.requireNonNull(side, "side");
+        }
+    }
+
+    /**
+     * Runs a merged trade for a player who is still online.
+     */
+    @FunctionalInterface
+    public interface MergedTrade {
+        void run(Player player, MergeKey key, int amount);
+    }
+
+    public static final ShopRateLimiter UNLIMITED =
+            new ShopRateLimiter(Mode.REJECT, new long[Action.values().length], new long[Action.values().length],
+                    null, System::nanoTime);
+
+    private static final Action[] ACTIONS = Action.values();
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    private final Mode mode;
+    private final long[] intervalNanos;
+    private final long[] toleranceNanos;
+    private final Plugin plugin;
+    private final LongSupplier clock;
+    private final long origin;
+    private final ConcurrentHashMap<UUID, AtomicLongArray> buckets = new ConcurrentHashMap<>();
+    private final Map<UUID, PendingMerge> merges = new HashMap<>();
+
+    ShopRateLimiter(Mode mode, long[] intervalNanos, long[] toleranceNanos, Plugin plugin, LongSupplier clock) {
+        this.mode = plugin == null ? Mode.REJECT : mode;
+        this.intervalNanos = intervalNanos.clone();
+        this.toleranceNanos = toleranceNanos.clone();
+        this.plugin = plugin;
+        this.clock = clock;
+        // bucket slots start at zero, which must read as "token available now"
+        this.origin = clock.getAsLong() - 1L;
+    }
+
+    /**
+     * Reads the {@code rate-limit} section. Returns {@link #UNLIMITED} when it is missing or disabled.
+     *
+     * <pre>
+     * rate-limit:
+     *   enabled: true
+     *   mode: merge
+     *   buy: { per-second: 10, burst: 20 }
+     * </pre>
+     *
+     * An action without a positive {@code per-second} is not limited.
+     */
+    public static ShopRateLimiter from(ConfigurationSection section, Plugin plugin, Logger logger) {
+        if (section == null || !section.getBoolean("enabled", false)) {
+            return UNLIMITED;
+        }
+        Mode mode = Mode.REJECT;
+        String rawMode = section.getString("mode", "reject");
+        try {
+            mode = Mode.valueOf(rawMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Unknown rate-limit mode '" + rawMode + "'; rejecting trades over the limit.");
+        }
+        long[] intervals = new long[ACTIONS.length];
+        long[] tolerances = new long[ACTIONS.length];
+        for (Action action : ACTIONS) {
+            ConfigurationSection limit = section.getConfigurationSection(action.configKey());
+            double perSecond = limit == null ? 0.0D : limit.getDouble("per-second", 0.0D);
+            if (perSecond <= 0.0D) {
+                continue;
+            }
+            int burst = Math.max(1, limit.getInt("burst", 1));
+            intervals[action.ordinal()] = Math.max(1L, Math.round(TimeUnit.SECONDS.toNanos(1L) / perSecond));
+            tolerances[action.ordinal()] = intervals[action.ordinal()] * (burst - 1L);
+        }
+        return new ShopRateLimiter(mode, intervals, tolerances, plugin, System::nanoTime);
+    }
+
+    public boolean merges() {
+        return mode == Mode.MERGE;
+    }
+
+    /**
+     * Takes a token from the player's bucket for {@code action}, returning whether one was available.
+     */
+    public boolean tryAcquire(UUID player, Action action) {
+        int slot = action.ordinal();
+        long interval = intervalNanos[slot];
+        if (interval <= 0L) {
+            return true;
+        }
+        AtomicLongArray state = buckets.computeIfAbsent(player, key -> new AtomicLongArray(ACTIONS.length));
+        long now = now();
+        while (true) {
+            long due = state.get(slot);
+            long start = Math.max(due, now);
+            if (start - now > toleranceNanos[slot]) {
+                return false;
+            }
+            if (state.compareAndSet(slot, due, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns how long until {@link #tryAcquire(UUID, Action)} would next succeed, without taking a token.
+     */
+    public long nanosUntilAvailable(UUID player, Action action) {
+        int slot = action.ordinal();
+        AtomicLongArray state = buckets.get(player);
+        if (state == null || intervalNanos[slot] <= 0L) {
+            return 0L;
+        }
+        return Math.max(0L, state.get(slot) - toleranceNanos[slot] - now());
+    }
+
+    /**
+     * Adds a refused trade to the player's merged trades. They run through {@code trade} as one trade per
+     * key once the key's bucket has a token again. Main thread only.
+     */
+    public void merge(Player player, MergeKey key, int amount, MergedTrade trade) {
+        PendingMerge pending = merges.computeIfAbsent(player.getUniqueId(), id -> new PendingMerge(player, trade));
+        pending.amounts.merge(key, Math.max(0, amount), ShopRateLimiter::saturatedAdd);
+        if (!pending.scheduled) {
+            schedule(pending);
+        }
+    }
+
+    /**
+     * Runs every merged trade now, whether or not the limit allows it. Used on shutdown.
+     */
+    public void flushMerged() {
+        List<PendingMerge> all = new ArrayList<>(merges.values());
+        merges.clear();
+        for (PendingMerge pending : all) {
+            pending.amounts.forEach((key, amount) -> run(pending, key, amount));
+        }
+    }
+
+    /**
+     * Forgets buckets that are full again, so players who stopped trading take no memory. A trade racing
+     * with the purge may land in the forgotten bucket; it was allowed anyway, as the bucket was full.
+     */
+    public void purgeIdle() {
+        long now = now();
+        buckets.entrySet().removeIf(entry -> isIdle(entry.getValue(), now));
+    }
+
+    int trackedPlayers() {
+        return buckets.size();
+    }
+
+    private boolean isIdle(AtomicLongArray state, long now) {
+        for (int slot = 0; slot < state.length(); slot++) {
+            if (state.get(slot) > now) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void schedule(PendingMerge pending) {
+        long wait = Long.MAX_VALUE;
+        for (MergeKey key : pending.amounts.keySet()) {
+            wait = Math.min(wait, nanosUntilAvailable(pending.player.getUniqueId(), key.action()));
+        }
+        long ticks = Math.max(1L, (wait + TICK_NANOS - 1L) / TICK_NANOS);
+        pending.scheduled = true;
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> flush(pending), ticks);
+    }
+
+    private void flush(PendingMerge pending) {
+        pending.scheduled = false;
+        if (merges.get(pending.player.getUniqueId()) != pending) {
+            return;
+        }
+        if (!pending.player.isOnline()) {
+            merges.remove(pending.player.getUniqueId());
+            return;
+        }
+        Iterator<Map.Entry<MergeKey, Integer>> iterator = pending.amounts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<MergeKey, Integer> entry = iterator.next();
+            if (tryAcquire(pending.player.getUniqueId(), entry.getKey().action())) {
+                iterator.remove();
+                run(pending, entry.getKey(), entry.getValue());
+            }
+        }
+        if (pending.amounts.isEmpty()) {
+            merges.remove(pending.player.getUniqueId());
+        } else {
+            schedule(pending);
+        }
+    }
+
+    private void run(PendingMerge pending, MergeKey key, int amount) {
+        if (pending.player.isOnline()) {
+            pending.trade.run(pending.player, key, amount);
+        }
+    }
+
+    private long now() {
+        return clock.getAsLong() - origin;
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        long sum = (long) a + b;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    private static final class PendingMerge {
+        private final Player player;
+        private final MergedTrade trade;
+        private final Map<MergeKey, Integer> amounts = new LinkedHashMap<>();
+        private boolean scheduled;
+
+        private PendingMerge(Player player, MergedTrade trade) {
+            this.player = player;
+            this.trade = trade;
+        }
+    }
+}
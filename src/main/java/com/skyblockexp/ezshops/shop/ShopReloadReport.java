@@ -0,0 +1,68 @@
+package com.skyblockexp.ezshops.shop;
+
+import java.util.List;
+
+/**
+ * Describes what a shop configuration reload changed and how long each phase took.
+ *
+ * @param incremental        {@code true} if unchanged files and categories were reused
+ * @param fromSnapshot       {@code true} if the catalog was restored from the binary snapshot instead of YAML
+ * @param addedFiles         configuration files that appeared since the previous reload
+ * @param changedFiles       configuration files whose content changed
+ * @param removedFiles       configuration files that no longer exist
+ * @param unchangedFiles     number of files that were reused without parsing
+ * @param reparsedCategories number of categories rebuilt from configuration
+ * @param reusedCategories   number of categories kept from the previous reload
+ * @param addedPrices        price keys that were not configured before
+ * @param updatedPrices      price keys whose configuration changed
+ * @param removedPrices      price keys that are no longer configured
+ * @param scanMillis         time spent listing files and comparing fingerprints
+ * @param parseMillis        wall time spent parsing YAML, which runs in parallel; zero for a snapshot start
+ * @param buildMillis        time spent rebuilding prices, rotations and menus
+ */
+public record ShopReloadReport(boolean incremental, boolean fromSnapshot, List<String> addedFiles, List<String> changedFiles,
+        List<String> removedFiles, int unchangedFiles, int reparsedCategories, int reusedCategories,
+        int addedPrices, int updatedPrices, int removedPrices, long scanMillis, long parseMillis,
+        long buildMillis) {
+
+    public ShopReloadReport {
+        addedFiles = addedFiles == null ? List.of() : List.copyOf(addedFiles);
+        changedFiles = changedFiles == null ? List.of() : List.copyOf(changedFiles);
+        removedFiles = removedFiles == null ? List.of() : List.copyOf(removedFiles);
+    }
+
+    /**
+     * Returns {@code true} if any configuration file was added, changed or removed.
+     */
+    public boolean hasFileChanges() {
+        return !addedFiles.isEmpty() || !changedFiles.isEmpty() || !removedFiles.isEmpty();
+    }
+
+    public long totalMillis() {
+        return scanMillis + parseMillis + buildMillis;
+    }
+
+    /**
+     * Returns a single line summary suitable for chat or the console.
+     */
+    public String summary() {
+        if (!incremental) {
+            return addedFiles.size() + " files, " + reparsedCategories + " categories"
+                    + (fromSnapshot ? " from snapshot" : "") + prices() + timings();
+        }
+        if (!hasFileChanges()) {
+            return "no configuration files changed (" + unchangedFiles + " checked in " + totalMillis() + " ms)";
+        }
+        return "files +" + addedFiles.size() + " ~" + changedFiles.size() + " -" + removedFiles.size()
+                + ", categories " + reparsedCategories + " reparsed / " + reusedCategories + " reused"
+                + prices() + timings();
+    }
+
+    private String prices() {
+        return ", prices +" + addedPrices + " ~" + updatedPrices + " -" + removedPrices;
+    }
+
+    private String timings() {
+        return " (scan " + scanMillis + " ms, parse " + parseMillis + " ms, build " + buildMillis + " ms)";
+    }
+}
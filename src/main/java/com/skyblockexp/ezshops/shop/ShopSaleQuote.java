@@ -0,0 +1,89 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.common.EconomyUtils;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Price of a basket of sales, line by line, before any sell price boost. A quote returned by
+ * {@link ShopPricingManager#settleSales(Map)} also remembers how each line moved its price, so
+ * {@link ShopPricingManager#revertSales(ShopSaleQuote)} can take the sale back exactly.
+ */
+public final class ShopSaleQuote {
+
+    private static final ShopSaleQuote EMPTY = new ShopSaleQuote(Map.of(), 0.0D);
+
+    private final Map<String, Double> lines;
+    private final double total;
+    private final Map<String, ShopPricingManager.SaleSettlement> settlements;
+
+    /**
+     * @param lines total per price key, in basket order; keys that cannot be sold are absent
+     * @param total sum of all lines, rounded to currency precision
+     */
+    public ShopSaleQuote(Map<String, Double> lines, double total) {
+        this(lines, total, Map.of());
+    }
+
+    private ShopSaleQuote(Map<String, Double> lines, double total,
+            Map<String, ShopPricingManager.SaleSettlement> settlements) {
+        this.lines = lines == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(lines));
+        this.total = total;
+        this.settlements = settlements;
+    }
+
+    public static ShopSaleQuote empty() {
+        return EMPTY;
+    }
+
+    static ShopSaleQuote of(Map<String, Double> lines) {
+        return of(lines, Map.of());
+    }
+
+    static ShopSaleQuote of(Map<String, Double> lines, Map<String, ShopPricingManager.SaleSettlement> settlements) {
+        double total = 0.0D;
+        for (double line : lines.values()) {
+            total += line;
+        }
+        return new ShopSaleQuote(lines, EconomyUtils.normalizeCurrency(total),
+                Collections.unmodifiableMap(new LinkedHashMap<>(settlements)));
+    }
+
+    public Map<String, Double> lines() {
+        return lines;
+    }
+
+    public double total() {
+        return total;
+    }
+
+    Map<String, ShopPricingManager.SaleSettlement> settlements() {
+        return settlements;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public boolean contains(String priceKey) {
+        return lines.containsKey(priceKey);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ShopSaleQuote quote && Double.compare(total, quote.total) == 0
+                && lines.equals(quote.lines);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lines, total);
+    }
+
+    @Override
+    public String toString() {
+        return "ShopSaleQuote[lines=" + lines + ", total=" + total + "]";
+    }
+}
@@ -1,10 +1,12 @@
 package com.skyblockexp.ezshops.shop;
 
 import com.skyblockexp.ezshops.common.CompatibilityUtil;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.EconomyUtils;
 import com.skyblockexp.ezshops.common.MessageUtil;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
 import com.skyblockexp.ezshops.config.ShopSignConfiguration;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
 import java.util.Locale;
 import java.util.Optional;
 import org.bukkit.Bukkit;
@@ -125,7 +127,7 @@ public class ShopSignListener implements Listener {
 
         if (player != null) {
             player.sendMessage(signMessages.ready(resolveActionLabel(action), amount,
-                    ShopTransactionService.friendlyMaterialName(material)));
+                    DisplayNames.material(material)));
         }
     }
 
@@ -154,10 +156,24 @@ public class ShopSignListener implements Listener {
             return;
         }
 
+        // a refused click neither trades nor rewrites the sign
+        LedgerEntry.Side side = action == SignAction.BUY ? LedgerEntry.Side.BUY : LedgerEntry.Side.SELL;
+        ShopTransactionResult refused = transactionService.throttle(event.getPlayer(), ShopRateLimiter.Action.SIGN,
+                LedgerEntry.Source.SIGN_SHOP, new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.SIGN,
+                        LedgerEntry.Source.SIGN_SHOP, side, material, null), amount);
+        if (refused != null) {
+            if (!refused.pending()) {
+                event.getPlayer().sendMessage(refused.message());
+            }
+            return;
+        }
+
         ShopTransactionResult result = action == SignAction.BUY
-                ? transactionService.buy(event.getPlayer(), material, amount)
-                : transactionService.sell(event.getPlayer(), material, amount);
-        event.getPlayer().sendMessage(result.message());
+                ? transactionService.buy(event.getPlayer(), material, amount, LedgerEntry.Source.SIGN_SHOP)
+                : transactionService.sell(event.getPlayer(), material, amount, LedgerEntry.Source.SIGN_SHOP);
+        if (!result.pending()) {
+            event.getPlayer().sendMessage(result.message());
+        }
 
         Optional<ShopPrice> priceLookup = pricingManager.getPrice(material);
         double totalPrice = -1.0D;
@@ -188,7 +204,7 @@ public class ShopSignListener implements Listener {
         event.setLine(0, signConfiguration.headerText());
         event.setLine(1, formatActionLine(action, amount));
         event.setLine(2, signConfiguration
-                .formatItemLine(ShopTransactionService.friendlyMaterialName(material)));
+                .formatItemLine(DisplayNames.material(material)));
         if (totalPrice < 0) {
             event.setLine(3, signConfiguration.unavailableLine());
         } else {
@@ -200,7 +216,7 @@ public class ShopSignListener implements Listener {
     private void updateSignDisplay(Sign sign, SignAction action, Material material, int amount, double totalPrice) {
         sign.setLine(0, signConfiguration.headerText());
         sign.setLine(1, formatActionLine(action, amount));
-        sign.setLine(2, signConfiguration.formatItemLine(ShopTransactionService.friendlyMaterialName(material)));
+        sign.setLine(2, signConfiguration.formatItemLine(DisplayNames.material(material)));
         if (totalPrice < 0) {
             sign.setLine(3, signConfiguration.unavailableLine());
         } else {
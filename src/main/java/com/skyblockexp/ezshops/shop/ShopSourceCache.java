@@ -0,0 +1,319 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.common.ParallelLoader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Keeps the parsed form of every shop configuration file ({@code shop.yml} and the {@code shop/}
+ * directory) together with its fingerprint, so a reload only re-parses files whose content changed.
+ *
+ * <p>A file is fingerprinted by size, modification time and a SHA-256 of its content. When size and
+ * modification time both match and the file was last modified well before it was read, it is treated
+ * as unchanged without reading it again. Otherwise the content hash decides, so a touched but
+ * identical file is never re-parsed.</p>
+ *
+ * <p>Scanning only reads and hashes files. YAML parsing is deferred until {@link #parse(Collection)} or
+ * the first access to a source's configuration, so a caller that can serve the catalog from the binary
+ * snapshot never parses anything.</p>
+ */
+final class ShopSourceCache {
+
+    private static final String PRIMARY_FILE = "shop.yml";
+    private static final String DIRECTORY = "shop";
+    private static final String CATEGORIES_KEY = "categories";
+    // file systems with coarse timestamps can hide an edit made in the same tick the file was read
+    private static final long MTIME_GRANULARITY_MILLIS = 2000L;
+
+    private final Logger logger;
+    private final Map<String, Source> sources = new LinkedHashMap<>();
+
+    ShopSourceCache(Logger logger) {
+        this.logger = logger;
+    }
+
+    void clear() {
+        sources.clear();
+    }
+
+    boolean isEmpty() {
+        return sources.isEmpty();
+    }
+
+    /**
+     * Scans the data folder and returns every current source in merge order together with what changed
+     * since the previous scan. Files that need reading are read and hashed in parallel; the results are
+     * assembled in file order afterwards.
+     */
+    Scan scan(File dataFolder) {
+        long startedAt = System.nanoTime();
+        List<File> files = listSources(dataFolder);
+        List<String> names = new ArrayList<>(files.size());
+        Map<String, Source> current = new LinkedHashMap<>();
+        List<Candidate> candidates = new ArrayList<>();
+        for (File file : files) {
+            String name = relativeName(dataFolder, file);
+            names.add(name);
+            Source previous = sources.get(name);
+            long size = file.length();
+            long modified = file.lastModified();
+            if (previous != null && previous.statMatches(size, modified)) {
+                current.put(name, previous);
+            } else {
+                candidates.add(new Candidate(file, name, previous, size, modified));
+            }
+        }
+
+        List<Source> loaded = ParallelLoader.map(candidates, this::load);
+
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<Source> touched = new ArrayList<>();
+        Map<String, Source> loadedByName = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            Source source = loaded.get(i);
+            if (source == null) {
+                continue;
+            }
+            loadedByName.put(candidate.name(), source);
+            Source previous = candidate.previous();
+            if (previous == null) {
+                added.add(candidate.name());
+                touched.add(source);
+            } else if (!previous.hash().equals(source.hash())) {
+                changed.add(candidate.name());
+                touched.add(previous);
+                touched.add(source);
+            }
+        }
+
+        // keep merge order identical to the file listing no matter which files were reloaded
+        Map<String, Source> ordered = new LinkedHashMap<>();
+        for (String name : names) {
+            Source source = current.containsKey(name) ? current.get(name) : loadedByName.get(name);
+            if (source != null) {
+                ordered.put(name, source);
+            }
+        }
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            if (!ordered.containsKey(entry.getKey())) {
+                removed.add(entry.getKey());
+                touched.add(entry.getValue());
+            }
+        }
+
+        sources.clear();
+        sources.putAll(ordered);
+        return new Scan(List.copyOf(ordered.values()), List.copyOf(added), List.copyOf(changed),
+                List.copyOf(removed), List.copyOf(touched), System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Parses every source that has not been parsed yet, in parallel, and returns the wall time spent.
+     */
+    long parse(Collection<Source> pending) {
+        List<Source> unparsed = new ArrayList<>();
+        for (Source source : pending) {
+            if (!source.isParsed()) {
+                unparsed.add(source);
+            }
+        }
+        long startedAt = System.nanoTime();
+        ParallelLoader.map(unparsed, Source::parsed);
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * Reads and hashes one file. Runs on a loader thread, so it only touches the candidate it was given.
+     * Returns {@code null} if the file cannot be read.
+     */
+    private Source load(Candidate candidate) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(candidate.file().toPath());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to read shop configuration file " + candidate.name(), ex);
+            return null;
+        }
+        long readAt = System.currentTimeMillis();
+        String hash = hash(content);
+        Source previous = candidate.previous();
+        if (previous != null && previous.hash().equals(hash)) {
+            return previous.restat(candidate.size(), candidate.modified(), readAt);
+        }
+        return new Source(logger, candidate.name(), candidate.size(), candidate.modified(), readAt, hash, content);
+    }
+
+    private List<File> listSources(File dataFolder) {
+        List<File> files = new ArrayList<>();
+        File primary = new File(dataFolder, PRIMARY_FILE);
+        if (primary.isFile()) {
+            files.add(primary);
+        }
+        collectDirectory(new File(dataFolder, DIRECTORY), files);
+        return files;
+    }
+
+    private void collectDirectory(File directory, List<File> files) {
+        if (directory == null || !directory.isDirectory()) {
+            return;
+        }
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children, Comparator.comparing(File::getName, String::compareToIgnoreCase));
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectDirectory(child, files);
+            } else if (child.getName().toLowerCase(Locale.ROOT).endsWith(".yml")) {
+                files.add(child);
+            }
+        }
+    }
+
+    private static String relativeName(File dataFolder, File file) {
+        return dataFolder.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private record Candidate(File file, String name, Source previous, long size, long modified) {
+    }
+
+    /**
+     * One configuration file and the fingerprint it was read with. The YAML is parsed at most once, on
+     * first use; the raw content is dropped afterwards.
+     */
+    static final class Source {
+
+        private final Logger logger;
+        private final String name;
+        private final long size;
+        private final long modified;
+        private final long readAt;
+        private final String hash;
+        private byte[] content;
+        private volatile Parsed parsed;
+
+        private Source(Logger logger, String name, long size, long modified, long readAt, String hash,
+                byte[] content) {
+            this.logger = logger;
+            this.name = name;
+            this.size = size;
+            this.modified = modified;
+            this.readAt = readAt;
+            this.hash = hash;
+            this.content = content;
+        }
+
+        String name() {
+            return name;
+        }
+
+        String hash() {
+            return hash;
+        }
+
+        YamlConfiguration configuration() {
+            return parsed().configuration();
+        }
+
+        Set<String> topLevelKeys() {
+            return parsed().topLevelKeys();
+        }
+
+        Set<String> categoryIds() {
+            return parsed().categoryIds();
+        }
+
+        private boolean isParsed() {
+            return parsed != null;
+        }
+
+        private Parsed parsed() {
+            Parsed result = parsed;
+            if (result != null) {
+                return result;
+            }
+            synchronized (this) {
+                if (parsed == null) {
+                    parsed = parse();
+                    content = null;
+                }
+                return parsed;
+            }
+        }
+
+        private Parsed parse() {
+            YamlConfiguration configuration = new YamlConfiguration();
+            try {
+                configuration.loadFromString(new String(content, StandardCharsets.UTF_8));
+            } catch (InvalidConfigurationException ex) {
+                logger.log(Level.SEVERE, "Cannot load shop configuration file " + name, ex);
+            }
+            ConfigurationSection categories = configuration.getConfigurationSection(CATEGORIES_KEY);
+            return new Parsed(configuration, Set.copyOf(configuration.getKeys(false)),
+                    categories == null ? Set.of() : Set.copyOf(categories.getKeys(false)));
+        }
+
+        private boolean statMatches(long size, long modified) {
+            return this.size == size && this.modified == modified
+                    && modified < readAt - MTIME_GRANULARITY_MILLIS;
+        }
+
+        private Source restat(long size, long modified, long readAt) {
+            synchronized (this) {
+                Source copy = new Source(logger, name, size, modified, readAt, hash, content);
+                copy.parsed = parsed;
+                return copy;
+            }
+        }
+    }
+
+    private record Parsed(YamlConfiguration configuration, Set<String> topLevelKeys, Set<String> categoryIds) {
+    }
+
+    /**
+     * Result of a scan. {@code touched} holds both the old and new version of every added, changed or
+     * removed file so callers can work out which sections were affected.
+     */
+    record Scan(List<Source> sources, List<String> added, List<String> changed, List<String> removed,
+            List<Source> touched, long scanNanos) {
+
+        boolean hasChanges() {
+            return !added.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        int unchanged() {
+            return sources.size() - added.size() - changed.size();
+        }
+    }
+}
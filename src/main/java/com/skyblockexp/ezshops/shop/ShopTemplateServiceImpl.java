@@ -1,5 +1,6 @@
 package com.skyblockexp.ezshops.shop;
 
+import com.skyblockexp.ezshops.common.ParallelLoader;
 import com.skyblockexp.ezshops.shop.api.ShopTemplateService;
 import com.skyblockexp.ezshops.shop.template.ShopTemplate;
 import java.io.File;
@@ -7,12 +8,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.yaml.snakeyaml.Yaml;
 
 /**
  * Core implementation of the ShopTemplateService. Keeps an in-memory registry of templates.
@@ -61,16 +64,24 @@ public final class ShopTemplateServiceImpl implements ShopTemplateService {
 
     private void loadFromDisk() {
         if (templatesDir == null || !templatesDir.exists()) return;
-        Yaml yaml = new Yaml();
         File[] files = templatesDir.listFiles((d, name) -> name.endsWith(".yml") || name.endsWith(".yaml"));
         if (files == null) return;
-        for (File f : files) {
-            try (FileInputStream fis = new FileInputStream(f)) {
-                ShopTemplate t = ShopTemplate.fromYaml(fis);
+        // parse in parallel, register in file name order so duplicate ids resolve the same way every time
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        List<ShopTemplate> loaded = ParallelLoader.map(Arrays.asList(files), ShopTemplateServiceImpl::readTemplate);
+        for (ShopTemplate t : loaded) {
+            if (t != null) {
                 templates.put(t.id(), t);
-            } catch (Exception ex) {
-                System.err.println("Failed to load template from " + f.getName() + ": " + ex.getMessage());
             }
         }
     }
+
+    private static ShopTemplate readTemplate(File f) {
+        try (FileInputStream fis = new FileInputStream(f)) {
+            return ShopTemplate.fromYaml(fis);
+        } catch (Exception ex) {
+            System.err.println("Failed to load template from " + f.getName() + ": " + ex.getMessage());
+            return null;
+        }
+    }
 }
@@ -2,8 +2,17 @@ package com.skyblockexp.ezshops.shop;
 
 /**
  * Represents the outcome of an attempted shop transaction.
+ *
+ * <p>A pending result means the trade was accepted and reserved but the payment is still running on the
+ * asynchronous economy; the player is sent the final outcome once it completes.</p>
  */
-public record ShopTransactionResult(boolean success, String message) {
+public record ShopTransactionResult(boolean success, String message, boolean pending) {
+
+    private static final ShopTransactionResult PENDING = new ShopTransactionResult(true, "", true);
+
+    public ShopTransactionResult(boolean success, String message) {
+        this(success, message, false);
+    }
 
     public static ShopTransactionResult success(String message) {
         return new ShopTransactionResult(true, message);
@@ -12,4 +21,8 @@ public record ShopTransactionResult(boolean success, String message) {
     public static ShopTransactionResult failure(String message) {
         return new ShopTransactionResult(false, message);
     }
+
+    public static ShopTransactionResult pending() {
+        return PENDING;
+    }
 }
@@ -1,12 +1,19 @@
 package com.skyblockexp.ezshops.shop;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
+import com.skyblockexp.ezshops.common.EconomyPipeline;
 import com.skyblockexp.ezshops.common.EconomyUtils;
+import com.skyblockexp.ezshops.common.InventoryCapacity;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
+import com.skyblockexp.ezshops.event.ShopEventDispatcher;
+import com.skyblockexp.ezshops.hook.EzBoostMultiplierResolver;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import com.skyblockexp.ezshops.ledger.TransactionLedger;
 import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.economy.EconomyResponse;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.block.CreatureSpawner;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.EntityType;
@@ -20,8 +27,11 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.text.NumberFormat;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
 import java.util.function.IntFunction;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Provides shared logic for buying and selling items through the shop.
@@ -42,10 +52,13 @@ public class ShopTransactionService {
     private final ShopMessageConfiguration.TransactionMessages.CustomItemMessages customItemMessages;
     private final Map<EntityType, ItemStack> spawnerCache = new EnumMap<>(EntityType.class);
     private com.skyblockexp.ezshops.hook.TransactionHookService hookService;
-    private boolean ignoreItemsWithNBT = false; // Default: false
-    private String nbtFilterMode = "off"; // off, whitelist, blacklist
-    private Set<String> nbtWhitelist = new HashSet<>();
-    private Set<String> nbtBlacklist = new HashSet<>();
+    private EzBoostMultiplierResolver boostResolver =
+            new EzBoostMultiplierResolver(EzBoostMultiplierResolver.DEFAULT_CACHE_MILLIS);
+    private SellItemFilter sellFilter = SellItemFilter.DISABLED;
+    private EconomyPipeline economyPipeline;
+    private TransactionLedger ledger = TransactionLedger.DISABLED;
+    private ShopEventDispatcher events = new ShopEventDispatcher(null);
+    private ShopRateLimiter rateLimiter = ShopRateLimiter.UNLIMITED;
 
     public ShopTransactionService(ShopPricingManager pricingManager, Economy economy,
             ShopMessageConfiguration.TransactionMessages transactionMessages) {
@@ -55,142 +68,89 @@ public class ShopTransactionService {
         this.successMessages = transactionMessages.success();
         this.notificationMessages = transactionMessages.notifications();
         this.customItemMessages = transactionMessages.customItems();
+        this.economyPipeline = EconomyPipeline.direct(economy);
     }
 
     public void setTransactionHookService(com.skyblockexp.ezshops.hook.TransactionHookService hookService) {
         this.hookService = hookService;
     }
 
-    public void setIgnoreItemsWithNBT(boolean ignoreItemsWithNBT) {
-        this.ignoreItemsWithNBT = ignoreItemsWithNBT;
+    public void setBoostMultiplierResolver(EzBoostMultiplierResolver boostResolver) {
+        this.boostResolver = Objects.requireNonNull(boostResolver, "boostResolver");
     }
 
-    public void setNBTFilter(String mode, List<String> whitelist, List<String> blacklist) {
-        this.nbtFilterMode = mode != null ? mode : "off";
-        this.nbtWhitelist = whitelist != null ? new HashSet<>(whitelist) : new HashSet<>();
-        this.nbtBlacklist = blacklist != null ? new HashSet<>(blacklist) : new HashSet<>();
+    public void setSellItemFilter(SellItemFilter sellFilter) {
+        this.sellFilter = Objects.requireNonNull(sellFilter, "sellFilter");
     }
 
-    private double getSellPriceMultiplier(Player player) {
-        try {
-            // Get the EzBoost plugin instance to access its class loader
-            org.bukkit.plugin.Plugin ezBoostPlugin = org.bukkit.Bukkit.getPluginManager().getPlugin("EzBoost");
-            if (ezBoostPlugin == null) {
-                return 1.0;
-            }
-            ClassLoader ezBoostClassLoader = ezBoostPlugin.getClass().getClassLoader();
-
-            // Check if EzBoost classes are available using the plugin's class loader
-            Class<?> ezBoostAPIClass = Class.forName("com.skyblockexp.ezboost.api.EzBoostAPI", true, ezBoostClassLoader);
-
-            java.lang.reflect.Method getBoostManagerMethod = ezBoostAPIClass.getMethod("getBoostManager");
-            Object boostManager = getBoostManagerMethod.invoke(null);
-            if (boostManager == null) {
-                return 1.0;
-            }
-
-            java.lang.reflect.Method getBoostsMethod = boostManager.getClass().getMethod("getBoosts", Player.class);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> boosts = (Map<String, Object>) getBoostsMethod.invoke(boostManager, player);
-            double multiplier = 1.0;
-
-            for (Object boost : boosts.values()) {
-                java.lang.reflect.Method isActiveMethod = boostManager.getClass().getMethod("isActive", Player.class, String.class);
-                java.lang.reflect.Method getKeyMethod = boost.getClass().getMethod("key");
-                String key = (String) getKeyMethod.invoke(boost);
-
-                Boolean isActive = (Boolean) isActiveMethod.invoke(boostManager, player, key);
-                if (isActive) {
-                    java.lang.reflect.Method getEffectsMethod = boost.getClass().getMethod("effects");
-                    @SuppressWarnings("unchecked")
-                    java.util.Collection<Object> effects = (java.util.Collection<Object>) getEffectsMethod.invoke(boost);
-
-                    for (Object effect : effects) {
-                        java.lang.reflect.Method getCustomNameMethod = effect.getClass().getMethod("customName");
-                        String customName = (String) getCustomNameMethod.invoke(effect);
-                        if ("ezshops_sellprice".equals(customName)) {
-                            java.lang.reflect.Method getAmplifierMethod = effect.getClass().getMethod("amplifier");
-                            Number amplifier = (Number) getAmplifierMethod.invoke(effect);
-                            multiplier += amplifier.doubleValue() / 100.0;
-                        }
-                    }
-                }
-            }
-            return multiplier;
-        } catch (ClassNotFoundException e) {
-            // EzBoost not available, return default multiplier
-            return 1.0;
-        } catch (Exception e) {
-            // EzBoost integration failed, return default multiplier
-            return 1.0;
-        }
+    /**
+     * Routes payments through {@code economyPipeline}. When it is asynchronous, trades return
+     * {@link ShopTransactionResult#pending()} and the outcome is sent to the player once paid.
+     */
+    public void setEconomyPipeline(EconomyPipeline economyPipeline) {
+        this.economyPipeline = Objects.requireNonNull(economyPipeline, "economyPipeline");
     }
 
-    private double getBuyPriceMultiplier(Player player) {
-        /**
-         * Retrieves the active EzBoost discount boost for the player and converts it
-         * into a price multiplier.
-         *
-         * Example:
-         *  - 20% discount boost -> returns 0.8
-         *  - 50% discount boost -> returns 0.5
-         *
-         * If EzBoost is not present or an error occurs, defaults to 1.0 (no discount).
-         * Multiplier is clamped to a minimum of 0.0 to prevent negative prices.
-         */
-        try {
-            org.bukkit.plugin.Plugin ezBoostPlugin = org.bukkit.Bukkit.getPluginManager().getPlugin("EzBoost");
-            if (ezBoostPlugin == null) {
-                return 1.0;
-            }
-
-            ClassLoader ezBoostClassLoader = ezBoostPlugin.getClass().getClassLoader();
-            Class<?> ezBoostAPIClass = Class.forName("com.skyblockexp.ezboost.api.EzBoostAPI", true, ezBoostClassLoader);
+    /**
+     * Records every completed trade to {@code ledger}.
+     */
+    public void setTransactionLedger(TransactionLedger ledger) {
+        this.ledger = Objects.requireNonNull(ledger, "ledger");
+    }
 
-            java.lang.reflect.Method getBoostManagerMethod = ezBoostAPIClass.getMethod("getBoostManager");
-            Object boostManager = getBoostManagerMethod.invoke(null);
-            if (boostManager == null) {
-                return 1.0;
-            }
+    /**
+     * Fires purchase and sale events through {@code events}, which also collects trades for the batch event.
+     */
+    public void setEventDispatcher(ShopEventDispatcher events) {
+        this.events = Objects.requireNonNull(events, "events");
+    }
 
-            java.lang.reflect.Method getBoostsMethod = boostManager.getClass().getMethod("getBoosts", Player.class);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> boosts = (Map<String, Object>) getBoostsMethod.invoke(boostManager, player);
+    /**
+     * Limits how fast each player's trades are processed. Trades from shop signs and player shops are
+     * limited by their listeners, which call in with a source other than {@link LedgerEntry.Source#SHOP}.
+     */
+    public void setRateLimiter(ShopRateLimiter rateLimiter) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+    }
 
-            double multiplier = 1.0;
+    public ShopRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
 
-            for (Object boost : boosts.values()) {
-                java.lang.reflect.Method isActiveMethod = boostManager.getClass().getMethod("isActive", Player.class, String.class);
-                java.lang.reflect.Method getKeyMethod = boost.getClass().getMethod("key");
-                String key = (String) getKeyMethod.invoke(boost);
+    public void setIgnoreItemsWithNBT(boolean ignoreItemsWithNBT) {
+        this.sellFilter = sellFilter.withEnabled(ignoreItemsWithNBT);
+    }
 
-                Boolean isActive = (Boolean) isActiveMethod.invoke(boostManager, player, key);
-                if (isActive) {
-                    java.lang.reflect.Method getEffectsMethod = boost.getClass().getMethod("effects");
-                    @SuppressWarnings("unchecked")
-                    Collection<Object> effects = (Collection<Object>) getEffectsMethod.invoke(boost);
+    public void setNBTFilter(String mode, List<String> whitelist, List<String> blacklist) {
+        SellItemFilter.Mode parsed = SellItemFilter.Mode.fromConfig(mode);
+        this.sellFilter = sellFilter.withMode(parsed, SellItemFilter.parseKeys(whitelist, null),
+                SellItemFilter.parseKeys(blacklist, null));
+    }
 
-                    for (Object effect : effects) {
-                        java.lang.reflect.Method getCustomNameMethod = effect.getClass().getMethod("customName");
-                        String customName = (String) getCustomNameMethod.invoke(effect);
+    private double getSellPriceMultiplier(Player player) {
+        return boostResolver.sellMultiplier(player);
+    }
 
-                        if ("ezshops_discountboost".equals(customName)) {
-                            java.lang.reflect.Method getAmplifierMethod = effect.getClass().getMethod("amplifier");
-                            Number amplifier = (Number) getAmplifierMethod.invoke(effect);
+    private double getBuyPriceMultiplier(Player player) {
+        return boostResolver.buyMultiplier(player);
+    }
 
-                            multiplier -= amplifier.doubleValue() / 100.0;
-                        }
-                    }
-                }
-            }
+    public ShopTransactionResult buy(Player player, Material material, int amount) {
+        return buy(player, material, amount, LedgerEntry.Source.SHOP);
+    }
 
-            return Math.max(0.0, multiplier);
-        } catch (Exception e) {
-            return 1.0;
-        }
+    /**
+     * Buys {@code amount} of {@code material}, recording the trade in the ledger under {@code source}.
+     */
+    public ShopTransactionResult buy(Player player, Material material, int amount, LedgerEntry.Source source) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, source,
+                new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.BUY, source, LedgerEntry.Side.BUY, material, null),
+                amount);
+        return refused != null ? refused : executeBuy(player, material, amount, source);
     }
 
-    public ShopTransactionResult buy(Player player, Material material, int amount) {
+    private ShopTransactionResult executeBuy(Player player, Material material, int amount,
+            LedgerEntry.Source source) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -230,24 +190,25 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.noInventorySpace());
         }
 
-        if (economy.getBalance(player) < totalCost) {
-            return ShopTransactionResult.failure(errorMessages.cannotAfford());
-        }
-
-        EconomyResponse response = economy.withdrawPlayer(player, totalCost);
-        if (!response.transactionSuccess()) {
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
-
-        List<ItemStack> leftovers = giveItems(player, material, amount);
-        handleLeftoverItems(player, leftovers);
-        pricingManager.handlePurchase(material, amount);
-        ShopTransactionResult result = ShopTransactionResult.success(successMessages.purchase(amount,
-                ChatColor.AQUA + friendlyMaterialName(material), formatCurrency(totalCost)));
-        return result;
+        double cost = totalCost;
+        return charge(player, cost, () -> {
+            List<ItemStack> leftovers = giveItems(player, material, amount);
+            handleLeftoverItems(player, leftovers);
+            pricingManager.handlePurchase(material, amount);
+            completed(LedgerEntry.of(source, LedgerEntry.Side.BUY, player.getUniqueId(), material.name(), amount, cost));
+            return ShopTransactionResult.success(successMessages.purchase(amount,
+                    ChatColor.AQUA + DisplayNames.material(material), formatCurrency(cost)));
+        });
     }
 
     public ShopTransactionResult buy(Player player, com.skyblockexp.ezshops.shop.ShopMenuLayout.Item item, int amount) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                        LedgerEntry.Side.BUY, null, item), amount);
+        return refused != null ? refused : executeBuy(player, item, amount);
+    }
+
+    private ShopTransactionResult executeBuy(Player player, ShopMenuLayout.Item item, int amount) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -289,38 +250,47 @@ public class ShopTransactionService {
             }
         }
 
-        if (economy.getBalance(player) < totalCost) {
-            return ShopTransactionResult.failure(errorMessages.cannotAfford());
-        }
+        double cost = totalCost;
+        return charge(player, cost, () -> {
+            if (item.delivery() == DeliveryType.ITEM) {
+                List<ItemStack> leftovers = giveItems(player, item.material(), amount);
+                handleLeftoverItems(player, leftovers);
+            }
+            pricingManager.handlePurchase(priceKey, amount);
+            completed(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY, player.getUniqueId(), priceKey, amount, cost));
+            ShopTransactionResult result = ShopTransactionResult.success(successMessages.purchase(amount,
+                    ChatColor.AQUA + DisplayNames.material(item.material()), formatCurrency(cost)));
+            if (hookService != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty()) {
+                java.util.Map<String, String> tokens = new java.util.HashMap<>();
+                tokens.put("amount", String.valueOf(amount));
+                tokens.put("item", item.id());
+                tokens.put("material", item.material().name());
+                tokens.put("display", item.display() != null ? item.display().displayName() : "");
+                tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
+                tokens.put("total", formatCurrency(cost));
+                hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
+                events.purchase(player, () -> new ItemStack(item.material(), Math.max(1, amount)), amount, cost);
+            }
+            return result;
+        });
+    }
 
-        EconomyResponse response = economy.withdrawPlayer(player, totalCost);
-        if (!response.transactionSuccess()) {
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
+    public ShopTransactionResult sell(Player player, Material material, int amount) {
+        return sell(player, material, amount, LedgerEntry.Source.SHOP);
+    }
 
-        List<ItemStack> leftovers = List.of();
-        if (item.delivery() == DeliveryType.ITEM) {
-            leftovers = giveItems(player, item.material(), amount);
-            handleLeftoverItems(player, leftovers);
-        }
-        pricingManager.handlePurchase(priceKey, amount);
-        ShopTransactionResult result = ShopTransactionResult.success(successMessages.purchase(amount,
-                ChatColor.AQUA + friendlyMaterialName(item.material()), formatCurrency(totalCost)));
-        if (hookService != null && item != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty()) {
-            java.util.Map<String, String> tokens = new java.util.HashMap<>();
-            tokens.put("amount", String.valueOf(amount));
-            tokens.put("item", item.id());
-            tokens.put("material", item.material().name());
-            tokens.put("display", item.display() != null ? item.display().displayName() : "");
-            tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
-            tokens.put("total", formatCurrency(totalCost));
-            hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
-            org.bukkit.Bukkit.getPluginManager().callEvent(new com.skyblockexp.ezshops.event.ShopPurchaseEvent(player, new ItemStack(item.material(), Math.max(1, amount)), amount, totalCost));
-        }
-        return result;
+    /**
+     * Sells {@code amount} of {@code material}, recording the trade in the ledger under {@code source}.
+     */
+    public ShopTransactionResult sell(Player player, Material material, int amount, LedgerEntry.Source source) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.SELL, source,
+                new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.SELL, source, LedgerEntry.Side.SELL, material, null),
+                amount);
+        return refused != null ? refused : executeSell(player, material, amount, source);
     }
 
-    public ShopTransactionResult sell(Player player, Material material, int amount) {
+    private ShopTransactionResult executeSell(Player player, Material material, int amount,
+            LedgerEntry.Source source) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -347,33 +317,46 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.notSellable());
         }
 
+        double multiplier = getSellPriceMultiplier(player);
         double totalGain = pricingManager.estimateBulkTotal(material, amount, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
         totalGain = EconomyUtils.normalizeCurrency(totalGain);
-        totalGain *= getSellPriceMultiplier(player);
+        totalGain *= multiplier;
         if (totalGain <= 0) {
             return ShopTransactionResult.failure(errorMessages.invalidSellPrice());
         }
 
-        int sellableAmount = countMaterial(player, material);
-        if (sellableAmount < amount) {
+        PlayerInventory inventory = player.getInventory();
+        InventorySellPlan plan = planSale(inventory, material, amount);
+        if (plan.amount(material) < amount) {
             return ShopTransactionResult.failure(errorMessages.insufficientItems());
         }
 
-        removeItems(player, material, amount);
-        EconomyResponse response = economy.depositPlayer(player, totalGain);
-        if (!response.transactionSuccess()) {
-            List<ItemStack> leftovers = giveItems(player, material, amount);
-            handleLeftoverItems(player, leftovers);
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
+        // settled before the deposit, so the payout is exactly what the sale moved the price by
+        ShopSaleQuote settled = settleAll(Map.of(material.name(), amount));
+        if (settled == null) {
+            return ShopTransactionResult.failure(errorMessages.invalidSellPrice());
         }
-
-        pricingManager.handleSale(material, amount);
-        ShopTransactionResult result = ShopTransactionResult.success(successMessages.sale(amount,
-                ChatColor.AQUA + friendlyMaterialName(material), formatCurrency(totalGain)));
-        return result;
+        plan.apply(inventory);
+        Runnable rollback = rollback(player, inventory, plan);
+        double gain = settled.total() * multiplier;
+        return payOut(player, gain, () -> {
+            pricingManager.revertSales(settled);
+            rollback.run();
+        }, () -> {
+            completed(LedgerEntry.of(source, LedgerEntry.Side.SELL, player.getUniqueId(), material.name(), amount, gain));
+            return ShopTransactionResult.success(successMessages.sale(amount,
+                    ChatColor.AQUA + DisplayNames.material(material), formatCurrency(gain)));
+        });
     }
 
     public ShopTransactionResult sell(Player player, com.skyblockexp.ezshops.shop.ShopMenuLayout.Item item, int amount) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.SELL, LedgerEntry.Source.SHOP,
+                new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.SELL, LedgerEntry.Source.SHOP,
+                        LedgerEntry.Side.SELL, null, item), amount);
+        return refused != null ? refused : executeSell(player, item, amount);
+    }
+
+    private ShopTransactionResult executeSell(Player player, ShopMenuLayout.Item item, int amount) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -400,44 +383,59 @@ public class ShopTransactionService {
         }
 
         String priceKey = item.priceId() != null ? item.priceId() : item.material().name();
+        double multiplier = getSellPriceMultiplier(player);
         double totalGain = pricingManager.estimateBulkTotal(priceKey, amount, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
         totalGain = EconomyUtils.normalizeCurrency(totalGain);
-        totalGain *= getSellPriceMultiplier(player);
+        totalGain *= multiplier;
         if (totalGain <= 0) {
             return ShopTransactionResult.failure(errorMessages.invalidSellPrice());
         }
 
-        int sellableAmount = countMaterial(player, item.material());
-        if (sellableAmount < amount) {
+        PlayerInventory inventory = player.getInventory();
+        InventorySellPlan plan = planSale(inventory, item.material(), amount);
+        if (plan.amount(item.material()) < amount) {
             return ShopTransactionResult.failure(errorMessages.insufficientItems());
         }
 
-        removeItems(player, item.material(), amount);
-        EconomyResponse response = economy.depositPlayer(player, totalGain);
-        if (!response.transactionSuccess()) {
-            List<ItemStack> leftovers = giveItems(player, item.material(), amount);
-            handleLeftoverItems(player, leftovers);
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
-
-        pricingManager.handleSale(priceKey, amount);
-        ShopTransactionResult result = ShopTransactionResult.success(successMessages.sale(amount,
-                ChatColor.AQUA + friendlyMaterialName(item.material()), formatCurrency(totalGain)));
-        if (hookService != null && item != null) {
-            java.util.Map<String, String> tokens = new java.util.HashMap<>();
-            tokens.put("amount", String.valueOf(amount));
-            tokens.put("item", item.id());
-            tokens.put("material", item.material().name());
-            tokens.put("display", item.display() != null ? item.display().displayName() : "");
-            tokens.put("price", item.price() != null ? formatCurrency(item.price().sellPrice()) : "");
-            tokens.put("total", formatCurrency(totalGain));
-            hookService.executeHooks(player, item.sellCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
-            org.bukkit.Bukkit.getPluginManager().callEvent(new com.skyblockexp.ezshops.event.ShopSaleEvent(player, new ItemStack(item.material(), Math.max(1, amount)), amount, totalGain));
-        }
-        return result;
+        ShopSaleQuote settled = settleAll(Map.of(priceKey, amount));
+        if (settled == null) {
+            return ShopTransactionResult.failure(errorMessages.invalidSellPrice());
+        }
+        plan.apply(inventory);
+        Runnable rollback = rollback(player, inventory, plan);
+        double gain = settled.total() * multiplier;
+        return payOut(player, gain, () -> {
+            pricingManager.revertSales(settled);
+            rollback.run();
+        }, () -> {
+            completed(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.SELL, player.getUniqueId(), priceKey, amount, gain));
+            ShopTransactionResult result = ShopTransactionResult.success(successMessages.sale(amount,
+                    ChatColor.AQUA + DisplayNames.material(item.material()), formatCurrency(gain)));
+            if (hookService != null) {
+                if (item.sellCommands() != null && !item.sellCommands().isEmpty()) {
+                    java.util.Map<String, String> tokens = new java.util.HashMap<>();
+                    tokens.put("amount", String.valueOf(amount));
+                    tokens.put("item", item.id());
+                    tokens.put("material", item.material().name());
+                    tokens.put("display", item.display() != null ? item.display().displayName() : "");
+                    tokens.put("price", item.price() != null ? formatCurrency(item.price().sellPrice()) : "");
+                    tokens.put("total", formatCurrency(gain));
+                    hookService.executeHooks(player, item.sellCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
+                }
+                events.sale(player, () -> new ItemStack(item.material(), Math.max(1, amount)), amount, gain);
+            }
+            return result;
+        });
     }
 
     public ShopTransactionResult sellInventory(Player player) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.SELL_INVENTORY,
+                LedgerEntry.Source.SHOP, new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.SELL_INVENTORY,
+                        LedgerEntry.Source.SHOP, LedgerEntry.Side.SELL, null, null), 0);
+        return refused != null ? refused : executeSellInventory(player);
+    }
+
+    private ShopTransactionResult executeSellInventory(Player player) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -446,83 +444,238 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.noSellPermission());
         }
 
+        // one pass over the inventory plans every slot, so the sale is a single storage write
         PlayerInventory inventory = player.getInventory();
-        Map<Material, Integer> soldAmounts = new EnumMap<>(Material.class);
-        double totalGain = 0.0D;
+        InventorySellPlan plan = InventorySellPlan.plan(inventory.getStorageContents(), sellFilter.session(),
+                this::isSellableFromInventory, Integer.MAX_VALUE);
+        if (plan.isEmpty()) {
+            return ShopTransactionResult.failure(errorMessages.noSellableItems());
+        }
 
-        for (ItemStack stack : inventory.getStorageContents()) {
-            if (stack == null || stack.getType() == Material.AIR || shouldIgnoreItem(stack)) {
-                continue;
-            }
+        // the whole inventory is priced and settled as one basket, so it is one deposit and one state write
+        ShopSaleQuote quote = quoteItems(plan.amounts());
+        plan.retain(material -> quote.contains(material.name()));
+        double multiplier = getSellPriceMultiplier(player);
+        if (plan.isEmpty() || quote.total() * multiplier <= 0) {
+            return ShopTransactionResult.failure(errorMessages.noSellablePrices());
+        }
 
-            Material material = stack.getType();
-            // Skip materials that are part of a rotation but not visible in the current menu rotation
-            if (!pricingManager.isVisibleInMenu(material) && pricingManager.isPartOfRotation(material)) {
-                continue;
-            }
-            ShopPrice price = pricingManager.getPrice(material).orElse(null);
-            if (price == null || !price.canSell()) {
-                continue;
-            }
+        plan.apply(inventory);
+        Map<Material, Integer> soldAmounts = plan.amounts();
+        Runnable rollback = rollback(player, inventory, plan);
+        Map<String, Integer> basket = toBasket(soldAmounts);
+        ShopSaleQuote settled = settleAll(basket);
+        if (settled == null) {
+            rollback.run();
+            return ShopTransactionResult.failure(errorMessages.noSellablePrices());
+        }
+        double totalGain = settled.total() * multiplier;
+        return payOut(player, totalGain, () -> {
+            pricingManager.revertSales(settled);
+            rollback.run();
+        }, () -> {
+            recordSales(player, soldAmounts, settled, multiplier);
+            String soldItems = formatSoldInventorySummary(soldAmounts);
+            return ShopTransactionResult.success(successMessages.sellInventory(soldItems, formatCurrency(totalGain)));
+        });
+    }
 
-            double unitPrice = price.sellPrice();
-            if (unitPrice <= 0) {
-                continue;
-            }
+    /**
+     * Settles a basket before it is paid for, so the payout is exactly what the sale moved the prices by
+     * even while other players sell the same items. Returns {@code null}, with nothing settled, if any line
+     * cannot be sold any more.
+     */
+    private ShopSaleQuote settleAll(Map<String, Integer> basket) {
+        ShopSaleQuote settled = pricingManager.settleSales(basket);
+        if (settled.lines().size() == basket.size() && settled.total() > 0) {
+            return settled;
+        }
+        pricingManager.revertSales(settled);
+        return null;
+    }
 
-            int amount = stack.getAmount();
-            if (amount <= 0) {
-                continue;
+    /**
+     * Prices materials as one basket of sales, keyed by material name, without changing any multiplier.
+     * Materials that cannot be sold are left out of the quote.
+     */
+    public ShopSaleQuote quoteItems(Map<Material, Integer> amounts) {
+        if (amounts == null || amounts.isEmpty()) {
+            return ShopSaleQuote.empty();
+        }
+        Map<String, Double> lines = new LinkedHashMap<>();
+        for (Map.Entry<Material, Integer> entry : amounts.entrySet()) {
+            double total = pricingManager.estimateBulkTotal(entry.getKey(), entry.getValue(),
+                    com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
+            if (total > 0) {
+                lines.put(entry.getKey().name(), total);
             }
+        }
+        return ShopSaleQuote.of(lines);
+    }
 
-            soldAmounts.merge(material, amount, Integer::sum);
-            // use estimator so progressive dynamic pricing is accounted for per material
-            totalGain += pricingManager.estimateBulkTotal(material, amount, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.SELL);
+    /**
+     * Sells items the player handed over outside their inventory, such as the contents of the quick sell
+     * menu, as one basket with a single deposit. Either every material is sold or, if any of them has no
+     * sell price, none is.
+     *
+     * @param handOver       takes the sold items from wherever they are kept and returns them; called once
+     *                       the basket is priced, and the returned stacks go to the player's inventory if
+     *                       the payout fails
+     * @param successMessage formats the success message from the amount paid out
+     */
+    public ShopTransactionResult sellItems(Player player, Map<Material, Integer> amounts,
+            Supplier<List<ItemStack>> handOver, DoubleFunction<String> successMessage) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.SELL_INVENTORY,
+                LedgerEntry.Source.SHOP, null, 0);
+        if (refused != null) {
+            return refused;
         }
 
-        if (soldAmounts.isEmpty()) {
-            return ShopTransactionResult.failure(errorMessages.noSellableItems());
+        if (economy == null) {
+            return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
 
-        totalGain = EconomyUtils.normalizeCurrency(totalGain);
-        totalGain *= getSellPriceMultiplier(player);
-        if (totalGain <= 0) {
-            return ShopTransactionResult.failure(errorMessages.noSellablePrices());
+        if (!player.hasPermission(PERMISSION_SELL)) {
+            return ShopTransactionResult.failure(errorMessages.noSellPermission());
         }
 
-        for (Map.Entry<Material, Integer> entry : soldAmounts.entrySet()) {
-            removeItems(player, entry.getKey(), entry.getValue());
+        if (amounts == null || amounts.isEmpty()) {
+            return ShopTransactionResult.failure(errorMessages.noSellableItems());
         }
 
-        EconomyResponse response = economy.depositPlayer(player, totalGain);
-        if (!response.transactionSuccess()) {
-            List<ItemStack> leftovers = new ArrayList<>();
-            for (Map.Entry<Material, Integer> entry : soldAmounts.entrySet()) {
-                leftovers.addAll(giveItems(player, entry.getKey(), entry.getValue()));
+        Map<String, Integer> basket = toBasket(amounts);
+        ShopSaleQuote settled = settleAll(basket);
+        double multiplier = getSellPriceMultiplier(player);
+        if (settled == null || settled.total() * multiplier <= 0) {
+            if (settled != null) {
+                pricingManager.revertSales(settled);
             }
-            handleLeftoverItems(player, leftovers);
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
+            return ShopTransactionResult.failure(errorMessages.noSellablePrices());
         }
+        double totalGain = settled.total() * multiplier;
 
-        for (Map.Entry<Material, Integer> entry : soldAmounts.entrySet()) {
-            pricingManager.handleSale(entry.getKey(), entry.getValue());
+        List<ItemStack> handedOver = handOver.get();
+        Runnable giveBack = () -> {
+            pricingManager.revertSales(settled);
+            handleLeftoverItems(player,
+                    new ArrayList<>(player.getInventory().addItem(handedOver.toArray(ItemStack[]::new)).values()));
+        };
+        return payOut(player, totalGain, giveBack, () -> {
+            recordSales(player, amounts, settled, multiplier);
+            return ShopTransactionResult.success(successMessage.apply(totalGain));
+        });
+    }
+
+    private void recordSales(Player player, Map<Material, Integer> amounts, ShopSaleQuote quote, double multiplier) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Material, Integer> entry : amounts.entrySet()) {
+            String key = entry.getKey().name();
+            completed(new LedgerEntry(now, player.getUniqueId(), null, LedgerEntry.Source.SHOP,
+                    LedgerEntry.Side.SELL, key, entry.getValue(), quote.lines().getOrDefault(key, 0.0D) * multiplier));
+        }
+    }
+
+    /**
+     * Removes every stack the shop would buy from {@code inventory} with a single write and returns the
+     * amounts taken per material. Auto-sell containers are drained this way and paid later, in one batch per
+     * owner, through {@link #sellBatch(OfflinePlayer, Map, Consumer)}.
+     */
+    public Map<Material, Integer> takeSellable(Inventory inventory) {
+        InventorySellPlan plan = InventorySellPlan.plan(inventory.getStorageContents(), sellFilter.session(),
+                this::isSellableFromInventory, Integer.MAX_VALUE);
+        if (plan.isEmpty()) {
+            return Map.of();
+        }
+        plan.apply(inventory);
+        return new EnumMap<>(plan.amounts());
+    }
+
+    /**
+     * Pays {@code owner} for items already taken from their auto-sell containers. The batch is priced once as
+     * one basket, credited with a single deposit and settled with one dynamic pricing write. An online owner
+     * gets their sell boost and a summary message.
+     *
+     * @param unpaid receives the amounts that were not paid for, either because they have no sell price any
+     *               more or because the deposit failed; empty when the whole batch was paid
+     */
+    public void sellBatch(OfflinePlayer owner, Map<Material, Integer> amounts, Consumer<Map<Material, Integer>> unpaid) {
+        if (economy == null || amounts.isEmpty()) {
+            unpaid.accept(amounts);
+            return;
+        }
+        // settled before the deposit, so the owner is paid what the batch actually moved the prices by
+        ShopSaleQuote settled = pricingManager.settleSales(toBasket(amounts));
+        Map<Material, Integer> priced = new EnumMap<>(Material.class);
+        Map<Material, Integer> unpriced = new EnumMap<>(Material.class);
+        amounts.forEach((material, amount) -> (settled.contains(material.name()) ? priced : unpriced).put(material, amount));
+        Player online = owner.getPlayer();
+        double multiplier = online != null ? getSellPriceMultiplier(online) : 1.0D;
+        double gain = settled.total() * multiplier;
+        if (priced.isEmpty() || gain <= 0) {
+            pricingManager.revertSales(settled);
+            unpaid.accept(amounts);
+            return;
         }
+        economyPipeline.submit(owner.getUniqueId(), econ -> econ.depositPlayer(owner, gain), (response, error) -> {
+            if (error != null || response == null || !response.transactionSuccess()) {
+                pricingManager.revertSales(settled);
+                unpaid.accept(amounts);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (Map.Entry<Material, Integer> entry : priced.entrySet()) {
+                String key = entry.getKey().name();
+                completed(new LedgerEntry(now, owner.getUniqueId(), null, LedgerEntry.Source.AUTO_SELL,
+                        LedgerEntry.Side.SELL, key, entry.getValue(), settled.lines().getOrDefault(key, 0.0D) * multiplier));
+            }
+            Player recipient = owner.getPlayer();
+            if (recipient != null) {
+                recipient.sendMessage(successMessages.sellInventory(formatSoldInventorySummary(priced),
+                        formatCurrency(gain)));
+            }
+            unpaid.accept(unpriced);
+        });
+    }
 
-        String soldItems = formatSoldInventorySummary(soldAmounts);
-        return ShopTransactionResult.success(successMessages.sellInventory(soldItems, formatCurrency(totalGain)));
+    /**
+     * Records a completed trade to the ledger and queues it for the batch event.
+     */
+    private void completed(LedgerEntry entry) {
+        ledger.record(entry);
+        events.trade(entry);
+    }
+
+    private static Map<String, Integer> toBasket(Map<Material, Integer> amounts) {
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        for (Map.Entry<Material, Integer> entry : amounts.entrySet()) {
+            basket.merge(entry.getKey().name(), entry.getValue(), Integer::sum);
+        }
+        return basket;
     }
 
     public ShopTransactionResult buyMinionCrateKey(Player player, double unitPrice, int quantity) {
-        return purchaseCustomItem(player, unitPrice, quantity, Material.TRIPWIRE_HOOK,
+        return purchaseCustomItem(player, unitPrice, quantity, "MINION_CRATE_KEY", Material.TRIPWIRE_HOOK,
                 customItemMessages.minionCrateName(), customItemMessages.minionCrateLore());
     }
 
     public ShopTransactionResult buyVoteCrateKey(Player player, double unitPrice, int quantity) {
-        return purchaseCustomItem(player, unitPrice, quantity, Material.TRIPWIRE_HOOK,
+        return purchaseCustomItem(player, unitPrice, quantity, "VOTE_CRATE_KEY", Material.TRIPWIRE_HOOK,
                 customItemMessages.voteCrateName(), customItemMessages.voteCrateLore());
     }
 
     public ShopTransactionResult buySpawner(Player player, EntityType entityType, double unitPrice, int quantity) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                null, 0);
+        if (refused != null) {
+            return refused;
+        }
+
+        return purchaseSpawner(player, entityType, unitPrice, quantity, () -> {
+        });
+    }
+
+    private ShopTransactionResult purchaseSpawner(Player player, EntityType entityType, double unitPrice, int quantity,
+            Runnable afterDelivery) {
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -547,10 +700,6 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.invalidCustomPrice());
         }
 
-        if (economy.getBalance(player) < totalCost) {
-            return ShopTransactionResult.failure(errorMessages.cannotAfford());
-        }
-
         ItemStack template = spawnerCache.computeIfAbsent(entityType, this::createSpawnerItem);
         IntFunction<ItemStack> spawnerFactory = count -> {
             ItemStack stack = template.clone();
@@ -561,19 +710,26 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.noInventorySpace());
         }
 
-        EconomyResponse response = economy.withdrawPlayer(player, totalCost);
-        if (!response.transactionSuccess()) {
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
-
-        List<ItemStack> leftovers = giveSpawner(player, spawnerFactory, quantity);
-        handleLeftoverItems(player, leftovers);
-        String friendlyName = friendlyEntityName(entityType);
-        return ShopTransactionResult.success(
-                successMessages.spawnerPurchase(quantity, ChatColor.AQUA + friendlyName, formatCurrency(totalCost)));
+        double cost = totalCost;
+        return charge(player, cost, () -> {
+            List<ItemStack> leftovers = giveSpawner(player, spawnerFactory, quantity);
+            handleLeftoverItems(player, leftovers);
+            afterDelivery.run();
+            completed(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY, player.getUniqueId(),
+                    "SPAWNER:" + entityType.name(), quantity, cost));
+            String friendlyName = DisplayNames.entity(entityType);
+            return ShopTransactionResult.success(
+                    successMessages.spawnerPurchase(quantity, ChatColor.AQUA + friendlyName, formatCurrency(cost)));
+        });
     }
 
     public ShopTransactionResult buySpawner(Player player, com.skyblockexp.ezshops.shop.ShopMenuLayout.Item item, int quantity) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                null, 0);
+        if (refused != null) {
+            return refused;
+        }
+
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -609,30 +765,40 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.invalidCustomPrice());
         }
 
-        // Delegate core purchase logic to existing method which handles economy and item delivery
-        ShopTransactionResult base = buySpawner(player, entityType, unitPrice, quantity);
-        if (!base.success()) return base;
-
-        String priceKey = item.priceId() != null ? item.priceId() : item.material().name();
-        pricingManager.handlePurchase(priceKey, quantity);
-        ItemStack purchased = createSpawnerItem(entityType);
-        purchased.setAmount(Math.max(1, quantity));
-        double eventTotal = pricingManager.estimateBulkTotal(priceKey, quantity, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY);
-        if (hookService != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty()) {
-            java.util.Map<String, String> tokens = new java.util.HashMap<>();
-            tokens.put("amount", String.valueOf(quantity));
-            tokens.put("item", item.id());
-            tokens.put("material", item.material().name());
-            tokens.put("display", item.display() != null ? item.display().displayName() : "");
-            tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
-            tokens.put("total", formatCurrency(eventTotal));
-            hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
-        }
-        org.bukkit.Bukkit.getPluginManager().callEvent(new com.skyblockexp.ezshops.event.ShopPurchaseEvent(player, purchased, quantity, eventTotal));
-        return base;
+        // Delegate core purchase logic, which handles economy and item delivery, and record the trade once paid
+        return purchaseSpawner(player, entityType, unitPrice, quantity, () -> {
+            String priceKey = item.priceId() != null ? item.priceId() : item.material().name();
+            pricingManager.handlePurchase(priceKey, quantity);
+            boolean runHooks = hookService != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty();
+            if (!runHooks && !events.hasTransactionListeners()) {
+                return;
+            }
+            double eventTotal = pricingManager.estimateBulkTotal(priceKey, quantity, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY);
+            if (runHooks) {
+                java.util.Map<String, String> tokens = new java.util.HashMap<>();
+                tokens.put("amount", String.valueOf(quantity));
+                tokens.put("item", item.id());
+                tokens.put("material", item.material().name());
+                tokens.put("display", item.display() != null ? item.display().displayName() : "");
+                tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
+                tokens.put("total", formatCurrency(eventTotal));
+                hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
+            }
+            events.purchase(player, () -> {
+                ItemStack purchased = spawnerCache.computeIfAbsent(entityType, this::createSpawnerItem).clone();
+                purchased.setAmount(Math.max(1, quantity));
+                return purchased;
+            }, quantity, eventTotal);
+        });
     }
 
     public ShopTransactionResult buyEnchantedBook(Player player, ShopMenuLayout.Item item, int quantity) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                null, 0);
+        if (refused != null) {
+            return refused;
+        }
+
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -689,36 +855,35 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.noInventorySpace());
         }
 
-        if (economy.getBalance(player) < totalCost) {
-            return ShopTransactionResult.failure(errorMessages.cannotAfford());
-        }
-
-        EconomyResponse response = economy.withdrawPlayer(player, totalCost);
-        if (!response.transactionSuccess()) {
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
-
-        List<ItemStack> leftovers = giveItems(player, bookFactory, quantity);
-        handleLeftoverItems(player, leftovers);
+        double cost = totalCost;
+        return charge(player, cost, () -> {
+            List<ItemStack> leftovers = giveItems(player, bookFactory, quantity);
+            handleLeftoverItems(player, leftovers);
 
-        String friendlyName = bookName.isEmpty() ? friendlyMaterialName(item.material()) : bookName;
-        String priceKey = item.priceId() != null ? item.priceId() : item.material().name();
-        pricingManager.handlePurchase(priceKey, quantity);
-        ShopTransactionResult result = ShopTransactionResult.success(successMessages.purchase(quantity,
-            ChatColor.AQUA + friendlyName, formatCurrency(totalCost)));
-        double eventTotal = pricingManager.estimateBulkTotal(priceKey, quantity, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY);
-        if (hookService != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty()) {
-            java.util.Map<String, String> tokens = new java.util.HashMap<>();
-            tokens.put("amount", String.valueOf(quantity));
-            tokens.put("item", item.id());
-            tokens.put("material", item.material().name());
-            tokens.put("display", item.display() != null ? item.display().displayName() : "");
-            tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
-            tokens.put("total", formatCurrency(eventTotal));
-            hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
-        }
-        org.bukkit.Bukkit.getPluginManager().callEvent(new com.skyblockexp.ezshops.event.ShopPurchaseEvent(player, new ItemStack(item.material(), Math.max(1, quantity)), quantity, eventTotal));
-        return result;
+            String friendlyName = bookName.isEmpty() ? DisplayNames.material(item.material()) : bookName;
+            String priceKey = item.priceId() != null ? item.priceId() : item.material().name();
+            pricingManager.handlePurchase(priceKey, quantity);
+            completed(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY, player.getUniqueId(), priceKey, quantity, cost));
+            ShopTransactionResult result = ShopTransactionResult.success(successMessages.purchase(quantity,
+                ChatColor.AQUA + friendlyName, formatCurrency(cost)));
+            boolean runHooks = hookService != null && item.delivery() != DeliveryType.NONE && item.buyCommands() != null && !item.buyCommands().isEmpty();
+            if (!runHooks && !events.hasTransactionListeners()) {
+                return result;
+            }
+            double eventTotal = pricingManager.estimateBulkTotal(priceKey, quantity, com.skyblockexp.ezshops.gui.shop.ShopTransactionType.BUY);
+            if (runHooks) {
+                java.util.Map<String, String> tokens = new java.util.HashMap<>();
+                tokens.put("amount", String.valueOf(quantity));
+                tokens.put("item", item.id());
+                tokens.put("material", item.material().name());
+                tokens.put("display", item.display() != null ? item.display().displayName() : "");
+                tokens.put("price", item.price() != null ? formatCurrency(item.price().buyPrice()) : "");
+                tokens.put("total", formatCurrency(eventTotal));
+                hookService.executeHooks(player, item.buyCommands(), item.commandsRunAsConsole() == null ? true : item.commandsRunAsConsole(), tokens);
+            }
+            events.purchase(player, () -> new ItemStack(item.material(), Math.max(1, quantity)), quantity, eventTotal);
+            return result;
+        });
     }
 
     public String formatCurrency(double amount) {
@@ -730,29 +895,21 @@ public class ShopTransactionService {
         }
     }
 
+    /**
+     * Returns the player-facing name of {@code material}; see {@link DisplayNames#material(Material)}.
+     */
     public static String friendlyMaterialName(Material material) {
-        String name = material.name().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = name.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return name;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
+        return DisplayNames.material(material);
     }
 
-    private ShopTransactionResult purchaseCustomItem(Player player, double unitPrice, int quantity, Material material,
-            String displayName, String loreLine) {
+    private ShopTransactionResult purchaseCustomItem(Player player, double unitPrice, int quantity, String ledgerKey,
+            Material material, String displayName, String loreLine) {
+        ShopTransactionResult refused = throttle(player, ShopRateLimiter.Action.BUY, LedgerEntry.Source.SHOP,
+                null, 0);
+        if (refused != null) {
+            return refused;
+        }
+
         if (economy == null) {
             return ShopTransactionResult.failure(errorMessages.noEconomy());
         }
@@ -780,19 +937,14 @@ public class ShopTransactionService {
             return ShopTransactionResult.failure(errorMessages.noInventorySpace());
         }
 
-        if (economy.getBalance(player) < totalCost) {
-            return ShopTransactionResult.failure(errorMessages.cannotAfford());
-        }
-
-        EconomyResponse response = economy.withdrawPlayer(player, totalCost);
-        if (!response.transactionSuccess()) {
-            return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
-        }
-
-        List<ItemStack> leftovers = giveItems(player, itemFactory, quantity);
-        handleLeftoverItems(player, leftovers);
-        return ShopTransactionResult.success(successMessages.purchase(quantity, displayName,
-                formatCurrency(totalCost)));
+        double cost = totalCost;
+        return charge(player, cost, () -> {
+            List<ItemStack> leftovers = giveItems(player, itemFactory, quantity);
+            handleLeftoverItems(player, leftovers);
+            completed(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY, player.getUniqueId(), ledgerKey, quantity, cost));
+            return ShopTransactionResult.success(successMessages.purchase(quantity, displayName,
+                    formatCurrency(cost)));
+        });
     }
 
     private ItemStack createCustomItem(Material material, String displayName, String loreLine) {
@@ -818,101 +970,150 @@ public class ShopTransactionService {
         if (quantity <= 0) {
             return true;
         }
-        Inventory snapshot = cloneStorageInventory(player);
-        int remaining = quantity;
-        while (remaining > 0) {
-            ItemStack stack = itemFactory.apply(remaining);
-            if (stack == null || stack.getType() == Material.AIR) {
-                return true;
-            }
-            int stackSize = Math.min(stack.getMaxStackSize(), remaining);
-            stack.setAmount(stackSize);
-            Map<Integer, ItemStack> leftovers = snapshot.addItem(stack);
-            if (!leftovers.isEmpty()) {
-                return false;
-            }
-            remaining -= stackSize;
-        }
-        return true;
+        return InventoryCapacity.deliverable(player.getInventory(), itemFactory.apply(1), quantity) >= quantity;
+    }
+
+    /**
+     * Takes a rate limit token for a trade. Returns {@code null} to go ahead, or the answer to hand back
+     * when the player is trading too fast. Every trade path goes through here with the same rules:
+     * <ul>
+     *     <li>trades from the shop itself take a token from {@code action}'s bucket;</li>
+     *     <li>sign shop trades take one {@link ShopRateLimiter.Action#SIGN} token when the sign is clicked,
+     *     so the buy or sell the click then runs with source {@code SIGN_SHOP} is not limited again;</li>
+     *     <li>auto-sell, stock and player shop trades are not limited here.</li>
+     * </ul>
+     * In merge mode a refused trade with a {@code merge} key is queued and runs together with the player's
+     * other refused trades of the same item once the limit allows. Material and menu item buys and sells,
+     * sell-inventory and sign clicks merge. Spawners, crate keys, enchanted books and multi-item sells pass
+     * no key and are always rejected.
+     *
+     * @param merge  how the trade merges, or {@code null} if it cannot
+     * @param amount the amount the merged trade adds
+     */
+    public ShopTransactionResult throttle(Player player, ShopRateLimiter.Action action, LedgerEntry.Source source,
+            ShopRateLimiter.MergeKey merge, int amount) {
+        boolean limited = action == ShopRateLimiter.Action.SIGN ? source == LedgerEntry.Source.SIGN_SHOP
+                : source == LedgerEntry.Source.SHOP;
+        if (!limited || rateLimiter.tryAcquire(player.getUniqueId(), action)) {
+            return null;
+        }
+        if (merge == null || !rateLimiter.merges()) {
+            return ShopTransactionResult.failure(errorMessages.tooFast());
+        }
+        rateLimiter.merge(player, merge, amount, this::runMerged);
+        return ShopTransactionResult.pending();
     }
 
-    private int countMaterial(Player player, Material material) {
-        int total = 0;
-        for (ItemStack stack : player.getInventory().getStorageContents()) {
-            if (stack != null && stack.getType() == material && !shouldIgnoreItem(stack)) {
-                total += stack.getAmount();
+    private void runMerged(Player player, ShopRateLimiter.MergeKey key, int amount) {
+        ShopTransactionResult result;
+        if (key.action() == ShopRateLimiter.Action.SELL_INVENTORY) {
+            result = executeSellInventory(player);
+        } else if (key.side() == LedgerEntry.Side.BUY) {
+            result = key.item() != null ? executeBuy(player, key.item(), amount)
+                    : executeBuy(player, key.material(), amount, key.source());
+        } else {
+            // the merged requests may ask for more than is left; sell what there is
+            Material material = key.item() != null ? key.item().material() : key.material();
+            int held = planSale(player.getInventory(), material, amount).amount(material);
+            if (held <= 0) {
+                result = ShopTransactionResult.failure(errorMessages.insufficientItems());
+            } else {
+                result = key.item() != null ? executeSell(player, key.item(), held)
+                        : executeSell(player, material, held, key.source());
             }
         }
-        return total;
+        if (!result.pending() && result.message() != null && !result.message().isEmpty()) {
+            player.sendMessage(result.message());
+        }
     }
 
-    private void removeItems(Player player, Material material, int amount) {
-        PlayerInventory inventory = player.getInventory();
-        ItemStack[] contents = inventory.getStorageContents();
-        int remaining = amount;
+    /**
+     * Withdraws {@code amount} if the player can afford it and then runs {@code deliver} on the main
+     * thread.
+     */
+    private ShopTransactionResult charge(Player player, double amount, Supplier<ShopTransactionResult> deliver) {
+        return settle(player,
+                econ -> econ.getBalance(player) < amount ? null : econ.withdrawPlayer(player, amount),
+                response -> {
+                    if (response == null) {
+                        return ShopTransactionResult.failure(errorMessages.cannotAfford());
+                    }
+                    if (!response.transactionSuccess()) {
+                        return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
+                    }
+                    if (economyPipeline.isAsync() && !player.isOnline()) {
+                        // nobody to deliver to any more; pay the money back instead
+                        economyPipeline.refund(player, amount);
+                        return ShopTransactionResult.failure(errorMessages.playerLeft());
+                    }
+                    return deliver.get();
+                }, () -> {
+                });
+    }
 
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            ItemStack stack = contents[i];
-            if (stack == null || stack.getType() != material || shouldIgnoreItem(stack)) {
-                continue;
+    /**
+     * Deposits {@code amount} for items already taken from the player and then runs {@code settle} on the
+     * main thread, or {@code rollback} if the deposit fails.
+     */
+    private ShopTransactionResult payOut(Player player, double amount, Runnable rollback,
+            Supplier<ShopTransactionResult> settle) {
+        return settle(player, econ -> econ.depositPlayer(player, amount), response -> {
+            if (!response.transactionSuccess()) {
+                rollback.run();
+                return ShopTransactionResult.failure(errorMessages.transactionFailed(response.errorMessage));
             }
+            return settle.get();
+        }, rollback);
+    }
 
-            int toRemove = Math.min(stack.getAmount(), remaining);
-            remaining -= toRemove;
-            int newAmount = stack.getAmount() - toRemove;
-            if (newAmount <= 0) {
-                contents[i] = null;
+    /**
+     * Runs {@code call} through the economy pipeline. Inline, the outcome is returned; asynchronously,
+     * it is sent to the player when the call completes and a pending result is returned.
+     */
+    private ShopTransactionResult settle(Player player, Function<Economy, EconomyResponse> call,
+            Function<EconomyResponse, ShopTransactionResult> completion, Runnable onError) {
+        boolean async = economyPipeline.isAsync();
+        ShopTransactionResult[] inline = new ShopTransactionResult[1];
+        economyPipeline.submit(player.getUniqueId(), call, (response, error) -> {
+            ShopTransactionResult result;
+            if (error != null) {
+                onError.run();
+                result = ShopTransactionResult.failure(errorMessages.transactionFailed(error.getMessage()));
             } else {
-                stack.setAmount(newAmount);
-                contents[i] = stack;
+                result = completion.apply(response);
             }
-        }
-
-        inventory.setStorageContents(contents);
+            if (!async) {
+                inline[0] = result;
+            } else if (result.message() != null && !result.message().isEmpty()) {
+                player.sendMessage(result.message());
+            }
+        });
+        return async ? ShopTransactionResult.pending() : inline[0];
     }
 
-    private boolean shouldIgnoreItem(ItemStack stack) {
-        if (!ignoreItemsWithNBT || stack == null || !stack.hasItemMeta()) {
-            return false;
-        }
-
-        ItemMeta meta = stack.getItemMeta();
-        if (meta == null) {
-            return false;
-        }
-
-        Set<String> keys = meta.getPersistentDataContainer().getKeys()
-                .stream()
-                .map(k -> k.getNamespace() + ":" + k.getKey())
-                .collect(Collectors.toSet());
-
-        if (keys.isEmpty()) {
-            return false;
-        }
-
-        if ("off".equalsIgnoreCase(nbtFilterMode)) {
-            return true;
+    /**
+     * Undoes an applied sell plan. Inline nothing else can have touched the inventory, so it is restored
+     * exactly; asynchronously the taken items are added back and anything that no longer fits is dropped.
+     */
+    private Runnable rollback(Player player, PlayerInventory inventory, InventorySellPlan plan) {
+        if (!economyPipeline.isAsync()) {
+            return () -> plan.rollback(inventory);
         }
+        return () -> handleLeftoverItems(player, plan.refund(inventory));
+    }
 
-        if ("whitelist".equalsIgnoreCase(nbtFilterMode)) {
-            for (String key : keys) {
-                if (!nbtWhitelist.contains(key)) {
-                    return true;
-                }
-            }
-            return false;
-        }
+    private InventorySellPlan planSale(PlayerInventory inventory, Material material, int amount) {
+        return InventorySellPlan.plan(inventory.getStorageContents(), sellFilter.session(),
+                candidate -> candidate == material, amount);
+    }
 
-        if ("blacklist".equalsIgnoreCase(nbtFilterMode)) {
-            for (String key : keys) {
-                if (nbtBlacklist.contains(key)) {
-                    return true;
-                }
-            }
+    private boolean isSellableFromInventory(Material material) {
+        // Skip materials that are part of a rotation but not visible in the current menu rotation
+        if (!pricingManager.isVisibleInMenu(material) && pricingManager.isPartOfRotation(material)) {
             return false;
         }
-
-        return true;
+        ShopPrice price = pricingManager.getPrice(material).orElse(null);
+        return price != null && price.canSell() && price.sellPrice() > 0;
     }
 
     private List<ItemStack> giveItems(Player player, Material material, int amount) {
@@ -950,7 +1151,7 @@ public class ShopTransactionService {
         List<String> parts = new ArrayList<>();
         for (Map.Entry<Material, Integer> entry : soldAmounts.entrySet()) {
             parts.add(ChatColor.AQUA + String.valueOf(entry.getValue()) + ChatColor.GREEN + "x " + ChatColor.AQUA
-                    + friendlyMaterialName(entry.getKey()));
+                    + DisplayNames.material(entry.getKey()));
         }
         return String.join(ChatColor.GREEN + ", ", parts);
     }
@@ -968,17 +1169,6 @@ public class ShopTransactionService {
         player.sendMessage(notificationMessages.inventoryLeftovers());
     }
 
-    private Inventory cloneStorageInventory(Player player) {
-        PlayerInventory inventory = player.getInventory();
-        ItemStack[] contents = inventory.getStorageContents();
-        Inventory snapshot = Bukkit.createInventory(null, contents.length);
-        for (int i = 0; i < contents.length; i++) {
-            ItemStack item = contents[i];
-            snapshot.setItem(i, item == null ? null : item.clone());
-        }
-        return snapshot;
-    }
-
     private ItemStack createEnchantedBook(Map<Enchantment, Integer> enchantments, String displayName) {
         ItemStack book = new ItemStack(Material.ENCHANTED_BOOK);
         ItemMeta meta = book.getItemMeta();
@@ -1012,55 +1202,13 @@ public class ShopTransactionService {
 
         List<String> parts = new ArrayList<>();
         for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
-            String name = friendlyEnchantmentName(entry.getKey());
-            String level = toRomanNumeral(Math.max(1, entry.getValue()));
+            String name = DisplayNames.enchantment(entry.getKey());
+            String level = DisplayNames.romanNumeral(Math.max(1, entry.getValue()));
             parts.add(name + " " + level);
         }
         return String.join(", ", parts) + " Book";
     }
 
-    private String friendlyEnchantmentName(Enchantment enchantment) {
-        if (enchantment == null) {
-            return "";
-        }
-        String key = enchantment.getKey().getKey().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = key.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return key;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
-
-    private String toRomanNumeral(int number) {
-        if (number <= 0) {
-            return Integer.toString(number);
-        }
-
-        int[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
-        String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
-        int remaining = number;
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < values.length && remaining > 0; i++) {
-            while (remaining >= values[i]) {
-                builder.append(numerals[i]);
-                remaining -= values[i];
-            }
-        }
-        return builder.toString();
-    }
-
     private ItemStack createSpawnerItem(EntityType entityType) {
         ItemStack item = new ItemStack(Material.SPAWNER);
         ItemMeta meta = item.getItemMeta();
@@ -1070,33 +1218,9 @@ public class ShopTransactionService {
                 blockStateMeta.setBlockState(spawner);
             }
             blockStateMeta.setDisplayName(customItemMessages
-                    .spawnerDisplayName(friendlyEntityName(entityType)));
+                    .spawnerDisplayName(DisplayNames.entity(entityType)));
             item.setItemMeta(blockStateMeta);
         }
         return item;
     }
-
-    private String friendlyEntityName(EntityType entityType) {
-        if (entityType == null) {
-            return "";
-        }
-        String name = entityType.name().toLowerCase(Locale.ENGLISH).replace('_', ' ');
-        String[] parts = name.split(" ");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;
-            }
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
-            }
-            builder.append(' ');
-        }
-        if (builder.length() == 0) {
-            return name;
-        }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
-    }
 }
@@ -1,5 +1,6 @@
 package com.skyblockexp.ezshops.shop.command;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.EconomyUtils;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
 import com.skyblockexp.ezshops.shop.ShopPrice;
@@ -54,7 +55,7 @@ public class PriceCommand implements CommandExecutor, TabCompleter {
         }
 
         ShopPrice price = priceLookup.get();
-        String displayName = ShopTransactionService.friendlyMaterialName(material);
+        String displayName = DisplayNames.material(material);
         sender.sendMessage(messages.header(displayName));
 
         sender.sendMessage(resolveBuyLine(price));
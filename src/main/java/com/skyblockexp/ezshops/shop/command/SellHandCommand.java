@@ -47,7 +47,9 @@ public class SellHandCommand implements CommandExecutor {
         }
 
         ShopTransactionResult result = transactionService.sell(player, handItem.getType(), handItem.getAmount());
-        player.sendMessage(result.message());
+        if (!result.pending()) {
+            player.sendMessage(result.message());
+        }
         return true;
     }
 }
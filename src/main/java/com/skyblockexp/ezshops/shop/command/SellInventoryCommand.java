@@ -30,7 +30,9 @@ public class SellInventoryCommand implements CommandExecutor {
         }
 
         ShopTransactionResult result = transactionService.sellInventory(player);
-        player.sendMessage(result.message());
+        if (!result.pending()) {
+            player.sendMessage(result.message());
+        }
         return true;
     }
 }
@@ -5,6 +5,7 @@ import com.skyblockexp.ezshops.common.MessageUtil;
 import com.skyblockexp.ezshops.gui.ShopMenu;
 import com.skyblockexp.ezshops.shop.ShopMenuLayout;
 import com.skyblockexp.ezshops.shop.ShopPricingManager;
+import com.skyblockexp.ezshops.shop.ShopReloadReport;
 import com.skyblockexp.ezshops.shop.ShopTransactionResult;
 import com.skyblockexp.ezshops.shop.ShopTransactionService;
 import java.util.ArrayList;
@@ -56,9 +57,17 @@ public class ShopCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             try {
-                pricingManager.reload();
-                if (shopMenu != null) shopMenu.refreshViewers();
-                sender.sendMessage("§aEzShops configuration reloaded successfully.");
+                // "/shop reload incremental" only re-parses changed files; plain reload re-reads everything
+                if (args.length > 1 && "incremental".equalsIgnoreCase(args[1])) {
+                    ShopReloadReport report = pricingManager.reloadIncremental();
+                    if (shopMenu != null && report.hasFileChanges()) shopMenu.refreshViewers();
+                    sender.sendMessage("§aEzShops configuration reloaded successfully.");
+                    sender.sendMessage("§7" + report.summary());
+                } else {
+                    pricingManager.reload();
+                    if (shopMenu != null) shopMenu.refreshViewers();
+                    sender.sendMessage("§aEzShops configuration reloaded successfully.");
+                }
             } catch (Exception ex) {
                 sender.sendMessage("§cFailed to reload EzShops: " + ex.getMessage());
             }
@@ -265,7 +274,9 @@ public class ShopCommand implements CommandExecutor, TabCompleter {
                 return true;
         }
 
-        player.sendMessage(result.message());
+        if (!result.pending()) {
+            player.sendMessage(result.message());
+        }
         return true;
     }
 
@@ -375,6 +386,9 @@ public class ShopCommand implements CommandExecutor, TabCompleter {
             if (action.equals("sell")) {
                 return filterSellCompletions(args[1]);
             }
+            if (action.equals("reload") && sender.hasPermission("ezshops.reload")) {
+                return filterCompletions(args[1], List.of("incremental"));
+            }
         }
 
         if (args.length == 3) {
@@ -1,6 +1,7 @@
 package com.skyblockexp.ezshops.shop.sign;
 
 import com.skyblockexp.ezshops.common.CompatibilityUtil;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.common.EconomyUtils;
 import com.skyblockexp.ezshops.shop.ShopPrice;
 import com.skyblockexp.ezshops.shop.ShopPricingManager;
@@ -232,7 +233,7 @@ public final class SignShopGenerator {
         sign.setLine(0, signConfiguration.headerText());
         sign.setLine(1, signConfiguration.formatActionLine(action, amount));
         sign.setLine(2, signConfiguration
-                .formatItemLine(ShopTransactionService.friendlyMaterialName(material)));
+                .formatItemLine(DisplayNames.material(material)));
         if (totalPrice < 0) {
             sign.setLine(3, signConfiguration.unavailableLine());
         } else {
@@ -2,10 +2,10 @@
 package com.skyblockexp.ezshops.shop.sign;
 
 import com.skyblockexp.ezshops.common.CompatibilityUtil;
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.shop.ShopPricingManager;
 import com.skyblockexp.ezshops.config.ShopSignConfiguration;
 import com.skyblockexp.ezshops.shop.ShopSignListener;
-import com.skyblockexp.ezshops.shop.ShopTransactionService;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -217,7 +217,7 @@ public final class SignShopScanner {
         Map<String, Material> lookup = new HashMap<>(configured.size() * 2);
         for (Material material : configured) {
             addMaterialKey(lookup, material.name(), material);
-            String friendly = ShopTransactionService.friendlyMaterialName(material);
+            String friendly = DisplayNames.material(material);
             addMaterialKey(lookup, friendly, material);
         }
         return lookup;
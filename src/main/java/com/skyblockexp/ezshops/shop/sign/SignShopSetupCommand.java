@@ -1,9 +1,9 @@
 
 package com.skyblockexp.ezshops.shop.sign;
 
+import com.skyblockexp.ezshops.common.DisplayNames;
 import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
 import com.skyblockexp.ezshops.shop.ShopSignListener;
-import com.skyblockexp.ezshops.shop.ShopTransactionService;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -137,7 +137,7 @@ public final class SignShopSetupCommand implements CommandExecutor, TabCompleter
             String actionLabel = detected.action() == ShopSignListener.SignAction.BUY
                     ? signMessages.actionLabelBuy() : signMessages.actionLabelSell();
             Location location = detected.location();
-            String itemName = ShopTransactionService.friendlyMaterialName(detected.material());
+            String itemName = DisplayNames.material(detected.material());
             player.sendMessage(messages.entry(actionLabel, detected.amount(), itemName,
                     location.getBlockX(), location.getBlockY(), location.getBlockZ()));
             shown++;
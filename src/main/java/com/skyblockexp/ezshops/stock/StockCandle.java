@@ -0,0 +1,18 @@
+package com.skyblockexp.ezshops.stock;
+
+/**
+ * Open, high, low and close price of a stock over one time bucket, as kept by the {@link StockCandleStore}.
+ *
+ * @param start  epoch milliseconds the bucket starts at
+ * @param open   first price in the bucket
+ * @param high   highest price in the bucket
+ * @param low    lowest price in the bucket
+ * @param close  last price in the bucket
+ * @param volume stock units traded in the bucket; admin price changes add none
+ */
+public record StockCandle(long start, double open, double high, double low, double close, long volume) {
+
+    public boolean isRising() {
+        return close >= open;
+    }
+}
@@ -0,0 +1,538 @@
+package com.skyblockexp.ezshops.stock;
+
+import com.skyblockexp.ezshops.common.AtomicFileWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Open/high/low/close/volume candles of every stock price change, at minute, hour and day resolution.
+ *
+ * <p>Every price change updates the current candle of all three resolutions, so coarse candles summarise
+ * the same prices as the fine ones they replace: each resolution keeps its own number of candles, and once
+ * minute candles fall out of their window the hour and day candles still cover that time. Each product and
+ * resolution is a ring ordered by time, so queries binary search their start and return at most the ring's
+ * size whatever range is asked for. Rings start small and grow up to their size as candles arrive, so
+ * products that rarely trade stay cheap.</p>
+ *
+ * <p>Candles are persisted to an append-only binary file. Closed candles are queued as they close and
+ * appended by {@link #flush()}; {@link #close()} also writes the candles still open, and the next
+ * {@link #load()} picks those up where they left off. A load that finds the file mostly made up of
+ * superseded or expired records rewrites it compactly.</p>
+ */
+public final class StockCandleStore {
+
+    public enum Resolution {
+        MINUTE(60_000L),
+        HOUR(3_600_000L),
+        DAY(86_400_000L);
+
+        private final long millis;
+
+        Resolution(long millis) {
+            this.millis = millis;
+        }
+
+        public long millis() {
+            return millis;
+        }
+
+        /**
+         * Returns the start of the bucket containing {@code time}.
+         */
+        public long bucket(long time) {
+            return Math.floorDiv(time, millis) * millis;
+        }
+    }
+
+    public static final int DEFAULT_KEEP_MINUTES = 1440;
+    public static final int DEFAULT_KEEP_HOURS = 720;
+    public static final int DEFAULT_KEEP_DAYS = 365;
+
+    private static final int MAGIC = 0x455A4344; // "EZCD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte RECORD_PRODUCT = 1;
+    private static final byte RECORD_CANDLE = 2;
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    private final File file;
+    private final Logger logger;
+    private final int[] keep;
+    private final ConcurrentHashMap<String, ProductCandles> products = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingCandle> pending = new ConcurrentLinkedQueue<>();
+
+    private final Object fileLock = new Object();
+    // product id -> index used in the file; guarded by fileLock
+    private final Map<String, Integer> fileProducts = new HashMap<>();
+
+    /**
+     * @param file     candle file, or {@code null} to keep candles in memory only
+     * @param logger   logger for storage problems
+     * @param keepMinutes minute candles kept per product
+     * @param keepHours   hour candles kept per product
+     * @param keepDays    day candles kept per product
+     */
+    public StockCandleStore(File file, Logger logger, int keepMinutes, int keepHours, int keepDays) {
+        this.file = file;
+        this.logger = logger;
+        this.keep = new int[] { Math.max(1, keepMinutes), Math.max(1, keepHours), Math.max(1, keepDays) };
+    }
+
+    public static StockCandleStore inMemory() {
+        return new StockCandleStore(null, null, DEFAULT_KEEP_MINUTES, DEFAULT_KEEP_HOURS, DEFAULT_KEEP_DAYS);
+    }
+
+    /**
+     * Adds a price change to the current candle of every resolution.
+     *
+     * @param volume stock units traded at this price, or 0 for a price set by hand
+     */
+    public void record(String productId, long time, double price, long volume) {
+        ProductCandles candles = products.computeIfAbsent(productId, id -> new ProductCandles(keep));
+        synchronized (candles) {
+            for (Resolution resolution : RESOLUTIONS) {
+                StockCandle closed = candles.series[resolution.ordinal()]
+                        .record(resolution.bucket(time), price, volume);
+                if (closed != null && file != null) {
+                    pending.add(new PendingCandle(productId, resolution, closed));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many candles a product has at {@code resolution}.
+     */
+    public int count(String productId, Resolution resolution) {
+        ProductCandles candles = find(productId);
+        if (candles == null) {
+            return 0;
+        }
+        synchronized (candles) {
+            return candles.series[resolution.ordinal()].size;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} candles newest first, skipping the {@code skip} newest.
+     */
+    public List<StockCandle> newest(String productId, Resolution resolution, int skip, int limit) {
+        ProductCandles candles = find(productId);
+        if (candles == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        synchronized (candles) {
+            Series series = candles.series[resolution.ordinal()];
+            int end = series.size - Math.max(0, skip);
+            int start = Math.max(0, end - limit);
+            List<StockCandle> result = new ArrayList<>(Math.max(0, end - start));
+            for (int i = end - 1; i >= start; i--) {
+                result.add(series.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the candles whose bucket overlaps {@code [fromMillis, toMillis]}, oldest first.
+     */
+    public List<StockCandle> candles(String productId, Resolution resolution, long fromMillis, long toMillis) {
+        ProductCandles candles = find(productId);
+        if (candles == null || toMillis < fromMillis) {
+            return Collections.emptyList();
+        }
+        synchronized (candles) {
+            Series series = candles.series[resolution.ordinal()];
+            List<StockCandle> result = new ArrayList<>();
+            for (int i = series.firstAtOrAfter(resolution.bucket(fromMillis)); i < series.size; i++) {
+                StockCandle candle = series.get(i);
+                if (candle.start() > toMillis) {
+                    break;
+                }
+                result.add(candle);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads the candle file into memory. Call once before recording.
+     */
+    public void load() {
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        synchronized (fileLock) {
+            fileProducts.clear();
+            long validLength = 0L;
+            int records = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                    logger.warning("Ignoring unreadable stock candle file " + file.getName() + "; starting over.");
+                    rewrite();
+                    return;
+                }
+                validLength = HEADER_BYTES;
+                Map<Integer, String> names = new HashMap<>();
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == RECORD_PRODUCT) {
+                        int index = in.readInt();
+                        String id = in.readUTF();
+                        names.put(index, id);
+                        fileProducts.put(id, index);
+                        validLength += 1 + Integer.BYTES + 2 + utfLength(id);
+                    } else if (type == RECORD_CANDLE) {
+                        String id = names.get(in.readInt());
+                        int resolution = in.readUnsignedByte();
+                        StockCandle candle = new StockCandle(in.readLong(), in.readDouble(), in.readDouble(),
+                                in.readDouble(), in.readDouble(), in.readLong());
+                        if (id == null || resolution >= RESOLUTIONS.length) {
+                            break;
+                        }
+                        ProductCandles candles = products.computeIfAbsent(id, key -> new ProductCandles(keep));
+                        synchronized (candles) {
+                            candles.series[resolution].put(candle);
+                        }
+                        validLength += candleRecordBytes();
+                        records++;
+                    } else {
+                        break;
+                    }
+                }
+            } catch (EOFException ex) {
+                // a record cut short by a crash ends the file
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Unable to read stock candles from " + file.getName(), ex);
+                return;
+            }
+
+            if (records > 2 * liveCandles() + 1024) {
+                rewrite();
+            } else if (validLength < file.length()) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(validLength);
+                } catch (IOException ex) {
+                    logger.log(Level.WARNING, "Unable to repair stock candle file " + file.getName(), ex);
+                    rewrite();
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the candles that closed since the last flush. Safe to call from any thread.
+     */
+    public void flush() {
+        if (file == null || pending.isEmpty()) {
+            return;
+        }
+        synchronized (fileLock) {
+            boolean fresh = !file.isFile() || file.length() < HEADER_BYTES;
+            if (fresh) {
+                fileProducts.clear();
+                File parent = file.getParentFile();
+                if (parent != null) {
+                    parent.mkdirs();
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file, !fresh)))) {
+                if (fresh) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                }
+                PendingCandle next;
+                while ((next = pending.poll()) != null) {
+                    writeCandle(out, next.productId(), next.resolution(), next.candle());
+                }
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Unable to append stock candles to " + file.getName(), ex);
+            }
+        }
+    }
+
+    /**
+     * Writes every candle that is still open together with the queued ones. Used on shutdown.
+     */
+    public void close() {
+        if (file == null) {
+            return;
+        }
+        for (Map.Entry<String, ProductCandles> entry : products.entrySet()) {
+            ProductCandles candles = entry.getValue();
+            synchronized (candles) {
+                for (Resolution resolution : RESOLUTIONS) {
+                    Series series = candles.series[resolution.ordinal()];
+                    if (series.size > 0 && series.dirty) {
+                        pending.add(new PendingCandle(entry.getKey(), resolution, series.get(series.size - 1)));
+                        series.dirty = false;
+                    }
+                }
+            }
+        }
+        flush();
+    }
+
+    private ProductCandles find(String productId) {
+        ProductCandles candles = products.get(productId);
+        return candles != null ? candles : products.get(productId.toUpperCase(Locale.ROOT));
+    }
+
+    private int liveCandles() {
+        int total = 0;
+        for (ProductCandles candles : products.values()) {
+            synchronized (candles) {
+                for (Series series : candles.series) {
+                    total += series.size;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Replaces the file with exactly the candles held in memory. Caller holds {@code fileLock}.
+     */
+    private void rewrite() {
+        fileProducts.clear();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + liveCandles() * candleRecordBytes());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (Map.Entry<String, ProductCandles> entry : products.entrySet()) {
+                ProductCandles candles = entry.getValue();
+                synchronized (candles) {
+                    for (Resolution resolution : RESOLUTIONS) {
+                        Series series = candles.series[resolution.ordinal()];
+                        for (int i = 0; i < series.size; i++) {
+                            writeCandle(out, entry.getKey(), resolution, series.get(i));
+                        }
+                    }
+                }
+            }
+            AtomicFileWriter.write(file, bytes.toByteArray());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to compact stock candle file " + file.getName(), ex);
+        }
+    }
+
+    private void writeCandle(DataOutputStream out, String productId, Resolution resolution, StockCandle candle)
+            throws IOException {
+        Integer index = fileProducts.get(productId);
+        if (index == null) {
+            index = fileProducts.size();
+            fileProducts.put(productId, index);
+            out.writeByte(RECORD_PRODUCT);
+            out.writeInt(index);
+            out.writeUTF(productId);
+        }
+        out.writeByte(RECORD_CANDLE);
+        out.writeInt(index);
+        out.writeByte(resolution.ordinal());
+        out.writeLong(candle.start());
+        out.writeDouble(candle.open());
+        out.writeDouble(candle.high());
+        out.writeDouble(candle.low());
+        out.writeDouble(candle.close());
+        out.writeLong(candle.volume());
+    }
+
+    private static int candleRecordBytes() {
+        return 1 + Integer.BYTES + 1 + Long.BYTES + 4 * Double.BYTES + Long.BYTES;
+    }
+
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+
+    private record PendingCandle(String productId, Resolution resolution, StockCandle candle) {
+    }
+
+    private static final class ProductCandles {
+        private final Series[] series = new Series[RESOLUTIONS.length];
+
+        private ProductCandles(int[] keep) {
+            for (int i = 0; i < series.length; i++) {
+                series[i] = new Series(keep[i]);
+            }
+        }
+    }
+
+    /**
+     * Candles of one product at one resolution, oldest first, in a ring of primitive columns. The columns
+     * double in length while full until they reach {@code capacity}; from then on the oldest candle is
+     * overwritten.
+     */
+    private static final class Series {
+        private static final int INITIAL_LENGTH = 8;
+
+        private final int capacity;
+        private long[] starts;
+        private double[] opens;
+        private double[] highs;
+        private double[] lows;
+        private double[] closes;
+        private long[] volumes;
+        private int head;
+        private int size;
+        // the newest candle changed since it was last queued for writing
+        private boolean dirty;
+
+        private Series(int capacity) {
+            this.capacity = capacity;
+            int length = Math.min(capacity, INITIAL_LENGTH);
+            starts = new long[length];
+            opens = new double[length];
+            highs = new double[length];
+            lows = new double[length];
+            closes = new double[length];
+            volumes = new long[length];
+        }
+
+        /**
+         * Adds a price to the candle of {@code bucket}, returning the previous candle if this one closed it.
+         */
+        private StockCandle record(long bucket, double price, long volume) {
+            if (size > 0) {
+                int last = slot(size - 1);
+                // a clock stepping backwards keeps adding to the newest candle
+                if (starts[last] >= bucket) {
+                    highs[last] = Math.max(highs[last], price);
+                    lows[last] = Math.min(lows[last], price);
+                    closes[last] = price;
+                    volumes[last] += volume;
+                    dirty = true;
+                    return null;
+                }
+                StockCandle closed = get(size - 1);
+                boolean wasDirty = dirty;
+                push(new StockCandle(bucket, price, price, price, price, volume));
+                dirty = true;
+                return wasDirty ? closed : null;
+            }
+            push(new StockCandle(bucket, price, price, price, price, volume));
+            dirty = true;
+            return null;
+        }
+
+        /**
+         * Adds a stored candle: replaces the newest one if it has the same start, is appended if newer and
+         * ignored if older.
+         */
+        private void put(StockCandle candle) {
+            if (size > 0) {
+                int last = slot(size - 1);
+                if (starts[last] == candle.start()) {
+                    set(last, candle);
+                    return;
+                }
+                if (starts[last] > candle.start()) {
+                    return;
+                }
+            }
+            push(candle);
+        }
+
+        private void push(StockCandle candle) {
+            if (size == starts.length) {
+                if (size < capacity) {
+                    grow();
+                } else {
+                    head = (head + 1) % starts.length;
+                    size--;
+                }
+            }
+            set(slot(size), candle);
+            size++;
+        }
+
+        /**
+         * Doubles the columns, up to {@code capacity}, moving the oldest candle to the first slot. Only called
+         * while the ring is full.
+         */
+        private void grow() {
+            int length = (int) Math.min(capacity, 2L * starts.length);
+            starts = unrolled(starts, new long[length]);
+            opens = unrolled(opens, new double[length]);
+            highs = unrolled(highs, new double[length]);
+            lows = unrolled(lows, new double[length]);
+            closes = unrolled(closes, new double[length]);
+            volumes = unrolled(volumes, new long[length]);
+            head = 0;
+        }
+
+        private long[] unrolled(long[] column, long[] target) {
+            System.arraycopy(column, head, target, 0, column.length - head);
+            System.arraycopy(column, 0, target, column.length - head, head);
+            return target;
+        }
+
+        private double[] unrolled(double[] column, double[] target) {
+            System.arraycopy(column, head, target, 0, column.length - head);
+            System.arraycopy(column, 0, target, column.length - head, head);
+            return target;
+        }
+
+        private void set(int slot, StockCandle candle) {
+            starts[slot] = candle.start();
+            opens[slot] = candle.open();
+            highs[slot] = candle.high();
+            lows[slot] = candle.low();
+            closes[slot] = candle.close();
+            volumes[slot] = candle.volume();
+        }
+
+        private StockCandle get(int index) {
+            int slot = slot(index);
+            return new StockCandle(starts[slot], opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]);
+        }
+
+        /**
+         * Returns the index of the first candle starting at or after {@code time}, or {@code size}.
+         */
+        private int firstAtOrAfter(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[slot(mid)] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int slot(int index) {
+            return (head + index) % starts.length;
+        }
+    }
+}
@@ -1,29 +1,80 @@
 package com.skyblockexp.ezshops.stock;
 
+import java.lang.invoke.VarHandle;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Stores and retrieves historical price data for stocks.
+ *
+ * <p>Each product keeps its latest prices in a fixed-size {@link PriceHistory} ring of primitive timestamps
+ * and prices. Appends for a product must come from one writer at a time, which {@link StockMarketManager}
+ * guarantees; readers never lock and always see a consistent set of entries.</p>
  */
 public class StockHistoryManager {
-    // Map<ProductId, List<PriceEntry>>
-    private final Map<String, List<PriceEntry>> history = new ConcurrentHashMap<>();
-    private static final int MAX_HISTORY = 50; // Limit entries per stock
+    public static final int DEFAULT_DEPTH = 50;
+
+    // Map<ProductId, PriceHistory>
+    private final Map<String, PriceHistory> history = new ConcurrentHashMap<>();
+    private final int depth;
+
+    public StockHistoryManager() {
+        this(DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param depth number of prices kept per product; older prices are overwritten
+     */
+    public StockHistoryManager(int depth) {
+        this.depth = Math.max(1, depth);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
 
     public void recordPrice(String productId, double price) {
-        String id = productId.toUpperCase(Locale.ROOT);
-        history.computeIfAbsent(id, k -> new LinkedList<>());
-        List<PriceEntry> entries = history.get(id);
-        entries.add(new PriceEntry(System.currentTimeMillis(), price));
-        if (entries.size() > MAX_HISTORY) {
-            entries.remove(0);
+        recordPrice(productId, System.currentTimeMillis(), price);
+    }
+
+    public void recordPrice(String productId, long timestamp, double price) {
+        PriceHistory entries = history.get(productId);
+        if (entries == null) {
+            entries = history.computeIfAbsent(productId.toUpperCase(Locale.ROOT), k -> new PriceHistory(depth));
+        }
+        entries.append(timestamp, price);
+    }
+
+    /**
+     * Returns the live price history of a product, or {@link PriceHistory#EMPTY} if it has none. The
+     * returned history keeps receiving new prices.
+     */
+    public PriceHistory history(String productId) {
+        PriceHistory entries = history.get(productId);
+        if (entries == null) {
+            entries = history.get(productId.toUpperCase(Locale.ROOT));
         }
+        return entries != null ? entries : PriceHistory.EMPTY;
     }
 
+    /**
+     * Returns a copy of a product's price history, oldest first. Prefer {@link #history(String)}, which
+     * reads the entries in place.
+     */
     public List<PriceEntry> getHistory(String productId) {
-        String id = productId.toUpperCase(Locale.ROOT);
-        return history.getOrDefault(id, Collections.emptyList());
+        PriceHistory entries = history(productId);
+        int size = entries.size();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        long[] timestamps = new long[size];
+        double[] prices = new double[size];
+        int read = entries.readNewest(0, timestamps, prices);
+        List<PriceEntry> copy = new ArrayList<>(read);
+        for (int i = read - 1; i >= 0; i--) {
+            copy.add(new PriceEntry(timestamps[i], prices[i]));
+        }
+        return copy;
     }
 
     public static class PriceEntry {
@@ -34,4 +85,84 @@ public class StockHistoryManager {
             this.price = price;
         }
     }
+
+    /**
+     * Fixed-capacity ring of price entries for one product.
+     *
+     * <p>{@code count} is the number of entries ever appended and doubles as a sequence lock: the writer
+     * fills the slot of entry {@code count} and then publishes it by incrementing {@code count}. A reader
+     * copies the entries it wants, re-reads {@code count} and retries if the writer may have overwritten
+     * any of them in the meantime. The ring has one slot more than it holds entries, so the slot the writer
+     * fills next never holds an entry a reader may copy.</p>
+     */
+    public static final class PriceHistory {
+        public static final PriceHistory EMPTY = new PriceHistory(1);
+
+        private final int capacity;
+        private final long[] timestamps;
+        private final double[] prices;
+        private volatile long count;
+
+        PriceHistory(int capacity) {
+            this.capacity = capacity;
+            this.timestamps = new long[capacity + 1];
+            this.prices = new double[capacity + 1];
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Returns the number of entries currently held, at most {@link #capacity()}.
+         */
+        public int size() {
+            return (int) Math.min(count, capacity);
+        }
+
+        public boolean isEmpty() {
+            return count == 0L;
+        }
+
+        /**
+         * Single writer only.
+         */
+        void append(long timestamp, double price) {
+            long sequence = count;
+            int slot = (int) (sequence % prices.length);
+            timestamps[slot] = timestamp;
+            prices[slot] = price;
+            count = sequence + 1L;
+        }
+
+        /**
+         * Copies entries newest first, skipping the {@code skip} newest, into the given arrays. Copies at
+         * most {@code min(timestamps.length, prices.length)} entries and returns how many were copied. The
+         * copied entries were all held at the same moment.
+         */
+        public int readNewest(int skip, long[] timestamps, double[] prices) {
+            int max = Math.min(timestamps.length, prices.length);
+            while (true) {
+                long total = count;
+                long end = total - Math.max(0, skip);
+                long start = Math.max(Math.max(0L, total - capacity), end - max);
+                if (end <= start) {
+                    return 0;
+                }
+                int copied = 0;
+                for (long sequence = end - 1L; sequence >= start; sequence--) {
+                    int slot = (int) (sequence % this.prices.length);
+                    timestamps[copied] = this.timestamps[slot];
+                    prices[copied] = this.prices[slot];
+                    copied++;
+                }
+                // order the copies before the validating read of count; entry `start` is intact as long as
+                // the writer has not started on entry start + slots
+                VarHandle.acquireFence();
+                if (count - this.prices.length < start) {
+                    return copied;
+                }
+            }
+        }
+    }
 }
@@ -2,69 +2,49 @@ package com.skyblockexp.ezshops.stock;
 
 import org.bukkit.entity.Player;
 
+/**
+ * Static access to player stock holdings, served by the {@link StockPortfolioCache} the stock component
+ * installs. Without one, a cache that writes every change straight to disk is created on first use.
+ */
 public class StockManager {
+    private static volatile StockPortfolioCache portfolios;
+
+    public static void setPortfolioCache(StockPortfolioCache cache) {
+        portfolios = cache;
+    }
+
+    public static StockPortfolioCache getPortfolioCache() {
+        return portfolios;
+    }
+
     public static boolean addPlayerStock(Player player, String productId, int amount) {
-        if (amount <= 0) return false;
-        String id = productId == null ? null : productId.toUpperCase(java.util.Locale.ROOT);
-        java.io.File dataFolder = player.getServer().getPluginManager().getPlugin("EzShops").getDataFolder();
-        java.io.File playerFile = new java.io.File(dataFolder, "player-stocks/" + player.getUniqueId() + ".yml");
-        if (!playerFile.getParentFile().exists()) playerFile.getParentFile().mkdirs();
-        org.bukkit.configuration.file.YamlConfiguration yaml = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(playerFile);
-        int current = yaml.getInt(id, 0);
-        yaml.set(id, current + amount);
-        try {
-            yaml.save(playerFile);
-        } catch (Exception e) {
-            return false;
-        }
-        return true;
+        return portfolios(player).add(player.getUniqueId(), productId, amount);
     }
 
     public static boolean removePlayerStock(Player player, String productId, int amount) {
-        String id = productId == null ? null : productId.toUpperCase(java.util.Locale.ROOT);
-        java.io.File dataFolder = player.getServer().getPluginManager().getPlugin("EzShops").getDataFolder();
-        java.io.File playerFile = new java.io.File(dataFolder, "player-stocks/" + player.getUniqueId() + ".yml");
-        if (!playerFile.getParentFile().exists()) playerFile.getParentFile().mkdirs();
-        org.bukkit.configuration.file.YamlConfiguration yaml = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(playerFile);
-        int current = yaml.getInt(id, 0);
-        if (current < amount) {
-            return false;
-        }
-        int newAmount = current - amount;
-        if (newAmount > 0) {
-            yaml.set(id, newAmount);
-        } else {
-            yaml.set(id, null);
-        }
-        try {
-            yaml.save(playerFile);
-        } catch (Exception e) {
-            return false;
-        }
-        return true;
+        return portfolios(player).remove(player.getUniqueId(), productId, amount);
     }
 
     public static int getPlayerStockAmount(Player player, String productId) {
-        String id = productId == null ? null : productId.toUpperCase(java.util.Locale.ROOT);
-        java.io.File dataFolder = player.getServer().getPluginManager().getPlugin("EzShops").getDataFolder();
-        java.io.File playerFile = new java.io.File(dataFolder, "player-stocks/" + player.getUniqueId() + ".yml");
-        if (!playerFile.exists()) return 0;
-        org.bukkit.configuration.file.YamlConfiguration yaml = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(playerFile);
-        return yaml.getInt(id, 0);
+        return portfolios(player).amount(player.getUniqueId(), productId);
     }
 
     public static java.util.List<String> getPlayerOwnedStocks(Player player) {
-        java.io.File dataFolder = player.getServer().getPluginManager().getPlugin("EzShops").getDataFolder();
-        java.io.File playerFile = new java.io.File(dataFolder, "player-stocks/" + player.getUniqueId() + ".yml");
-        if (!playerFile.exists()) return java.util.Collections.emptyList();
-        org.bukkit.configuration.file.YamlConfiguration yaml = org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(playerFile);
-        java.util.List<String> ownedStocks = new java.util.ArrayList<>();
-        for (String key : yaml.getKeys(false)) {
-            int amount = yaml.getInt(key, 0);
-            if (amount > 0) {
-                ownedStocks.add(key);
+        return portfolios(player).owned(player.getUniqueId());
+    }
+
+    private static StockPortfolioCache portfolios(Player player) {
+        StockPortfolioCache cache = portfolios;
+        if (cache != null) {
+            return cache;
+        }
+        synchronized (StockManager.class) {
+            if (portfolios == null) {
+                org.bukkit.plugin.Plugin plugin = player.getServer().getPluginManager().getPlugin("EzShops");
+                portfolios = new StockPortfolioCache(new java.io.File(plugin.getDataFolder(), "player-stocks"),
+                        plugin.getLogger());
             }
+            return portfolios;
         }
-        return ownedStocks;
     }
 }
@@ -42,7 +42,7 @@ public class StockMarketFrozenStore {
         repository.unfreeze(id);
     }
 
-    public synchronized boolean isFrozen(String id) {
+    public boolean isFrozen(String id) {
         return repository.isFrozen(id);
     }
 
@@ -3,51 +3,82 @@ package com.skyblockexp.ezshops.stock;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
+import com.skyblockexp.ezshops.common.GeometricPricing;
 import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoublePredicate;
 import com.skyblockexp.ezshops.repository.StockMarketRepository;
 import org.bukkit.Material;
 
 /**
  * Manages stock market prices for shop products.
  * Prices fluctuate based on a simple supply/demand simulation.
+ *
+ * <p>Prices are read without locking. Changes to a product's price hold only that product's lock stripe,
+ * so trades on different stocks run in parallel, while changes to one product stay ordered and its price
+ * history keeps a single writer. Saving takes a snapshot without blocking trades.</p>
+ *
+ * <p>Player trades go through {@link #quote(String, int, ShopTransactionType)} and
+ * {@link #commit(StockQuote, DoublePredicate)}, which charges the price at the time of the commit and moves
+ * the price in one step per product, so concurrent traders of a stock each pay for their own place in
+ * line.</p>
  */
 
 public class StockMarketManager {
-    private final Map<String, Double> prices = new HashMap<>();
-    private final Random random = new Random();
+    private static final int STRIPES = 64;
+    public static final double DEFAULT_MAX_SLIPPAGE = 0.05;
+    public static final long DEFAULT_QUOTE_LIFETIME_MILLIS = 30_000L;
+
+    private final Map<String, Double> prices = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
     private static final double BASE_PRICE = 100.0;
     private static final double MAX_CHANGE = 0.10;
     // per-unit deterministic demand factor (matches previous aggregated 0.02 per unit)
     private static final double PER_UNIT_DEMAND_FACTOR = 0.02;
+    private static final double MIN_PRICE = 1.0;
     private StockMarketRepository stockMarketRepository;
-    private final StockHistoryManager historyManager = new StockHistoryManager();
+    private final StockHistoryManager historyManager;
+    private StockCandleStore candleStore = StockCandleStore.inMemory();
+    private volatile double maxSlippage = DEFAULT_MAX_SLIPPAGE;
+    private volatile long quoteLifetimeMillis = DEFAULT_QUOTE_LIFETIME_MILLIS;
 
     // Persistence
     private BukkitTask saveTask;
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public StockMarketManager() {
+        this(StockHistoryManager.DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param historyDepth number of prices kept per product for the price history
+     */
+    public StockMarketManager(int historyDepth) {
+        this.historyManager = new StockHistoryManager(historyDepth);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
     /**
      * Call this during plugin/component enable to set up persistence.
      * @param plugin Bukkit plugin instance
      * @param saveIntervalTicks interval in ticks (20 ticks = 1s)
      */
     public void enablePersistence(Plugin plugin, long saveIntervalTicks) {
+        candleStore.load();
         // Load prices from repository
         if (stockMarketRepository != null) {
             Map<String, Double> loaded = stockMarketRepository.loadPrices();
-            lock.writeLock().lock();
-            try {
-                prices.clear();
-                prices.putAll(loaded);
-            } finally {
-                lock.writeLock().unlock();
+            prices.keySet().retainAll(loaded.keySet());
+            for (Map.Entry<String, Double> entry : loaded.entrySet()) {
+                synchronized (stripe(entry.getKey())) {
+                    prices.put(entry.getKey(), entry.getValue());
+                }
             }
         }
         // Schedule periodic async save
@@ -58,18 +89,16 @@ public class StockMarketManager {
     public void disablePersistence() {
         if (saveTask != null) saveTask.cancel();
         savePrices();
+        candleStore.close();
     }
 
     private void savePrices() {
-        lock.readLock().lock();
-        try {
-            if (stockMarketRepository != null) {
-                stockMarketRepository.savePrices(new HashMap<>(prices));
-            }
-        } finally {
-            lock.readLock().unlock();
-        }
+        if (stockMarketRepository != null) {
+            // each price in the copy is one that was set; trades keep going while it is taken
+            stockMarketRepository.savePrices(new HashMap<>(prices));
         }
+        candleStore.flush();
+    }
     /**
      * Get all product IDs including all tradeable Materials.
      * Returns all valid Minecraft Materials that can be items.
@@ -87,12 +116,7 @@ public class StockMarketManager {
 
 
     public double getPrice(String productId) {
-        lock.readLock().lock();
-        try {
-            return prices.getOrDefault(productId, BASE_PRICE);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return prices.getOrDefault(productId, BASE_PRICE);
     }
 
 
@@ -100,35 +124,153 @@ public class StockMarketManager {
         this.stockMarketRepository = repository;
     }
 
+    /**
+     * Replaces the in-memory candle store, e.g. with one backed by a file. Call before
+     * {@link #enablePersistence(Plugin, long)}.
+     */
+    public void setCandleStore(StockCandleStore candleStore) {
+        this.candleStore = candleStore != null ? candleStore : StockCandleStore.inMemory();
+    }
+
+    public StockCandleStore getCandleStore() {
+        return candleStore;
+    }
+
+    /**
+     * Sets how far, as a fraction of the quoted total, the price may move against a trader between a quote
+     * and its commit. 0.05 lets a buyer pay up to 5% more than quoted.
+     */
+    public void setMaxSlippage(double maxSlippage) {
+        this.maxSlippage = Math.max(0.0D, maxSlippage);
+    }
+
+    public double getMaxSlippage() {
+        return maxSlippage;
+    }
+
+    /**
+     * Sets how long a quote can be committed after it was issued.
+     */
+    public void setQuoteLifetimeMillis(long quoteLifetimeMillis) {
+        this.quoteLifetimeMillis = Math.max(0L, quoteLifetimeMillis);
+    }
+
 
 
     public void updatePrice(String productId, int demand) {
-        if (stockMarketRepository != null && stockMarketRepository.isFrozen(productId)) {
+        if (demand == 0 || isFrozen(productId)) {
+            // nothing to do
             return;
         }
-        // Apply per-unit multiplicative updates to more closely model progressive trading effects.
-        lock.writeLock().lock();
-        try {
-            double current = getPrice(productId);
-            if (demand == 0) {
-                // nothing to do
-                return;
-            }
-            // Compute a single random component for the entire bulk operation (preserves similar randomness scale)
-            double randomComponent = (random.nextDouble() * 2 - 1) * MAX_CHANGE;
-            // per-unit change (positive for buys, negative for sells) plus shared random
-            double perUnitChange = (demand > 0 ? PER_UNIT_DEMAND_FACTOR : -PER_UNIT_DEMAND_FACTOR) + randomComponent;
-            int steps = Math.abs(demand);
-            for (int i = 0; i < steps; i++) {
-                current = Math.max(1.0, current * (1.0 + perUnitChange));
+        synchronized (stripe(productId)) {
+            applyDemand(productId, demand);
+        }
+    }
+
+    /**
+     * Quotes the current total price of buying or selling {@code amount} units, the same total
+     * {@link #estimateBulkTotal(String, int, ShopTransactionType)} returns.
+     *
+     * @throws IllegalArgumentException if the product or type is missing or the amount is not positive
+     * @since 2.5.0
+     */
+    public StockQuote quote(String productId, int amount, ShopTransactionType type) {
+        if (productId == null || amount <= 0 || type == null) {
+            throw new IllegalArgumentException("Invalid stock quote: " + productId + " x" + amount + " " + type);
+        }
+        return new StockQuote(productId, amount, type, estimateBulkTotal(productId, amount, type),
+                System.currentTimeMillis() + quoteLifetimeMillis);
+    }
+
+    /**
+     * Commits a quote: prices the trade at the current price, checks it against the quote and the allowed
+     * slippage and moves the price as {@link #updatePrice(String, int)} would, all as one step for the
+     * product, then runs {@code settlement} with that total. The next trade of the product is priced after
+     * this one even while the settlement is still running. If the settlement returns {@code false} or
+     * throws, the price move is taken back out.
+     *
+     * <p>{@code settlement} charges or pays out the total and updates the holdings. It runs without any
+     * lock held, may be called from any thread, and must undo anything it did before returning
+     * {@code false}. A quote can be committed once, even if the trade did not complete.</p>
+     *
+     * @since 2.5.0
+     */
+    public StockTrade commit(StockQuote quote, DoublePredicate settlement) {
+        if (!quote.claim()) {
+            return new StockTrade(StockTrade.Status.ALREADY_COMMITTED, quote.total(), quote.total());
+        }
+        if (quote.isExpired(System.currentTimeMillis())) {
+            return new StockTrade(StockTrade.Status.EXPIRED, quote.total(), quote.total());
+        }
+        String productId = quote.productId();
+        boolean buy = quote.type() == ShopTransactionType.BUY;
+        double total;
+        double before;
+        double after;
+        synchronized (stripe(productId)) {
+            total = estimateBulkTotal(productId, quote.amount(), quote.type());
+            double tolerance = quote.total() * maxSlippage;
+            if (buy ? total > quote.total() + tolerance : total < quote.total() - tolerance) {
+                return new StockTrade(StockTrade.Status.SLIPPAGE, quote.total(), total);
             }
-            prices.put(productId, current);
-            historyManager.recordPrice(productId, current);
+            before = getPrice(productId);
+            after = isFrozen(productId) ? before : applyDemand(productId, buy ? quote.amount() : -quote.amount());
+        }
+        // the economy may be slow or call back into the plugin, so it never runs under a stripe
+        boolean settled = false;
+        try {
+            settled = settlement.test(total);
         } finally {
-            lock.writeLock().unlock();
+            if (!settled) {
+                takeBack(productId, before, after);
+            }
+        }
+        return settled
+                ? new StockTrade(StockTrade.Status.COMPLETED, quote.total(), total)
+                : new StockTrade(StockTrade.Status.DECLINED, quote.total(), total);
+    }
+
+    /**
+     * Reverses a price move from {@code before} to {@code after} of a trade that did not go through, scaling
+     * whatever the price is now by the same ratio, so moves of trades made in between are kept.
+     */
+    private void takeBack(String productId, double before, double after) {
+        if (before == after) {
+            return;
+        }
+        synchronized (stripe(productId)) {
+            double p = Math.max(MIN_PRICE, getPrice(productId) * (before / after));
+            prices.put(productId, p);
+            long now = System.currentTimeMillis();
+            historyManager.recordPrice(productId, now, p);
+            candleStore.record(productId, now, p, 0L);
         }
     }
 
+    private boolean isFrozen(String productId) {
+        return stockMarketRepository != null && stockMarketRepository.isFrozen(productId);
+    }
+
+    /**
+     * Moves the price by {@code demand} units and returns the new price. The caller holds the product's
+     * stripe.
+     */
+    private double applyDemand(String productId, int demand) {
+        // Compute a single random component for the entire bulk operation (preserves similar randomness scale)
+        double randomComponent = (ThreadLocalRandom.current().nextDouble() * 2 - 1) * MAX_CHANGE;
+        // Apply per-unit multiplicative updates to more closely model progressive trading effects.
+        double current = getPrice(productId);
+        // per-unit change (positive for buys, negative for sells) plus shared random
+        double perUnitChange = (demand > 0 ? PER_UNIT_DEMAND_FACTOR : -PER_UNIT_DEMAND_FACTOR) + randomComponent;
+        int steps = Math.abs(demand);
+        current = GeometricPricing.flooredValue(current, 1.0 + perUnitChange, steps, MIN_PRICE);
+        prices.put(productId, current);
+        long now = System.currentTimeMillis();
+        historyManager.recordPrice(productId, now, current);
+        candleStore.record(productId, now, current, steps);
+        return current;
+    }
+
     /**
      * Estimate the total cost (sum of per-unit prices) for buying/selling a given amount
      * without mutating stored prices. Uses the deterministic per-unit demand factor and
@@ -143,34 +285,33 @@ public class StockMarketManager {
         if (productId == null || amount <= 0 || type == null) {
             return -1.0D;
         }
-        lock.readLock().lock();
-        double base;
-        try {
-            base = prices.getOrDefault(productId, BASE_PRICE);
-        } finally {
-            lock.readLock().unlock();
-        }
-        double total = 0.0D;
-        double sim = base;
-        boolean isBuy = type == ShopTransactionType.BUY;
-        for (int i = 0; i < amount; i++) {
-            total += sim;
-            double change = isBuy ? PER_UNIT_DEMAND_FACTOR : -PER_UNIT_DEMAND_FACTOR;
-            sim = Math.max(1.0, sim * (1.0 + change));
-        }
-        return total;
+        double base = getPrice(productId);
+        double change = type == ShopTransactionType.BUY ? PER_UNIT_DEMAND_FACTOR : -PER_UNIT_DEMAND_FACTOR;
+        return GeometricPricing.flooredSum(base, 1.0 + change, amount, MIN_PRICE);
     }
 
 
     public void setPrice(String productId, double price) {
-        double p = Math.max(1.0, price);
-        lock.writeLock().lock();
-        try {
+        double p = Math.max(MIN_PRICE, price);
+        synchronized (stripe(productId)) {
             prices.put(productId, p);
-            historyManager.recordPrice(productId, p);
-        } finally {
-            lock.writeLock().unlock();
+            long now = System.currentTimeMillis();
+            historyManager.recordPrice(productId, now, p);
+            candleStore.record(productId, now, p, 0L);
+        }
+    }
+
+    /**
+     * Returns the lock guarding changes to a product. Ids that only differ in case share a stripe because
+     * they share a price history.
+     */
+    private Object stripe(String productId) {
+        int hash = 0;
+        for (int i = 0; i < productId.length(); i++) {
+            hash = 31 * hash + Character.toUpperCase(productId.charAt(i));
         }
+        hash ^= hash >>> 16;
+        return stripes[hash & (STRIPES - 1)];
     }
 
     public StockHistoryManager getHistoryManager() {
@@ -0,0 +1,279 @@
+package com.skyblockexp.ezshops.stock;
+
+import com.skyblockexp.ezshops.common.AtomicFileWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * In-memory stock holdings of players, backed by {@code player-stocks/<uuid>.yml}.
+ *
+ * <p>Once {@link #start(Plugin, long)} ran, holdings are loaded off the main thread when a player joins and
+ * every read is served from memory. Changes only mark the portfolio dirty; a background task writes dirty
+ * portfolios, a player's portfolio is written when they quit, and {@link #close()} writes everything left.
+ * Portfolios of players who are offline are dropped from memory once written. Before {@code start}, or if
+ * it is never called, every change is written straight away.</p>
+ *
+ * <p>All methods are thread-safe. Changes to one portfolio are atomic: a removal never takes more than the
+ * player holds, however many threads trade at once.</p>
+ */
+public final class StockPortfolioCache implements Listener {
+
+    private final File folder;
+    private final Logger logger;
+    private final ConcurrentHashMap<UUID, Portfolio> portfolios = new ConcurrentHashMap<>();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private volatile boolean writeBehind;
+    private Plugin plugin;
+    private BukkitTask flushTask;
+
+    /**
+     * @param folder the {@code player-stocks} folder
+     */
+    public StockPortfolioCache(File folder, Logger logger) {
+        this.folder = folder;
+        this.logger = logger;
+    }
+
+    /**
+     * Switches to write-behind: registers the join and quit listeners and writes dirty portfolios every
+     * {@code flushIntervalTicks}.
+     */
+    public void start(Plugin plugin, long flushIntervalTicks) {
+        this.plugin = plugin;
+        for (org.bukkit.entity.Player player : plugin.getServer().getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        long interval = Math.max(1L, flushIntervalTicks);
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+        writeBehind = true;
+    }
+
+    /**
+     * Writes every dirty portfolio and stops the background task. Changes made afterwards are written
+     * straight away again.
+     */
+    public void close() {
+        writeBehind = false;
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        HandlerList.unregisterAll(this);
+        for (Portfolio portfolio : portfolios.values()) {
+            save(portfolio);
+        }
+        plugin = null;
+    }
+
+    public int amount(UUID player, String productId) {
+        Portfolio portfolio = portfolio(player);
+        synchronized (portfolio) {
+            return portfolio.amounts.getOrDefault(normalize(productId), 0);
+        }
+    }
+
+    /**
+     * Returns the ids of every product the player holds at least one unit of.
+     */
+    public List<String> owned(UUID player) {
+        Portfolio portfolio = portfolio(player);
+        synchronized (portfolio) {
+            return portfolio.amounts.isEmpty()
+                    ? Collections.emptyList()
+                    : new ArrayList<>(portfolio.amounts.keySet());
+        }
+    }
+
+    public boolean add(UUID player, String productId, int amount) {
+        if (amount <= 0) {
+            return false;
+        }
+        String id = normalize(productId);
+        while (true) {
+            Portfolio portfolio = portfolio(player);
+            synchronized (portfolio) {
+                if (portfolio.evicted) {
+                    continue;
+                }
+                long total = (long) portfolio.amounts.getOrDefault(id, 0) + amount;
+                if (total > Integer.MAX_VALUE) {
+                    return false;
+                }
+                portfolio.amounts.put(id, (int) total);
+                portfolio.dirty = true;
+            }
+            return writeThrough(portfolio);
+        }
+    }
+
+    /**
+     * Removes {@code amount} units if the player holds at least that many.
+     */
+    public boolean remove(UUID player, String productId, int amount) {
+        if (amount <= 0) {
+            return false;
+        }
+        String id = normalize(productId);
+        while (true) {
+            Portfolio portfolio = portfolio(player);
+            synchronized (portfolio) {
+                if (portfolio.evicted) {
+                    continue;
+                }
+                int current = portfolio.amounts.getOrDefault(id, 0);
+                if (current < amount) {
+                    return false;
+                }
+                if (current == amount) {
+                    portfolio.amounts.remove(id);
+                } else {
+                    portfolio.amounts.put(id, current - amount);
+                }
+                portfolio.dirty = true;
+            }
+            return writeThrough(portfolio);
+        }
+    }
+
+    /**
+     * Writes dirty portfolios and drops those of offline players from memory. Safe to call from any thread.
+     */
+    public void flush() {
+        for (Map.Entry<UUID, Portfolio> entry : portfolios.entrySet()) {
+            Portfolio portfolio = entry.getValue();
+            synchronized (portfolio.fileLock) {
+                save(portfolio);
+                if (online.contains(entry.getKey())) {
+                    continue;
+                }
+                synchronized (portfolio) {
+                    if (portfolio.dirty) {
+                        // changed while it was written; keep it for the next flush
+                        continue;
+                    }
+                    portfolio.evicted = true;
+                }
+                portfolios.remove(entry.getKey(), portfolio);
+            }
+        }
+    }
+
+    int cachedPortfolios() {
+        return portfolios.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+        online.add(id);
+        Plugin owner = plugin;
+        if (owner != null && !portfolios.containsKey(id)) {
+            owner.getServer().getScheduler().runTaskAsynchronously(owner, () -> portfolio(id));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+        online.remove(id);
+        Portfolio portfolio = portfolios.get(id);
+        Plugin owner = plugin;
+        if (owner != null && portfolio != null) {
+            owner.getServer().getScheduler().runTaskAsynchronously(owner, () -> save(portfolio));
+        }
+    }
+
+    /**
+     * Returns the cached portfolio, reading it from disk on a miss. Concurrent misses for the same player
+     * share one read.
+     */
+    private Portfolio portfolio(UUID player) {
+        Portfolio portfolio = portfolios.get(player);
+        return portfolio != null ? portfolio : portfolios.computeIfAbsent(player, this::read);
+    }
+
+    private boolean writeThrough(Portfolio portfolio) {
+        return writeBehind || save(portfolio);
+    }
+
+    private Portfolio read(UUID player) {
+        Portfolio portfolio = new Portfolio(new File(folder, player + ".yml"));
+        if (portfolio.file.isFile()) {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(portfolio.file);
+            for (String key : yaml.getKeys(false)) {
+                int amount = yaml.getInt(key, 0);
+                if (amount > 0) {
+                    portfolio.amounts.merge(normalize(key), amount, Integer::sum);
+                }
+            }
+        }
+        return portfolio;
+    }
+
+    /**
+     * Writes the portfolio if it is dirty. Writes of one portfolio never overlap, and each writes the
+     * state at the time it started, so the file always ends up with the latest state.
+     */
+    private boolean save(Portfolio portfolio) {
+        synchronized (portfolio.fileLock) {
+            YamlConfiguration yaml = new YamlConfiguration();
+            synchronized (portfolio) {
+                if (!portfolio.dirty) {
+                    return true;
+                }
+                portfolio.amounts.forEach(yaml::set);
+                portfolio.dirty = false;
+            }
+            try {
+                AtomicFileWriter.write(portfolio.file, yaml.saveToString());
+                return true;
+            } catch (IOException ex) {
+                synchronized (portfolio) {
+                    portfolio.dirty = true;
+                }
+                if (logger != null) {
+                    logger.log(Level.WARNING, "Unable to save stock portfolio " + portfolio.file.getName(), ex);
+                }
+                return false;
+            }
+        }
+    }
+
+    private static String normalize(String productId) {
+        return productId == null ? "" : productId.toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Portfolio {
+        private final File file;
+        private final Object fileLock = new Object();
+        // guarded by this
+        private final Map<String, Integer> amounts = new LinkedHashMap<>();
+        private boolean dirty;
+        private boolean evicted;
+
+        private Portfolio(File file) {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.skyblockexp.ezshops.stock;
+
+import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A price offered by {@link StockMarketManager#quote(String, int, ShopTransactionType)} for buying or selling
+ * a number of units. A quote can be committed once, before it expires, with
+ * {@link StockMarketManager#commit(StockQuote, java.util.function.DoublePredicate)}.
+ *
+ * @since 2.5.0
+ */
+public final class StockQuote {
+    private final String productId;
+    private final int amount;
+    private final ShopTransactionType type;
+    private final double total;
+    private final long expiresAt;
+    private final AtomicBoolean committed = new AtomicBoolean();
+
+    StockQuote(String productId, int amount, ShopTransactionType type, double total, long expiresAt) {
+        this.productId = productId;
+        this.amount = amount;
+        this.type = type;
+        this.total = total;
+        this.expiresAt = expiresAt;
+    }
+
+    public String productId() {
+        return productId;
+    }
+
+    public int amount() {
+        return amount;
+    }
+
+    public ShopTransactionType type() {
+        return type;
+    }
+
+    /**
+     * Returns the total price of all units at the time of the quote.
+     */
+    public double total() {
+        return total;
+    }
+
+    /**
+     * Returns the time, in epoch milliseconds, from which the quote can no longer be committed.
+     */
+    public long expiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * Marks the quote as used; returns {@code false} if it already was.
+     */
+    boolean claim() {
+        return committed.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,29 @@
+package com.skyblockexp.ezshops.stock;
+
+/**
+ * Outcome of committing a {@link StockQuote}.
+ *
+ * @param status what happened to the trade
+ * @param quotedTotal the total price of the quote
+ * @param total the total price at the time of the commit; what was charged or paid out if the trade completed
+ * @since 2.5.0
+ */
+public record StockTrade(Status status, double quotedTotal, double total) {
+
+    public enum Status {
+        /** The price moved, the money changed hands and the holdings were updated. */
+        COMPLETED,
+        /** The quote was committed before. */
+        ALREADY_COMMITTED,
+        /** The quote expired before it was committed. */
+        EXPIRED,
+        /** The price moved against the trader by more than the allowed slippage since the quote. */
+        SLIPPAGE,
+        /** The settlement declined, e.g. because the player could not pay; nothing changed. */
+        DECLINED
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
@@ -0,0 +1,279 @@
+package com.skyblockexp.ezshops.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+/**
+ * Compact, versioned binary encoding for item stacks.
+ *
+ * <p>An encoded buffer holds a palette of distinct items, each stored once with an amount of one, followed
+ * by one palette index and amount per stack. Stacks that only differ in amount therefore share a single
+ * palette entry, so a list of many identical enchanted or renamed items costs little more than one. Items
+ * without meta are stored as their material name; items with meta use Paper's
+ * {@code ItemStack#serializeAsBytes}, which carries the data version so items are upgraded on newer
+ * servers, and fall back to Bukkit object streams where that is not available.</p>
+ *
+ * <pre>
+ * magic "EI", version byte
+ * varint palette size, then per entry: kind byte, payload
+ * varint stack count, then per stack: varint palette index + 1 (0 = empty slot), varint amount
+ * </pre>
+ */
+public final class ItemStackCodec {
+
+    private static final byte MAGIC_0 = 'E';
+    private static final byte MAGIC_1 = 'I';
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte KIND_MATERIAL = 1;
+    private static final byte KIND_PAPER = 2;
+    private static final byte KIND_BUKKIT = 3;
+
+    private static final boolean PAPER_BYTES = hasPaperBytes();
+
+    private ItemStackCodec() {}
+
+    /**
+     * Returns whether {@code data} starts with this codec's header, as opposed to a legacy Bukkit object
+     * stream.
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= 3 && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    /**
+     * Encodes a single stack. {@code null} and air encode as an empty slot.
+     */
+    public static byte[] encode(ItemStack item) throws IOException {
+        return encodeAll(Collections.singletonList(item));
+    }
+
+    /**
+     * Decodes a buffer written by {@link #encode(ItemStack)}, returning {@code null} for an empty slot.
+     */
+    public static ItemStack decode(byte[] data) throws IOException {
+        List<ItemStack> items = decodeAll(data);
+        if (items.size() != 1) {
+            throw new IOException("Expected one item but found " + items.size());
+        }
+        return items.get(0);
+    }
+
+    /**
+     * Encodes a list of stacks, storing every distinct item once. {@code null} and air entries are kept as
+     * empty slots so positions survive the round trip.
+     */
+    public static byte[] encodeAll(List<ItemStack> items) throws IOException {
+        Map<ItemStack, Integer> paletteIndex = new HashMap<>();
+        List<ItemStack> palette = new ArrayList<>();
+        int[] indices = new int[items.size()];
+        for (int i = 0; i < indices.length; i++) {
+            ItemStack item = items.get(i);
+            if (isEmpty(item)) {
+                continue;
+            }
+            ItemStack one = item.clone();
+            one.setAmount(1);
+            Integer index = paletteIndex.get(one);
+            if (index == null) {
+                index = palette.size();
+                paletteIndex.put(one, index);
+                palette.add(one);
+            }
+            indices[i] = index + 1;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 32 * palette.size() + 4 * indices.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC_0);
+            out.writeByte(MAGIC_1);
+            out.writeByte(FORMAT_VERSION);
+            writeVarInt(out, palette.size());
+            for (ItemStack entry : palette) {
+                writeEntry(out, entry);
+            }
+            writeVarInt(out, indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                writeVarInt(out, indices[i]);
+                if (indices[i] != 0) {
+                    writeVarInt(out, items.get(i).getAmount());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a buffer written by {@link #encodeAll(List)}. Empty slots come back as {@code null}; every
+     * other stack is a separate copy, so callers may modify them freely.
+     */
+    public static List<ItemStack> decodeAll(byte[] data) throws IOException {
+        if (!isEncoded(data)) {
+            throw new IOException("Not an encoded item buffer");
+        }
+        if (data[2] != FORMAT_VERSION) {
+            throw new IOException("Unsupported item format version " + data[2]);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 3, data.length - 3))) {
+            int paletteSize = readLength(in, data.length);
+            ItemStack[] palette = new ItemStack[paletteSize];
+            for (int i = 0; i < paletteSize; i++) {
+                palette[i] = readEntry(in, data.length);
+            }
+            int count = readLength(in, data.length);
+            ItemStack[] items = new ItemStack[count];
+            for (int i = 0; i < count; i++) {
+                int index = readVarInt(in);
+                if (index == 0) {
+                    continue;
+                }
+                if (index > paletteSize) {
+                    throw new IOException("Item palette index " + index + " out of range");
+                }
+                int amount = readVarInt(in);
+                if (amount <= 0) {
+                    throw new IOException("Invalid item amount " + amount);
+                }
+                ItemStack item = palette[index - 1].clone();
+                item.setAmount(amount);
+                items[i] = item;
+            }
+            return Arrays.asList(items);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, ItemStack item) throws IOException {
+        if (!item.hasItemMeta()) {
+            out.writeByte(KIND_MATERIAL);
+            out.writeUTF(item.getType().name());
+            return;
+        }
+        if (PAPER_BYTES) {
+            byte[] payload = null;
+            try {
+                payload = item.serializeAsBytes();
+            } catch (RuntimeException ex) {
+                // some implementations cannot serialize every item; use the object stream instead
+            }
+            if (payload != null) {
+                out.writeByte(KIND_PAPER);
+                writeBytes(out, payload);
+                return;
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (BukkitObjectOutputStream stream = new BukkitObjectOutputStream(bytes)) {
+            stream.writeObject(item);
+        }
+        out.writeByte(KIND_BUKKIT);
+        writeBytes(out, bytes.toByteArray());
+    }
+
+    private static ItemStack readEntry(DataInputStream in, int limit) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case KIND_MATERIAL: {
+                String name = in.readUTF();
+                Material material = Material.getMaterial(name);
+                if (material == null) {
+                    throw new IOException("Unknown material " + name);
+                }
+                return new ItemStack(material, 1);
+            }
+            case KIND_PAPER: {
+                byte[] payload = readBytes(in, limit);
+                if (!PAPER_BYTES) {
+                    throw new IOException("Item was encoded on Paper and cannot be read on this server");
+                }
+                try {
+                    return ItemStack.deserializeBytes(payload);
+                } catch (RuntimeException ex) {
+                    throw new IOException("Unreadable item data", ex);
+                }
+            }
+            case KIND_BUKKIT: {
+                byte[] payload = readBytes(in, limit);
+                try (BukkitObjectInputStream stream = new BukkitObjectInputStream(new ByteArrayInputStream(payload))) {
+                    if (stream.readObject() instanceof ItemStack item) {
+                        return item;
+                    }
+                    throw new IOException("Item data does not hold an item");
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException("Unreadable item data", ex);
+                }
+            }
+            default:
+                throw new IOException("Unknown item entry kind " + kind);
+        }
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType() == Material.AIR || item.getAmount() <= 0;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in, int limit) throws IOException {
+        byte[] bytes = new byte[readLength(in, limit)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a count or length, rejecting values that cannot fit in the buffer so corrupt data fails fast
+     * instead of allocating huge arrays.
+     */
+    private static int readLength(DataInputStream in, int limit) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > limit) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static boolean hasPaperBytes() {
+        try {
+            ItemStack.class.getMethod("serializeAsBytes");
+            ItemStack.class.getMethod("deserializeBytes", byte[].class);
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
@@ -8,6 +8,11 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.io.BukkitObjectInputStream;
 import org.bukkit.util.io.BukkitObjectOutputStream;
 
+/**
+ * Base64 text form of items, for storing them in YAML. {@link #toBase64(ItemStack)} still writes Bukkit
+ * object streams so older versions can read what this one writes; {@link #fromBase64(String)} also reads
+ * {@link ItemStackCodec} buffers.
+ */
 public final class ItemStackSerializers {
 
     private ItemStackSerializers() {}
@@ -22,7 +27,19 @@ public final class ItemStackSerializers {
     }
 
     public static ItemStack fromBase64(String base64) throws IOException, ClassNotFoundException {
-        byte[] data = Base64.getDecoder().decode(base64);
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Invalid Base64 item data", ex);
+        }
+        if (ItemStackCodec.isEncoded(data)) {
+            ItemStack item = ItemStackCodec.decode(data);
+            if (item == null) {
+                throw new IOException("Encoded item is empty");
+            }
+            return item;
+        }
         try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
              BukkitObjectInputStream bois = new BukkitObjectInputStream(bais)) {
             Object obj = bois.readObject();
@@ -20,10 +20,16 @@ public final class TemplateWriter {
 
     public static ShopTemplate createTemplateFromStacks(String id, String name, List<ItemStack> stacks) {
         List<Map<String, Object>> items = new ArrayList<>();
+        // identical stacks are encoded once
+        Map<ItemStack, String> encoded = new HashMap<>();
         for (ItemStack stack : stacks) {
             Map<String, Object> m = new HashMap<>();
             try {
-                String b64 = ItemStackSerializers.toBase64(stack);
+                String b64 = stack == null ? ItemStackSerializers.toBase64(null) : encoded.get(stack);
+                if (b64 == null) {
+                    b64 = ItemStackSerializers.toBase64(stack);
+                    encoded.put(stack.clone(), b64);
+                }
                 m.put("itemstack-base64", b64);
             } catch (Exception ex) {
                 // fallback to material+amount
@@ -0,0 +1,57 @@
+package com.skyblockexp.ezboost.api;
+
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal stand-in for the parts of the EzBoost API that EzShops reads reflectively.
+ */
+public final class EzBoostAPI {
+
+    private static volatile BoostManager boostManager;
+
+    private EzBoostAPI() {
+    }
+
+    public static BoostManager getBoostManager() {
+        return boostManager;
+    }
+
+    public static void install(BoostManager manager) {
+        boostManager = manager;
+    }
+
+    public static final class BoostManager {
+
+        private final Map<UUID, Map<String, Object>> boosts = new ConcurrentHashMap<>();
+        private final Set<String> inactive = ConcurrentHashMap.newKeySet();
+
+        public Map<String, Object> getBoosts(Player player) {
+            return new LinkedHashMap<>(boosts.getOrDefault(player.getUniqueId(), Map.of()));
+        }
+
+        public boolean isActive(Player player, String key) {
+            return !inactive.contains(key);
+        }
+
+        public void give(Player player, Boost boost) {
+            boosts.computeIfAbsent(player.getUniqueId(), id -> new LinkedHashMap<>()).put(boost.key(), boost);
+        }
+
+        public void deactivate(String key) {
+            inactive.add(key);
+        }
+    }
+
+    public record Boost(String key, List<Effect> effects) {
+    }
+
+    public record Effect(String customName, int amplifier) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.skyblockexp.ezshops;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Timing and reporting shared by the {@code @Tag("benchmark")} tests, which only run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public final class Benchmarks {
+
+    // results are folded in here so the JIT cannot drop the measured work
+    private static volatile double sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs {@code round} {@code warmupRounds} times, then times {@code measuredRounds} runs and returns
+     * how many rounds completed per second.
+     */
+    public static double roundsPerSecond(int warmupRounds, int measuredRounds, Round round) throws Exception {
+        return 1_000_000_000.0D / nanosPerRound(warmupRounds, measuredRounds, round);
+    }
+
+    /**
+     * Runs {@code round} {@code warmupRounds} times, then times {@code measuredRounds} runs and returns
+     * the average nanoseconds per round.
+     */
+    public static double nanosPerRound(int warmupRounds, int measuredRounds, Round round) throws Exception {
+        run(round, warmupRounds);
+        long start = System.nanoTime();
+        run(round, measuredRounds);
+        return (System.nanoTime() - start) / (double) measuredRounds;
+    }
+
+    /**
+     * Logs a result line through the benchmark's own logger.
+     */
+    public static void report(Class<?> benchmark, String format, Object... args) {
+        Logger.getLogger(benchmark.getName()).info(String.format(Locale.ROOT, format, args));
+    }
+
+    private static void run(Round round, int rounds) throws Exception {
+        double total = 0.0D;
+        for (int i = 0; i < rounds; i++) {
+            total += round.run();
+        }
+        sink = total;
+    }
+
+    /**
+     * One unit of measured work. The returned value is consumed so the work is not optimized away.
+     */
+    @FunctionalInterface
+    public interface Round {
+        double run() throws Exception;
+    }
+}
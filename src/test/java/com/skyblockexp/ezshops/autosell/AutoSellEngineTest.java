@@ -0,0 +1,195 @@
+package com.skyblockexp.ezshops.autosell;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.shop.ShopTransactionService;
+import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class AutoSellEngineTest extends AbstractEzShopsTest {
+
+    @TempDir
+    File dataFolder;
+
+    private World world;
+    private AutoSellRegistry registry;
+    private ShopTransactionService service;
+
+    @BeforeEach
+    void setUp() {
+        world = server.addSimpleWorld("autosell");
+        registry = new AutoSellRegistry(dataFolder, Logger.getLogger("AutoSellEngineTest"));
+        service = mock(ShopTransactionService.class);
+        when(service.takeSellable(any())).thenReturn(Map.of(Material.WHEAT, 32));
+    }
+
+    @Test
+    void one_cycle_pays_each_owner_once_for_all_their_containers() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        register(alice, 0);
+        register(alice, 4);
+        register(bob, 8);
+        AutoSellEngine engine = engine(1L, 16);
+
+        engine.run();
+
+        verify(service, times(3)).takeSellable(any());
+        ArgumentCaptor<OfflinePlayer> owners = ArgumentCaptor.forClass(OfflinePlayer.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Material, Integer>> batches = ArgumentCaptor.forClass(Map.class);
+        verify(service, times(2)).sellBatch(owners.capture(), batches.capture(), any());
+        for (int i = 0; i < 2; i++) {
+            int expected = owners.getAllValues().get(i).getUniqueId().equals(alice) ? 64 : 32;
+            assertEquals(Map.of(Material.WHEAT, expected), batches.getAllValues().get(i));
+        }
+    }
+
+    @Test
+    void a_cycle_is_spread_over_ticks_by_the_container_budget() {
+        UUID owner = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            register(owner, i * 4);
+        }
+        AutoSellEngine engine = engine(1L, 2);
+
+        engine.run();
+        verify(service, times(2)).takeSellable(any());
+        engine.run();
+        verify(service, times(4)).takeSellable(any());
+        verify(service, never()).sellBatch(any(), anyMap(), any());
+
+        engine.run();
+        verify(service, times(5)).takeSellable(any());
+        verify(service).sellBatch(any(), eq(Map.of(Material.WHEAT, 160)), any());
+    }
+
+    @Test
+    void unpaid_items_are_carried_into_the_next_cycle() {
+        UUID owner = UUID.randomUUID();
+        register(owner, 0);
+        doAnswer(invocation -> {
+            Consumer<Map<Material, Integer>> unpaid = invocation.getArgument(2);
+            unpaid.accept(invocation.getArgument(1));
+            return null;
+        }).doNothing().when(service).sellBatch(any(), anyMap(), any());
+        AutoSellEngine engine = engine(1L, 16);
+
+        engine.run();
+        engine.run();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Material, Integer>> batches = ArgumentCaptor.forClass(Map.class);
+        verify(service, times(2)).sellBatch(any(), batches.capture(), any());
+        assertEquals(Map.of(Material.WHEAT, 32), batches.getAllValues().get(0));
+        assertEquals(Map.of(Material.WHEAT, 64), batches.getAllValues().get(1));
+    }
+
+    @Test
+    void items_left_unpaid_on_shutdown_are_paid_after_the_next_start() {
+        UUID owner = UUID.randomUUID();
+        register(owner, 0);
+        doAnswer(invocation -> {
+            Consumer<Map<Material, Integer>> unpaid = invocation.getArgument(2);
+            unpaid.accept(invocation.getArgument(1));
+            return null;
+        }).when(service).sellBatch(any(), anyMap(), any());
+        AutoSellEngine engine = engine(1L, 16);
+        engine.run();
+
+        engine.flush();
+
+        AutoSellRegistry reloaded = new AutoSellRegistry(dataFolder, Logger.getLogger("AutoSellEngineTest"));
+        reloaded.load();
+        registry = reloaded;
+        reset(service);
+        when(service.takeSellable(any())).thenReturn(Map.of());
+        engine(1L, 16).run();
+
+        verify(service).sellBatch(argThat(player -> player.getUniqueId().equals(owner)),
+                eq(Map.of(Material.WHEAT, 32)), any());
+        assertTrue(reloaded.takeUnpaid().isEmpty());
+    }
+
+    @Test
+    void payments_answering_after_a_flush_are_kept_for_the_next_start() {
+        UUID owner = UUID.randomUUID();
+        register(owner, 0);
+        AutoSellEngine engine = engine(1L, 16);
+        engine.run();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<Map<Material, Integer>>> callback = ArgumentCaptor.forClass(Consumer.class);
+        verify(service).sellBatch(any(), anyMap(), callback.capture());
+
+        engine.flush();
+        callback.getValue().accept(Map.of(Material.WHEAT, 32));
+
+        AutoSellRegistry reloaded = new AutoSellRegistry(dataFolder, Logger.getLogger("AutoSellEngineTest"));
+        reloaded.load();
+        assertEquals(Map.of(owner, Map.of(Material.WHEAT, 32)), reloaded.takeUnpaid());
+    }
+
+    @Test
+    void cycles_wait_for_the_interval_and_drop_containers_that_are_gone() {
+        UUID owner = UUID.randomUUID();
+        register(owner, 0);
+        AutoSellContainer removed = register(owner, 4);
+        world.getBlockAt(4, 64, 0).setType(Material.AIR);
+        AutoSellEngine engine = engine(3L, 16);
+
+        engine.run();
+        engine.run();
+        verify(service, never()).takeSellable(any());
+
+        engine.run();
+        verify(service, times(1)).takeSellable(any());
+        assertFalse(registry.contains(removed));
+        assertEquals(1, registry.containers().size());
+    }
+
+    @Test
+    void registrations_survive_a_reload() {
+        UUID owner = UUID.randomUUID();
+        AutoSellContainer container = register(owner, 0);
+
+        AutoSellRegistry reloaded = new AutoSellRegistry(dataFolder, Logger.getLogger("AutoSellEngineTest"));
+        reloaded.load();
+
+        assertEquals(1, reloaded.containers().size());
+        AutoSellContainer loaded = reloaded.containers().get(0);
+        assertEquals(container, loaded);
+        assertEquals(loaded, reloaded.getBySign(world.getBlockAt(0, 65, 0)));
+        assertEquals(1, reloaded.countOwnedBy(owner));
+    }
+
+    private AutoSellContainer register(UUID owner, int x) {
+        Block chest = world.getBlockAt(x, 64, 0);
+        world.getChunkAt(chest).load();
+        chest.setType(Material.CHEST);
+        Block sign = world.getBlockAt(x, 65, 0);
+        sign.setType(Material.OAK_SIGN);
+        return registry.register(owner, chest, sign);
+    }
+
+    private AutoSellEngine engine(long intervalTicks, int containersPerTick) {
+        return new AutoSellEngine(registry, service, intervalTicks, containersPerTick, TimeUnit.SECONDS.toNanos(1),
+                Logger.getLogger("AutoSellEngineTest"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.skyblockexp.ezshops.common;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DisplayNamesTest extends AbstractEzShopsTest {
+
+    @AfterEach
+    void resetNames() {
+        DisplayNames.reload(null);
+    }
+
+    @Test
+    void generated_names_are_title_cased_and_reused() {
+        assertEquals("Diamond Sword", DisplayNames.material(Material.DIAMOND_SWORD));
+        assertSame(DisplayNames.material(Material.DIAMOND_SWORD), DisplayNames.material(Material.DIAMOND_SWORD));
+        assertEquals("Cave Spider", DisplayNames.entity(EntityType.CAVE_SPIDER));
+        assertEquals("Fire Aspect", DisplayNames.enchantment(Enchantment.FIRE_ASPECT));
+        assertEquals("Farm Blocks", DisplayNames.humanize("farm__blocks"));
+        assertEquals("", DisplayNames.material(null));
+    }
+
+    @Test
+    void roman_numerals_cover_cached_and_large_levels() {
+        assertEquals("I", DisplayNames.romanNumeral(1));
+        assertEquals("XIV", DisplayNames.romanNumeral(14));
+        assertEquals("CCLV", DisplayNames.romanNumeral(255));
+        assertEquals("MCMXCIV", DisplayNames.romanNumeral(1994));
+        assertEquals("0", DisplayNames.romanNumeral(0));
+    }
+
+    @Test
+    void reload_applies_names_from_the_message_files() throws IOException {
+        JavaPlugin plugin = MockBukkit.createMockPlugin();
+        File messages = new File(plugin.getDataFolder(), "messages/messages_en.yml");
+        Files.createDirectories(messages.getParentFile().toPath());
+        Files.writeString(messages.toPath(), "names:\n  materials:\n    DIAMOND_SWORD: Blade\n"
+                + "  enchantments:\n    sharpness: Edge\n");
+        assertEquals("Diamond Sword", DisplayNames.material(Material.DIAMOND_SWORD));
+
+        DisplayNames.reload(ShopMessageConfiguration.load(plugin));
+
+        assertEquals("Blade", DisplayNames.material(Material.DIAMOND_SWORD));
+        assertEquals("Edge", DisplayNames.enchantment(Enchantment.SHARPNESS));
+        assertEquals("Iron Sword", DisplayNames.material(Material.IRON_SWORD));
+
+        DisplayNames.reload(null);
+        assertEquals("Diamond Sword", DisplayNames.material(Material.DIAMOND_SWORD));
+    }
+}
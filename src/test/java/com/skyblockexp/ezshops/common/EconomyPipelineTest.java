@@ -0,0 +1,275 @@
+package com.skyblockexp.ezshops.common;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
+import com.skyblockexp.ezshops.shop.ShopPrice;
+import com.skyblockexp.ezshops.shop.ShopPricingManager;
+import com.skyblockexp.ezshops.shop.ShopSaleQuote;
+import com.skyblockexp.ezshops.shop.ShopTransactionResult;
+import com.skyblockexp.ezshops.shop.ShopTransactionService;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class EconomyPipelineTest extends AbstractEzShopsTest {
+
+    private final BlockingQueue<Runnable> mainThread = new LinkedBlockingQueue<>();
+    private final Thread testThread = Thread.currentThread();
+    private ExecutorService workers;
+
+    @AfterEach
+    void stopWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void calls_for_one_player_keep_submission_order_and_complete_on_the_main_thread() {
+        Economy economy = slowEconomy(5L);
+        EconomyPipeline pipeline = asyncPipeline(economy, 4);
+        UUID playerId = UUID.randomUUID();
+        List<Integer> called = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> completed = new ArrayList<>();
+        List<Thread> completionThreads = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            int index = i;
+            pipeline.submit(playerId, econ -> {
+                called.add(index);
+                return econ.getBalance((OfflinePlayer) null);
+            }, (balance, error) -> {
+                assertNull(error);
+                completed.add(index);
+                completionThreads.add(Thread.currentThread());
+            });
+        }
+        runMainThreadUntil(() -> completed.size() == 20);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, called);
+        assertEquals(expected, completed);
+        assertTrue(completionThreads.stream().allMatch(thread -> thread == testThread));
+    }
+
+    @Test
+    void calls_for_different_players_overlap() throws InterruptedException {
+        EconomyPipeline pipeline = asyncPipeline(mock(Economy.class), 2);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        List<Boolean> outcomes = new ArrayList<>();
+
+        // the first call can only finish while the second player's call is running next to it
+        pipeline.submit(UUID.randomUUID(), econ -> awaitQuietly(secondStarted), (overlapped, error) -> outcomes.add(overlapped));
+        pipeline.submit(UUID.randomUUID(), econ -> {
+            secondStarted.countDown();
+            return true;
+        }, (ignored, error) -> outcomes.add(true));
+        runMainThreadUntil(() -> outcomes.size() == 2);
+
+        assertEquals(List.of(true, true), outcomes);
+    }
+
+    @Test
+    void failures_reach_the_completion() {
+        Economy economy = mock(Economy.class);
+        when(economy.depositPlayer((OfflinePlayer) any(), anyDouble())).thenThrow(new IllegalStateException("database down"));
+        EconomyPipeline pipeline = asyncPipeline(economy, 1);
+        List<Throwable> errors = new ArrayList<>();
+
+        pipeline.submit(UUID.randomUUID(), econ -> econ.depositPlayer((OfflinePlayer) null, 5.0),
+                (response, error) -> errors.add(error));
+        runMainThreadUntil(() -> errors.size() == 1);
+
+        assertInstanceOf(IllegalStateException.class, errors.get(0));
+        assertEquals("database down", errors.get(0).getMessage());
+    }
+
+    @Test
+    void close_finishes_queued_calls_and_runs_later_calls_inline() {
+        EconomyPipeline pipeline = asyncPipeline(slowEconomy(20L), 1);
+        UUID playerId = UUID.randomUUID();
+        List<Integer> completed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int index = i;
+            pipeline.submit(playerId, econ -> econ.getBalance((OfflinePlayer) null), (balance, error) -> completed.add(index));
+        }
+
+        pipeline.close();
+        assertEquals(List.of(0, 1, 2), completed);
+
+        pipeline.submit(playerId, econ -> 0.0, (balance, error) -> completed.add(3));
+        assertEquals(List.of(0, 1, 2, 3), completed);
+    }
+
+    @Test
+    void calls_finishing_after_close_still_complete() throws InterruptedException {
+        workers = Executors.newFixedThreadPool(1);
+        EconomyPipeline pipeline = new EconomyPipeline(mock(Economy.class), workers, mainThread::add,
+                Logger.getLogger("EconomyPipelineTest"), 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        List<Thread> completionThreads = Collections.synchronizedList(new ArrayList<>());
+        pipeline.submit(UUID.randomUUID(), econ -> awaitQuietly(release), (answered, error) -> {
+            completionThreads.add(Thread.currentThread());
+            completed.countDown();
+        });
+
+        pipeline.close();
+        assertTrue(completionThreads.isEmpty());
+        release.countDown();
+
+        assertTrue(completed.await(5L, TimeUnit.SECONDS));
+        assertNotSame(testThread, completionThreads.get(0));
+        assertTrue(mainThread.isEmpty());
+    }
+
+    @Test
+    void failed_refunds_are_retried() {
+        Economy economy = mock(Economy.class);
+        EconomyResponse failed = new EconomyResponse(0.0, 0.0, EconomyResponse.ResponseType.FAILURE, "locked");
+        EconomyResponse paid = new EconomyResponse(4.0, 4.0, EconomyResponse.ResponseType.SUCCESS, null);
+        when(economy.depositPlayer((OfflinePlayer) any(), anyDouble())).thenReturn(failed, failed, paid);
+        OfflinePlayer player = mock(OfflinePlayer.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+
+        EconomyPipeline.direct(economy).refund(player, 4.0);
+
+        verify(economy, times(3)).depositPlayer(player, 4.0);
+    }
+
+    @Test
+    void direct_pipeline_completes_before_returning() {
+        Economy economy = mock(Economy.class);
+        when(economy.getBalance((OfflinePlayer) any())).thenReturn(12.5);
+        EconomyPipeline pipeline = EconomyPipeline.direct(economy);
+        double[] seen = new double[1];
+
+        pipeline.submit(UUID.randomUUID(), econ -> econ.getBalance((OfflinePlayer) null), (balance, error) -> seen[0] = balance);
+
+        assertFalse(pipeline.isAsync());
+        assertEquals(12.5, seen[0]);
+    }
+
+    @Test
+    void failed_async_sale_refunds_the_items() {
+        loadProviderPlugin(Mockito.mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+
+        ShopPricingManager pricingManager = Mockito.mock(ShopPricingManager.class);
+        Economy econ = slowEconomy(10L);
+        when(pricingManager.isVisibleInMenu(Material.IRON_INGOT)).thenReturn(true);
+        when(pricingManager.getPrice(eq(Material.IRON_INGOT))).thenReturn(Optional.of(new ShopPrice(3.0, 2.0)));
+        when(pricingManager.estimateBulkTotal(eq(Material.IRON_INGOT), eq(20), any())).thenReturn(40.0);
+        ShopSaleQuote settled = new ShopSaleQuote(Map.of("IRON_INGOT", 40.0), 40.0);
+        when(pricingManager.settleSales(Map.of("IRON_INGOT", 20))).thenReturn(settled);
+        when(econ.depositPlayer((OfflinePlayer) any(), anyDouble()))
+                .thenReturn(new EconomyResponse(0.0, 0.0, EconomyResponse.ResponseType.FAILURE, "down"));
+
+        ShopTransactionService svc = new ShopTransactionService(pricingManager, econ,
+                ShopMessageConfiguration.load(plugin).transactions());
+        svc.setEconomyPipeline(asyncPipeline(econ, 1));
+
+        Player player = server.addPlayer("seller");
+        player.addAttachment(plugin, ShopTransactionService.PERMISSION_SELL, true);
+        PlayerInventory inventory = player.getInventory();
+        inventory.setItem(0, new ItemStack(Material.IRON_INGOT, 20));
+
+        ShopTransactionResult result = svc.sell(player, Material.IRON_INGOT, 20);
+
+        // the items are reserved while the deposit is in flight
+        assertTrue(result.pending());
+        assertFalse(inventory.contains(Material.IRON_INGOT));
+
+        // the player keeps using the inventory meanwhile; the refund must not overwrite that
+        inventory.setItem(0, new ItemStack(Material.DIRT, 5));
+        runMainThreadUntil(() -> inventory.contains(Material.IRON_INGOT));
+
+        assertEquals(20, count(inventory, Material.IRON_INGOT));
+        assertEquals(5, count(inventory, Material.DIRT));
+        // the sale was settled before the deposit, so its price move is taken back with the refund
+        verify(pricingManager).revertSales(settled);
+    }
+
+    private EconomyPipeline asyncPipeline(Economy economy, int threads) {
+        workers = Executors.newFixedThreadPool(threads);
+        return new EconomyPipeline(economy, workers, mainThread::add, Logger.getLogger("EconomyPipelineTest"));
+    }
+
+    /**
+     * Returns an economy that takes {@code delayMillis} to answer every call, like one backed by a remote
+     * database.
+     */
+    private static Economy slowEconomy(long delayMillis) {
+        return mock(Economy.class, invocation -> {
+            Thread.sleep(delayMillis);
+            return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        });
+    }
+
+    private void runMainThreadUntil(BooleanSupplier done) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (!done.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "economy calls did not complete in time");
+            try {
+                Runnable task = mainThread.poll(50L, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int count(PlayerInventory inventory, Material material) {
+        int total = 0;
+        for (ItemStack stack : inventory.getStorageContents()) {
+            if (stack != null && stack.getType() == material) {
+                total += stack.getAmount();
+            }
+        }
+        return total;
+    }
+}
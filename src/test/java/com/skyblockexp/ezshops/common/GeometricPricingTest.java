@@ -0,0 +1,91 @@
+package com.skyblockexp.ezshops.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeometricPricingTest {
+
+    @Test
+    void rounded_clamped_sum_matches_per_unit_simulation() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 20000; i++) {
+            double base = Math.round(random.nextDouble() * 100000.0D) / 100.0D;
+            double min = 0.1D + random.nextDouble();
+            double max = min + random.nextDouble() * 5.0D;
+            double start = GeometricPricing.clamp(min + random.nextDouble() * (max - min), min, max);
+            double change = random.nextInt(4) == 0 ? 0.0D : random.nextDouble() * 0.2D;
+            double ratio = random.nextBoolean() ? 1.0D + change : 1.0D - change;
+            int amount = 1 + random.nextInt(random.nextBoolean() ? 64 : 5000);
+
+            double expected = simulateDynamic(base, start, ratio, min, max, amount);
+            double actual = GeometricPricing.roundedClampedSum(base, start, ratio, min, max, amount);
+            assertEquals(expected, actual, 0.0D,
+                    "base=" + base + " start=" + start + " ratio=" + ratio + " amount=" + amount);
+        }
+    }
+
+    @Test
+    void rounded_clamped_sum_does_not_walk_the_units() {
+        long units = 1_000_000_000_000L;
+        double total = assertTimeoutPreemptively(java.time.Duration.ofSeconds(1),
+                () -> GeometricPricing.roundedClampedSum(2.0D, 1.0D, 0.9D, 0.5D, 4.0D, units));
+        // 2.00, then 1.80 down to 1.06 before the 0.5 floor, then 1.00 for every other unit
+        double expected = EconomyUtils.normalizeCurrency(10.43D + (units - 7L));
+        assertEquals(expected, total, 0.0D);
+    }
+
+    @Test
+    void clamped_value_collapses_to_minimum_when_ratio_is_not_positive() {
+        assertEquals(0.5D, GeometricPricing.clampedValue(1.0D, 0.0D, 3, 0.5D, 3.0D));
+        assertEquals(0.5D, GeometricPricing.clampedValue(1.0D, -0.5D, 2, 0.5D, 3.0D));
+        assertEquals(3.0D, GeometricPricing.clampedValue(1.0D, 1.1D, 1000, 0.5D, 3.0D));
+    }
+
+    @Test
+    void floored_sum_and_value_match_per_unit_simulation() {
+        Random random = new Random(7L);
+        for (int i = 0; i < 20000; i++) {
+            double start = 0.5D + random.nextDouble() * 500.0D;
+            double ratio = random.nextInt(3) == 0 ? 0.88D + random.nextDouble() * 0.24D
+                    : (random.nextBoolean() ? 1.02D : 0.98D);
+            int amount = 1 + random.nextInt(3000);
+
+            double expectedSum = 0.0D;
+            double price = start;
+            for (int unit = 0; unit < amount; unit++) {
+                expectedSum += price;
+                price = Math.max(1.0D, price * ratio);
+            }
+            if (Double.isInfinite(expectedSum)) {
+                continue;
+            }
+            assertEquals(expectedSum, GeometricPricing.flooredSum(start, ratio, amount, 1.0D),
+                    Math.max(1.0D, expectedSum) * 1e-12);
+            assertEquals(price, GeometricPricing.flooredValue(start, ratio, amount, 1.0D),
+                    Math.max(1.0D, price) * 1e-12);
+        }
+    }
+
+    @Test
+    void steps_to_reach_finds_first_step_at_bound() {
+        assertEquals(0L, GeometricPricing.stepsToReach(2.0D, 1.5D, 2.0D));
+        assertEquals(2L, GeometricPricing.stepsToReach(1.0D, 2.0D, 4.0D));
+        assertEquals(3L, GeometricPricing.stepsToReach(1.0D, 2.0D, 5.0D));
+        assertEquals(1L, GeometricPricing.stepsToReach(8.0D, 0.5D, 4.0D));
+        assertEquals(Long.MAX_VALUE, GeometricPricing.stepsToReach(1.0D, 1.0D, 2.0D));
+        assertEquals(0L, GeometricPricing.stepsToReach(1.0D, 0.5D, 2.0D));
+    }
+
+    private static double simulateDynamic(double base, double multiplier, double ratio, double min, double max,
+            int amount) {
+        double total = 0.0D;
+        for (int unit = 0; unit < amount; unit++) {
+            total += EconomyUtils.normalizeCurrency(base * multiplier);
+            multiplier = GeometricPricing.clamp(multiplier * ratio, min, max);
+        }
+        return EconomyUtils.normalizeCurrency(total);
+    }
+}
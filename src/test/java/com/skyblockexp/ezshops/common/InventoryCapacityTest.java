@@ -0,0 +1,80 @@
+package com.skyblockexp.ezshops.common;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryCapacityTest extends AbstractEzShopsTest {
+
+    @Test
+    void deliverable_counts_partial_stacks_and_empty_slots() {
+        PlayerInventory inventory = fullOfDirt();
+        inventory.setItem(0, new ItemStack(Material.DIAMOND, 60));
+        inventory.setItem(1, null);
+        inventory.setItem(2, new ItemStack(Material.ENDER_PEARL, 10));
+
+        assertEquals(68, InventoryCapacity.deliverable(inventory, new ItemStack(Material.DIAMOND), 100));
+        assertEquals(20, InventoryCapacity.deliverable(inventory, new ItemStack(Material.DIAMOND), 20));
+        // ender pearls stack to 16
+        assertEquals(22, InventoryCapacity.deliverable(inventory, new ItemStack(Material.ENDER_PEARL), 64));
+        assertEquals(0, InventoryCapacity.deliverable(inventory, new ItemStack(Material.DIAMOND), 0));
+    }
+
+    @Test
+    void deliverable_matches_add_item() {
+        Inventory inventory = server.createInventory(null, 36);
+        for (int slot = 0; slot < 30; slot++) {
+            inventory.setItem(slot, new ItemStack(slot % 2 == 0 ? Material.COBBLESTONE : Material.STONE, 1 + slot));
+        }
+        ItemStack item = new ItemStack(Material.COBBLESTONE);
+        int expected = InventoryCapacity.deliverable(inventory, item, 10_000);
+
+        int added = 0;
+        while (added < 10_000) {
+            ItemStack stack = new ItemStack(Material.COBBLESTONE, 64);
+            int leftover = inventory.addItem(stack).values().stream().mapToInt(ItemStack::getAmount).sum();
+            added += 64 - leftover;
+            if (leftover > 0) {
+                break;
+            }
+        }
+        assertEquals(expected, added);
+    }
+
+    @Test
+    void basket_lines_share_empty_slots() {
+        PlayerInventory inventory = fullOfDirt();
+        inventory.setItem(0, null);
+        inventory.setItem(1, null);
+        inventory.setItem(2, new ItemStack(Material.IRON_INGOT, 32));
+
+        assertTrue(InventoryCapacity.fits(inventory, List.of(
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 96),
+                new InventoryCapacity.Line(new ItemStack(Material.GOLD_INGOT), 64))));
+        assertFalse(InventoryCapacity.fits(inventory, List.of(
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 97),
+                new InventoryCapacity.Line(new ItemStack(Material.GOLD_INGOT), 64))));
+        // similar lines are merged before slots are counted
+        assertTrue(InventoryCapacity.fits(inventory, List.of(
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 50),
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 110))));
+        assertFalse(InventoryCapacity.fits(inventory, List.of(
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 50),
+                new InventoryCapacity.Line(new ItemStack(Material.IRON_INGOT), 111))));
+    }
+
+    private PlayerInventory fullOfDirt() {
+        PlayerInventory inventory = server.addPlayer().getInventory();
+        for (int slot = 0; slot < inventory.getStorageContents().length; slot++) {
+            inventory.setItem(slot, new ItemStack(Material.DIRT, 64));
+        }
+        return inventory;
+    }
+}
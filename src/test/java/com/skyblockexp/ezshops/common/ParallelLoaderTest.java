@@ -0,0 +1,46 @@
+package com.skyblockexp.ezshops.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelLoaderTest {
+
+    @Test
+    void results_keep_input_order_regardless_of_completion_order() {
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            inputs.add(i);
+        }
+
+        List<Integer> results = ParallelLoader.map(inputs, value -> {
+            // later inputs finish first when the pool runs them concurrently
+            LockSupport.parkNanos((64 - value) * 50_000L);
+            return value * value;
+        });
+
+        assertEquals(inputs.size(), results.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(i * i, results.get(i));
+        }
+    }
+
+    @Test
+    void null_results_are_kept_in_place() {
+        List<String> results = ParallelLoader.map(List.of("a", "", "c"), value -> value.isEmpty() ? null : value);
+
+        assertEquals(3, results.size());
+        assertEquals("a", results.get(0));
+        assertNull(results.get(1));
+        assertEquals("c", results.get(2));
+    }
+
+    @Test
+    void empty_input_returns_empty_list() {
+        assertTrue(ParallelLoader.map(List.<String>of(), String::length).isEmpty());
+    }
+}
@@ -0,0 +1,112 @@
+package com.skyblockexp.ezshops.core;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.shop.ShopPrice;
+import com.skyblockexp.ezshops.shop.ShopPricingManager;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShopDynamicPricingConcurrencyTest extends AbstractEzShopsTest {
+
+    private static final double BUY_CHANGE = 0.0001D;
+    private static final double MIN_MULTIPLIER = 0.5D;
+    private static final double MAX_MULTIPLIER = 10.0D;
+
+    @Test
+    void concurrent_purchases_never_lose_an_update() throws Exception {
+        net.milkbowl.vault.economy.Economy econ = org.mockito.Mockito.mock(net.milkbowl.vault.economy.Economy.class);
+        loadProviderPlugin(econ);
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        assertNotNull(pm);
+
+        Object entry = newEntry(new ShopPrice(10.0D, 5.0D));
+        priceMap(pm).put(Material.DIAMOND.name(), entry);
+
+        int writers = 8;
+        int readers = 4;
+        int purchasesPerWriter = 1000;
+        ExecutorService ex = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            tasks.add(() -> {
+                start.await();
+                for (int j = 0; j < purchasesPerWriter; j++) {
+                    pm.handlePurchase(Material.DIAMOND, 1);
+                }
+                return true;
+            });
+        }
+        for (int i = 0; i < readers; i++) {
+            tasks.add(() -> {
+                start.await();
+                for (int j = 0; j < 2000; j++) {
+                    double buy = pm.getPrice(Material.DIAMOND).orElseThrow().buyPrice();
+                    if (buy < 10.0D * MIN_MULTIPLIER || buy > 10.0D * MAX_MULTIPLIER) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Callable<Boolean> task : tasks) {
+            results.add(ex.submit(task));
+        }
+        start.countDown();
+        for (Future<Boolean> f : results) {
+            assertTrue(f.get(), "Readers must only observe multipliers within the configured range");
+        }
+        ex.shutdown();
+
+        // every purchase multiplies by the same factor, so any interleaving must land on the sequential result
+        double expected = 1.0D;
+        for (int i = 0; i < writers * purchasesPerWriter; i++) {
+            expected = Math.min(MAX_MULTIPLIER, expected * Math.pow(1.0D + BUY_CHANGE, 1));
+        }
+        assertEquals(expected, multiplier(entry), 0.0D, "Concurrent purchases lost an update");
+    }
+
+    private static Object newEntry(ShopPrice base) throws Exception {
+        Class<?> dynClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$DynamicSettings");
+        Constructor<?> dynCtor = dynClass.getDeclaredConstructor(double.class, double.class, double.class, double.class,
+                double.class);
+        dynCtor.setAccessible(true);
+        Object settings = dynCtor.newInstance(1.0D, MIN_MULTIPLIER, MAX_MULTIPLIER, BUY_CHANGE, 0.0D);
+
+        Class<?> entryClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$PriceEntry");
+        Constructor<?> entryCtor = entryClass.getDeclaredConstructor(ShopPrice.class, dynClass, double.class);
+        entryCtor.setAccessible(true);
+        return entryCtor.newInstance(base, settings, 1.0D);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> priceMap(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("priceMap");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(pm);
+    }
+
+    private static double multiplier(Object entry) throws Exception {
+        Field field = entry.getClass().getDeclaredField("multiplier");
+        field.setAccessible(true);
+        return field.getDouble(entry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.skyblockexp.ezshops.core;
 
+import com.skyblockexp.ezshops.stock.StockCandle;
+import com.skyblockexp.ezshops.stock.StockCandleStore;
 import com.skyblockexp.ezshops.stock.StockMarketManager;
 import org.junit.jupiter.api.Test;
 
@@ -57,4 +59,40 @@ public class StockMarketConcurrencyTest {
         double finalPrice = mgr.getPrice("DIAMOND");
         assertTrue(finalPrice >= 1.0, "Final price must be >= 1.0");
     }
+
+    @Test
+    void concurrent_updates_of_one_stock_each_land_in_its_history_and_candles() throws InterruptedException, ExecutionException {
+        StockMarketManager mgr = new StockMarketManager(1000);
+        int writers = 4;
+        int updates = 200;
+        ExecutorService ex = Executors.newFixedThreadPool(writers * 2);
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            tasks.add(() -> {
+                for (int j = 0; j < updates; j++) {
+                    mgr.updatePrice("DIAMOND", 1);
+                }
+                return true;
+            });
+            // a different stock should not get in the way
+            tasks.add(() -> {
+                for (int j = 0; j < updates; j++) {
+                    mgr.updatePrice("EMERALD", -1);
+                }
+                return true;
+            });
+        }
+        for (Future<Boolean> f : ex.invokeAll(tasks)) {
+            assertTrue(f.get());
+        }
+        ex.shutdown();
+
+        assertEquals(writers * updates, mgr.getHistoryManager().history("DIAMOND").size());
+        long volume = mgr.getCandleStore().newest("DIAMOND", StockCandleStore.Resolution.DAY, 0, 2).stream()
+                .mapToLong(StockCandle::volume).sum();
+        assertEquals(writers * updates, volume);
+        assertEquals(mgr.getHistoryManager().getHistory("DIAMOND").get(writers * updates - 1).price,
+                mgr.getPrice("DIAMOND"));
+    }
 }
@@ -0,0 +1,94 @@
+package com.skyblockexp.ezshops.core;
+
+import com.skyblockexp.ezshops.Benchmarks;
+import com.skyblockexp.ezshops.stock.StockMarketManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures {@link StockMarketManager#updatePrice(String, int)} throughput with several writers and readers,
+ * once with every writer trading the same stock and once with each writer trading its own. Excluded from
+ * the default build; run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class StockMarketThroughputBenchmark {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int WARMUP_UPDATES = 20_000;
+    private static final int MEASURED_UPDATES = 200_000;
+
+    @Test
+    void updates_on_one_stock_and_on_distinct_stocks() throws Exception {
+        run(false, WARMUP_UPDATES);
+        run(true, WARMUP_UPDATES);
+
+        double shared = run(false, MEASURED_UPDATES);
+        double distinct = run(true, MEASURED_UPDATES);
+        Benchmarks.report(getClass(), "Stock updates with %d writers and %d readers: one stock %.0f updates/s, "
+                + "distinct stocks %.0f updates/s", WRITERS, READERS, shared, distinct);
+    }
+
+    private static double run(boolean distinctStocks, int updatesPerWriter) throws Exception {
+        StockMarketManager mgr = new StockMarketManager();
+        for (int i = 0; i < WRITERS; i++) {
+            mgr.setPrice("STOCK_" + i, 100.0);
+        }
+
+        ExecutorService ex = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Callable<Boolean>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            String id = distinctStocks ? "STOCK_" + i : "STOCK_0";
+            writers.add(() -> {
+                for (int j = 0; j < updatesPerWriter; j++) {
+                    mgr.updatePrice(id, (j % 2 == 0) ? 1 : -1);
+                }
+                return true;
+            });
+        }
+        List<Future<Boolean>> readers = new ArrayList<>();
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            for (Callable<Boolean> writer : writers) {
+                pending.add(ex.submit(writer));
+            }
+            for (int i = 0; i < READERS; i++) {
+                readers.add(ex.submit(() -> {
+                    while (!allDone(pending)) {
+                        for (int s = 0; s < WRITERS; s++) {
+                            if (mgr.getPrice("STOCK_" + s) < 1.0) return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<?> writer : pending) {
+                writer.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            for (Future<Boolean> reader : readers) {
+                assertTrue(reader.get(), "Prices must stay >= 1.0");
+            }
+            return (double) WRITERS * updatesPerWriter / (elapsed / 1_000_000_000.0D);
+        } finally {
+            ex.shutdownNow();
+        }
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.skyblockexp.ezshops.event;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShopEventDispatcherTest extends AbstractEzShopsTest {
+
+    private Plugin plugin;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        plugin = MockBukkit.createMockPlugin();
+        player = server.addPlayer();
+    }
+
+    @Test
+    void nothing_is_built_while_nothing_listens() {
+        ShopEventDispatcher dispatcher = new ShopEventDispatcher(plugin);
+        AtomicInteger built = new AtomicInteger();
+
+        dispatcher.purchase(player, () -> {
+            built.incrementAndGet();
+            return new ItemStack(Material.STONE);
+        }, 1, 1.0D);
+
+        assertFalse(dispatcher.hasTransactionListeners());
+        assertEquals(0, built.get());
+    }
+
+    @Test
+    void purchases_and_sales_reach_registered_listeners() {
+        List<ShopTransactionEvent> received = new ArrayList<>();
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onPurchase(ShopPurchaseEvent event) {
+                received.add(event);
+            }
+
+            @EventHandler
+            public void onSale(ShopSaleEvent event) {
+                received.add(event);
+            }
+        }, plugin);
+        ShopEventDispatcher dispatcher = new ShopEventDispatcher(plugin);
+
+        dispatcher.purchase(player, () -> new ItemStack(Material.STONE, 4), 4, 8.0D);
+        dispatcher.sale(player, () -> new ItemStack(Material.WHEAT, 2), 2, 3.0D);
+
+        assertEquals(2, received.size());
+        assertInstanceOf(ShopPurchaseEvent.class, received.get(0));
+        assertEquals(Material.STONE, received.get(0).getItem().getType());
+        assertInstanceOf(ShopSaleEvent.class, received.get(1));
+        assertEquals(3.0D, received.get(1).getTotal(), 1e-9);
+    }
+
+    @Test
+    void trades_of_one_tick_arrive_as_one_batch() {
+        List<ShopTransactionBatchEvent> batches = new ArrayList<>();
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onBatch(ShopTransactionBatchEvent event) {
+                batches.add(event);
+            }
+        }, plugin);
+        ShopEventDispatcher dispatcher = new ShopEventDispatcher(plugin);
+
+        dispatcher.trade(entry(LedgerEntry.Side.BUY));
+        dispatcher.trade(entry(LedgerEntry.Side.SELL));
+        assertTrue(batches.isEmpty());
+
+        server.getScheduler().performOneTick();
+
+        assertEquals(1, batches.size());
+        List<LedgerEntry> trades = batches.get(0).getTrades();
+        assertEquals(2, trades.size());
+        assertEquals(LedgerEntry.Side.BUY, trades.get(0).side());
+        assertEquals(LedgerEntry.Side.SELL, trades.get(1).side());
+
+        server.getScheduler().performOneTick();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void trades_queued_from_other_threads_arrive_in_one_batch() throws Exception {
+        List<ShopTransactionBatchEvent> batches = new ArrayList<>();
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onBatch(ShopTransactionBatchEvent event) {
+                batches.add(event);
+            }
+        }, plugin);
+        ShopEventDispatcher dispatcher = new ShopEventDispatcher(plugin);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    dispatcher.trade(entry(LedgerEntry.Side.SELL));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.getScheduler().performOneTick();
+
+        assertEquals(1, batches.size());
+        assertEquals(1000, batches.get(0).getTrades().size());
+    }
+
+    @Test
+    void trades_are_not_collected_without_a_batch_listener() {
+        ShopEventDispatcher dispatcher = new ShopEventDispatcher(plugin);
+        List<ShopTransactionBatchEvent> batches = new ArrayList<>();
+
+        dispatcher.trade(entry(LedgerEntry.Side.BUY));
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onBatch(ShopTransactionBatchEvent event) {
+                batches.add(event);
+            }
+        }, plugin);
+        dispatcher.flush();
+
+        assertTrue(batches.isEmpty());
+    }
+
+    private LedgerEntry entry(LedgerEntry.Side side) {
+        return LedgerEntry.of(LedgerEntry.Source.SHOP, side, player.getUniqueId(), "STONE", 1, 2.0D);
+    }
+}
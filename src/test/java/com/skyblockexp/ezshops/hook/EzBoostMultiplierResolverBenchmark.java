@@ -0,0 +1,110 @@
+package com.skyblockexp.ezshops.hook;
+
+import com.skyblockexp.ezboost.api.EzBoostAPI;
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.Benchmarks;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the sell multiplier lookup of {@link EzBoostMultiplierResolver} with the per-call reflection
+ * it replaced. Excluded from the default build; run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class EzBoostMultiplierResolverBenchmark extends AbstractEzShopsTest {
+
+    private static final int PLAYERS = 16;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+
+    @AfterEach
+    void uninstallBoostManager() {
+        EzBoostAPI.install(null);
+    }
+
+    @Test
+    void sell_multiplier_lookup() throws Exception {
+        List<Player> players = new ArrayList<>();
+        EzBoostAPI.BoostManager manager = new EzBoostAPI.BoostManager();
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = server.addPlayer();
+            players.add(player);
+            manager.give(player, new EzBoostAPI.Boost("sell", List.of(
+                    new EzBoostAPI.Effect("ezshops_sellprice", 10 + i),
+                    new EzBoostAPI.Effect("speed", 20))));
+            manager.give(player, new EzBoostAPI.Boost("discount", List.of(
+                    new EzBoostAPI.Effect("ezshops_discountboost", 5))));
+        }
+        EzBoostAPI.install(manager);
+
+        EzBoostMultiplierResolver uncached = new EzBoostMultiplierResolver(EzBoostAPI.class::getClassLoader, 0L);
+        EzBoostMultiplierResolver cached = new EzBoostMultiplierResolver(EzBoostAPI.class::getClassLoader,
+                EzBoostMultiplierResolver.DEFAULT_CACHE_MILLIS);
+        ClassLoader loader = EzBoostAPI.class.getClassLoader();
+        for (Player player : players) {
+            double expected = reflectiveSellMultiplier(loader, player);
+            assertEquals(expected, uncached.sellMultiplier(player), 1e-9);
+            assertEquals(expected, cached.sellMultiplier(player), 1e-9);
+        }
+
+        double reflective = measure(players, player -> reflectiveSellMultiplier(loader, player));
+        double handles = measure(players, uncached::sellMultiplier);
+        double cachedHandles = measure(players, cached::sellMultiplier);
+        Benchmarks.report(getClass(), "EzBoost sell multiplier: reflection %.1f ns/op, method handles %.1f ns/op, "
+                + "cached %.1f ns/op", reflective, handles, cachedHandles);
+    }
+
+    private static double measure(List<Player> players, ToDoubleFunction<Player> lookup) throws Exception {
+        return Benchmarks.nanosPerRound(WARMUP_ROUNDS, MEASURED_ROUNDS, () -> {
+            double total = 0.0D;
+            for (Player player : players) {
+                total += lookup.applyAsDouble(player);
+            }
+            return total;
+        }) / players.size();
+    }
+
+    /**
+     * The lookup as previously done by {@code ShopTransactionService}, minus the plugin manager lookup.
+     */
+    private static double reflectiveSellMultiplier(ClassLoader loader, Player player) {
+        try {
+            Class<?> api = Class.forName("com.skyblockexp.ezboost.api.EzBoostAPI", true, loader);
+            Object boostManager = api.getMethod("getBoostManager").invoke(null);
+            if (boostManager == null) {
+                return 1.0;
+            }
+            Method getBoosts = boostManager.getClass().getMethod("getBoosts", Player.class);
+            Map<?, ?> boosts = (Map<?, ?>) getBoosts.invoke(boostManager, player);
+            double multiplier = 1.0;
+            for (Object boost : boosts.values()) {
+                Method isActive = boostManager.getClass().getMethod("isActive", Player.class, String.class);
+                String key = (String) boost.getClass().getMethod("key").invoke(boost);
+                if ((Boolean) isActive.invoke(boostManager, player, key)) {
+                    Collection<?> effects = (Collection<?>) boost.getClass().getMethod("effects").invoke(boost);
+                    for (Object effect : effects) {
+                        String customName = (String) effect.getClass().getMethod("customName").invoke(effect);
+                        if ("ezshops_sellprice".equals(customName)) {
+                            Number amplifier = (Number) effect.getClass().getMethod("amplifier").invoke(effect);
+                            multiplier += amplifier.doubleValue() / 100.0;
+                        }
+                    }
+                }
+            }
+            return multiplier;
+        } catch (Exception e) {
+            return 1.0;
+        }
+    }
+}
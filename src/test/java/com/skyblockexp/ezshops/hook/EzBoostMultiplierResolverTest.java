@@ -0,0 +1,98 @@
+package com.skyblockexp.ezshops.hook;
+
+import com.skyblockexp.ezboost.api.EzBoostAPI;
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EzBoostMultiplierResolverTest extends AbstractEzShopsTest {
+
+    @AfterEach
+    void uninstallBoostManager() {
+        EzBoostAPI.install(null);
+    }
+
+    @Test
+    void missing_ezboost_is_neutral() {
+        Player player = server.addPlayer();
+        EzBoostMultiplierResolver resolver = new EzBoostMultiplierResolver(() -> null, 0L);
+
+        assertEquals(1.0D, resolver.sellMultiplier(player));
+        assertEquals(1.0D, resolver.buyMultiplier(player));
+        assertEquals(1.0D, resolver.sellMultiplier(null));
+    }
+
+    @Test
+    void active_effects_are_summed_into_both_multipliers() {
+        Player player = server.addPlayer();
+        EzBoostAPI.BoostManager manager = new EzBoostAPI.BoostManager();
+        manager.give(player, new EzBoostAPI.Boost("sell", List.of(
+                new EzBoostAPI.Effect("ezshops_sellprice", 25),
+                new EzBoostAPI.Effect("ezshops_discountboost", 10))));
+        manager.give(player, new EzBoostAPI.Boost("more_sell", List.of(
+                new EzBoostAPI.Effect("ezshops_sellprice", 15),
+                new EzBoostAPI.Effect("speed", 50))));
+        manager.give(player, new EzBoostAPI.Boost("expired", List.of(
+                new EzBoostAPI.Effect("ezshops_sellprice", 100))));
+        manager.deactivate("expired");
+        EzBoostAPI.install(manager);
+
+        EzBoostMultiplierResolver resolver = newResolver(0L);
+
+        assertEquals(1.4D, resolver.sellMultiplier(player), 1e-9);
+        assertEquals(0.9D, resolver.buyMultiplier(player), 1e-9);
+    }
+
+    @Test
+    void discount_never_goes_below_zero() {
+        Player player = server.addPlayer();
+        EzBoostAPI.BoostManager manager = new EzBoostAPI.BoostManager();
+        manager.give(player, new EzBoostAPI.Boost("free", List.of(
+                new EzBoostAPI.Effect("ezshops_discountboost", 150))));
+        EzBoostAPI.install(manager);
+
+        assertEquals(0.0D, newResolver(0L).buyMultiplier(player));
+    }
+
+    @Test
+    void multipliers_are_reused_until_invalidated() {
+        Player player = server.addPlayer();
+        EzBoostAPI.BoostManager manager = new EzBoostAPI.BoostManager();
+        EzBoostAPI.install(manager);
+        EzBoostMultiplierResolver cached = newResolver(60_000L);
+        EzBoostMultiplierResolver uncached = newResolver(0L);
+        assertEquals(1.0D, cached.sellMultiplier(player));
+
+        manager.give(player, new EzBoostAPI.Boost("sell", List.of(
+                new EzBoostAPI.Effect("ezshops_sellprice", 50))));
+
+        assertEquals(1.0D, cached.sellMultiplier(player));
+        assertEquals(1.5D, uncached.sellMultiplier(player), 1e-9);
+
+        cached.invalidate(player.getUniqueId());
+        assertEquals(1.5D, cached.sellMultiplier(player), 1e-9);
+    }
+
+    @Test
+    void unbound_boost_manager_is_retried() {
+        Player player = server.addPlayer();
+        EzBoostMultiplierResolver resolver = newResolver(0L);
+        assertEquals(1.0D, resolver.sellMultiplier(player));
+
+        EzBoostAPI.BoostManager manager = new EzBoostAPI.BoostManager();
+        manager.give(player, new EzBoostAPI.Boost("sell", List.of(
+                new EzBoostAPI.Effect("ezshops_sellprice", 20))));
+        EzBoostAPI.install(manager);
+
+        assertEquals(1.2D, resolver.sellMultiplier(player), 1e-9);
+    }
+
+    private static EzBoostMultiplierResolver newResolver(long cacheMillis) {
+        return new EzBoostMultiplierResolver(EzBoostAPI.class::getClassLoader, cacheMillis);
+    }
+}
@@ -0,0 +1,163 @@
+package com.skyblockexp.ezshops.ledger;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedLedgerTest extends AbstractEzShopsTest {
+
+    private static final Logger LOGGER = Logger.getLogger("SegmentedLedgerTest");
+
+    @TempDir
+    File directory;
+
+    @Test
+    void entries_survive_a_restart_and_come_back_newest_first() throws IOException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        long start = System.currentTimeMillis() - 1_000L;
+
+        SegmentedLedger ledger = open(10, 0L);
+        for (int i = 0; i < 25; i++) {
+            ledger.record(new LedgerEntry(start + i, i % 2 == 0 ? alice : bob, null, LedgerEntry.Source.SHOP,
+                    i % 3 == 0 ? LedgerEntry.Side.BUY : LedgerEntry.Side.SELL, i % 5 == 0 ? "diamond" : "STONE",
+                    i + 1, i * 1.5D));
+        }
+        ledger.close();
+
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".seg"));
+        File[] summaries = directory.listFiles((dir, name) -> name.endsWith(".idx"));
+        assertEquals(3, segments.length);
+        assertEquals(2, summaries.length, "only full segments are sealed");
+
+        SegmentedLedger reopened = open(10, 0L);
+        try {
+            List<LedgerEntry> all = reopened.query(LedgerQuery.all());
+            assertEquals(25, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                LedgerEntry entry = all.get(i);
+                int written = 24 - i;
+                assertEquals(start + written, entry.timestamp());
+                assertEquals(written + 1, entry.amount());
+                assertEquals(written * 1.5D, entry.total(), 1e-9);
+            }
+
+            List<LedgerEntry> diamonds = reopened.query(LedgerQuery.all().withItem("Diamond"));
+            assertEquals(5, diamonds.size());
+            assertTrue(diamonds.stream().allMatch(entry -> entry.item().equals("DIAMOND")));
+
+            List<LedgerEntry> bobs = reopened.query(LedgerQuery.all().withPlayer(bob).withLimit(3));
+            assertEquals(3, bobs.size());
+            assertEquals(start + 23, bobs.get(0).timestamp());
+            assertTrue(bobs.stream().allMatch(entry -> entry.player().equals(bob)));
+
+            List<LedgerEntry> window = reopened.query(LedgerQuery.all().between(start + 5, start + 14));
+            assertEquals(10, window.size());
+            assertEquals(start + 14, window.get(0).timestamp());
+            assertEquals(start + 5, window.get(9).timestamp());
+
+            assertTrue(reopened.query(LedgerQuery.all().withItem("EMERALD")).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void appending_after_a_restart_continues_the_active_segment() throws IOException {
+        UUID player = UUID.randomUUID();
+        SegmentedLedger ledger = open(10, 0L);
+        for (int i = 0; i < 4; i++) {
+            ledger.record(LedgerEntry.of(LedgerEntry.Source.STOCK, LedgerEntry.Side.BUY, player, "GOLD_INGOT", 1, 10.0D));
+        }
+        ledger.close();
+
+        ledger = open(10, 0L);
+        for (int i = 0; i < 4; i++) {
+            ledger.record(LedgerEntry.of(LedgerEntry.Source.STOCK, LedgerEntry.Side.SELL, player, "GOLD_INGOT", 1, 9.0D));
+        }
+        ledger.close();
+
+        SegmentedLedger reopened = open(10, 0L);
+        try {
+            assertEquals(1, directory.listFiles((dir, name) -> name.endsWith(".seg")).length);
+            List<LedgerEntry> entries = reopened.query(LedgerQuery.all().withPlayer(player));
+            assertEquals(8, entries.size());
+            assertEquals(LedgerEntry.Side.SELL, entries.get(0).side());
+            assertEquals(LedgerEntry.Side.BUY, entries.get(7).side());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void player_filter_matches_the_counterparty_of_player_shop_trades() throws IOException {
+        UUID buyer = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+        SegmentedLedger ledger = open(10, 0L);
+        ledger.record(new LedgerEntry(System.currentTimeMillis(), buyer, owner, LedgerEntry.Source.PLAYER_SHOP,
+                LedgerEntry.Side.BUY, "OAK_LOG", 16, 32.0D));
+        ledger.close();
+
+        SegmentedLedger reopened = open(10, 0L);
+        try {
+            List<LedgerEntry> ownerTrades = reopened.query(LedgerQuery.all().withPlayer(owner));
+            assertEquals(1, ownerTrades.size());
+            assertEquals(buyer, ownerTrades.get(0).player());
+            assertEquals(owner, ownerTrades.get(0).counterparty());
+            assertEquals(LedgerEntry.Source.PLAYER_SHOP, ownerTrades.get(0).source());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void sealed_segments_past_retention_are_deleted() throws IOException {
+        UUID player = UUID.randomUUID();
+        long old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40);
+        SegmentedLedger ledger = open(5, TimeUnit.DAYS.toMillis(30));
+        for (int i = 0; i < 5; i++) {
+            ledger.record(new LedgerEntry(old + i, player, null, LedgerEntry.Source.SHOP, LedgerEntry.Side.SELL,
+                    "COBBLESTONE", 64, 1.0D));
+        }
+        for (int i = 0; i < 6; i++) {
+            ledger.record(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.SELL, player, "COBBLESTONE", 64, 1.0D));
+        }
+        ledger.close();
+
+        SegmentedLedger reopened = open(5, TimeUnit.DAYS.toMillis(30));
+        try {
+            List<LedgerEntry> entries = reopened.query(LedgerQuery.all());
+            assertEquals(6, entries.size());
+            assertTrue(entries.stream().allMatch(entry -> entry.timestamp() > old + 5));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void entries_recorded_after_close_are_ignored() throws IOException {
+        SegmentedLedger ledger = open(10, 0L);
+        ledger.close();
+        ledger.record(LedgerEntry.of(LedgerEntry.Source.SHOP, LedgerEntry.Side.BUY, UUID.randomUUID(), "DIRT", 1, 1.0D));
+
+        SegmentedLedger reopened = open(10, 0L);
+        try {
+            assertTrue(reopened.query(LedgerQuery.all()).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private SegmentedLedger open(int segmentRecords, long retentionMillis) throws IOException {
+        return SegmentedLedger.open(directory, segmentRecords, retentionMillis, 1_000L, LOGGER);
+    }
+}
@@ -72,4 +72,41 @@ public class YmlPlayerShopRepositoryTest extends AbstractEzShopsTest {
         assertNotNull(cfg.getConfigurationSection("shops.missingworld,0,0,0"));
         assertEquals(owner.toString(), cfg.getString("shops.missingworld,0,0,0.owner"));
     }
+
+    @Test
+    void saveShops_sharesOnePalette_insteadOfPerShopItems() throws Exception {
+        loadProviderPlugin(Mockito.mock(Economy.class));
+        JavaPlugin plugin = loadPlugin(com.skyblockexp.ezshops.EzShopsPlugin.class);
+        File dataFolder = plugin.getDataFolder();
+        if (!dataFolder.exists()) dataFolder.mkdirs();
+        YmlPlayerShopRepository repo = new YmlPlayerShopRepository(dataFolder, plugin.getLogger());
+
+        org.bukkit.World world = Mockito.mock(org.bukkit.World.class);
+        Mockito.when(world.getName()).thenReturn("world");
+        UUID owner = UUID.randomUUID();
+        Map<String, PlayerShop> shopsBySign = new HashMap<>();
+        for (int x = 0; x < 3; x++) {
+            Location signLoc = new Location(world, x, 64, 0);
+            Location chestLoc = new Location(world, x, 63, 0);
+            shopsBySign.put(repo.locationKey(signLoc), new PlayerShop(owner, signLoc, chestLoc, List.of(chestLoc),
+                    new ItemStack(Material.DIAMOND, 2), 2, 10.0));
+        }
+
+        Map<String, Object> deferredEntry = new HashMap<>();
+        deferredEntry.put("owner", owner.toString());
+        deferredEntry.put("item", new ItemStack(Material.EMERALD, 1));
+        repo.saveShops(shopsBySign, Map.of("missingworld,0,0,0", deferredEntry));
+
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(new File(dataFolder, "player-shops.yml"));
+        List<ItemStack> palette = com.skyblockexp.ezshops.util.ItemStackCodec.decodeAll(
+                Base64.getDecoder().decode(cfg.getString("item-palette")));
+        assertEquals(List.of(new ItemStack(Material.DIAMOND, 2), new ItemStack(Material.EMERALD, 1)), palette);
+        for (String key : shopsBySign.keySet()) {
+            assertEquals(0, cfg.getInt("shops." + key + ".item-index", -1));
+            assertFalse(cfg.isSet("shops." + key + ".item"));
+        }
+        // a deferred entry's item moves into the palette as well
+        assertEquals(1, cfg.getInt("shops.missingworld,0,0,0.item-index", -1));
+        assertFalse(cfg.isSet("shops.missingworld,0,0,0.item"));
+    }
 }
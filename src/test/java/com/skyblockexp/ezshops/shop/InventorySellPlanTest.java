@@ -0,0 +1,103 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.config.ShopMessageConfiguration;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.*;
+
+public class InventorySellPlanTest extends AbstractEzShopsTest {
+
+    @Test
+    void plan_takes_up_to_the_limit_and_applies_once() {
+        Player player = server.addPlayer("planner");
+        PlayerInventory inventory = player.getInventory();
+        inventory.setItem(0, new ItemStack(Material.DIAMOND, 40));
+        inventory.setItem(1, new ItemStack(Material.DIRT, 64));
+        inventory.setItem(5, new ItemStack(Material.DIAMOND, 30));
+
+        InventorySellPlan plan = InventorySellPlan.plan(inventory.getStorageContents(), stack -> false,
+                material -> material == Material.DIAMOND, 50);
+
+        assertEquals(50, plan.amount(Material.DIAMOND));
+        assertEquals(0, plan.amount(Material.DIRT));
+        // planning leaves the inventory alone
+        assertEquals(40, inventory.getItem(0).getAmount());
+
+        plan.apply(inventory);
+
+        assertNull(inventory.getItem(0));
+        assertEquals(20, inventory.getItem(5).getAmount());
+        assertEquals(64, inventory.getItem(1).getAmount());
+    }
+
+    @Test
+    void retained_materials_only_and_rollback_restores_every_slot() {
+        Player player = server.addPlayer("planner");
+        PlayerInventory inventory = player.getInventory();
+        inventory.setItem(2, new ItemStack(Material.IRON_INGOT, 12));
+        inventory.setItem(3, new ItemStack(Material.GOLD_INGOT, 7));
+        inventory.setItem(4, new ItemStack(Material.IRON_INGOT, 5));
+        ItemStack[] before = inventory.getStorageContents().clone();
+
+        InventorySellPlan plan = InventorySellPlan.plan(inventory.getStorageContents(),
+                stack -> stack.getAmount() == 5, material -> true, Integer.MAX_VALUE);
+        assertEquals(12, plan.amount(Material.IRON_INGOT));
+        plan.retain(material -> material == Material.GOLD_INGOT);
+
+        assertEquals(1, plan.amounts().size());
+        plan.apply(inventory);
+        assertNull(inventory.getItem(3));
+        assertEquals(12, inventory.getItem(2).getAmount());
+
+        plan.rollback(inventory);
+        assertArrayEquals(before, inventory.getStorageContents());
+    }
+
+    @Test
+    void failed_deposit_restores_the_inventory() {
+        loadProviderPlugin(Mockito.mock(Economy.class));
+        var plugin = loadPlugin(com.skyblockexp.ezshops.EzShopsPlugin.class);
+
+        ShopPricingManager pricingManager = Mockito.mock(ShopPricingManager.class);
+        Economy econ = Mockito.mock(Economy.class);
+        when(pricingManager.isVisibleInMenu(Material.IRON_INGOT)).thenReturn(true);
+        when(pricingManager.getPrice(eq(Material.IRON_INGOT))).thenReturn(Optional.of(new ShopPrice(3.0, 2.0)));
+        when(pricingManager.estimateBulkTotal(eq(Material.IRON_INGOT), eq(70), any())).thenReturn(140.0);
+        ShopSaleQuote settled = new ShopSaleQuote(Map.of("IRON_INGOT", 140.0), 140.0);
+        when(pricingManager.settleSales(any())).thenReturn(settled);
+        when(econ.depositPlayer((org.bukkit.OfflinePlayer) any(), anyDouble()))
+                .thenReturn(new EconomyResponse(0.0, 0.0, EconomyResponse.ResponseType.FAILURE, "down"));
+
+        ShopTransactionService svc = new ShopTransactionService(pricingManager, econ,
+                ShopMessageConfiguration.load(plugin).transactions());
+
+        Player player = server.addPlayer("seller");
+        player.addAttachment(plugin, ShopTransactionService.PERMISSION_SELL, true);
+        PlayerInventory inventory = player.getInventory();
+        inventory.setItem(0, new ItemStack(Material.IRON_INGOT, 64));
+        inventory.setItem(8, new ItemStack(Material.IRON_INGOT, 6));
+        inventory.setItem(9, new ItemStack(Material.DIRT, 3));
+        ItemStack[] before = inventory.getStorageContents().clone();
+
+        var result = svc.sellInventory(player);
+
+        assertFalse(result.success());
+        assertArrayEquals(before, inventory.getStorageContents());
+        // the basket was settled before the deposit failed, so its price moves are taken back
+        verify(pricingManager).settleSales(Map.of("IRON_INGOT", 70));
+        verify(pricingManager).revertSales(settled);
+    }
+}
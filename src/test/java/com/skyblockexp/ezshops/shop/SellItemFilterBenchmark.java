@@ -0,0 +1,91 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.Benchmarks;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares planning a sell-inventory over a mixed inventory with the string based NBT filter it
+ * replaced against the compiled filter. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class SellItemFilterBenchmark extends AbstractEzShopsTest {
+
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int MEASURED_ROUNDS = 20_000;
+
+    @Test
+    void sell_inventory_planning() throws Exception {
+        NamespacedKey trusted = NamespacedKey.fromString("jobs:trusted");
+        NamespacedKey soulbound = NamespacedKey.fromString("items:soulbound");
+        ItemStack[] contents = new ItemStack[36];
+        for (int slot = 0; slot < contents.length; slot++) {
+            contents[slot] = switch (slot % 4) {
+                case 0 -> new ItemStack(Material.BONE, 64);
+                case 1 -> SellItemFilterTest.tagged(Material.BONE, trusted);
+                case 2 -> SellItemFilterTest.tagged(Material.ROTTEN_FLESH, soulbound);
+                default -> slot % 8 == 3 ? null : new ItemStack(Material.STRING, 32);
+            };
+        }
+
+        Set<String> blacklist = Set.of("items:soulbound");
+        SellItemFilter filter = SellItemFilter.of(true, SellItemFilter.Mode.BLACKLIST, List.of(), List.of(soulbound));
+        assertEquals(plan(contents, stack -> legacyIgnores(stack, "blacklist", blacklist)).amounts(),
+                plan(contents, filter.session()).amounts());
+
+        double legacy = measure(() -> plan(contents, stack -> legacyIgnores(stack, "blacklist", blacklist)));
+        double compiled = measure(() -> plan(contents, filter.session()));
+        Benchmarks.report(getClass(), "Sell inventory planning: string filter %.0f plans/s, "
+                + "compiled filter %.0f plans/s", legacy, compiled);
+    }
+
+    private static InventorySellPlan plan(ItemStack[] contents, Predicate<ItemStack> ignored) {
+        return InventorySellPlan.plan(contents, ignored, material -> true, Integer.MAX_VALUE);
+    }
+
+    private static double measure(java.util.function.Supplier<InventorySellPlan> planner) throws Exception {
+        return Benchmarks.roundsPerSecond(WARMUP_ROUNDS, MEASURED_ROUNDS, () -> planner.get().amounts().size());
+    }
+
+    /**
+     * The blacklist check as previously done by {@code ShopTransactionService.shouldIgnoreItem}.
+     */
+    private static boolean legacyIgnores(ItemStack stack, String mode, Set<String> blacklist) {
+        if (stack == null || !stack.hasItemMeta()) {
+            return false;
+        }
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) {
+            return false;
+        }
+        Set<String> keys = meta.getPersistentDataContainer().getKeys()
+                .stream()
+                .map(k -> k.getNamespace() + ":" + k.getKey())
+                .collect(Collectors.toSet());
+        if (keys.isEmpty()) {
+            return false;
+        }
+        if ("off".equalsIgnoreCase(mode)) {
+            return true;
+        }
+        for (String key : keys) {
+            if (blacklist.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SellItemFilterTest extends AbstractEzShopsTest {
+
+    private static final NamespacedKey TRUSTED = NamespacedKey.fromString("jobs:trusted");
+    private static final NamespacedKey SOULBOUND = NamespacedKey.fromString("items:soulbound");
+
+    @Test
+    void disabled_filter_keeps_nothing_back() {
+        assertFalse(SellItemFilter.DISABLED.ignores(tagged(Material.BONE, SOULBOUND)));
+        assertFalse(SellItemFilter.DISABLED.session().test(tagged(Material.BONE, SOULBOUND)));
+    }
+
+    @Test
+    void modes_follow_the_configured_keys() {
+        ItemStack plain = new ItemStack(Material.BONE, 4);
+        ItemStack trusted = tagged(Material.BONE, TRUSTED);
+        ItemStack soulbound = tagged(Material.BONE, SOULBOUND);
+
+        SellItemFilter off = SellItemFilter.of(true, SellItemFilter.Mode.OFF, List.of(), List.of());
+        assertFalse(off.ignores(plain));
+        assertTrue(off.ignores(trusted));
+
+        SellItemFilter whitelist = off.withMode(SellItemFilter.Mode.WHITELIST, List.of(TRUSTED), List.of());
+        assertFalse(whitelist.ignores(trusted));
+        assertTrue(whitelist.ignores(soulbound));
+
+        SellItemFilter blacklist = off.withMode(SellItemFilter.Mode.BLACKLIST, List.of(), List.of(SOULBOUND));
+        assertFalse(blacklist.ignores(trusted));
+        assertTrue(blacklist.ignores(soulbound));
+        assertFalse(blacklist.withEnabled(false).ignores(soulbound));
+    }
+
+    @Test
+    void config_is_compiled_into_keys() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("sell.ignore-items-with-nbt", true);
+        config.set("sell.nbt-filter.mode", "Whitelist");
+        config.set("sell.nbt-filter.whitelist", List.of("Jobs:Trusted", "not a key!"));
+
+        SellItemFilter filter = SellItemFilter.from(config, Logger.getLogger("test"));
+
+        assertTrue(filter.enabled());
+        assertEquals(SellItemFilter.Mode.WHITELIST, filter.mode());
+        assertFalse(filter.ignores(tagged(Material.BONE, TRUSTED)));
+        assertTrue(filter.ignores(tagged(Material.BONE, SOULBOUND)));
+        assertFalse(SellItemFilter.from(new YamlConfiguration(), Logger.getLogger("test")).enabled());
+    }
+
+    @Test
+    void session_reuses_verdicts_of_similar_stacks() {
+        SellItemFilter filter = SellItemFilter.of(true, SellItemFilter.Mode.BLACKLIST, List.of(), List.of(SOULBOUND));
+        Predicate<ItemStack> session = filter.session();
+
+        ItemStack first = tagged(Material.BONE, SOULBOUND);
+        ItemStack second = first.clone();
+        second.setAmount(12);
+
+        assertTrue(session.test(first));
+        assertTrue(session.test(second));
+        assertFalse(session.test(tagged(Material.BONE, TRUSTED)));
+        assertFalse(session.test(new ItemStack(Material.BONE)));
+    }
+
+    static ItemStack tagged(Material material, NamespacedKey key) {
+        ItemStack stack = new ItemStack(material, 3);
+        ItemMeta meta = stack.getItemMeta();
+        meta.getPersistentDataContainer().set(key, PersistentDataType.STRING, "yes");
+        stack.setItemMeta(meta);
+        return stack;
+    }
+}
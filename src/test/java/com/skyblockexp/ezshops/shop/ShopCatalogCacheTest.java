@@ -0,0 +1,95 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import net.milkbowl.vault.economy.Economy;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopCatalogCacheTest extends AbstractEzShopsTest {
+
+    @Test
+    void full_reload_with_unchanged_files_restores_the_snapshot() {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        assertTrue(new File(plugin.getDataFolder(), "shop-catalog.cache").isFile());
+        ShopMenuLayout parsed = pm.getMenuLayout();
+
+        pm.reload();
+
+        ShopReloadReport report = pm.lastReloadReport();
+        assertTrue(report.fromSnapshot());
+        assertEquals(0, report.reparsedCategories());
+        assertEquals(0, report.addedPrices());
+        assertEquals(0, report.updatedPrices());
+        assertEquals(0, report.removedPrices());
+        assertEquals(categoryIds(parsed), categoryIds(pm.getMenuLayout()));
+        assertEquals(parsed.mainTitle(), pm.getMenuLayout().mainTitle());
+        for (int i = 0; i < parsed.categories().size(); i++) {
+            assertEquals(parsed.categories().get(i).items().size(),
+                    pm.getMenuLayout().categories().get(i).items().size());
+        }
+    }
+
+    @Test
+    void changed_file_falls_back_to_yaml() throws Exception {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        File file = new File(plugin.getDataFolder(), "shop/categories/zz_snapshot_star.yml");
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), "categories:\n"
+                + "  snapshot_star:\n"
+                + "    slot: 41\n"
+                + "    items:\n"
+                + "      entry:\n"
+                + "        material: NETHER_STAR\n"
+                + "        price-id: snapshot_star\n"
+                + "        slot: 10\n"
+                + "        buy: 12.0\n"
+                + "        sell: 6.0\n", StandardCharsets.UTF_8);
+
+        pm.reload();
+        assertFalse(pm.lastReloadReport().fromSnapshot());
+        assertEquals(12.0D, pm.getPrice("snapshot_star").orElseThrow().buyPrice(), 1e-9);
+
+        pm.reload();
+        assertTrue(pm.lastReloadReport().fromSnapshot());
+        assertEquals(12.0D, pm.getPrice("snapshot_star").orElseThrow().buyPrice(), 1e-9);
+        assertEquals(6.0D, pm.getPrice("snapshot_star").orElseThrow().sellPrice(), 1e-9);
+    }
+
+    @Test
+    void corrupt_snapshot_is_ignored() throws Exception {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        int categories = pm.getMenuLayout().categories().size();
+        File snapshot = new File(plugin.getDataFolder(), "shop-catalog.cache");
+        byte[] content = Files.readAllBytes(snapshot.toPath());
+        // keep the header so the key matches, then cut the body short
+        Files.write(snapshot.toPath(), Arrays.copyOf(content, Math.min(content.length, 120)));
+
+        pm.reload();
+
+        assertFalse(pm.lastReloadReport().fromSnapshot());
+        assertEquals(categories, pm.getMenuLayout().categories().size());
+    }
+
+    private EzShopsPlugin loadEzShops() {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        assertNotNull(plugin.getCoreShopComponent().pricingManager());
+        return plugin;
+    }
+
+    private static List<String> categoryIds(ShopMenuLayout layout) {
+        return layout.categories().stream().map(ShopMenuLayout.Category::id).toList();
+    }
+}
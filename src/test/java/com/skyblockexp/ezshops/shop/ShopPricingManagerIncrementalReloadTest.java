@@ -0,0 +1,136 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import net.milkbowl.vault.economy.Economy;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopPricingManagerIncrementalReloadTest extends AbstractEzShopsTest {
+
+    private static final String STAR_FILE = "shop/categories/zz_incremental_star.yml";
+    private static final String SHARD_FILE = "shop/categories/zz_incremental_shard.yml";
+
+    @Test
+    void reload_without_changes_reparses_nothing() {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+
+        ShopReloadReport report = pm.reloadIncremental();
+
+        assertFalse(report.hasFileChanges());
+        assertEquals(0, report.reparsedCategories());
+        assertTrue(report.unchangedFiles() > 0);
+    }
+
+    @Test
+    void only_changed_files_are_reparsed_and_multipliers_survive() throws Exception {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        File starFile = new File(plugin.getDataFolder(), STAR_FILE);
+        File shardFile = new File(plugin.getDataFolder(), SHARD_FILE);
+
+        write(starFile, category("incremental_star", "NETHER_STAR", 20.0D, true));
+        write(shardFile, category("incremental_shard", "ECHO_SHARD", 5.0D, false));
+        ShopReloadReport added = pm.reloadIncremental();
+        assertEquals(List.of(SHARD_FILE, STAR_FILE), added.addedFiles());
+        assertEquals(2, added.reparsedCategories());
+        assertTrue(added.reusedCategories() > 0);
+        assertEquals(2, added.addedPrices());
+
+        pm.handlePurchase("incremental_star", 1);
+        Object starEntry = priceMap(pm).get("incremental_star");
+        assertEquals(22.0D, pm.getPrice("incremental_star").orElseThrow().buyPrice(), 1e-9);
+
+        // editing another file leaves the traded entry untouched
+        write(shardFile, category("incremental_shard", "ECHO_SHARD", 6.0D, false));
+        ShopReloadReport shardChanged = pm.reloadIncremental();
+        assertEquals(List.of(SHARD_FILE), shardChanged.changedFiles());
+        assertEquals(1, shardChanged.reparsedCategories());
+        assertEquals(1, shardChanged.updatedPrices());
+        assertSame(starEntry, priceMap(pm).get("incremental_star"));
+        assertEquals(6.0D, pm.getPrice("incremental_shard").orElseThrow().buyPrice(), 1e-9);
+
+        // changing the base price keeps the live multiplier
+        write(starFile, category("incremental_star", "NETHER_STAR", 40.0D, true));
+        ShopReloadReport starChanged = pm.reloadIncremental();
+        assertEquals(List.of(STAR_FILE), starChanged.changedFiles());
+        assertEquals(44.0D, pm.getPrice("incremental_star").orElseThrow().buyPrice(), 1e-9);
+
+        assertTrue(shardFile.delete());
+        ShopReloadReport removed = pm.reloadIncremental();
+        assertEquals(List.of(SHARD_FILE), removed.removedFiles());
+        assertEquals(1, removed.removedPrices());
+        assertTrue(pm.getPrice("incremental_shard").isEmpty());
+        assertTrue(pm.getMenuLayout().categories().stream().noneMatch(c -> c.id().equals("incremental_shard")));
+    }
+
+    @Test
+    void full_reload_picks_up_the_same_configuration() throws Exception {
+        EzShopsPlugin plugin = loadEzShops();
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        write(new File(plugin.getDataFolder(), STAR_FILE), category("incremental_star", "NETHER_STAR", 20.0D, false));
+
+        pm.reloadIncremental();
+        int incrementalCategories = pm.getMenuLayout().categories().size();
+        pm.reload();
+
+        assertEquals(incrementalCategories, pm.getMenuLayout().categories().size());
+        assertEquals(20.0D, pm.getPrice("incremental_star").orElseThrow().buyPrice(), 1e-9);
+        assertFalse(pm.reloadIncremental().hasFileChanges());
+    }
+
+    private EzShopsPlugin loadEzShops() {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        assertNotNull(plugin.getCoreShopComponent().pricingManager());
+        return plugin;
+    }
+
+    private static String category(String id, String material, double buy, boolean dynamic) {
+        String yaml = "categories:\n"
+                + "  " + id + ":\n"
+                + "    name: \"" + id + "\"\n"
+                + "    slot: 40\n"
+                + "    menu:\n"
+                + "      title: \"" + id + "\"\n"
+                + "      size: 27\n"
+                + "    items:\n"
+                + "      entry:\n"
+                + "        material: " + material + "\n"
+                + "        price-id: " + id + "\n"
+                + "        slot: 10\n"
+                + "        buy: " + buy + "\n"
+                + "        sell: " + (buy / 2.0D) + "\n";
+        if (dynamic) {
+            yaml += "        dynamic-pricing:\n"
+                    + "          starting-multiplier: 1.0\n"
+                    + "          min-multiplier: 0.5\n"
+                    + "          max-multiplier: 3.0\n"
+                    + "          buy-change: 0.1\n"
+                    + "          sell-change: 0.05\n";
+        }
+        return yaml;
+    }
+
+    private static void write(File file, String content) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> priceMap(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("priceMap");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(pm);
+    }
+}
@@ -0,0 +1,89 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopPricingManagerIndexTest extends AbstractEzShopsTest {
+
+    @Test
+    void material_lookup_reuses_snapshot_until_multiplier_changes() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).put(Material.DIAMOND.name(), newEntry(10.0D, 5.0D, 0.10D, 0.05D));
+
+        Optional<ShopPrice> first = pm.getPrice(Material.DIAMOND);
+        assertTrue(first.isPresent());
+        assertSame(first, pm.getPrice(Material.DIAMOND));
+
+        pm.handlePurchase(Material.DIAMOND, 1);
+
+        Optional<ShopPrice> afterPurchase = pm.getPrice(Material.DIAMOND);
+        assertNotSame(first, afterPurchase);
+        assertTrue(afterPurchase.orElseThrow().buyPrice() > first.orElseThrow().buyPrice());
+    }
+
+    @Test
+    void entries_added_after_lookup_are_visible() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).remove(Material.EMERALD.name());
+        assertTrue(pm.getPrice(Material.EMERALD).isEmpty());
+
+        priceMap(pm).put(Material.EMERALD.name(), newEntry(7.0D, 3.0D, 0.0D, 0.0D));
+
+        assertTrue(pm.isConfigured(Material.EMERALD));
+        assertEquals(7.0D, pm.getPrice(Material.EMERALD).orElseThrow().buyPrice(), 1e-9);
+    }
+
+    @Test
+    void dynamic_updates_fall_back_to_lowercase_item_id() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        Map<String, Object> map = priceMap(pm);
+        map.remove(Material.LAPIS_LAZULI.name());
+        map.put("lapis_lazuli", newEntry(10.0D, 5.0D, 0.10D, 0.05D));
+
+        assertTrue(pm.getPrice(Material.LAPIS_LAZULI).isEmpty());
+        double before = pm.getPrice("lapis_lazuli").orElseThrow().buyPrice();
+
+        pm.handlePurchase(Material.LAPIS_LAZULI, 2);
+
+        assertTrue(pm.getPrice("lapis_lazuli").orElseThrow().buyPrice() > before);
+    }
+
+    private ShopPricingManager loadPricingManager() {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        assertNotNull(pm);
+        return pm;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> priceMap(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("priceMap");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(pm);
+    }
+
+    private static Object newEntry(double buy, double sell, double buyChange, double sellChange) throws Exception {
+        Class<?> settingsClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$DynamicSettings");
+        Constructor<?> settingsCtor = settingsClass.getDeclaredConstructor(double.class, double.class, double.class,
+                double.class, double.class);
+        settingsCtor.setAccessible(true);
+        Object settings = settingsCtor.newInstance(1.0D, 0.5D, 2.0D, buyChange, sellChange);
+
+        Class<?> entryClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$PriceEntry");
+        Constructor<?> entryCtor = entryClass.getDeclaredConstructor(ShopPrice.class, settingsClass, double.class);
+        entryCtor.setAccessible(true);
+        return entryCtor.newInstance(new ShopPrice(buy, sell), settings, 1.0D);
+    }
+}
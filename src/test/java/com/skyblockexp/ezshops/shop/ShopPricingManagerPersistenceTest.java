@@ -0,0 +1,77 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.bootstrap.CoreShopComponent;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopPricingManagerPersistenceTest extends AbstractEzShopsTest {
+
+    @Test
+    void shutdown_flushes_pending_dynamic_state() throws Exception {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+
+        CoreShopComponent core = plugin.getCoreShopComponent();
+        assertNotNull(core);
+        ShopPricingManager pm = core.pricingManager();
+        assertNotNull(pm);
+
+        String key = Material.WHEAT_SEEDS.name();
+        assertTrue(pm.getPrice(key).isPresent());
+        assertTrue(changeMultiplier(pm, key, 1.75D));
+
+        pm.shutdown();
+
+        File stateFile = new File(plugin.getDataFolder(), "shop-dynamic.yml");
+        assertTrue(stateFile.exists(), "shutdown should write the dynamic state file");
+        YamlConfiguration saved = YamlConfiguration.loadConfiguration(stateFile);
+        assertEquals(1.75D, saved.getDouble(key), 1e-9);
+    }
+
+    @Test
+    void reload_keeps_pending_dynamic_state() throws Exception {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        String key = Material.WHEAT_SEEDS.name();
+        double base = pm.getPrice(key).orElseThrow().buyPrice();
+        assertTrue(changeMultiplier(pm, key, 2.0D));
+
+        pm.reload();
+
+        assertEquals(base * 2.0D, pm.getPrice(key).orElseThrow().buyPrice(), 1e-6);
+    }
+
+    private boolean changeMultiplier(ShopPricingManager pm, String key, double value) throws Exception {
+        Field f = ShopPricingManager.class.getDeclaredField("priceMap");
+        f.setAccessible(true);
+        Map<?, ?> map = (Map<?, ?>) f.get(pm);
+        Object entry = map.get(key);
+        if (entry == null) {
+            return false;
+        }
+        Class<?> stateClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$MultiplierState");
+        java.lang.reflect.Constructor<?> stateCtor = stateClass.getDeclaredConstructor(double.class, long.class);
+        stateCtor.setAccessible(true);
+        Field m = entry.getClass().getDeclaredField("state");
+        m.setAccessible(true);
+        m.set(entry, stateCtor.newInstance(value, System.currentTimeMillis()));
+        Method save = ShopPricingManager.class.getDeclaredMethod("saveDynamicState", String.class, entry.getClass());
+        save.setAccessible(true);
+        save.invoke(pm, key, entry);
+        return true;
+    }
+}
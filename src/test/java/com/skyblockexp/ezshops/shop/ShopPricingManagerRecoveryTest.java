@@ -0,0 +1,137 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopPricingManagerRecoveryTest extends AbstractEzShopsTest {
+
+    private static final double HALF_LIFE_MILLIS = 60_000.0D;
+
+    @Test
+    void idle_multiplier_recovers_toward_starting_multiplier() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        Object entry = newEntry(HALF_LIFE_MILLIS);
+        priceMap(pm).put(Material.DIAMOND.name(), entry);
+
+        setState(entry, 2.0D, System.currentTimeMillis() - (long) HALF_LIFE_MILLIS);
+
+        // one half-life later the multiplier has covered half the distance back to 1.0
+        assertEquals(15.0D, pm.getPrice(Material.DIAMOND).orElseThrow().buyPrice(), 0.01D);
+    }
+
+    @Test
+    void trade_applies_recovery_before_adjusting_and_persists_timestamp() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        Object entry = newEntry(HALF_LIFE_MILLIS);
+        priceMap(pm).put(Material.DIAMOND.name(), entry);
+
+        setState(entry, 2.0D, System.currentTimeMillis() - (long) HALF_LIFE_MILLIS);
+
+        pm.handlePurchase(Material.DIAMOND, 1);
+
+        assertEquals(1.65D, multiplier(entry), 0.001D);
+
+        Field stateField = ShopPricingManager.class.getDeclaredField("dynamicStateConfiguration");
+        stateField.setAccessible(true);
+        YamlConfiguration state = (YamlConfiguration) stateField.get(pm);
+        assertEquals(multiplier(entry), state.getDouble(Material.DIAMOND.name()), 0.0D);
+        assertTrue(state.getLong("recovery." + Material.DIAMOND.name()) > 0L);
+    }
+
+    @Test
+    void entries_without_half_life_do_not_recover() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        Object entry = newEntry(0.0D);
+        priceMap(pm).put(Material.DIAMOND.name(), entry);
+
+        setState(entry, 2.0D, 0L);
+
+        assertEquals(20.0D, pm.getPrice(Material.DIAMOND).orElseThrow().buyPrice(), 1e-9);
+    }
+
+    @Test
+    void concurrent_trades_on_a_recovering_entry_never_lose_an_update() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        // a half-life this long recovers nothing measurable while the test runs
+        Object entry = newEntry(1.0E15D);
+        priceMap(pm).put(Material.DIAMOND.name(), entry);
+
+        Thread[] traders = new Thread[10];
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        for (int i = 0; i < traders.length; i++) {
+            traders[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                pm.handlePurchase(Material.DIAMOND, 1);
+            });
+            traders[i].start();
+        }
+        start.countDown();
+        for (Thread trader : traders) {
+            trader.join(5_000L);
+        }
+
+        assertEquals(Math.pow(1.1D, traders.length), multiplier(entry), 1e-6);
+    }
+
+    private ShopPricingManager loadPricingManager() {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        ShopPricingManager pm = plugin.getCoreShopComponent().pricingManager();
+        assertNotNull(pm);
+        return pm;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> priceMap(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("priceMap");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(pm);
+    }
+
+    private static Object newEntry(double halfLifeMillis) throws Exception {
+        Class<?> settingsClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$DynamicSettings");
+        Constructor<?> settingsCtor = settingsClass.getDeclaredConstructor(double.class, double.class, double.class,
+                double.class, double.class, double.class);
+        settingsCtor.setAccessible(true);
+        Object settings = settingsCtor.newInstance(1.0D, 0.5D, 3.0D, 0.10D, 0.05D, halfLifeMillis);
+
+        Class<?> entryClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$PriceEntry");
+        Constructor<?> entryCtor = entryClass.getDeclaredConstructor(ShopPrice.class, settingsClass, double.class);
+        entryCtor.setAccessible(true);
+        return entryCtor.newInstance(new ShopPrice(10.0D, 5.0D), settings, 1.0D);
+    }
+
+    private static void setState(Object entry, double multiplier, long touchedAt) throws Exception {
+        Class<?> stateClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$MultiplierState");
+        Constructor<?> stateCtor = stateClass.getDeclaredConstructor(double.class, long.class);
+        stateCtor.setAccessible(true);
+        Field field = entry.getClass().getDeclaredField("state");
+        field.setAccessible(true);
+        field.set(entry, stateCtor.newInstance(multiplier, touchedAt));
+    }
+
+    private static double multiplier(Object entry) throws Exception {
+        Field field = entry.getClass().getDeclaredField("state");
+        field.setAccessible(true);
+        Object state = field.get(entry);
+        Method accessor = state.getClass().getDeclaredMethod("multiplier");
+        accessor.setAccessible(true);
+        return (double) accessor.invoke(state);
+    }
+}
@@ -0,0 +1,143 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.EzShopsPlugin;
+import com.skyblockexp.ezshops.gui.shop.ShopTransactionType;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShopPricingManagerSettlementTest extends AbstractEzShopsTest {
+
+    @Test
+    void basket_is_priced_from_the_multipliers_it_moves() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        Map<String, Object> priceMap = priceMap(pm);
+        priceMap.put("settle_a", dynamicEntry(new ShopPrice(20.0D, 10.0D), 0.1D));
+        priceMap.put("settle_b", dynamicEntry(new ShopPrice(8.0D, 4.0D), 0.05D));
+        priceMap.put("settle_static", staticEntry(new ShopPrice(3.0D, 1.5D)));
+
+        double expectedA = pm.estimateBulkTotal("settle_a", 5, ShopTransactionType.SELL);
+        double expectedB = pm.estimateBulkTotal("settle_b", 3, ShopTransactionType.SELL);
+        double sellBeforeA = pm.getPrice("settle_a").orElseThrow().sellPrice();
+
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        basket.put("settle_a", 5);
+        basket.put("settle_missing", 2);
+        basket.put("settle_b", 3);
+        basket.put("settle_static", 4);
+        ShopSaleQuote quote = pm.settleSales(basket);
+
+        assertEquals(3, quote.lines().size());
+        assertFalse(quote.contains("settle_missing"));
+        assertEquals(expectedA, quote.lines().get("settle_a"), 1e-9);
+        assertEquals(expectedB, quote.lines().get("settle_b"), 1e-9);
+        assertEquals(6.0D, quote.lines().get("settle_static"), 1e-9);
+        assertEquals(expectedA + expectedB + 6.0D, quote.total(), 1e-6);
+        assertTrue(pm.getPrice("settle_a").orElseThrow().sellPrice() < sellBeforeA);
+
+        // both moved multipliers are written to the dynamic state in the same settlement
+        YamlConfiguration state = dynamicState(pm);
+        assertTrue(state.isSet("settle_a"));
+        assertTrue(state.isSet("settle_b"));
+        assertFalse(state.isSet("settle_static"));
+    }
+
+    @Test
+    void unsellable_and_empty_lines_are_left_untouched() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).put("settle_buy_only", dynamicEntry(new ShopPrice(20.0D, -1.0D), 0.1D));
+        double buyBefore = pm.getPrice("settle_buy_only").orElseThrow().buyPrice();
+
+        ShopSaleQuote quote = pm.settleSales(Map.of("settle_buy_only", 4));
+
+        assertTrue(quote.isEmpty());
+        assertEquals(0.0D, quote.total());
+        assertEquals(buyBefore, pm.getPrice("settle_buy_only").orElseThrow().buyPrice(), 1e-9);
+        assertTrue(pm.settleSales(Map.of()).isEmpty());
+    }
+
+    @Test
+    void reverting_a_settled_basket_restores_its_prices() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).put("settle_a", dynamicEntry(new ShopPrice(20.0D, 10.0D), 0.1D));
+        double sellBefore = pm.getPrice("settle_a").orElseThrow().sellPrice();
+
+        pm.revertSales(pm.settleSales(Map.of("settle_a", 3)));
+
+        assertEquals(sellBefore, pm.getPrice("settle_a").orElseThrow().sellPrice());
+    }
+
+    @Test
+    void reverting_a_sale_that_hit_the_minimum_restores_its_price() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).put("settle_a", dynamicEntry(new ShopPrice(20.0D, 10.0D), 0.05D));
+        double sellBefore = pm.getPrice("settle_a").orElseThrow().sellPrice();
+
+        ShopSaleQuote quote = pm.settleSales(Map.of("settle_a", 64));
+        assertEquals(2.5D, pm.getPrice("settle_a").orElseThrow().sellPrice());
+        pm.revertSales(quote);
+
+        assertEquals(sellBefore, pm.getPrice("settle_a").orElseThrow().sellPrice());
+    }
+
+    @Test
+    void reverting_a_clamped_sale_keeps_later_trades() throws Exception {
+        ShopPricingManager pm = loadPricingManager();
+        priceMap(pm).put("settle_a", dynamicEntry(new ShopPrice(20.0D, 10.0D), 0.05D));
+
+        ShopSaleQuote quote = pm.settleSales(Map.of("settle_a", 64));
+        pm.handlePurchase("settle_a", 1);
+        pm.revertSales(quote);
+
+        // the sale moved the multiplier from 1.0 to the 0.25 minimum; the purchase then moved it to 0.275
+        assertEquals(10.25D, pm.getPrice("settle_a").orElseThrow().sellPrice());
+    }
+
+    private ShopPricingManager loadPricingManager() {
+        loadProviderPlugin(mock(Economy.class));
+        EzShopsPlugin plugin = loadPlugin(EzShopsPlugin.class);
+        return plugin.getCoreShopComponent().pricingManager();
+    }
+
+    private static Object dynamicEntry(ShopPrice price, double sellChange) throws Exception {
+        Class<?> dynClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$DynamicSettings");
+        Constructor<?> dynCtor = dynClass.getDeclaredConstructor(double.class, double.class, double.class,
+                double.class, double.class);
+        dynCtor.setAccessible(true);
+        return newEntry(price, dynCtor.newInstance(1.0D, 0.25D, 4.0D, 0.1D, sellChange), dynClass);
+    }
+
+    private static Object staticEntry(ShopPrice price) throws Exception {
+        return newEntry(price, null,
+                Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$DynamicSettings"));
+    }
+
+    private static Object newEntry(ShopPrice price, Object settings, Class<?> dynClass) throws Exception {
+        Class<?> entryClass = Class.forName("com.skyblockexp.ezshops.shop.ShopPricingManager$PriceEntry");
+        Constructor<?> entryCtor = entryClass.getDeclaredConstructor(ShopPrice.class, dynClass, double.class);
+        entryCtor.setAccessible(true);
+        return entryCtor.newInstance(price, settings, 1.0D);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> priceMap(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("priceMap");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(pm);
+    }
+
+    private static YamlConfiguration dynamicState(ShopPricingManager pm) throws Exception {
+        Field field = ShopPricingManager.class.getDeclaredField("dynamicStateConfiguration");
+        field.setAccessible(true);
+        return (YamlConfiguration) field.get(pm);
+    }
+}
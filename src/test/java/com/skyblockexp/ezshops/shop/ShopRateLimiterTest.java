@@ -0,0 +1,164 @@
+package com.skyblockexp.ezshops.shop;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.ledger.LedgerEntry;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShopRateLimiterTest extends AbstractEzShopsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final AtomicLong clock = new AtomicLong(-5L * SECOND);
+    private Plugin plugin;
+
+    @BeforeEach
+    void setUp() {
+        plugin = MockBukkit.createMockPlugin();
+    }
+
+    @Test
+    void a_burst_passes_and_then_tokens_refill_at_the_configured_rate() {
+        // 2 per second with a burst of 3
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.REJECT, SECOND / 2, 3);
+        UUID player = UUID.randomUUID();
+
+        assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+        assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+        assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+        assertFalse(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+        assertEquals(SECOND / 2, limiter.nanosUntilAvailable(player, ShopRateLimiter.Action.BUY));
+
+        // other players and other actions have their own buckets
+        assertTrue(limiter.tryAcquire(UUID.randomUUID(), ShopRateLimiter.Action.BUY));
+        assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.SELL));
+
+        clock.addAndGet(SECOND / 2);
+        assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+        assertFalse(limiter.tryAcquire(player, ShopRateLimiter.Action.BUY));
+    }
+
+    @Test
+    void actions_without_a_rate_are_never_limited() {
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.REJECT, SECOND, 1);
+        UUID player = UUID.randomUUID();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(player, ShopRateLimiter.Action.PLAYER_SHOP));
+        }
+        assertEquals(0, limiter.trackedPlayers());
+    }
+
+    @Test
+    void concurrent_callers_never_get_more_than_the_burst() throws Exception {
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.REJECT, SECOND, 50);
+        UUID player = UUID.randomUUID();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            for (int i = 0; i < 400; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (limiter.tryAcquire(player, ShopRateLimiter.Action.BUY)) {
+                        granted.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void full_buckets_are_purged() {
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.REJECT, SECOND, 2);
+        UUID idle = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        limiter.tryAcquire(idle, ShopRateLimiter.Action.BUY);
+        clock.addAndGet(SECOND);
+        limiter.tryAcquire(busy, ShopRateLimiter.Action.BUY);
+
+        limiter.purgeIdle();
+
+        assertEquals(1, limiter.trackedPlayers());
+        // the busy player keeps what is left of their burst
+        assertTrue(limiter.tryAcquire(busy, ShopRateLimiter.Action.BUY));
+        assertFalse(limiter.tryAcquire(busy, ShopRateLimiter.Action.BUY));
+    }
+
+    @Test
+    void refused_trades_are_merged_into_one_once_a_token_is_free() {
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.MERGE, SECOND, 1);
+        Player player = server.addPlayer();
+        ShopRateLimiter.MergeKey key = new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.BUY,
+                LedgerEntry.Source.SIGN_SHOP, LedgerEntry.Side.BUY, Material.STONE, null);
+        List<Integer> runs = new ArrayList<>();
+        assertTrue(limiter.tryAcquire(player.getUniqueId(), ShopRateLimiter.Action.BUY));
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(limiter.tryAcquire(player.getUniqueId(), ShopRateLimiter.Action.BUY));
+            limiter.merge(player, key, 16, (who, merged, amount) -> runs.add(amount));
+        }
+        server.getScheduler().performOneTick();
+        assertTrue(runs.isEmpty());
+
+        clock.addAndGet(SECOND);
+        server.getScheduler().performTicks(20L);
+
+        assertEquals(List.of(80), runs);
+        assertFalse(limiter.tryAcquire(player.getUniqueId(), ShopRateLimiter.Action.BUY));
+    }
+
+    @Test
+    void merged_trades_run_on_shutdown() {
+        ShopRateLimiter limiter = limiter(ShopRateLimiter.Mode.MERGE, SECOND, 1);
+        Player player = server.addPlayer();
+        ShopRateLimiter.MergeKey key = new ShopRateLimiter.MergeKey(ShopRateLimiter.Action.SELL_INVENTORY,
+                LedgerEntry.Source.SHOP, LedgerEntry.Side.SELL, null, null);
+        AtomicInteger runs = new AtomicInteger();
+        limiter.tryAcquire(player.getUniqueId(), ShopRateLimiter.Action.SELL_INVENTORY);
+        limiter.merge(player, key, 0, (who, merged, amount) -> runs.incrementAndGet());
+        limiter.merge(player, key, 0, (who, merged, amount) -> runs.incrementAndGet());
+
+        limiter.flushMerged();
+
+        assertEquals(1, runs.get());
+    }
+
+    private ShopRateLimiter limiter(ShopRateLimiter.Mode mode, long interval, int burst) {
+        long[] intervals = new long[ShopRateLimiter.Action.values().length];
+        long[] tolerances = new long[intervals.length];
+        for (ShopRateLimiter.Action action : ShopRateLimiter.Action.values()) {
+            if (action != ShopRateLimiter.Action.PLAYER_SHOP) {
+                intervals[action.ordinal()] = interval;
+                tolerances[action.ordinal()] = interval * (burst - 1L);
+            }
+        }
+        return new ShopRateLimiter(mode, intervals, tolerances, plugin, clock::get);
+    }
+}
@@ -94,6 +94,9 @@ public class ShopRotationFeatureTest extends AbstractEzShopsTest {
         when(pricingManager.isPartOfRotation(Material.IRON_INGOT)).thenReturn(false);
         when(pricingManager.getPrice(eq(Material.IRON_INGOT))).thenReturn(Optional.of(priceIron));
         when(pricingManager.estimateBulkTotal(eq(Material.IRON_INGOT), eq(3), any())).thenReturn(6.0);
+        // the sale is paid what settling the basket returns
+        when(pricingManager.settleSales(eq(java.util.Map.of("IRON_INGOT", 3))))
+                .thenReturn(new ShopSaleQuote(java.util.Map.of("IRON_INGOT", 6.0), 6.0));
 
         when(econ.depositPlayer((org.bukkit.OfflinePlayer) any(), anyDouble())).thenReturn(new EconomyResponse(0.0, 0.0, EconomyResponse.ResponseType.SUCCESS, "ok"));
 
@@ -81,6 +81,7 @@ public class ShopTransactionHookFeatureTest extends AbstractEzShopsTest {
         ShopPrice price = new ShopPrice(10.0, 5.0);
         when(pricingManager.getPrice(eq("DIAMOND"))).thenReturn(Optional.of(price));
         when(pricingManager.estimateBulkTotal(eq("DIAMOND"), eq(3), any())).thenReturn(15.0);
+        when(pricingManager.settleSales(eq(Map.of("DIAMOND", 3)))).thenReturn(new ShopSaleQuote(Map.of("DIAMOND", 15.0), 15.0));
 
         when(econ.depositPlayer((org.bukkit.OfflinePlayer) any(), anyDouble())).thenReturn(new EconomyResponse(0.0, 0.0, EconomyResponse.ResponseType.SUCCESS, "ok"));
 
@@ -0,0 +1,138 @@
+package com.skyblockexp.ezshops.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockCandleStoreTest {
+
+    private static final long MINUTE = StockCandleStore.Resolution.MINUTE.millis();
+    private static final long HOUR = StockCandleStore.Resolution.HOUR.millis();
+    private static final long DAY = StockCandleStore.Resolution.DAY.millis();
+    private static final long T0 = 20_000L * DAY;
+
+    @TempDir
+    Path dataFolder;
+
+    @Test
+    void prices_are_aggregated_at_every_resolution() {
+        StockCandleStore store = StockCandleStore.inMemory();
+        store.record("DIAMOND", T0 + 1_000L, 100.0, 2);
+        store.record("DIAMOND", T0 + 2_000L, 110.0, 1);
+        store.record("DIAMOND", T0 + 3_000L, 95.0, 4);
+        store.record("DIAMOND", T0 + MINUTE, 105.0, 3);
+
+        List<StockCandle> minutes = store.candles("DIAMOND", StockCandleStore.Resolution.MINUTE, T0, T0 + HOUR);
+        assertEquals(List.of(
+                new StockCandle(T0, 100.0, 110.0, 95.0, 95.0, 7),
+                new StockCandle(T0 + MINUTE, 105.0, 105.0, 105.0, 105.0, 3)), minutes);
+        assertEquals(List.of(new StockCandle(T0, 100.0, 110.0, 95.0, 105.0, 10)),
+                store.newest("diamond", StockCandleStore.Resolution.HOUR, 0, 10));
+        assertEquals(1, store.count("DIAMOND", StockCandleStore.Resolution.DAY));
+        assertFalse(minutes.get(0).isRising());
+    }
+
+    @Test
+    void each_resolution_keeps_its_own_window_and_range_queries_are_bounded() {
+        StockCandleStore store = new StockCandleStore(null, null, 60, 48, 10);
+        for (int minute = 0; minute < 3 * 24 * 60; minute++) {
+            store.record("IRON_INGOT", T0 + minute * MINUTE, 10.0 + minute, 1);
+        }
+
+        assertEquals(60, store.count("IRON_INGOT", StockCandleStore.Resolution.MINUTE));
+        assertEquals(48, store.count("IRON_INGOT", StockCandleStore.Resolution.HOUR));
+        assertEquals(3, store.count("IRON_INGOT", StockCandleStore.Resolution.DAY));
+
+        // the first day is gone from the minute and hour windows but still covered by its day candle
+        assertTrue(store.candles("IRON_INGOT", StockCandleStore.Resolution.MINUTE, T0, T0 + DAY).isEmpty());
+        List<StockCandle> days = store.candles("IRON_INGOT", StockCandleStore.Resolution.DAY, T0, T0 + DAY - 1);
+        assertEquals(1, days.size());
+        assertEquals(24 * 60, days.get(0).volume());
+
+        List<StockCandle> hours = store.candles("IRON_INGOT", StockCandleStore.Resolution.HOUR,
+                T0 + 2 * DAY + 90 * MINUTE, T0 + 2 * DAY + 3 * HOUR);
+        assertEquals(List.of(T0 + 2 * DAY + HOUR, T0 + 2 * DAY + 2 * HOUR, T0 + 2 * DAY + 3 * HOUR),
+                hours.stream().map(StockCandle::start).toList());
+        assertEquals(List.of(T0 + 3 * DAY - 2 * HOUR),
+                store.newest("IRON_INGOT", StockCandleStore.Resolution.HOUR, 1, 1).stream()
+                        .map(StockCandle::start).toList());
+    }
+
+    @Test
+    void series_grow_while_filling_and_keep_their_order() {
+        StockCandleStore store = new StockCandleStore(null, null, 20, 20, 20);
+        for (int minute = 0; minute < 13; minute++) {
+            store.record("GOLD_INGOT", T0 + minute * MINUTE, 10.0 + minute, 1);
+        }
+        List<StockCandle> partial = store.candles("GOLD_INGOT", StockCandleStore.Resolution.MINUTE, T0, T0 + HOUR);
+        assertEquals(13, partial.size());
+        for (int i = 0; i < partial.size(); i++) {
+            assertEquals(T0 + i * MINUTE, partial.get(i).start());
+        }
+
+        for (int minute = 13; minute < 30; minute++) {
+            store.record("GOLD_INGOT", T0 + minute * MINUTE, 10.0 + minute, 1);
+        }
+        List<StockCandle> newest = store.newest("GOLD_INGOT", StockCandleStore.Resolution.MINUTE, 0, 50);
+        assertEquals(20, newest.size());
+        assertEquals(T0 + 29 * MINUTE, newest.get(0).start());
+        assertEquals(T0 + 10 * MINUTE, newest.get(19).start());
+    }
+
+    @Test
+    void candles_survive_a_restart_and_open_candles_continue() {
+        File file = dataFolder.resolve("stock-candles.bin").toFile();
+        StockCandleStore store = persistent(file);
+        store.load();
+        store.record("GOLD_INGOT", T0, 50.0, 1);
+        store.record("GOLD_INGOT", T0 + MINUTE, 60.0, 1);
+        store.flush();
+        store.record("GOLD_INGOT", T0 + MINUTE + 1, 55.0, 1);
+        store.close();
+
+        StockCandleStore reloaded = persistent(file);
+        reloaded.load();
+        reloaded.record("GOLD_INGOT", T0 + MINUTE + 2, 70.0, 1);
+
+        assertEquals(List.of(
+                new StockCandle(T0, 50.0, 50.0, 50.0, 50.0, 1),
+                new StockCandle(T0 + MINUTE, 60.0, 70.0, 55.0, 70.0, 3)),
+                reloaded.candles("GOLD_INGOT", StockCandleStore.Resolution.MINUTE, T0, T0 + HOUR));
+        assertEquals(new StockCandle(T0, 50.0, 70.0, 50.0, 70.0, 4),
+                reloaded.newest("GOLD_INGOT", StockCandleStore.Resolution.DAY, 0, 1).get(0));
+    }
+
+    @Test
+    void a_record_cut_short_by_a_crash_is_dropped() throws Exception {
+        File file = dataFolder.resolve("stock-candles.bin").toFile();
+        StockCandleStore store = persistent(file);
+        store.record("EMERALD", T0, 20.0, 1);
+        store.record("EMERALD", T0 + DAY, 30.0, 1);
+        store.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        StockCandleStore reloaded = persistent(file);
+        reloaded.load();
+        reloaded.record("EMERALD", T0 + 2 * DAY, 40.0, 1);
+        reloaded.close();
+
+        StockCandleStore again = persistent(file);
+        again.load();
+        List<StockCandle> days = again.newest("EMERALD", StockCandleStore.Resolution.DAY, 0, 10);
+        assertEquals(T0 + 2 * DAY, days.get(0).start());
+        assertTrue(days.stream().anyMatch(candle -> candle.start() == T0));
+    }
+
+    private static StockCandleStore persistent(File file) {
+        return new StockCandleStore(file, Logger.getLogger("test"), 1440, 720, 365);
+    }
+}
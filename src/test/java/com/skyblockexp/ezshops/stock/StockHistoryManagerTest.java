@@ -3,6 +3,7 @@ package com.skyblockexp.ezshops.stock;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,4 +23,79 @@ public class StockHistoryManagerTest {
         // newest price should be last
         assertEquals(100.0 + 59, history.get(history.size() - 1).price, 0.0001);
     }
+
+    @Test
+    void ring_pages_newest_first_and_keeps_configured_depth() {
+        StockHistoryManager mgr = new StockHistoryManager(10);
+        for (int i = 0; i < 25; i++) {
+            mgr.recordPrice("DIAMOND", i, 100.0 + i);
+        }
+
+        StockHistoryManager.PriceHistory history = mgr.history("diamond");
+        assertEquals(10, history.size());
+        long[] timestamps = new long[4];
+        double[] prices = new double[4];
+
+        assertEquals(4, history.readNewest(0, timestamps, prices));
+        assertArrayEquals(new long[] { 24, 23, 22, 21 }, timestamps);
+        assertEquals(4, history.readNewest(4, timestamps, prices));
+        assertEquals(120.0, prices[0], 0.0001);
+        assertEquals(2, history.readNewest(8, timestamps, prices));
+        assertArrayEquals(new long[] { 16, 15 }, java.util.Arrays.copyOf(timestamps, 2));
+        assertEquals(0, history.readNewest(10, timestamps, prices));
+        assertSame(StockHistoryManager.PriceHistory.EMPTY, mgr.history("EMERALD"));
+    }
+
+    @Test
+    void a_full_wrapped_ring_is_read_in_one_pass() {
+        StockHistoryManager mgr = new StockHistoryManager(10);
+        for (int i = 0; i < 25; i++) {
+            mgr.recordPrice("DIAMOND", i, 100.0 + i);
+        }
+        StockHistoryManager.PriceHistory history = mgr.history("DIAMOND");
+        long[] timestamps = new long[16];
+        double[] prices = new double[16];
+
+        int read = assertTimeoutPreemptively(java.time.Duration.ofSeconds(5),
+                () -> history.readNewest(0, timestamps, prices));
+
+        assertEquals(10, read);
+        assertEquals(24L, timestamps[0]);
+        assertEquals(15L, timestamps[9]);
+        assertEquals(115.0, prices[9], 0.0001);
+        List<StockHistoryManager.PriceEntry> copy = assertTimeoutPreemptively(java.time.Duration.ofSeconds(5),
+                () -> mgr.getHistory("DIAMOND"));
+        assertEquals(10, copy.size());
+        assertEquals(15L, copy.get(0).timestamp);
+    }
+
+    @Test
+    void readers_never_see_torn_or_mixed_entries_while_a_writer_appends() throws Exception {
+        StockHistoryManager mgr = new StockHistoryManager(8);
+        mgr.recordPrice("GOLD_INGOT", 0L, 0.0);
+        StockHistoryManager.PriceHistory history = mgr.history("GOLD_INGOT");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long i = 1; running.get(); i++) {
+                mgr.recordPrice("GOLD_INGOT", i, i);
+            }
+        });
+        writer.start();
+        try {
+            long[] timestamps = new long[5];
+            double[] prices = new double[5];
+            for (int round = 0; round < 200_000; round++) {
+                int read = history.readNewest(round % 4, timestamps, prices);
+                for (int i = 0; i < read; i++) {
+                    assertEquals(timestamps[i], (long) prices[i]);
+                    if (i > 0) {
+                        assertEquals(timestamps[i - 1] - 1, timestamps[i]);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
 }
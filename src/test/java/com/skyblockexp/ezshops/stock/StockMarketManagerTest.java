@@ -75,4 +75,77 @@ public class StockMarketManagerTest extends AbstractEzShopsTest {
         double after = mgr.getPrice("DIAMOND");
         assertEquals(before, after, 0.0001, "Frozen item should not have its price updated");
     }
+
+    @Test
+    void commit_charges_the_current_total_and_moves_the_price() {
+        StockMarketManager mgr = new StockMarketManager();
+        mgr.setPrice("DIAMOND", 100.0);
+        StockQuote quote = mgr.quote("DIAMOND", 3, ShopTransactionType.BUY);
+        double[] charged = new double[1];
+
+        StockTrade trade = mgr.commit(quote, total -> {
+            charged[0] = total;
+            return true;
+        });
+
+        assertEquals(StockTrade.Status.COMPLETED, trade.status());
+        assertEquals(quote.total(), trade.total(), 0.0001);
+        assertEquals(trade.total(), charged[0], 0.0001);
+        assertNotEquals(100.0, mgr.getPrice("DIAMOND"));
+        assertEquals(StockTrade.Status.ALREADY_COMMITTED, mgr.commit(quote, total -> true).status());
+    }
+
+    @Test
+    void commit_rejects_slippage_beyond_the_tolerance_and_declined_settlements() {
+        StockMarketManager mgr = new StockMarketManager();
+        mgr.setMaxSlippage(0.05);
+        mgr.setPrice("DIAMOND", 100.0);
+        StockQuote small = mgr.quote("DIAMOND", 1, ShopTransactionType.BUY);
+        StockQuote large = mgr.quote("DIAMOND", 1, ShopTransactionType.BUY);
+        StockQuote sale = mgr.quote("DIAMOND", 1, ShopTransactionType.SELL);
+
+        mgr.setPrice("DIAMOND", 104.0);
+        assertEquals(StockTrade.Status.DECLINED, mgr.commit(small, total -> false).status());
+        assertEquals(104.0, mgr.getPrice("DIAMOND"), 0.0001, "A declined trade must not move the price");
+
+        mgr.setPrice("DIAMOND", 110.0);
+        StockTrade rejected = mgr.commit(large, total -> fail("Settlement must not run"));
+        assertEquals(StockTrade.Status.SLIPPAGE, rejected.status());
+        assertEquals(110.0, rejected.total(), 0.0001);
+        // a price that moved in the seller's favour is fine
+        assertEquals(StockTrade.Status.COMPLETED, mgr.commit(sale, total -> true).status());
+    }
+
+    @Test
+    void settlement_runs_unlocked_and_a_declined_trade_keeps_moves_made_meanwhile() throws Exception {
+        StockMarketManager mgr = new StockMarketManager();
+        mgr.setPrice("DIAMOND", 100.0);
+        StockQuote quote = mgr.quote("DIAMOND", 4, ShopTransactionType.BUY);
+
+        StockTrade trade = mgr.commit(quote, total -> {
+            // another trader of the same stock must not wait for this economy call
+            Thread other = new Thread(() -> mgr.setPrice("DIAMOND", 2 * mgr.getPrice("DIAMOND")));
+            other.start();
+            try {
+                other.join(5_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse(other.isAlive(), "Settlement must not hold the product lock");
+            return false;
+        });
+
+        assertEquals(StockTrade.Status.DECLINED, trade.status());
+        assertEquals(200.0, mgr.getPrice("DIAMOND"), 0.0001);
+    }
+
+    @Test
+    void expired_quotes_are_not_committed() {
+        StockMarketManager mgr = new StockMarketManager();
+        mgr.setQuoteLifetimeMillis(0L);
+        StockQuote quote = mgr.quote("DIAMOND", 1, ShopTransactionType.BUY);
+
+        assertEquals(StockTrade.Status.EXPIRED, mgr.commit(quote, total -> true).status());
+        assertThrows(IllegalArgumentException.class, () -> mgr.quote("DIAMOND", 0, ShopTransactionType.BUY));
+    }
 }
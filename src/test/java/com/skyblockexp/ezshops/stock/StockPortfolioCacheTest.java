@@ -0,0 +1,122 @@
+package com.skyblockexp.ezshops.stock;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockPortfolioCacheTest extends AbstractEzShopsTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void changes_are_written_straight_away_until_started() {
+        StockPortfolioCache cache = cache();
+        UUID player = UUID.randomUUID();
+
+        assertTrue(cache.add(player, "diamond", 5));
+
+        assertEquals(5, YamlConfiguration.loadConfiguration(file(player)).getInt("DIAMOND"));
+    }
+
+    @Test
+    void started_cache_writes_behind_and_reads_from_memory() {
+        StockPortfolioCache cache = cache();
+        cache.start(MockBukkit.createMockPlugin(), 600L);
+        Player player = server.addPlayer();
+        UUID id = player.getUniqueId();
+
+        assertTrue(cache.add(id, "DIAMOND", 5));
+        assertTrue(cache.add(id, "IRON_INGOT", 2));
+        assertTrue(cache.remove(id, "IRON_INGOT", 2));
+        assertFalse(file(id).exists());
+        assertEquals(List.of("DIAMOND"), cache.owned(id));
+
+        cache.flush();
+        assertEquals(5, YamlConfiguration.loadConfiguration(file(id)).getInt("DIAMOND"));
+        // the player is online, so their portfolio stays cached
+        assertEquals(1, cache.cachedPortfolios());
+
+        cache.add(id, "DIAMOND", 1);
+        cache.close();
+        assertEquals(6, cache().amount(id, "diamond"));
+    }
+
+    @Test
+    void offline_portfolios_are_dropped_once_written() {
+        StockPortfolioCache cache = cache();
+        cache.start(MockBukkit.createMockPlugin(), 600L);
+        UUID offline = UUID.randomUUID();
+        cache.add(offline, "EMERALD", 3);
+
+        cache.flush();
+
+        assertEquals(0, cache.cachedPortfolios());
+        assertEquals(3, cache.amount(offline, "EMERALD"));
+        assertTrue(cache.remove(offline, "EMERALD", 3));
+        cache.close();
+        assertTrue(cache().owned(offline).isEmpty());
+    }
+
+    @Test
+    void concurrent_removals_never_take_more_than_is_held() throws Exception {
+        StockPortfolioCache cache = cache();
+        cache.start(MockBukkit.createMockPlugin(), 600L);
+        UUID player = UUID.randomUUID();
+        cache.add(player, "GOLD_INGOT", 100);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger removed = new AtomicInteger();
+        try {
+            for (int i = 0; i < 400; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (cache.remove(player, "GOLD_INGOT", 1)) {
+                        removed.incrementAndGet();
+                    }
+                    if (removed.get() % 16 == 0) {
+                        cache.flush();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(100, removed.get());
+        assertEquals(0, cache.amount(player, "GOLD_INGOT"));
+        cache.close();
+    }
+
+    private StockPortfolioCache cache() {
+        return new StockPortfolioCache(folder.toFile(), Logger.getLogger("test"));
+    }
+
+    private File file(UUID player) {
+        return new File(folder.toFile(), player + ".yml");
+    }
+}
@@ -0,0 +1,81 @@
+package com.skyblockexp.ezshops.util;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import com.skyblockexp.ezshops.Benchmarks;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares encoding and decoding a chest worth of items with Bukkit object streams, the format
+ * {@link ItemStackSerializers#toBase64(ItemStack)} writes, against {@link ItemStackCodec}. Excluded from the default
+ * build; run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class ItemStackCodecBenchmark extends AbstractEzShopsTest {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 10_000;
+
+    @Test
+    void chest_of_items() throws Exception {
+        List<ItemStack> items = new ArrayList<>();
+        for (int slot = 0; slot < 27; slot++) {
+            items.add(switch (slot % 3) {
+                case 0 -> new ItemStack(Material.COBBLESTONE, 64);
+                case 1 -> ItemStackCodecTest.named(Material.GOLDEN_APPLE, "Lucky Apple");
+                default -> ItemStackCodecTest.named(Material.DIAMOND_PICKAXE, "Miner's Friend");
+            });
+        }
+
+        byte[] legacy = legacyEncode(items);
+        byte[] compact = ItemStackCodec.encodeAll(items);
+        assertEquals(items, legacyDecode(legacy));
+        assertEquals(items, ItemStackCodec.decodeAll(compact));
+
+        double legacyEncode = measure(() -> legacyEncode(items).length);
+        double compactEncode = measure(() -> ItemStackCodec.encodeAll(items).length);
+        double legacyDecode = measure(() -> legacyDecode(legacy).size());
+        double compactDecode = measure(() -> ItemStackCodec.decodeAll(compact).size());
+        Benchmarks.report(getClass(), "Item encoding: object stream %d bytes, %.0f encodes/s, %.0f decodes/s; "
+                        + "codec %d bytes, %.0f encodes/s, %.0f decodes/s",
+                legacy.length, legacyEncode, legacyDecode, compact.length, compactEncode, compactDecode);
+    }
+
+    private static byte[] legacyEncode(List<ItemStack> items) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeInt(items.size());
+            for (ItemStack item : items) {
+                out.writeObject(item);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ItemStack> legacyDecode(byte[] data) throws IOException, ClassNotFoundException {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+            int size = in.readInt();
+            List<ItemStack> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add((ItemStack) in.readObject());
+            }
+            return items;
+        }
+    }
+
+    private static double measure(Benchmarks.Round round) throws Exception {
+        return Benchmarks.roundsPerSecond(WARMUP_ROUNDS, MEASURED_ROUNDS, round);
+    }
+}
@@ -0,0 +1,106 @@
+package com.skyblockexp.ezshops.util;
+
+import com.skyblockexp.ezshops.AbstractEzShopsTest;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemStackCodecTest extends AbstractEzShopsTest {
+
+    @Test
+    void plain_items_round_trip_in_a_few_bytes() throws Exception {
+        ItemStack original = new ItemStack(Material.DIAMOND, 3);
+
+        byte[] data = ItemStackCodec.encode(original);
+
+        assertTrue(ItemStackCodec.isEncoded(data));
+        assertTrue(data.length < 20, "encoded size " + data.length);
+        assertEquals(original, ItemStackCodec.decode(data));
+    }
+
+    @Test
+    void items_with_meta_round_trip() throws Exception {
+        ItemStack original = named(Material.DIAMOND_SWORD, "Excalibur");
+        original.addUnsafeEnchantment(Enchantment.SHARPNESS, 5);
+
+        ItemStack decoded = ItemStackCodec.decode(ItemStackCodec.encode(original));
+
+        assertTrue(original.isSimilar(decoded));
+        assertEquals(5, decoded.getEnchantmentLevel(Enchantment.SHARPNESS));
+    }
+
+    @Test
+    void lists_keep_positions_and_store_repeated_items_once() throws Exception {
+        ItemStack named = named(Material.GOLDEN_APPLE, "Lucky Apple");
+        List<ItemStack> items = new ArrayList<>();
+        for (int slot = 0; slot < 27; slot++) {
+            ItemStack copy = named.clone();
+            copy.setAmount(1 + slot % 16);
+            items.add(slot % 9 == 4 ? null : copy);
+        }
+        items.set(0, new ItemStack(Material.AIR));
+
+        byte[] single = ItemStackCodec.encode(named);
+        byte[] all = ItemStackCodec.encodeAll(items);
+        List<ItemStack> decoded = ItemStackCodec.decodeAll(all);
+
+        // one palette entry plus two or three bytes per slot
+        assertTrue(all.length < single.length + 3 * items.size(), "encoded size " + all.length);
+        assertEquals(items.size(), decoded.size());
+        assertNull(decoded.get(0));
+        for (int slot = 1; slot < items.size(); slot++) {
+            assertEquals(items.get(slot), decoded.get(slot), "slot " + slot);
+        }
+        decoded.get(1).setAmount(64);
+        assertEquals(3, decoded.get(2).getAmount());
+    }
+
+    @Test
+    void base64_reads_both_formats_and_writes_the_legacy_one() throws Exception {
+        ItemStack original = new ItemStack(Material.EMERALD, 7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        String legacy = Base64.getEncoder().encodeToString(bytes.toByteArray());
+        String compact = Base64.getEncoder().encodeToString(ItemStackCodec.encode(original));
+
+        assertEquals(original, ItemStackSerializers.fromBase64(legacy));
+        assertEquals(original, ItemStackSerializers.fromBase64(compact));
+        assertTrue(compact.length() < legacy.length());
+        // older versions only read object streams
+        assertFalse(ItemStackCodec.isEncoded(Base64.getDecoder().decode(ItemStackSerializers.toBase64(original))));
+    }
+
+    @Test
+    void corrupt_data_is_rejected() throws Exception {
+        byte[] data = ItemStackCodec.encode(new ItemStack(Material.DIAMOND, 3));
+
+        assertThrows(IOException.class, () -> ItemStackCodec.decode(Arrays.copyOf(data, data.length - 1)));
+        byte[] wrongVersion = data.clone();
+        wrongVersion[2] = 99;
+        assertThrows(IOException.class, () -> ItemStackCodec.decode(wrongVersion));
+        assertThrows(IOException.class, () -> ItemStackCodec.decodeAll(new byte[] { 1, 2, 3 }));
+    }
+
+    static ItemStack named(Material material, String name) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        meta.setLore(List.of("Found in the shop", "Sold by the stack"));
+        item.setItemMeta(meta);
+        return item;
+    }
+}